@@ -1,15 +1,55 @@
 package com.arcsoft.face.spring.boot;
 
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import com.arcsoft.face.FaceEngine;
+import com.arcsoft.face.spring.boot.async.ArcFaceRecognitionAsyncTemplate;
+import com.arcsoft.face.spring.boot.async.ReactiveArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.cache.FaceFeatureCache;
+import com.arcsoft.face.spring.boot.compare.FaceFeatureLayoutVerifier;
+import com.arcsoft.face.spring.boot.decode.FaceImageDecoder;
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.metrics.ArcFaceMetrics;
+import com.arcsoft.face.spring.boot.metrics.FaceAdmissionMetrics;
+import com.arcsoft.face.spring.boot.metrics.FaceEnginePoolMetrics;
+import com.arcsoft.face.spring.boot.metrics.MicrometerArcFaceMetrics;
+import com.arcsoft.face.spring.boot.shard.FaceShard;
+import com.arcsoft.face.spring.boot.shard.LocalFaceShard;
+import com.arcsoft.face.spring.boot.shard.ShardedFaceGallery;
+import com.arcsoft.face.spring.boot.store.FaceFeatureStore;
+import com.arcsoft.face.spring.boot.store.MappedFaceFeatureStore;
+import com.arcsoft.face.spring.boot.stream.FaceStreamSessions;
 import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+import com.arcsoft.face.spring.boot.pool2.FaceEnginePoolHealthIndicator;
+import com.arcsoft.face.spring.boot.pool2.FaceEnginePoolWarmup;
+import com.arcsoft.face.spring.boot.pool2.FaceLivenessPools;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.worker.FaceEngineWorkers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
 
 @Configuration
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
 @ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "enabled", havingValue = "true")
 @EnableConfigurationProperties({ ArcFaceRecognitionProperties.class })
 public class ArcFaceRecognitionAutoConfiguration {
@@ -19,15 +59,222 @@ public class ArcFaceRecognitionAutoConfiguration {
 		return new FaceEngineFactory(properties);
 	}
 
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "liveness-pools.enabled", havingValue = "true")
+	public FaceLivenessPools faceLivenessPools(FaceEngineFactory faceEngineFactory, ArcFaceRecognitionProperties properties) {
+		return new FaceLivenessPools(faceEngineFactory, properties.getPool2(), properties.getLivenessPools());
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "close")
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "workers.enabled", havingValue = "true")
+	public FaceEngineWorkers faceEngineWorkers(FaceEngineFactory faceEngineFactory, ArcFaceRecognitionProperties properties,
+			ObjectProvider<ArcFaceMetrics> arcFaceMetricsProvider) {
+		// 工作线程各自独占引擎，不经过活体子池，两者同时开启时活体子池不会生效
+		if (properties.getLivenessPools().isEnabled()) {
+			throw new IllegalStateException(ArcFaceRecognitionProperties.PREFIX + ".workers.enabled and "
+					+ ArcFaceRecognitionProperties.PREFIX + ".liveness-pools.enabled cannot be enabled together");
+		}
+		FaceEngineWorkers faceEngineWorkers = new FaceEngineWorkers(faceEngineFactory, properties.getWorkers());
+		faceEngineWorkers.setMetrics(arcFaceMetricsProvider.getIfAvailable());
+		return faceEngineWorkers;
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "stream.enabled", havingValue = "true")
+	public FaceStreamSessions faceStreamSessions(FaceEngineFactory faceEngineFactory, ArcFaceRecognitionProperties properties) {
+		return new FaceStreamSessions(faceEngineFactory, properties);
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "gallery.enabled", havingValue = "true")
+	public FaceGallery faceGallery(ArcFaceRecognitionProperties properties, ObjectProvider<FaceFeatureStore> faceFeatureStoreProvider) {
+		FaceGallery faceGallery = new FaceGallery(properties.getGallery());
+		FaceFeatureStore faceFeatureStore = faceFeatureStoreProvider.getIfAvailable();
+		if (faceFeatureStore != null) {
+			faceGallery.setStore(faceFeatureStore);
+			faceGallery.load();
+		}
+		return faceGallery;
+	}
+
+	@Bean(initMethod = "verify")
+	public FaceFeatureLayoutVerifier faceFeatureLayoutVerifier(ObjectProvider<FaceGallery> faceGalleryProvider,
+			ObjectProvider<ShardedFaceGallery> shardedFaceGalleryProvider, ArcFaceRecognitionTemplate arcFaceRecognitionTemplate) {
+		// 单机人脸库与本机分片人脸库的各个分片都需要校验
+		List<FaceGallery> galleries = new ArrayList<FaceGallery>();
+		FaceGallery faceGallery = faceGalleryProvider.getIfAvailable();
+		if (faceGallery != null) {
+			galleries.add(faceGallery);
+		}
+		ShardedFaceGallery shardedFaceGallery = shardedFaceGalleryProvider.getIfAvailable();
+		if (shardedFaceGallery != null) {
+			for (FaceShard shard : shardedFaceGallery.getShards()) {
+				if (shard instanceof LocalFaceShard) {
+					galleries.add(((LocalFaceShard) shard).getGallery());
+				}
+			}
+		}
+		return new FaceFeatureLayoutVerifier(galleries, arcFaceRecognitionTemplate::compareFeatures);
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "shard.enabled", havingValue = "true")
+	public ShardedFaceGallery shardedFaceGallery(ArcFaceRecognitionProperties properties,
+			ObjectProvider<ArcFaceRecognitionTemplate> arcFaceRecognitionTemplateProvider,
+			ObjectProvider<FaceFeatureStore> faceFeatureStoreProvider) {
+		// 本机进程内分片，精确打分（SDK 比对）时延迟获取模板，避免与模板互相依赖
+		FaceFeatureComparator comparator = (probe, candidates) -> arcFaceRecognitionTemplateProvider.getObject()
+				.compareFeatures(probe, candidates);
+		ShardedFaceGallery shardedFaceGallery = ShardedFaceGallery.local(properties.getGallery(), properties.getShard(), comparator);
+		// 入库经分片人脸库写入存储，启动时按用户所在分片重放存储中的记录
+		FaceFeatureStore faceFeatureStore = faceFeatureStoreProvider.getIfAvailable();
+		if (faceFeatureStore != null) {
+			shardedFaceGallery.setStore(faceFeatureStore);
+			shardedFaceGallery.load();
+		}
+		return shardedFaceGallery;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "store.enabled", havingValue = "true")
+	public FaceFeatureStore faceFeatureStore(ArcFaceRecognitionProperties properties) throws IOException {
+		return new MappedFaceFeatureStore(properties.getStore());
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	@ConditionalOnMissingBean(name = "faceBatchExecutor")
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "batch.enabled", havingValue = "true")
+	public ExecutorService faceBatchExecutor(ArcFaceRecognitionProperties properties) {
+		int parallelism = Math.max(1, properties.getBatch().getParallelism());
+		// 有界队列，队列已满时拒绝提交，被拒绝的分块返回 OVERLOADED，不会在提交分块的解码线程或请求线程上执行检测
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(Math.max(1, properties.getBatch().getQueueCapacity())),
+				new ThreadFactoryBuilder().setNameFormat("arcface-batch-%d").setDaemon(true).build(),
+				new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "cache.enabled", havingValue = "true")
+	public FaceFeatureCache faceFeatureCache(ArcFaceRecognitionProperties properties) {
+		return new FaceFeatureCache(properties.getCache());
+	}
+
 	@Bean
-	public GenericObjectPool<FaceEngine> faceEngineObjectPool(FaceEngineFactory faceEngineFactory, ArcFaceRecognitionProperties properties) {
-		return new GenericObjectPool<FaceEngine>(faceEngineFactory, properties.getPool2());
+	public FaceImageDecoder faceImageDecoder(ArcFaceRecognitionProperties properties) {
+		return new FaceImageDecoder(properties.getDecode());
 	}
 
 	@Bean
 	public ArcFaceRecognitionTemplate arcFaceRecognitionTemplate(ArcFaceRecognitionProperties properties,
-			GenericObjectPool<FaceEngine> faceEngineObjectPool) {
-		return new ArcFaceRecognitionTemplate(properties, faceEngineObjectPool);
+			ObjectProvider<FaceRecognitionEnginePool> faceEngineObjectPoolProvider, ObjectProvider<FaceGallery> faceGalleryProvider,
+			@Qualifier("faceBatchExecutor") ObjectProvider<ExecutorService> faceBatchExecutorProvider, FaceImageDecoder faceImageDecoder,
+			ObjectProvider<FaceFeatureCache> faceFeatureCacheProvider, ObjectProvider<ArcFaceMetrics> arcFaceMetricsProvider,
+			ObjectProvider<FaceEngineWorkers> faceEngineWorkersProvider, ObjectProvider<FaceLivenessPools> faceLivenessPoolsProvider,
+			ObjectProvider<FaceStreamSessions> faceStreamSessionsProvider,
+			ObjectProvider<ShardedFaceGallery> shardedFaceGalleryProvider) {
+		// 启用工作线程时不创建引擎对象池
+		FaceRecognitionEnginePool faceEngineObjectPool = faceEngineObjectPoolProvider.getIfAvailable();
+		ArcFaceRecognitionTemplate template = new ArcFaceRecognitionTemplate(properties, faceEngineObjectPool);
+		template.setFaceGallery(faceGalleryProvider.getIfAvailable());
+		template.setBatchExecutor(faceBatchExecutorProvider.getIfAvailable());
+		template.setImageDecoder(faceImageDecoder);
+		template.setFeatureCache(faceFeatureCacheProvider.getIfAvailable());
+		template.setMetrics(arcFaceMetricsProvider.getIfAvailable());
+		template.setEngineWorkers(faceEngineWorkersProvider.getIfAvailable());
+		template.setLivenessPools(faceLivenessPoolsProvider.getIfAvailable());
+		template.setStreamSessions(faceStreamSessionsProvider.getIfAvailable());
+		template.setShardedGallery(shardedFaceGalleryProvider.getIfAvailable());
+		return template;
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "async.enabled", havingValue = "true")
+	public ArcFaceRecognitionAsyncTemplate arcFaceRecognitionAsyncTemplate(ArcFaceRecognitionTemplate arcFaceRecognitionTemplate,
+			ArcFaceRecognitionProperties properties) {
+		return new ArcFaceRecognitionAsyncTemplate(arcFaceRecognitionTemplate, properties.getAsync());
+	}
+
+	/*
+	 * 引擎对象池与预热，启用工作线程时由工作线程独占引擎，不再创建对象池
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "workers.enabled", havingValue = "false", matchIfMissing = true)
+	static class ArcFaceEnginePoolConfiguration {
+
+		@Bean
+		public FaceRecognitionEnginePool faceEngineObjectPool(FaceEngineFactory faceEngineFactory, ArcFaceRecognitionProperties properties) {
+			return new FaceRecognitionEnginePool(faceEngineFactory, properties.getPool2());
+		}
+
+		@Bean(initMethod = "start")
+		@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "warmup.enabled", havingValue = "true")
+		public FaceEnginePoolWarmup faceEnginePoolWarmup(FaceRecognitionEnginePool faceEngineObjectPool,
+				ArcFaceRecognitionProperties properties) {
+			return new FaceEnginePoolWarmup(faceEngineObjectPool, properties.getWarmup());
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Mono.class)
+	@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "async.enabled", havingValue = "true")
+	static class ArcFaceReactiveConfiguration {
+
+		@Bean
+		public ReactiveArcFaceRecognitionTemplate reactiveArcFaceRecognitionTemplate(
+				ArcFaceRecognitionAsyncTemplate arcFaceRecognitionAsyncTemplate) {
+			return new ReactiveArcFaceRecognitionTemplate(arcFaceRecognitionAsyncTemplate);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterRegistry.class)
+	@ConditionalOnBean(MeterRegistry.class)
+	static class ArcFaceMetricsConfiguration {
+
+		@Bean
+		public ArcFaceMetrics arcFaceMetrics(MeterRegistry meterRegistry) {
+			return new MicrometerArcFaceMetrics(meterRegistry);
+		}
+
+		@Bean
+		public FaceEnginePoolMetrics faceEnginePoolMetrics(ObjectProvider<FaceRecognitionEnginePool> faceEngineObjectPoolProvider,
+				ObjectProvider<FaceEngineWorkers> faceEngineWorkersProvider, ObjectProvider<FaceLivenessPools> faceLivenessPoolsProvider,
+				MeterRegistry meterRegistry) {
+			FaceEnginePoolMetrics poolMetrics = new FaceEnginePoolMetrics(faceEngineObjectPoolProvider.getIfAvailable(),
+					faceEngineWorkersProvider.getIfAvailable(), faceLivenessPoolsProvider.getIfAvailable());
+			poolMetrics.bindTo(meterRegistry);
+			return poolMetrics;
+		}
+
+		@Bean
+		public FaceAdmissionMetrics faceAdmissionMetrics(ArcFaceRecognitionTemplate arcFaceRecognitionTemplate,
+				ObjectProvider<ArcFaceRecognitionAsyncTemplate> arcFaceRecognitionAsyncTemplateProvider, MeterRegistry meterRegistry) {
+			FaceAdmissionMetrics admissionMetrics = new FaceAdmissionMetrics(arcFaceRecognitionTemplate.getAdmission(),
+					arcFaceRecognitionAsyncTemplateProvider.getIfAvailable());
+			admissionMetrics.bindTo(meterRegistry);
+			return admissionMetrics;
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(HealthIndicator.class)
+	static class ArcFaceHealthConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(name = "arcFaceEngineHealthIndicator")
+		@ConditionalOnProperty(prefix = ArcFaceRecognitionProperties.PREFIX, value = "workers.enabled", havingValue = "false", matchIfMissing = true)
+		public FaceEnginePoolHealthIndicator arcFaceEngineHealthIndicator(
+				FaceRecognitionEnginePool faceEngineObjectPool,
+				ObjectProvider<FaceEnginePoolWarmup> faceEnginePoolWarmupProvider) {
+			return new FaceEnginePoolHealthIndicator(faceEngineObjectPool, faceEnginePoolWarmupProvider.getIfAvailable());
+		}
+
 	}
 
 }
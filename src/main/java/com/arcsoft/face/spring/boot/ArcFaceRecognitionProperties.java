@@ -15,11 +15,32 @@
  */
 package com.arcsoft.face.spring.boot;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
 import com.arcsoft.face.EngineConfiguration;
-import com.arcsoft.face.FaceEngine;
+import com.arcsoft.face.spring.boot.admission.FaceAdmissionProperties;
+import com.arcsoft.face.spring.boot.async.FaceAsyncProperties;
+import com.arcsoft.face.spring.boot.batch.FaceBatchProperties;
+import com.arcsoft.face.spring.boot.cache.FaceFeatureCacheProperties;
+import com.arcsoft.face.spring.boot.compare.FaceCompareProperties;
+import com.arcsoft.face.spring.boot.decode.FaceImageDecodeProperties;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfile;
+import com.arcsoft.face.spring.boot.pool2.FaceEnginePoolWarmupProperties;
+import com.arcsoft.face.spring.boot.pool2.FaceLivenessPoolProperties;
+import com.arcsoft.face.spring.boot.select.FaceSelectionProperties;
+import com.arcsoft.face.spring.boot.shard.FaceShardProperties;
+import com.arcsoft.face.spring.boot.store.FaceFeatureStoreProperties;
+import com.arcsoft.face.spring.boot.stream.FaceStreamProperties;
+import com.arcsoft.face.spring.boot.worker.FaceEngineWorkerProperties;
 
 @ConfigurationProperties(ArcFaceRecognitionProperties.PREFIX)
 public class ArcFaceRecognitionProperties extends EngineConfiguration {
@@ -45,7 +66,91 @@ public class ArcFaceRecognitionProperties extends EngineConfiguration {
 	/**
 	 * 人脸识别引擎对象池配置
 	 */
-	private GenericObjectPoolConfig<FaceEngine> pool2 = new GenericObjectPoolConfig<FaceEngine>();
+	private GenericObjectPoolConfig<FaceRecognitionEngine> pool2 = new GenericObjectPoolConfig<FaceRecognitionEngine>();
+	/**
+	 * 引擎对象池预热配置
+	 */
+	@NestedConfigurationProperty
+	private FaceEnginePoolWarmupProperties warmup = new FaceEnginePoolWarmupProperties();
+	/**
+	 * 按活体控制级别划分的引擎子池配置
+	 */
+	@NestedConfigurationProperty
+	private FaceLivenessPoolProperties livenessPools = new FaceLivenessPoolProperties();
+	/**
+	 * 活体阈值配置，键为配置名称；low、normal、high 覆盖内置阈值，其它名称为自定义配置，调用时按名称选择
+	 */
+	private Map<String, FaceLivenessProfile> livenessProfiles = new LinkedHashMap<String, FaceLivenessProfile>();
+	/**
+	 * 引擎工作线程配置（替代对象池）
+	 */
+	@NestedConfigurationProperty
+	private FaceEngineWorkerProperties workers = new FaceEngineWorkerProperties();
+	/**
+	 * 异步接口配置
+	 */
+	@NestedConfigurationProperty
+	private FaceAsyncProperties async = new FaceAsyncProperties();
+	/**
+	 * 准入控制配置
+	 */
+	@NestedConfigurationProperty
+	private FaceAdmissionProperties admission = new FaceAdmissionProperties();
+	/**
+	 * 人脸库（1:N 检索）配置
+	 */
+	@NestedConfigurationProperty
+	private FaceGalleryProperties gallery = new FaceGalleryProperties();
+	/**
+	 * 人脸库分片配置
+	 */
+	@NestedConfigurationProperty
+	private FaceShardProperties shard = new FaceShardProperties();
+	/**
+	 * 人脸特征持久化存储配置
+	 */
+	@NestedConfigurationProperty
+	private FaceFeatureStoreProperties store = new FaceFeatureStoreProperties();
+	/**
+	 * 批量检测配置
+	 */
+	@NestedConfigurationProperty
+	private FaceBatchProperties batch = new FaceBatchProperties();
+	/**
+	 * 批量入库配置
+	 */
+	@NestedConfigurationProperty
+	private FaceEnrollmentProperties enrollment = new FaceEnrollmentProperties();
+	/**
+	 * 人脸选择配置
+	 */
+	@NestedConfigurationProperty
+	private FaceSelectionProperties selection = new FaceSelectionProperties();
+	/**
+	 * 视频流会话配置
+	 */
+	@NestedConfigurationProperty
+	private FaceStreamProperties stream = new FaceStreamProperties();
+	/**
+	 * 图片解码配置
+	 */
+	@NestedConfigurationProperty
+	private FaceImageDecodeProperties decode = new FaceImageDecodeProperties();
+	/**
+	 * 人脸特征缓存配置
+	 */
+	@NestedConfigurationProperty
+	private FaceFeatureCacheProperties cache = new FaceFeatureCacheProperties();
+	/**
+	 * 特征比对配置
+	 */
+	@NestedConfigurationProperty
+	private FaceCompareProperties compare = new FaceCompareProperties();
+	/**
+	 * 人脸识别引擎实现配置
+	 */
+	@NestedConfigurationProperty
+	private FaceEngineProperties engine = new FaceEngineProperties();
 	
 
 	public boolean isEnabled() {
@@ -80,12 +185,148 @@ public class ArcFaceRecognitionProperties extends EngineConfiguration {
 		this.libPath = libPath;
 	}
 
-	public GenericObjectPoolConfig<FaceEngine> getPool2() {
+	public GenericObjectPoolConfig<FaceRecognitionEngine> getPool2() {
 		return pool2;
 	}
 
-	public void setPool2(GenericObjectPoolConfig<FaceEngine> pool2) {
+	public void setPool2(GenericObjectPoolConfig<FaceRecognitionEngine> pool2) {
 		this.pool2 = pool2;
 	}
+
+	public FaceEnginePoolWarmupProperties getWarmup() {
+		return warmup;
+	}
+
+	public void setWarmup(FaceEnginePoolWarmupProperties warmup) {
+		this.warmup = warmup;
+	}
+
+	public Map<String, FaceLivenessProfile> getLivenessProfiles() {
+		return livenessProfiles;
+	}
+
+	public void setLivenessProfiles(Map<String, FaceLivenessProfile> livenessProfiles) {
+		this.livenessProfiles = livenessProfiles;
+	}
+
+	public FaceLivenessPoolProperties getLivenessPools() {
+		return livenessPools;
+	}
+
+	public void setLivenessPools(FaceLivenessPoolProperties livenessPools) {
+		this.livenessPools = livenessPools;
+	}
+
+	public FaceEngineWorkerProperties getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(FaceEngineWorkerProperties workers) {
+		this.workers = workers;
+	}
+
+	public FaceAsyncProperties getAsync() {
+		return async;
+	}
+
+	public void setAsync(FaceAsyncProperties async) {
+		this.async = async;
+	}
+
+	public FaceAdmissionProperties getAdmission() {
+		return admission;
+	}
+
+	public void setAdmission(FaceAdmissionProperties admission) {
+		this.admission = admission;
+	}
+
+	public FaceGalleryProperties getGallery() {
+		return gallery;
+	}
+
+	public void setGallery(FaceGalleryProperties gallery) {
+		this.gallery = gallery;
+	}
+
+	public FaceShardProperties getShard() {
+		return shard;
+	}
+
+	public void setShard(FaceShardProperties shard) {
+		this.shard = shard;
+	}
+
+	public FaceFeatureStoreProperties getStore() {
+		return store;
+	}
+
+	public void setStore(FaceFeatureStoreProperties store) {
+		this.store = store;
+	}
+
+	public FaceBatchProperties getBatch() {
+		return batch;
+	}
+
+	public void setBatch(FaceBatchProperties batch) {
+		this.batch = batch;
+	}
+
+	public FaceEnrollmentProperties getEnrollment() {
+		return enrollment;
+	}
+
+	public void setEnrollment(FaceEnrollmentProperties enrollment) {
+		this.enrollment = enrollment;
+	}
+
+	public FaceImageDecodeProperties getDecode() {
+		return decode;
+	}
+
+	public void setDecode(FaceImageDecodeProperties decode) {
+		this.decode = decode;
+	}
+
+	public FaceStreamProperties getStream() {
+		return stream;
+	}
+
+	public void setStream(FaceStreamProperties stream) {
+		this.stream = stream;
+	}
+
+	public FaceSelectionProperties getSelection() {
+		return selection;
+	}
+
+	public void setSelection(FaceSelectionProperties selection) {
+		this.selection = selection;
+	}
+
+	public FaceFeatureCacheProperties getCache() {
+		return cache;
+	}
+
+	public void setCache(FaceFeatureCacheProperties cache) {
+		this.cache = cache;
+	}
+
+	public FaceCompareProperties getCompare() {
+		return compare;
+	}
+
+	public void setCompare(FaceCompareProperties compare) {
+		this.compare = compare;
+	}
+
+	public FaceEngineProperties getEngine() {
+		return engine;
+	}
+
+	public void setEngine(FaceEngineProperties engine) {
+		this.engine = engine;
+	}
 	
 }
@@ -1,893 +1,2363 @@
-/*
- * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
- *
- * Licensed under the Apache License, Version 2.0 (the "License"); you may not
- * use this file except in compliance with the License. You may obtain a copy of
- * the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
- * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
- * License for the specific language governing permissions and limitations under
- * the License.
- */
-package com.arcsoft.face.spring.boot;
-
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.List;
-
-import org.apache.commons.pool2.impl.GenericObjectPool;
-import org.springframework.context.support.MessageSourceAccessor;
-import org.springframework.util.CollectionUtils;
-
-import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
-import com.arcsoft.face.AgeInfo;
-import com.arcsoft.face.Face3DAngle;
-import com.arcsoft.face.FaceEngine;
-import com.arcsoft.face.FaceFeature;
-import com.arcsoft.face.FaceInfo;
-import com.arcsoft.face.FaceSimilar;
-import com.arcsoft.face.FunctionConfiguration;
-import com.arcsoft.face.GenderInfo;
-import com.arcsoft.face.IrLivenessInfo;
-import com.arcsoft.face.LivenessInfo;
-import com.arcsoft.face.enums.ErrorInfo;
-import com.arcsoft.face.toolkit.ImageFactory;
-import com.arcsoft.face.toolkit.ImageInfo;
-import com.google.common.collect.Lists;
-
-/*
- * 基于虹软Arcface实现的人脸识别通用模板对象
- * @author ： <a href="https://github.com/hiwepy">wandl</a>
- */
-public class ArcFaceRecognitionTemplate {
-
-	protected MessageSourceAccessor messages = ArcFaceMessageSource.getAccessor();
-	private ArcFaceRecognitionProperties properties;
-	private GenericObjectPool<FaceEngine> faceEngineObjectPool;
-	
-	public ArcFaceRecognitionTemplate(ArcFaceRecognitionProperties properties,
-			GenericObjectPool<FaceEngine> faceEngineObjectPool) {
-		this.properties = properties;
-		this.faceEngineObjectPool = faceEngineObjectPool;
-	}
-	
-	protected String getMessage(int code) {
-		return messages.getMessage("K" + code);
-	}
-	
-	/*
-	 * 不同的控制度下所对应的活体控制阈值，如果检测出来的活体分数小于控制阈值，则会返回错误信息。 LOW 0.05 NORMAL 0.3 HIGH 0.9
-	 */
-	protected int setLivenessParam(FaceEngine faceEngine, FaceLiveness liveness, JSONObject result) {
-		switch (liveness) {
-			case LOW: {
-				// 设置活体检测参数
-				return faceEngine.setLivenessParam(0.05f, 0.05f);
-			}
-			case NORMAL: {
-				// 设置活体检测参数
-				return faceEngine.setLivenessParam(0.3f, 0.3f);
-			}
-			case HIGH: {
-				// 设置活体检测参数
-				return faceEngine.setLivenessParam(0.9f, 0.9f);
-			}
-			default: {
-				return 0;
-			}
-		}
-	}
-
-	/*
-	 * RGB活体、年龄、性别、三维角度检测
-	 * 
-	 * @param imageBytes 输入的图像数据
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @return
-	 */
-	public JSONObject detect(byte[] imageBytes) {
-		return detect(ImageFactory.getRGBData(imageBytes), FaceLiveness.NONE);
-	}
-
-	/*
-	 * RGB活体、年龄、性别、三维角度检测
-	 * 
-	 * @param imageBytes 输入的图像数据
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @return
-	 */
-	public JSONObject detect(byte[] imageBytes, FaceLiveness liveness) {
-		return detect(ImageFactory.getRGBData(imageBytes), liveness);
-	}
-
-	/*
-	 * RGB活体、年龄、性别、三维角度检测
-	 * 
-	 * @param imageBytes 输入的图像数据
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @return
-	 */
-	public JSONObject detect(ImageInfo imageInfo) {
-		return detect(imageInfo, FaceLiveness.NONE);
-	}
-
-	/*
-	 * RGB活体、年龄、性别、三维角度检测
-	 * 
-	 * @param imageInfo 输入的图像信息
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @return
-	 */
-	public JSONObject detect(ImageInfo imageInfo, FaceLiveness liveness) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 设置活体检测参数
-			int paramCode = this.setLivenessParam(faceEngine, liveness, result);
-			if (ErrorInfo.getValidEnum(paramCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", paramCode);
-				result.put("error_msg", this.getMessage(paramCode));
-			}
-			
-			// 人脸检测得到人脸列表
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			// 人脸检测
-			int detectCode = faceEngine.detectFaces(imageInfo.getImageData(), imageInfo.getWidth(),
-					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			// 没有检测到人脸
-			if(CollectionUtils.isEmpty(faceInfoList)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-			
-			// 人脸属性检测
-	        FunctionConfiguration configuration = FunctionConfiguration.builder()
-	        		.supportAge(properties.getFunctionConfiguration().isSupportAge())
-	        		.supportFace3dAngle(properties.getFunctionConfiguration().isSupportFace3dAngle())
-	        		//.supportFaceDetect(properties.getFunctionConfiguration().isSupportFaceDetect())
-	        		.supportGender(properties.getFunctionConfiguration().isSupportGender())
-	        		.supportLiveness(properties.getFunctionConfiguration().isSupportLiveness()).build();
-			int processCode = faceEngine.process(imageInfo.getImageData(), imageInfo.getWidth(), imageInfo.getHeight(),
-					imageInfo.getImageFormat(), faceInfoList, configuration);
-			if (ErrorInfo.getValidEnum(processCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", processCode);
-				result.put("error_msg", this.getMessage(processCode));
-				return result;
-			}
-			List<LivenessInfo> livenessInfoList = Lists.newLinkedList();
-			List<AgeInfo> ageInfoList = new ArrayList<AgeInfo>();
-			List<GenderInfo> genderInfoList = new ArrayList<GenderInfo>();
-			List<Face3DAngle> face3DAngleList = Lists.newLinkedList();
-
-			// RGB活体检测
-			int livenessCode = faceEngine.getLiveness(livenessInfoList);
-			if (ErrorInfo.getValidEnum(livenessCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", livenessCode);
-				result.put("error_msg", this.getMessage(livenessCode));
-				return result;
-			}
-			// 年龄检测
-			int ageCode = faceEngine.getAge(ageInfoList);
-			if (ErrorInfo.getValidEnum(ageCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", ageCode);
-				result.put("error_msg", this.getMessage(ageCode));
-				return result;
-			}
-			// 性别检测
-			int genderCode = faceEngine.getGender(genderInfoList);
-			if (ErrorInfo.getValidEnum(genderCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", genderCode);
-				result.put("error_msg", this.getMessage(genderCode));
-				return result;
-			}
-			// 三维角度检测
-			int angleCode = faceEngine.getFace3DAngle(face3DAngleList);
-			if (ErrorInfo.getValidEnum(angleCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", angleCode);
-				result.put("error_msg", this.getMessage(angleCode));
-				return result;
-			}
-
-			// 检测到的图片中的人脸数量
-			result.put("face_num", faceInfoList.size());
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			// 人脸识别结果数据
-			for (int index = 0; index < faceInfoList.size(); index++) {
-
-				FaceInfo faceInfo = faceInfoList.get(index);
-
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				// 人脸角度
-				face.put("orient", faceInfo.getOrient());
-				// 人脸在图片中的位置
-				face.put("location", faceInfo.getRect());
-				// 性别，，未知性别=-1 、男性=0 、女性=1
-				face.put("gender", genderInfoList.get(index).getGender());
-				// 年龄，若为0表示检测失败
-				face.put("age", ageInfoList.get(index).getAge());
-				// RGB活体信息
-				face.put("liveness", livenessInfoList.get(index).getLiveness());
-				// 人脸三维角度信息
-				face.put("angel", face3DAngleList.get(index));
-
-				// 特征提取
-				FaceFeature faceFeature = new FaceFeature();
-				int extractCode = faceEngine.extractFaceFeature(imageInfo.getImageData(), imageInfo.getWidth(),
-						imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfo, faceFeature);
-				if (ErrorInfo.getValidEnum(extractCode).compareTo(ErrorInfo.MERR_NONE) == 0) {
-					// 人脸特征数据
-					face.put("feature", Base64.getEncoder().encodeToString(faceFeature.getFeatureData()));
-				}
-				
-				face_list.add(index, face);
-			}
-			
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "");
-		} finally {
-			if (faceEngine != null) {
-				// 释放引擎对象
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-		return null;
-	}
-
-	/*
-	 * IR活体、年龄、性别、三维角度检测
-	 * 
-	 * @param imageBytes 输入的图像数据
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @return
-	 */
-	public JSONObject irDetect(byte[] imageBytes, FaceLiveness liveness) {
-		return irDetect(ImageFactory.getGrayData(imageBytes), liveness);
-	}
-
-	/*
-	 * IR活体、年龄、性别、三维角度检测
-	 * 
-	 * @param imageInfo 输入的图像信息
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @return
-	 */
-	public JSONObject irDetect(ImageInfo imageInfo, FaceLiveness liveness) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 设置活体检测参数
-			int paramCode = this.setLivenessParam(faceEngine, liveness, result);
-			if (ErrorInfo.getValidEnum(paramCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", paramCode);
-				result.put("error_msg", this.getMessage(paramCode));
-			}
-
-			// 人脸检测得到人脸列表
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			// 人脸检测
-			int detectCode = faceEngine.detectFaces(imageInfo.getImageData(), imageInfo.getWidth(),
-					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			// 没有检测到人脸
-			if(CollectionUtils.isEmpty(faceInfoList)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-
-			// 人脸属性检测
-	        FunctionConfiguration configuration = FunctionConfiguration.builder()
-	        		.supportAge(properties.getFunctionConfiguration().isSupportAge())
-	        		.supportFace3dAngle(properties.getFunctionConfiguration().isSupportFace3dAngle())
-	        		//.supportFaceDetect(properties.getFunctionConfiguration().isSupportFaceDetect())
-	        		.supportGender(properties.getFunctionConfiguration().isSupportGender())
-	        		.supportIRLiveness(properties.getFunctionConfiguration().isSupportIRLiveness()).build();
-			int processCode = faceEngine.processIr(imageInfo.getImageData(), imageInfo.getWidth(),
-					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList, configuration);
-			if (ErrorInfo.getValidEnum(processCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", processCode);
-				result.put("error_msg", this.getMessage(processCode));
-				return result;
-			}
-
-			List<IrLivenessInfo> livenessInfoList = Lists.newLinkedList();
-			List<AgeInfo> ageInfoList = new ArrayList<AgeInfo>();
-			List<GenderInfo> genderInfoList = new ArrayList<GenderInfo>();
-			List<Face3DAngle> face3DAngleList = Lists.newLinkedList();
-
-			// IR活体检测
-			int livenessCode = faceEngine.getLivenessIr(livenessInfoList);
-			if (ErrorInfo.getValidEnum(livenessCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", livenessCode);
-				result.put("error_msg", this.getMessage(livenessCode));
-				return result;
-			}
-			// 年龄检测
-			int ageCode = faceEngine.getAge(ageInfoList);
-			if (ErrorInfo.getValidEnum(ageCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", ageCode);
-				result.put("error_msg", this.getMessage(ageCode));
-				return result;
-			}
-			// 性别检测
-			int genderCode = faceEngine.getGender(genderInfoList);
-			if (ErrorInfo.getValidEnum(genderCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", genderCode);
-				result.put("error_msg", this.getMessage(genderCode));
-				return result;
-			}
-			// 三维角度检测
-			int angleCode = faceEngine.getFace3DAngle(face3DAngleList);
-			if (ErrorInfo.getValidEnum(angleCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", angleCode);
-				result.put("error_msg", this.getMessage(angleCode));
-				return result;
-			}
-			
-			// 检测到的图片中的人脸数量
-			result.put("face_num", faceInfoList.size());
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			// 人脸识别结果数据
-			for (int index = 0; index < faceInfoList.size(); index++) {
-
-				FaceInfo faceInfo = faceInfoList.get(index);
-
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				// 人脸角度
-				face.put("orient", faceInfo.getOrient());
-				// 人脸在图片中的位置
-				face.put("location", faceInfo.getRect());
-				// 性别，，未知性别=-1 、男性=0 、女性=1
-				face.put("gender", genderInfoList.get(index).getGender());
-				// 年龄，若为0表示检测失败
-				face.put("age", ageInfoList.get(index).getAge());
-				// RGB活体信息
-				face.put("liveness", livenessInfoList.get(index).getLiveness());
-				// 人脸三维角度信息
-				face.put("angel", face3DAngleList.get(index));
-
-				// 特征提取
-				FaceFeature faceFeature = new FaceFeature();
-				int extractCode = faceEngine.extractFaceFeature(imageInfo.getImageData(), imageInfo.getWidth(),
-						imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfo, faceFeature);
-				if (ErrorInfo.getValidEnum(extractCode).compareTo(ErrorInfo.MERR_NONE) == 0) {
-					// 人脸特征数据
-					face.put("feature", Base64.getEncoder().encodeToString(faceFeature.getFeatureData()));
-				}
-				
-				face_list.add(index, face);
-				
-			}
-
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "");
-		} finally {
-			if (faceEngine != null) {
-				// 释放引擎对象
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-		return null;
-	}
-
-	public JSONObject match(ImageInfo sourceImage, byte[] feature, FaceLiveness liveness) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 设置活体检测参数
-			int paramCode = this.setLivenessParam(faceEngine, liveness, result);
-			if (ErrorInfo.getValidEnum(paramCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", paramCode);
-				result.put("error_msg", this.getMessage(paramCode));
-			}
-
-			// 人脸检测得到人脸列表
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			// 人脸检测
-			int detectCode = faceEngine.detectFaces(sourceImage.getImageData(), sourceImage.getWidth(),
-					sourceImage.getHeight(), sourceImage.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			if(CollectionUtils.isEmpty(faceInfoList)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-			
-			// 特征提取
-			FaceFeature sourceFaceFeature = new FaceFeature();
-			int extractCode = faceEngine.extractFaceFeature(sourceImage.getImageData(), sourceImage.getWidth(),
-					sourceImage.getHeight(), sourceImage.getImageFormat(), faceInfoList.get(0), sourceFaceFeature);
-			if (ErrorInfo.getValidEnum(extractCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", extractCode);
-				result.put("error_msg", this.getMessage(extractCode));
-				return result;
-			}
-
-			// 特征比对
-			FaceFeature targetFaceFeature = new FaceFeature();
-			targetFaceFeature.setFeatureData(feature);
-			
-			FaceSimilar faceSimilar = new FaceSimilar();
-
-			int compareCode = faceEngine.compareFaceFeature(targetFaceFeature, sourceFaceFeature, faceSimilar);
-			if (ErrorInfo.getValidEnum(compareCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", compareCode);
-				result.put("error_msg", this.getMessage(compareCode));
-				return result;
-			}
-
-			// 特征相似值
-			result.put("score", faceSimilar.getScore());
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			for (int index = 0; index < faceInfoList.size(); index++) {
-				FaceInfo faceInfo = faceInfoList.get(index);
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				
-				face_list.add(index, face);
-			}
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "");
-			return result;
-		} finally {
-			if (faceEngine != null) {
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-	}
-	
-	public JSONObject match(byte[] sourceImage, byte[] targetImage, FaceLiveness liveness) {
-		return match(ImageFactory.getRGBData(sourceImage), ImageFactory.getRGBData(targetImage), liveness);
-	}
-	
-	public JSONObject match(ImageInfo sourceImage, ImageInfo targetImage, FaceLiveness liveness) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 设置活体检测参数
-			int paramCode = this.setLivenessParam(faceEngine, liveness, result);
-			if (ErrorInfo.getValidEnum(paramCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", paramCode);
-				result.put("error_msg", this.getMessage(paramCode));
-			}
-
-			// 人脸检测
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			int detectCode = faceEngine.detectFaces(sourceImage.getImageData(), sourceImage.getWidth(),
-					sourceImage.getHeight(), sourceImage.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			// 没有检测到人脸
-			if(CollectionUtils.isEmpty(faceInfoList)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-			
-			// 人脸检测
-			List<FaceInfo> faceInfoList2 = new ArrayList<FaceInfo>();
-			int detectCode2 = faceEngine.detectFaces(targetImage.getImageData(), targetImage.getWidth(),
-					targetImage.getHeight(), targetImage.getImageFormat(), faceInfoList2);
-			if (ErrorInfo.getValidEnum(detectCode2).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode2);
-				result.put("error_msg", this.getMessage(detectCode2));
-				return result;
-			}
-			
-			// 没有检测到人脸
-			if(CollectionUtils.isEmpty(faceInfoList2)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-			
-			// 源图片特征提取
-			FaceFeature sourceFaceFeature = new FaceFeature();
-			int extractCode = faceEngine.extractFaceFeature(sourceImage.getImageData(), sourceImage.getWidth(),
-					sourceImage.getHeight(), sourceImage.getImageFormat(), faceInfoList.get(0), sourceFaceFeature);
-			if (ErrorInfo.getValidEnum(extractCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", extractCode);
-				result.put("error_msg",  this.getMessage(extractCode));
-				return result;
-			}
-			// 目标图片特征提取
-			FaceFeature targetFaceFeature = new FaceFeature();
-			int extractCode2 = faceEngine.extractFaceFeature(targetImage.getImageData(), targetImage.getWidth(),
-					targetImage.getHeight(), targetImage.getImageFormat(), faceInfoList2.get(0), targetFaceFeature);
-			if (ErrorInfo.getValidEnum(extractCode2).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", extractCode2);
-				result.put("error_msg",  this.getMessage(extractCode2));
-				return result;
-			}
-
-			FaceSimilar faceSimilar = new FaceSimilar();
-
-			int compareCode = faceEngine.compareFaceFeature(targetFaceFeature, sourceFaceFeature, faceSimilar);
-			if (ErrorInfo.getValidEnum(compareCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", compareCode);
-				result.put("error_msg", this.getMessage(compareCode));
-				return result;
-			}
-
-			// 特征相似值
-			result.put("score", faceSimilar.getScore());
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			for (int index = 0; index < faceInfoList.size(); index++) {
-				FaceInfo faceInfo = faceInfoList.get(index);
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				
-				face_list.add(index, face);
-			}
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "");
-			return result;
-		} finally {
-			if (faceEngine != null) {
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-	}
-	
-	public JSONObject irSearch(byte[] sourceImage, byte[] searchImage) {
-		return search(ImageFactory.getGrayData(sourceImage), ImageFactory.getGrayData(searchImage));
-	}
-	
-	public JSONObject search(byte[] sourceImage, byte[] searchImage) {
-		return search(ImageFactory.getRGBData(sourceImage), ImageFactory.getRGBData(searchImage));
-	}
-	
-	public JSONObject search(ImageInfo sourceImage, ImageInfo searchImage) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 人脸检测
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			int detectCode = faceEngine.detectFaces(sourceImage.getImageData(), sourceImage.getWidth(),
-					sourceImage.getHeight(), sourceImage.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			// 人脸检测
-			List<FaceInfo> searchFaceInfoList = new ArrayList<FaceInfo>();
-			int detectCode2 = faceEngine.detectFaces(searchImage.getImageData(), searchImage.getWidth(),
-					searchImage.getHeight(), searchImage.getImageFormat(), searchFaceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode2).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode2);
-				result.put("error_msg", this.getMessage(detectCode2));
-				return result;
-			}
-			
-			// 源图片特征提取
-			FaceFeature sourceFaceFeature = new FaceFeature();
-			int extractCode = faceEngine.extractFaceFeature(sourceImage.getImageData(), sourceImage.getWidth(),
-					sourceImage.getHeight(), sourceImage.getImageFormat(), faceInfoList.get(0), sourceFaceFeature);
-			if (ErrorInfo.getValidEnum(extractCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", extractCode);
-				result.put("error_msg", this.getMessage(extractCode));
-				return result;
-			}
-			
-			/*
-			 * 从待检测图片中查找出指定特征的人脸
-			 */
-
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			for (int index = 0; index < searchFaceInfoList.size(); index++) {
-				
-				FaceInfo faceInfo = searchFaceInfoList.get(index);
-				
-				// 待检索图片特征提取
-				FaceFeature targetFaceFeature = new FaceFeature();
-				int extractCode2 = faceEngine.extractFaceFeature(searchImage.getImageData(), searchImage.getWidth(),
-						searchImage.getHeight(), searchImage.getImageFormat(), faceInfo, targetFaceFeature);
-				if (ErrorInfo.getValidEnum(extractCode2).compareTo(ErrorInfo.MERR_NONE) != 0) {
-					result.put("error_code", extractCode2);
-					result.put("error_msg", this.getMessage(extractCode2));
-					return result;
-				}
-				
-				FaceSimilar faceSimilar = new FaceSimilar();
-
-				int compareCode = faceEngine.compareFaceFeature(targetFaceFeature, sourceFaceFeature, faceSimilar);
-				if (ErrorInfo.getValidEnum(compareCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-					result.put("error_code", compareCode);
-					result.put("error_msg", this.getMessage(compareCode));
-					return result;
-				}
-				
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				// 特征相似值
-				face.put("score", faceSimilar.getScore());
-				
-				face_list.add(index, face);
-				
-			}
-			
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "服务端异常");
-			return result;
-		} finally {
-			if (faceEngine != null) {
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-	}
-
-	public JSONObject verify(byte[] imageBytes, FaceLiveness liveness) {
-		return verify(ImageFactory.getRGBData(imageBytes), liveness);
-	}
-
-	public JSONObject verify(ImageInfo imageInfo, FaceLiveness liveness) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 设置活体检测参数
-			int paramCode = this.setLivenessParam(faceEngine, liveness, result);
-			if (ErrorInfo.getValidEnum(paramCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", paramCode);
-				result.put("error_msg", this.getMessage(paramCode));
-			}
-
-			// 人脸检测得到人脸列表
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			// IR属性处理
-			int detectCode = faceEngine.detectFaces(imageInfo.getImageData(), imageInfo.getWidth(),
-					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			// 没有检测到人脸
-			if(CollectionUtils.isEmpty(faceInfoList)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-
-			// 活体检测
-	        FunctionConfiguration configuration = FunctionConfiguration.builder()
-	        		//.supportFaceDetect(properties.getFunctionConfiguration().isSupportFaceDetect())
-	        		.supportLiveness(properties.getFunctionConfiguration().isSupportLiveness()).build();
-			int processCode = faceEngine.process(imageInfo.getImageData(), imageInfo.getWidth(), imageInfo.getHeight(),
-					imageInfo.getImageFormat(), faceInfoList, configuration);
-			if (ErrorInfo.getValidEnum(processCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", processCode);
-				result.put("error_msg", this.getMessage(processCode));
-				return result;
-			}
-
-			// 活体检测
-			List<LivenessInfo> livenessList = new ArrayList<>();
-			int livenessCode = faceEngine.getLiveness(livenessList);
-			if (ErrorInfo.getValidEnum(livenessCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", livenessCode);
-				result.put("error_msg", this.getMessage(livenessCode));
-				return result;
-			}
-
-			// 人脸识别结果数据
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			for (int index = 0; index < faceInfoList.size(); index++) {
-				FaceInfo faceInfo = faceInfoList.get(index);
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				face.put("liveness", livenessList.get(index).getLiveness());
-				face_list.add(index, face);
-			}
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "");
-			return result;
-		} finally {
-			if (faceEngine != null) {
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-	}
-
-	public JSONObject irVerify(byte[] imageBytes, FaceLiveness liveness) {
-		return irVerify(ImageFactory.getGrayData(imageBytes), liveness);
-	}
-
-	/*
-	 * IR活体检测
-	 * 
-	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
-	 * @param imageInfo 图片信息(总数据大小应小于10M)，图片上传方式根据image_type来判断
-	 * @param option    场景信息，程序会视不同的场景选用相对应的模型。当前支持的场景有COMMON(通用场景)，GATE(闸机场景)，默认使用COMMON
-	 * @return
-	 */
-	public JSONObject irVerify(ImageInfo imageInfo, FaceLiveness liveness) {
-
-		JSONObject result = new JSONObject();
-		FaceEngine faceEngine = null;
-		try {
-
-			// 获取引擎对象
-			faceEngine = faceEngineObjectPool.borrowObject();
-
-			// 设置活体检测参数
-			int paramCode = this.setLivenessParam(faceEngine, liveness, result);
-			if (ErrorInfo.getValidEnum(paramCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", paramCode);
-				result.put("error_msg", this.getMessage(paramCode));
-			}
-
-			// 人脸检测得到人脸列表
-			List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
-			// IR属性处理
-			int detectCode = faceEngine.detectFaces(imageInfo.getImageData(), imageInfo.getWidth(),
-					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList);
-			if (ErrorInfo.getValidEnum(detectCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", detectCode);
-				result.put("error_msg", this.getMessage(detectCode));
-				return result;
-			}
-			
-			// 没有检测到人脸
-			if(CollectionUtils.isEmpty(faceInfoList)) {
-				result.put("error_code", ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue());
-				result.put("error_msg", this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
-				return result;
-			}
-
-			// 人脸属性检测
-	        FunctionConfiguration configuration = FunctionConfiguration.builder()
-	        		//.supportFaceDetect(properties.getFunctionConfiguration().isSupportFaceDetect())
-	        		.supportIRLiveness(properties.getFunctionConfiguration().isSupportIRLiveness()).build();
-			int processCode = faceEngine.processIr(imageInfo.getImageData(), imageInfo.getWidth(),
-					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList, configuration);
-			if (ErrorInfo.getValidEnum(processCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", processCode);
-				result.put("error_msg", this.getMessage(processCode));
-				return result;
-			}
-
-			// IR活体检测
-			List<IrLivenessInfo> irLivenessList = new ArrayList<>();
-			int livenessIrCode = faceEngine.getLivenessIr(irLivenessList);
-			if (ErrorInfo.getValidEnum(livenessIrCode).compareTo(ErrorInfo.MERR_NONE) != 0) {
-				result.put("error_code", livenessIrCode);
-				result.put("error_msg", this.getMessage(livenessIrCode));
-				return result;
-			}
-
-			// 人脸识别结果数据
-			JSONArray face_list = new JSONArray(faceInfoList.size());
-			for (int index = 0; index < faceInfoList.size(); index++) {
-				FaceInfo faceInfo = faceInfoList.get(index);
-				JSONObject face = new JSONObject();
-				// 人脸图片的唯一标识，IMAGE模式下不返回faceId
-				face.put("face_token", faceInfo.getFaceId());
-				face.put("liveness", irLivenessList.get(index).getLiveness());
-				face_list.add(index, face);
-			}
-			result.put("face_list", face_list);
-			result.put("error_code", 0);
-			
-			return result;
-		} catch (Exception e) {
-			e.printStackTrace();
-			result.put("error_code", 500);
-			result.put("error_msg", "");
-			return result;
-		} finally {
-			if (faceEngine != null) {
-				faceEngineObjectPool.returnObject(faceEngine);
-			}
-		}
-	}
-	
-	public ArcFaceRecognitionProperties getProperties() {
-		return properties;
-	}
-
-}
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.util.CollectionUtils;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.arcsoft.face.AgeInfo;
+import com.arcsoft.face.Face3DAngle;
+import com.arcsoft.face.FaceEngine;
+import com.arcsoft.face.FaceFeature;
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.FaceSimilar;
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.GenderInfo;
+import com.arcsoft.face.IrLivenessInfo;
+import com.arcsoft.face.LivenessInfo;
+import com.arcsoft.face.enums.ErrorInfo;
+import com.arcsoft.face.spring.boot.admission.FaceEngineAdmission;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException;
+import com.arcsoft.face.spring.boot.batch.FaceBatchProperties;
+import com.arcsoft.face.spring.boot.cache.CachedFeature;
+import com.arcsoft.face.spring.boot.cache.FaceFeatureCache;
+import com.arcsoft.face.spring.boot.compare.CosineFeatureComparator;
+import com.arcsoft.face.spring.boot.compare.FaceAssignment;
+import com.arcsoft.face.spring.boot.compare.FaceCompareProperties;
+import com.arcsoft.face.spring.boot.compare.FaceSimilarityMatrix;
+import com.arcsoft.face.spring.boot.decode.DecodedImage;
+import com.arcsoft.face.spring.boot.decode.FaceImageDecoder;
+import com.arcsoft.face.spring.boot.decode.FaceImageScaler;
+import com.arcsoft.face.spring.boot.decode.ScaledImageInfo;
+import com.arcsoft.face.spring.boot.engine.ArcSoftFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.engine.FaceEngineCallback;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentJob;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentListener;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentProgress;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentProperties;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentSource;
+import com.arcsoft.face.spring.boot.enroll.FaceEnrollmentSources;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfile;
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfiles;
+import com.arcsoft.face.spring.boot.metrics.ArcFaceMetrics;
+import com.arcsoft.face.spring.boot.metrics.ArcFaceMetrics.Stage;
+import com.arcsoft.face.spring.boot.pool2.FaceLivenessPools;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.result.ArcFaceResult;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.FacePair;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+import com.arcsoft.face.spring.boot.result.MatchResult;
+import com.arcsoft.face.spring.boot.select.FaceSelector;
+import com.arcsoft.face.spring.boot.shard.ShardedFaceGallery;
+import com.arcsoft.face.spring.boot.store.FaceFeatureStore;
+import com.arcsoft.face.spring.boot.stream.FaceFrameProcessor;
+import com.arcsoft.face.spring.boot.stream.FaceStreamSession;
+import com.arcsoft.face.spring.boot.stream.FaceStreamSessions;
+import com.arcsoft.face.spring.boot.worker.FaceEngineWorkers;
+import com.arcsoft.face.toolkit.ImageFactory;
+import com.arcsoft.face.toolkit.ImageInfo;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/*
+ * 基于虹软Arcface实现的人脸识别通用模板对象
+ * <p>
+ * 每个操作都提供两套接口：返回 {@link DetectResult} / {@link MatchResult} 的类型化接口（原始类型字段、原始特征字节），
+ * 以及返回 JSONObject 的兼容接口；JSON 仅在兼容接口中由类型化结果转换生成。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ArcFaceRecognitionTemplate {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ArcFaceRecognitionTemplate.class);
+
+	protected MessageSourceAccessor messages = ArcFaceMessageSource.getAccessor();
+	private ArcFaceRecognitionProperties properties;
+	private GenericObjectPool<FaceRecognitionEngine> faceEngineObjectPool;
+	private FaceGallery faceGallery;
+	/**
+	 * 分片人脸库，设置后 1:N 检索改为在全部分片上检索
+	 */
+	private ShardedFaceGallery shardedGallery;
+	private ExecutorService batchExecutor;
+	private FaceImageDecoder imageDecoder;
+	/**
+	 * 引擎前置图像缩放，处理调用方直接传入或由 SDK 解码的图像；解码器输出的图像已在解码阶段缩放
+	 */
+	private FaceImageScaler imageScaler;
+	private FaceFeatureCache featureCache;
+	private ArcFaceMetrics metrics = ArcFaceMetrics.NONE;
+	private FaceEngineWorkers engineWorkers;
+	private FaceEngineAdmission admission;
+	private FaceLivenessPools livenessPools;
+	private FaceLivenessProfiles livenessProfiles;
+	private FaceSelector faceSelector;
+	private FaceStreamSessions streamSessions;
+
+	public ArcFaceRecognitionTemplate(ArcFaceRecognitionProperties properties,
+			FaceRecognitionEnginePool faceEngineObjectPool) {
+		this.properties = properties;
+		this.faceEngineObjectPool = faceEngineObjectPool;
+		this.admission = new FaceEngineAdmission(properties.getAdmission());
+		this.livenessProfiles = new FaceLivenessProfiles(properties.getLivenessProfiles());
+		this.faceSelector = new FaceSelector(properties.getSelection());
+		this.imageScaler = new FaceImageScaler(properties.getDecode());
+	}
+
+	/*
+	 * 兼容旧版本的构造方法，FaceEngine 对象池经 {@link FaceRecognitionEnginePool#adapt(GenericObjectPool)} 适配后使用
+	 *
+	 * @deprecated 使用 {@link #ArcFaceRecognitionTemplate(ArcFaceRecognitionProperties, FaceRecognitionEnginePool)}
+	 */
+	@Deprecated
+	public ArcFaceRecognitionTemplate(ArcFaceRecognitionProperties properties,
+			GenericObjectPool<FaceEngine> faceEngineObjectPool) {
+		this(properties, FaceRecognitionEnginePool.adapt(faceEngineObjectPool));
+	}
+
+	protected String getMessage(int code) {
+		return messages.getMessage("K" + code);
+	}
+
+	/*
+	 * 在准入限制下从对象池借出引擎，并记录等待耗时
+	 */
+	protected FaceRecognitionEngine borrowEngine() throws Exception {
+		return this.borrowEngine(faceEngineObjectPool);
+	}
+
+	protected FaceRecognitionEngine borrowEngine(GenericObjectPool<FaceRecognitionEngine> pool) throws Exception {
+		long start = System.nanoTime();
+		try {
+			return admission.borrow(pool);
+		} finally {
+			metrics.record(Stage.BORROW, System.nanoTime() - start);
+		}
+	}
+
+	/*
+	 * 归还引擎到对象池
+	 */
+	protected void returnEngine(FaceRecognitionEngine faceEngine) {
+		faceEngineObjectPool.returnObject(faceEngine);
+	}
+
+	/*
+	 * 使用一个引擎对象执行操作：启用工作线程时投递到工作线程执行（此时没有引擎对象池），否则从对象池借出引擎并在操作结束后归还；
+	 * 超出准入限制时抛出 FaceOverloadedException 并按原因计数
+	 */
+	protected <T> T execute(FaceEngineCallback<T> callback) throws Exception {
+		return this.execute(livenessProfiles.get(FaceLiveness.NONE), callback);
+	}
+
+	/*
+	 * 同上，启用活体子池时从活体配置对应的子池借出引擎，避免同一引擎在不同活体阈值之间来回切换
+	 */
+	protected <T> T execute(FaceLivenessProfile liveness, FaceEngineCallback<T> callback) throws Exception {
+		try {
+			if (engineWorkers != null) {
+				// 活体阈值由各操作在引擎上自行设置；排队深度同样受 max-queue-depth 限制，工作线程内的嵌套调用不再排队
+				if (!engineWorkers.isCurrentWorker()) {
+					admission.checkQueueDepth(engineWorkers.getPending());
+				}
+				return engineWorkers.execute(callback);
+			}
+			GenericObjectPool<FaceRecognitionEngine> pool = livenessPools != null ? livenessPools.getPool(liveness) : null;
+			if (pool == null) {
+				pool = faceEngineObjectPool;
+			}
+			FaceRecognitionEngine faceEngine = borrowEngine(pool);
+			try {
+				// 等待引擎期间调用方期限已过，不再执行原生调用
+				admission.checkDeadline();
+				return callback.doWithEngine(faceEngine);
+			} finally {
+				// 释放引擎对象
+				pool.returnObject(faceEngine);
+			}
+		} catch (FaceOverloadedException e) {
+			admission.rejected(e.getReason());
+			throw e;
+		}
+	}
+
+	protected static boolean isError(int code) {
+		return ErrorInfo.getValidEnum(code).compareTo(ErrorInfo.MERR_NONE) != 0;
+	}
+
+	/*
+	 * 设置活体配置中的 RGB / IR 阈值，如果检测出来的活体分数小于阈值，则会返回错误信息。内置 LOW 0.05 NORMAL 0.3 HIGH 0.9，
+	 * 可通过 liveness-profiles 覆盖；none 配置不修改引擎当前的阈值，引擎记录已设置的阈值，与上次相同时不会重复调用原生接口
+	 */
+	protected int setLivenessParam(FaceRecognitionEngine faceEngine, FaceLivenessProfile profile) {
+		if (profile.isNone()) {
+			return 0;
+		}
+		return faceEngine.setLivenessParam(profile.getRgbThreshold(), profile.getIrThreshold());
+	}
+
+	/*
+	 * 兼容旧版本的活体参数设置，FaceEngine 经 {@link ArcSoftFaceRecognitionEngine} 包装后按活体控制对应的阈值配置设置，
+	 * 失败时在 result 中记录错误码及错误信息
+	 *
+	 * @deprecated 使用 {@link #setLivenessParam(FaceRecognitionEngine, FaceLivenessProfile)}
+	 */
+	@Deprecated
+	protected int setLivenessParam(FaceEngine faceEngine, FaceLiveness liveness, JSONObject result) {
+		int paramCode = this.setLivenessParam(new ArcSoftFaceRecognitionEngine(faceEngine), livenessProfiles.get(liveness));
+		if (isError(paramCode) && result != null) {
+			result.put("error_code", paramCode);
+			result.put("error_msg", this.getMessage(paramCode));
+		}
+		return paramCode;
+	}
+
+	/*
+	 * RGB活体、年龄、性别、三维角度检测
+	 *
+	 * @param imageBytes 输入的图像数据
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @return
+	 */
+	public JSONObject detect(byte[] imageBytes) {
+		return detect(imageBytes, FaceLiveness.NONE);
+	}
+
+	/*
+	 * RGB活体、年龄、性别、三维角度检测
+	 *
+	 * @param imageBytes 输入的图像数据
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @return
+	 */
+	public JSONObject detect(byte[] imageBytes, FaceLiveness liveness) {
+		return toDetectJSON(detectFaces(imageBytes, liveness));
+	}
+
+	/*
+	 * RGB活体、年龄、性别、三维角度检测
+	 *
+	 * @param imageBytes 输入的图像数据
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @return
+	 */
+	public JSONObject detect(ImageInfo imageInfo) {
+		return detect(imageInfo, FaceLiveness.NONE);
+	}
+
+	/*
+	 * RGB活体、年龄、性别、三维角度检测
+	 *
+	 * @param imageInfo 输入的图像信息
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @return 检测结果，出现异常时返回 error_code 为 500 的结果而不是 null
+	 */
+	public JSONObject detect(ImageInfo imageInfo, FaceLiveness liveness) {
+		return toDetectJSON(detectFaces(imageInfo, liveness));
+	}
+
+	/*
+	 * IR活体、年龄、性别、三维角度检测
+	 *
+	 * @param imageBytes 输入的图像数据
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @return
+	 */
+	public JSONObject irDetect(byte[] imageBytes, FaceLiveness liveness) {
+		return toDetectJSON(irDetectFaces(imageBytes, liveness));
+	}
+
+	/*
+	 * IR活体、年龄、性别、三维角度检测
+	 *
+	 * @param imageInfo 输入的图像信息
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @return
+	 */
+	public JSONObject irDetect(ImageInfo imageInfo, FaceLiveness liveness) {
+		return toDetectJSON(irDetectFaces(imageInfo, liveness));
+	}
+
+	public JSONObject match(ImageInfo sourceImage, byte[] feature, FaceLiveness liveness) {
+		return toMatchJSON(matchFaces(sourceImage, feature, liveness));
+	}
+
+	public JSONObject match(byte[] sourceImage, byte[] targetImage, FaceLiveness liveness) {
+		return toMatchJSON(matchFaces(sourceImage, targetImage, liveness));
+	}
+
+	public JSONObject match(ImageInfo sourceImage, ImageInfo targetImage, FaceLiveness liveness) {
+		return toMatchJSON(matchFaces(sourceImage, targetImage, liveness));
+	}
+
+	public JSONObject irSearch(byte[] sourceImage, byte[] searchImage) {
+		return toSearchJSON(irSearchFaces(sourceImage, searchImage));
+	}
+
+	public JSONObject search(byte[] sourceImage, byte[] searchImage) {
+		return toSearchJSON(searchFaces(sourceImage, searchImage));
+	}
+
+	public JSONObject search(ImageInfo sourceImage, ImageInfo searchImage) {
+		return toSearchJSON(searchFaces(sourceImage, searchImage));
+	}
+
+	public JSONObject searchAll(byte[] sourceImage, byte[] searchImage) {
+		return toSearchAllJSON(searchAllFaces(sourceImage, searchImage));
+	}
+
+	/*
+	 * 多人脸检索：源图片与待检索图片中的人脸两两比对，按总相似值最大的原则一一配对
+	 */
+	public JSONObject searchAll(ImageInfo sourceImage, ImageInfo searchImage) {
+		return toSearchAllJSON(searchAllFaces(sourceImage, searchImage));
+	}
+
+	public JSONObject verify(byte[] imageBytes, FaceLiveness liveness) {
+		return toVerifyJSON(verifyFaces(imageBytes, liveness));
+	}
+
+	public JSONObject verify(ImageInfo imageInfo, FaceLiveness liveness) {
+		return toVerifyJSON(verifyFaces(imageInfo, liveness));
+	}
+
+	public JSONObject irVerify(byte[] imageBytes, FaceLiveness liveness) {
+		return toVerifyJSON(irVerifyFaces(imageBytes, liveness));
+	}
+
+	/*
+	 * IR活体检测
+	 *
+	 * @author ： <a href="https://github.com/hiwepy">wandl</a>
+	 * @param imageInfo 图片信息(总数据大小应小于10M)，图片上传方式根据image_type来判断
+	 * @param option    场景信息，程序会视不同的场景选用相对应的模型。当前支持的场景有COMMON(通用场景)，GATE(闸机场景)，默认使用COMMON
+	 * @return
+	 */
+	public JSONObject irVerify(ImageInfo imageInfo, FaceLiveness liveness) {
+		return toVerifyJSON(irVerifyFaces(imageInfo, liveness));
+	}
+
+	public JSONObject identify(byte[] imageBytes) {
+		return identify(imageBytes, getGalleryProperties().getTopK());
+	}
+
+	public JSONObject identify(byte[] imageBytes, int topK) {
+		return toIdentifyJSON(identifyFaces(imageBytes, topK));
+	}
+
+	/*
+	 * 1:N 人脸检索：提取图片中第一张人脸的特征，在人脸库中检索最相似的用户
+	 *
+	 * @param imageInfo 输入的图像信息
+	 * @param topK 返回的最大用户数
+	 * @return
+	 */
+	public JSONObject identify(ImageInfo imageInfo, int topK) {
+		return toIdentifyJSON(identifyFaces(imageInfo, topK));
+	}
+
+	/*
+	 * 1:N 人脸检索：在人脸库中检索与给定特征最相似的用户
+	 *
+	 * @param feature 人脸特征数据
+	 * @param topK 返回的最大用户数
+	 * @return
+	 */
+	public JSONObject identifyByFeature(byte[] feature, int topK) {
+		return toIdentifyJSON(identifyFeature(feature, topK));
+	}
+
+	// ~ 类型化接口
+	// ========================================================================================================
+
+	/*
+	 * 活体级别对应的检测选项，检测全部人脸属性；需要只检测部分属性时使用 {@link FaceDetectOptions#withAttributes}
+	 */
+	public FaceDetectOptions options(FaceLiveness liveness) {
+		return FaceDetectOptions.of(livenessProfiles.get(liveness));
+	}
+
+	/*
+	 * 按名称选择活体阈值配置的检测选项，名称不存在时抛出 IllegalArgumentException
+	 */
+	public FaceDetectOptions options(String livenessProfile) {
+		return FaceDetectOptions.of(livenessProfiles.get(livenessProfile));
+	}
+
+	public DetectResult detectFaces(byte[] imageBytes) {
+		return detectFaces(imageBytes, FaceLiveness.NONE);
+	}
+
+	public DetectResult detectFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.detectFaces(imageBytes, this.options(liveness));
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public DetectResult detectFaces(byte[] imageBytes, FaceDetectOptions options) {
+		try (DecodedImage image = this.decode(imageBytes, false)) {
+			return detectFaces(image.getImageInfo(), options);
+		} catch (IllegalArgumentException e) {
+			return new DetectResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	public DetectResult detectFaces(ImageInfo imageInfo) {
+		return detectFaces(imageInfo, FaceLiveness.NONE);
+	}
+
+	/*
+	 * RGB活体、年龄、性别、三维角度检测及特征提取
+	 *
+	 * @param imageInfo 输入的图像信息
+	 * @param liveness 活体控制
+	 * @return
+	 */
+	public DetectResult detectFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.detectFaces(imageInfo, this.options(liveness));
+	}
+
+	/*
+	 * 按检测选项检测，例如仅需人脸框与特征时传入 {@code options(liveness).withAttributes(FaceAttribute.FEATURE)}，
+	 * 未请求的属性不参与属性处理，结果中保持默认值
+	 *
+	 * @param imageInfo 输入的图像信息
+	 * @param options 活体阈值配置及需要检测的人脸属性
+	 * @return
+	 */
+	public DetectResult detectFaces(ImageInfo imageInfo, FaceDetectOptions options) {
+		try {
+			// 获取引擎对象并执行
+			return this.execute(options.getLiveness(), faceEngine -> this.doDetect(faceEngine, imageInfo, options, false));
+		} catch (FaceOverloadedException e) {
+			return new DetectResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face detect failed", e);
+			return new DetectResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	public DetectResult irDetectFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.irDetectFaces(imageBytes, this.options(liveness));
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public DetectResult irDetectFaces(byte[] imageBytes, FaceDetectOptions options) {
+		try (DecodedImage image = this.decode(imageBytes, true)) {
+			return irDetectFaces(image.getImageInfo(), options);
+		} catch (IllegalArgumentException e) {
+			return new DetectResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * IR活体、年龄、性别、三维角度检测及特征提取
+	 *
+	 * @param imageInfo 输入的图像信息
+	 * @param liveness 活体控制
+	 * @return
+	 */
+	public DetectResult irDetectFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.irDetectFaces(imageInfo, this.options(liveness));
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public DetectResult irDetectFaces(ImageInfo imageInfo, FaceDetectOptions options) {
+		try {
+			// 获取引擎对象并执行
+			return this.execute(options.getLiveness(), faceEngine -> this.doDetect(faceEngine, imageInfo, options, true));
+		} catch (FaceOverloadedException e) {
+			return new DetectResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face IR detect failed", e);
+			return new DetectResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	/*
+	 * 1:1 比对：提取源图片第一张人脸的特征，与给定特征比对
+	 */
+	public MatchResult matchFaces(ImageInfo sourceImage, byte[] feature, FaceLiveness liveness) {
+		return this.matchFaces(sourceImage, feature, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public MatchResult matchFaces(ImageInfo sourceImage, byte[] feature, FaceDetectOptions options) {
+
+		FaceLivenessProfile liveness = options.getLiveness();
+		try {
+			// 获取引擎对象并执行
+			return this.execute(liveness, faceEngine -> {
+				MatchResult result = new MatchResult();
+
+				// 设置活体检测参数
+				int paramCode = this.setLivenessParam(faceEngine, liveness);
+				if (isError(paramCode)) {
+					result.setError(paramCode, this.getMessage(paramCode));
+					return result;
+				}
+
+				// 人脸检测及特征提取
+				CachedFeature source = this.doExtract(faceEngine, sourceImage, result);
+				if (source == null) {
+					return result;
+				}
+
+				// 特征比对
+				return this.doMatch(faceEngine, source, feature, result);
+			});
+		} catch (FaceOverloadedException e) {
+			return new MatchResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face match failed", e);
+			return new MatchResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	/*
+	 * 1:1 比对：分别提取两张图片第一张人脸的特征并比对；启用特征缓存时重复提交的图片直接使用缓存的特征
+	 */
+	public MatchResult matchFaces(byte[] sourceImage, byte[] targetImage, FaceLiveness liveness) {
+		return this.matchFaces(sourceImage, targetImage, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public MatchResult matchFaces(byte[] sourceImage, byte[] targetImage, FaceDetectOptions options) {
+		// 优先读取特征缓存，未命中的图片并行解码
+		try (FeatureLookup source = new FeatureLookup(sourceImage, false);
+				FeatureLookup target = new FeatureLookup(targetImage, false)) {
+			source.await();
+			target.await();
+			return this.matchFaces(source, target, options.getLiveness());
+		} catch (IllegalArgumentException e) {
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * 1:1 比对：分别提取两张图片第一张人脸的特征并比对
+	 */
+	public MatchResult matchFaces(ImageInfo sourceImage, ImageInfo targetImage, FaceLiveness liveness) {
+		return this.matchFaces(sourceImage, targetImage, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public MatchResult matchFaces(ImageInfo sourceImage, ImageInfo targetImage, FaceDetectOptions options) {
+		try (FeatureLookup source = new FeatureLookup(sourceImage);
+				FeatureLookup target = new FeatureLookup(targetImage)) {
+			return this.matchFaces(source, target, options.getLiveness());
+		}
+	}
+
+	private MatchResult matchFaces(FeatureLookup source, FeatureLookup target, FaceLivenessProfile liveness) {
+
+		try {
+			// 获取引擎对象并执行
+			return this.execute(liveness, faceEngine -> {
+				MatchResult result = new MatchResult();
+
+				// 设置活体检测参数
+				int paramCode = this.setLivenessParam(faceEngine, liveness);
+				if (isError(paramCode)) {
+					result.setError(paramCode, this.getMessage(paramCode));
+					return result;
+				}
+
+				// 源图片特征
+				CachedFeature sourceFeature = source.resolve(faceEngine, result);
+				if (sourceFeature == null) {
+					return result;
+				}
+				// 目标图片特征
+				CachedFeature targetFeature = target.resolve(faceEngine, result);
+				if (targetFeature == null) {
+					return result;
+				}
+
+				return this.doMatch(faceEngine, sourceFeature, targetFeature.getFeature(), result);
+			});
+		} catch (FaceOverloadedException e) {
+			return new MatchResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face match failed", e);
+			return new MatchResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	public MatchResult irSearchFaces(byte[] sourceImage, byte[] searchImage) {
+		return searchFaces(sourceImage, searchImage, true);
+	}
+
+	public MatchResult searchFaces(byte[] sourceImage, byte[] searchImage) {
+		return searchFaces(sourceImage, searchImage, false);
+	}
+
+	private MatchResult searchFaces(byte[] sourceImage, byte[] searchImage, boolean gray) {
+		// 两张图片并行解码，源图片优先读取特征缓存
+		CompletableFuture<DecodedImage> search = this.decodeAsync(searchImage, gray);
+		try (FeatureLookup source = new FeatureLookup(sourceImage, gray);
+				DecodedImage searchDecoded = awaitDecoded(search)) {
+			source.await();
+			return this.searchFaces(source, searchDecoded.getImageInfo());
+		} catch (IllegalArgumentException e) {
+			search.thenAccept(DecodedImage::close);
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * 从待检测图片中查找出源图片第一张人脸，每张人脸带有与源人脸的相似值
+	 */
+	public MatchResult searchFaces(ImageInfo sourceImage, ImageInfo searchImage) {
+		try (FeatureLookup source = new FeatureLookup(sourceImage)) {
+			return this.searchFaces(source, searchImage);
+		}
+	}
+
+	private MatchResult searchFaces(FeatureLookup source, ImageInfo searchImage) {
+
+		try {
+			// 获取引擎对象并执行
+			return this.execute(faceEngine -> {
+				MatchResult result = new MatchResult();
+
+				// 源图片特征
+				CachedFeature sourceFeature = source.resolve(faceEngine, result);
+				if (sourceFeature == null) {
+					return result;
+				}
+				FaceFeature sourceFaceFeature = new FaceFeature(sourceFeature.getFeature());
+
+				// 人脸检测
+				ImageInfo scaledImage = this.prepareImage(searchImage);
+				List<FaceInfo> searchFaceInfoList = this.doDetectFaceInfos(faceEngine, scaledImage, result);
+				if (searchFaceInfoList == null) {
+					return result;
+				}
+
+				/*
+				 * 从待检测图片中查找出指定特征的人脸
+				 */
+				List<FaceResult> faces = new ArrayList<FaceResult>(searchFaceInfoList.size());
+				FaceFeature targetFaceFeature = new FaceFeature();
+				FaceSimilar faceSimilar = new FaceSimilar();
+				for (FaceInfo faceInfo : searchFaceInfoList) {
+
+					// 待检索图片特征提取
+					int extractCode = this.doExtractFeature(faceEngine, scaledImage, faceInfo, targetFaceFeature);
+					if (isError(extractCode)) {
+						result.setError(extractCode, this.getMessage(extractCode));
+						return result;
+					}
+
+					long start = System.nanoTime();
+					int compareCode = faceEngine.compareFaceFeature(targetFaceFeature, sourceFaceFeature, faceSimilar);
+					metrics.record(Stage.COMPARE, System.nanoTime() - start);
+					if (isError(compareCode)) {
+						result.setError(compareCode, this.getMessage(compareCode));
+						return result;
+					}
+
+					FaceResult face = new FaceResult(toSource(scaledImage, faceInfo));
+					// 特征相似值
+					face.setScore(faceSimilar.getScore());
+					faces.add(face);
+				}
+				result.setFaces(faces);
+				return result;
+			});
+		} catch (FaceOverloadedException e) {
+			return new MatchResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face search failed", e);
+			return new MatchResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	public DetectResult verifyFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.verifyFaces(imageBytes, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public DetectResult verifyFaces(byte[] imageBytes, FaceDetectOptions options) {
+		try (DecodedImage image = this.decode(imageBytes, false)) {
+			return verifyFaces(image.getImageInfo(), options);
+		} catch (IllegalArgumentException e) {
+			return new DetectResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * RGB活体检测
+	 */
+	public DetectResult verifyFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.verifyFaces(imageInfo, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public DetectResult verifyFaces(ImageInfo imageInfo, FaceDetectOptions options) {
+		try {
+			// 获取引擎对象并执行
+			return this.execute(options.getLiveness(), faceEngine -> this.doVerify(faceEngine, imageInfo, options, false));
+		} catch (FaceOverloadedException e) {
+			return new DetectResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face verify failed", e);
+			return new DetectResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	public DetectResult irVerifyFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.irVerifyFaces(imageBytes, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public DetectResult irVerifyFaces(byte[] imageBytes, FaceDetectOptions options) {
+		try (DecodedImage image = this.decode(imageBytes, true)) {
+			return irVerifyFaces(image.getImageInfo(), options);
+		} catch (IllegalArgumentException e) {
+			return new DetectResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * IR活体检测
+	 */
+	public DetectResult irVerifyFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.irVerifyFaces(imageInfo, this.options(liveness));
+	}
+
+	/*
+	 * 同上，使用检测选项中的活体阈值配置
+	 */
+	public DetectResult irVerifyFaces(ImageInfo imageInfo, FaceDetectOptions options) {
+		try {
+			// 获取引擎对象并执行
+			return this.execute(options.getLiveness(), faceEngine -> this.doVerify(faceEngine, imageInfo, options, true));
+		} catch (FaceOverloadedException e) {
+			return new DetectResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face IR verify failed", e);
+			return new DetectResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	/*
+	 * 1:N 人脸检索：提取图片中第一张人脸的特征，在人脸库中检索最相似的用户；启用特征缓存时命中的图片无需占用引擎
+	 */
+	public MatchResult identifyFaces(byte[] imageBytes, int topK) {
+		if (topK <= 0) {
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+		try (FeatureLookup lookup = new FeatureLookup(imageBytes, false)) {
+			lookup.await();
+			return this.identifyFaces(lookup, topK);
+		} catch (IllegalArgumentException e) {
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * 1:N 人脸检索：提取图片中第一张人脸的特征，在人脸库中检索最相似的用户
+	 */
+	public MatchResult identifyFaces(ImageInfo imageInfo, int topK) {
+		if (topK <= 0) {
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+		try (FeatureLookup lookup = new FeatureLookup(imageInfo)) {
+			return this.identifyFaces(lookup, topK);
+		}
+	}
+
+	private MatchResult identifyFaces(FeatureLookup lookup, int topK) {
+
+		CachedFeature feature = lookup.getFeature();
+		if (feature == null) {
+			MatchResult extractResult = new MatchResult();
+			try {
+				// 人脸检测及特征提取；检索前即释放引擎对象，避免扫描人脸库期间占用引擎
+				feature = this.execute(faceEngine -> lookup.resolve(faceEngine, extractResult));
+				if (feature == null) {
+					return extractResult;
+				}
+			} catch (FaceOverloadedException e) {
+				return new MatchResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+			} catch (Exception e) {
+				LOG.error("Face identify failed", e);
+				return new MatchResult(ArcFaceResult.SERVER_ERROR, "");
+			}
+		}
+
+		MatchResult result = identifyFeature(feature.getFeature(), topK);
+		result.setFaces(Collections.singletonList(new FaceResult(feature.getFaceInfo())));
+		return result;
+	}
+
+	/*
+	 * 1:N 人脸检索：在人脸库中检索与给定特征最相似的用户
+	 */
+	public MatchResult identifyFeature(byte[] feature, int topK) {
+
+		if (topK <= 0) {
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+		MatchResult result = new MatchResult();
+		try {
+
+			if (shardedGallery != null) {
+				// 分片人脸库：各分片并行检索后合并 Top-K，精确打分由各分片自行完成
+				FaceGalleryProperties shardProperties = shardedGallery.getGalleryProperties();
+				result.setUsers(shardedGallery.search(feature, topK, shardProperties.isExactScore()
+						? shardProperties.getEngineThreshold() : shardProperties.getThreshold()));
+				return result;
+			}
+			FaceGallery faceGallery = this.getFaceGallery();
+			FaceGalleryProperties galleryProperties = faceGallery.getProperties();
+			List<FaceMatch> matches = galleryProperties.isExactScore()
+					? faceGallery.search(feature, topK, galleryProperties.getEngineThreshold(), this::compareFeatures)
+					: faceGallery.search(feature, topK, galleryProperties.getThreshold());
+			result.setUsers(matches);
+			return result;
+		} catch (IllegalArgumentException e) {
+			result.setError(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+			return result;
+		} catch (FaceOverloadedException e) {
+			return new MatchResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face identify failed", e);
+			return new MatchResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+	}
+
+	/*
+	 * 1:1 特征比对，不做人脸检测与特征提取
+	 *
+	 * @param feature1 人脸特征数据
+	 * @param feature2 人脸特征数据
+	 * @return 相似值
+	 * @throws IllegalArgumentException 特征数据无效
+	 */
+	public float compare(byte[] feature1, byte[] feature2) {
+		if (properties.getCompare().getScorer() == FaceCompareProperties.Scorer.JAVA) {
+			return CosineFeatureComparator.INSTANCE.compare(feature1, feature2);
+		}
+		return this.compareFeatures(feature1, Collections.singletonList(feature2))[0];
+	}
+
+	/*
+	 * 1:N 特征比对：计算探测特征与每个候选特征（如已存储的人脸模板）的相似值，整个批次只占用一个引擎对象或不占用引擎
+	 *
+	 * @param probe 探测特征数据
+	 * @param candidates 候选特征数据
+	 * @return 与候选特征一一对应的相似值
+	 * @throws IllegalArgumentException 特征数据无效
+	 */
+	public float[] compareMany(byte[] probe, List<byte[]> candidates) {
+		return this.getFeatureComparator().compare(probe, candidates);
+	}
+
+	/*
+	 * 按配置返回特征比对器
+	 */
+	protected FaceFeatureComparator getFeatureComparator() {
+		if (properties.getCompare().getScorer() == FaceCompareProperties.Scorer.JAVA) {
+			return CosineFeatureComparator.INSTANCE;
+		}
+		return this::compareFeatures;
+	}
+
+	// ~ 多人脸检索
+	// ========================================================================================================
+
+	public MatchResult searchAllFaces(byte[] sourceImage, byte[] searchImage) {
+		// 两张图片并行解码
+		CompletableFuture<DecodedImage> source = this.decodeAsync(sourceImage, false);
+		CompletableFuture<DecodedImage> search = this.decodeAsync(searchImage, false);
+		try (DecodedImage sourceDecoded = awaitDecoded(source);
+				DecodedImage searchDecoded = awaitDecoded(search)) {
+			return this.searchAllFaces(sourceDecoded.getImageInfo(), searchDecoded.getImageInfo());
+		} catch (IllegalArgumentException e) {
+			source.thenAccept(DecodedImage::close);
+			search.thenAccept(DecodedImage::close);
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		}
+	}
+
+	/*
+	 * 多人脸检索：两张图片各自只做一次人脸检测与特征提取（配置批量线程池时分别占用一个引擎并行执行），
+	 * 再一次性计算全部人脸的相似度矩阵，按总相似值最大的原则一一配对，相似值低于配对阈值的人脸不配对
+	 *
+	 * @param sourceImage 源图片
+	 * @param searchImage 待检索图片
+	 * @return faces 为待检索图片中的人脸（相似值为配对分值，未配对为 0），sourceFaces 为源图片中的人脸，pairs 为配对结果
+	 */
+	public MatchResult searchAllFaces(ImageInfo sourceImage, ImageInfo searchImage) {
+		Executor executor = batchExecutor != null ? batchExecutor : MoreExecutors.directExecutor();
+		CompletableFuture<DetectResult> sourceFuture;
+		try {
+			sourceFuture = CompletableFuture.supplyAsync(() -> this.extractFaces(sourceImage), executor);
+		} catch (RejectedExecutionException e) {
+			// 批量线程池队列已满，在调用线程上提取
+			sourceFuture = CompletableFuture.completedFuture(this.extractFaces(sourceImage));
+		}
+		DetectResult search = this.extractFaces(searchImage);
+		DetectResult source = sourceFuture.join();
+		if (!source.isSuccess()) {
+			return new MatchResult(source.getErrorCode(), source.getErrorMsg());
+		}
+		if (!search.isSuccess()) {
+			return new MatchResult(search.getErrorCode(), search.getErrorMsg());
+		}
+
+		List<FaceResult> sourceFaces = source.getFaces();
+		List<FaceResult> searchFaces = search.getFaces();
+		List<byte[]> sourceFeatures = new ArrayList<byte[]>(sourceFaces.size());
+		for (FaceResult face : sourceFaces) {
+			sourceFeatures.add(face.getFeature());
+			face.setFeature(null);
+		}
+		List<byte[]> searchFeatures = new ArrayList<byte[]>(searchFaces.size());
+		for (FaceResult face : searchFaces) {
+			searchFeatures.add(face.getFeature());
+			face.setFeature(null);
+		}
+
+		float[][] scores;
+		try {
+			long start = System.nanoTime();
+			scores = this.scoreMatrix(sourceFeatures, searchFeatures);
+			metrics.record(Stage.COMPARE, System.nanoTime() - start);
+		} catch (IllegalArgumentException e) {
+			return new MatchResult(ErrorInfo.MERR_INVALID_PARAM.getValue(), this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue()));
+		} catch (FaceOverloadedException e) {
+			return new MatchResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED));
+		} catch (Exception e) {
+			LOG.error("Face search failed", e);
+			return new MatchResult(ArcFaceResult.SERVER_ERROR, "");
+		}
+
+		// Java 余弦与 SDK 分值尺度不同，按评分方式选择配对阈值
+		FaceCompareProperties compare = properties.getCompare();
+		float pairThreshold = compare.getScorer() == FaceCompareProperties.Scorer.JAVA ? compare.getJavaPairThreshold()
+				: compare.getPairThreshold();
+		int[] assignment = FaceAssignment.maximize(scores, pairThreshold);
+		List<FacePair> pairs = new ArrayList<FacePair>();
+		for (int sourceIndex = 0; sourceIndex < assignment.length; sourceIndex++) {
+			int searchIndex = assignment[sourceIndex];
+			if (searchIndex >= 0) {
+				float score = scores[sourceIndex][searchIndex];
+				searchFaces.get(searchIndex).setScore(score);
+				pairs.add(new FacePair(sourceIndex, searchIndex, score));
+			}
+		}
+		MatchResult result = new MatchResult();
+		result.setFaces(searchFaces);
+		result.setSourceFaces(sourceFaces);
+		result.setPairs(pairs);
+		return result;
+	}
+
+	/*
+	 * 只检测人脸并提取特征，整张图片占用一个引擎对象
+	 */
+	protected DetectResult extractFaces(ImageInfo imageInfo) {
+		return this.detectChunk(Collections.singletonList(imageInfo),
+				this.options(FaceLiveness.NONE).withAttributes(FaceAttribute.FEATURE)).get(0);
+	}
+
+	/*
+	 * 计算 rows × columns 的相似度矩阵：Java 评分时分块计算余弦矩阵，不占用引擎；引擎评分时每行一次批量比对
+	 */
+	protected float[][] scoreMatrix(List<byte[]> rows, List<byte[]> columns) {
+		if (properties.getCompare().getScorer() == FaceCompareProperties.Scorer.JAVA) {
+			return FaceSimilarityMatrix.cosine(rows, columns);
+		}
+		float[][] scores = new float[rows.size()][];
+		for (int row = 0; row < scores.length; row++) {
+			scores[row] = columns.isEmpty() ? new float[0] : this.compareFeatures(rows.get(row), columns);
+		}
+		return scores;
+	}
+
+	// ~ 批量检测
+	// ========================================================================================================
+
+	public List<DetectResult> detectAll(List<ImageInfo> images) {
+		return detectAll(images, FaceLiveness.NONE);
+	}
+
+	/*
+	 * 批量 RGB活体、年龄、性别、三维角度检测及特征提取，结果顺序与输入一致
+	 *
+	 * @param images 输入的图像信息
+	 * @param liveness 活体控制
+	 * @return
+	 */
+	public List<DetectResult> detectAll(List<ImageInfo> images, FaceLiveness liveness) {
+		return this.detectAll(images, this.options(liveness));
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public List<DetectResult> detectAll(List<ImageInfo> images, FaceDetectOptions options) {
+		List<DetectResult> results = new ArrayList<DetectResult>(images.size());
+		this.detectAll(images.iterator(), options, results::add);
+		return results;
+	}
+
+	/*
+	 * 流式批量检测：按分块从迭代器读取图片，每个分块由一个工作线程使用同一个引擎对象完成检测、属性处理与特征提取，
+	 * 检测结果按输入顺序交给 consumer。
+	 * <p>
+	 * 迭代器在调用线程上被消费，若迭代器惰性解码图片（如 {@code Iterators.transform(files, ImageFactory::getRGBData)}），
+	 * 解码与工作线程上的检测即形成流水线；编码图片请使用 {@link #detectAllEncoded(Iterator, FaceLiveness, Consumer)}。
+	 * 同时提交的分块数受 batch.max-in-flight 限制，内存占用与输入总量无关。
+	 *
+	 * @param images 输入的图像信息
+	 * @param liveness 活体控制
+	 * @param consumer 检测结果的接收者，在调用线程上按输入顺序调用
+	 */
+	public void detectAll(Iterator<ImageInfo> images, FaceLiveness liveness, Consumer<DetectResult> consumer) {
+		this.detectAll(images, this.options(liveness), consumer);
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public void detectAll(Iterator<ImageInfo> images, FaceDetectOptions options, Consumer<DetectResult> consumer) {
+		FaceBatchProperties batch = properties.getBatch();
+		int chunkSize = Math.max(1, batch.getChunkSize());
+		if (batchExecutor == null) {
+			// 未配置工作线程时，在调用线程上逐块检测
+			while (images.hasNext()) {
+				this.detectChunk(nextChunk(images, chunkSize), options).forEach(consumer);
+			}
+			return;
+		}
+		Deque<Future<List<DetectResult>>> inFlight = new ArrayDeque<Future<List<DetectResult>>>();
+		try {
+			while (images.hasNext()) {
+				final List<ImageInfo> chunk = nextChunk(images, chunkSize);
+				inFlight.add(this.submitChunk(chunk, options));
+				if (inFlight.size() >= batch.getMaxInFlight()) {
+					awaitChunk(inFlight.poll()).forEach(consumer);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				awaitChunk(inFlight.poll()).forEach(consumer);
+			}
+		} finally {
+			for (Future<List<DetectResult>> future : inFlight) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	/*
+	 * 使用一个引擎对象按检测选项检测一个分块的图片，活体参数与功能配置在分块内只设置一次
+	 */
+	protected List<DetectResult> detectChunk(List<ImageInfo> images, FaceDetectOptions options) {
+		FaceLivenessProfile liveness = options.getLiveness();
+		List<DetectResult> results = new ArrayList<DetectResult>(images.size());
+		Set<FaceAttribute> enabled = this.detectAttributes(options.getAttributes(), false);
+		try {
+			// 获取引擎对象并执行
+			return this.execute(liveness, faceEngine -> {
+				// 设置活体检测参数，失败时整个分块返回该错误
+				int paramCode = this.setLivenessParam(faceEngine, liveness);
+				if (isError(paramCode)) {
+					while (results.size() < images.size()) {
+						results.add(new DetectResult(paramCode, this.getMessage(paramCode)));
+					}
+					return results;
+				}
+				FunctionConfiguration configuration = this.detectConfiguration(enabled, false);
+				for (ImageInfo imageInfo : images) {
+					if (imageInfo == null) {
+						// 解码失败的图片
+						results.add(new DetectResult(ErrorInfo.MERR_INVALID_PARAM.getValue(),
+								this.getMessage(ErrorInfo.MERR_INVALID_PARAM.getValue())));
+						continue;
+					}
+					try {
+						DetectResult result = this.doDetect(faceEngine, imageInfo, configuration, enabled, false);
+						if (enabled.contains(FaceAttribute.LIVENESS)) {
+							this.recordLiveness(liveness, result);
+						}
+						results.add(result);
+					} catch (Exception e) {
+						LOG.error("Face detect failed", e);
+						results.add(new DetectResult(ArcFaceResult.SERVER_ERROR, ""));
+					}
+				}
+				return results;
+			});
+		} catch (FaceOverloadedException e) {
+			while (results.size() < images.size()) {
+				results.add(new DetectResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED)));
+			}
+		} catch (Exception e) {
+			LOG.error("Face batch detect failed", e);
+			while (results.size() < images.size()) {
+				results.add(new DetectResult(ArcFaceResult.SERVER_ERROR, ""));
+			}
+		}
+		return results;
+	}
+
+	public List<DetectResult> detectAllEncoded(List<byte[]> images, FaceLiveness liveness) {
+		return this.detectAllEncoded(images, this.options(liveness));
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public List<DetectResult> detectAllEncoded(List<byte[]> images, FaceDetectOptions options) {
+		List<DetectResult> results = new ArrayList<DetectResult>(images.size());
+		this.detectAllEncoded(images.iterator(), options, results::add);
+		return results;
+	}
+
+	/*
+	 * 流式批量检测编码图片（JPEG/PNG 等）：每个分块的图片先在解码线程池上并行解码，全部解码完成后才提交到批量检测线程，
+	 * 工作线程借出引擎时像素数据已经就绪；解码下一分块与检测上一分块同时进行。检测结果按输入顺序交给 consumer。
+	 *
+	 * @param images 编码后的图片数据
+	 * @param liveness 活体控制
+	 * @param consumer 检测结果的接收者，在调用线程上按输入顺序调用
+	 */
+	public void detectAllEncoded(Iterator<byte[]> images, FaceLiveness liveness, Consumer<DetectResult> consumer) {
+		this.detectAllEncoded(images, this.options(liveness), consumer);
+	}
+
+	/*
+	 * 同上，按检测选项使用指定的活体阈值配置并只检测指定的人脸属性
+	 */
+	public void detectAllEncoded(Iterator<byte[]> images, FaceDetectOptions options, Consumer<DetectResult> consumer) {
+		FaceBatchProperties batch = properties.getBatch();
+		int chunkSize = Math.max(1, batch.getChunkSize());
+		if (batchExecutor == null) {
+			// 未配置工作线程时，在调用线程上逐块检测，检测当前分块的同时解码下一分块
+			List<CompletableFuture<DecodedImage>> next = images.hasNext() ? this.nextDecodes(images, chunkSize) : null;
+			try {
+				while (next != null) {
+					List<CompletableFuture<DecodedImage>> decodes = next;
+					next = images.hasNext() ? this.nextDecodes(images, chunkSize) : null;
+					// 解码失败的图片在检测时返回参数错误
+					allOf(decodes).handle((ignored, e) -> null).join();
+					this.detectDecodedChunk(decodes, options).forEach(consumer);
+				}
+			} finally {
+				if (next != null) {
+					closeDecoded(next);
+				}
+			}
+			return;
+		}
+		Deque<Future<List<DetectResult>>> inFlight = new ArrayDeque<Future<List<DetectResult>>>();
+		try {
+			while (images.hasNext()) {
+				inFlight.add(this.submitDecodedChunk(this.nextDecodes(images, chunkSize), options));
+				if (inFlight.size() >= batch.getMaxInFlight()) {
+					awaitChunk(inFlight.poll()).forEach(consumer);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				awaitChunk(inFlight.poll()).forEach(consumer);
+			}
+		} finally {
+			// 接收者或等待失败时取消其余分块：尚未开始检测的分块由解码完成回调或工作线程归还像素缓冲区，
+			// 正在检测的分块检测结束后归还
+			for (Future<List<DetectResult>> future : inFlight) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	/*
+	 * 按检测选项检测已解码完成的分块，结束后归还像素缓冲区
+	 */
+	protected List<DetectResult> detectDecodedChunk(List<CompletableFuture<DecodedImage>> decodes, FaceDetectOptions options) {
+		List<ImageInfo> images = new ArrayList<ImageInfo>(decodes.size());
+		List<DecodedImage> decodedImages = new ArrayList<DecodedImage>(decodes.size());
+		for (CompletableFuture<DecodedImage> decode : decodes) {
+			DecodedImage decoded = decode.isCompletedExceptionally() ? null : decode.join();
+			if (decoded != null) {
+				decodedImages.add(decoded);
+			}
+			images.add(decoded != null ? decoded.getImageInfo() : null);
+		}
+		try {
+			return this.detectChunk(images, options);
+		} finally {
+			for (DecodedImage decoded : decodedImages) {
+				decoded.close();
+			}
+		}
+	}
+
+	/*
+	 * 提交一个分块到批量检测线程池；队列已满时不在调用线程上检测，整个分块返回 OVERLOADED
+	 */
+	private Future<List<DetectResult>> submitChunk(List<ImageInfo> chunk, FaceDetectOptions options) {
+		try {
+			return batchExecutor.submit(() -> this.detectChunk(chunk, options));
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.completedFuture(this.rejectChunk(chunk.size()));
+		}
+	}
+
+	/*
+	 * 分块全部解码完成后提交到批量检测线程池。提交发生在完成最后一张图片解码的线程上，
+	 * 队列已满时不在解码线程上检测，归还像素缓冲区后整个分块返回 OVERLOADED；
+	 * 调用方放弃等待（取消返回的 future）的分块不再检测，解码完成后直接归还像素缓冲区
+	 */
+	private CompletableFuture<List<DetectResult>> submitDecodedChunk(List<CompletableFuture<DecodedImage>> decodes,
+			FaceDetectOptions options) {
+		CompletableFuture<List<DetectResult>> chunk = new CompletableFuture<List<DetectResult>>();
+		allOf(decodes).whenComplete((ignored, decodeError) -> {
+			if (chunk.isCancelled()) {
+				closeDecoded(decodes);
+				return;
+			}
+			try {
+				batchExecutor.execute(() -> {
+					if (chunk.isCancelled()) {
+						closeDecoded(decodes);
+						return;
+					}
+					try {
+						chunk.complete(this.detectDecodedChunk(decodes, options));
+					} catch (Throwable e) {
+						chunk.completeExceptionally(e);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				closeDecoded(decodes);
+				chunk.complete(this.rejectChunk(decodes.size()));
+			}
+		});
+		return chunk;
+	}
+
+	/*
+	 * 批量线程池拒绝的分块：计入准入拒绝次数，每张图片返回 OVERLOADED
+	 */
+	private List<DetectResult> rejectChunk(int size) {
+		admission.rejected(FaceOverloadedException.Reason.QUEUE_FULL);
+		List<DetectResult> results = new ArrayList<DetectResult>(size);
+		while (results.size() < size) {
+			results.add(new DetectResult(ArcFaceResult.OVERLOADED, this.getMessage(ArcFaceResult.OVERLOADED)));
+		}
+		return results;
+	}
+
+	/*
+	 * 从迭代器读取一个分块的编码图片并提交解码
+	 */
+	private List<CompletableFuture<DecodedImage>> nextDecodes(Iterator<byte[]> images, int chunkSize) {
+		List<CompletableFuture<DecodedImage>> decodes = new ArrayList<CompletableFuture<DecodedImage>>(chunkSize);
+		while (decodes.size() < chunkSize && images.hasNext()) {
+			decodes.add(this.decodeAsync(images.next(), false));
+		}
+		return decodes;
+	}
+
+	private static CompletableFuture<Void> allOf(List<CompletableFuture<DecodedImage>> decodes) {
+		return CompletableFuture.allOf(decodes.toArray(new CompletableFuture<?>[decodes.size()]));
+	}
+
+	/*
+	 * 不再检测的分块：解码成功的图片在解码完成后归还像素缓冲区
+	 */
+	private static void closeDecoded(List<CompletableFuture<DecodedImage>> decodes) {
+		for (CompletableFuture<DecodedImage> decode : decodes) {
+			decode.thenAccept(DecodedImage::close);
+		}
+	}
+
+	private static List<ImageInfo> nextChunk(Iterator<ImageInfo> images, int chunkSize) {
+		List<ImageInfo> chunk = new ArrayList<ImageInfo>(chunkSize);
+		while (chunk.size() < chunkSize && images.hasNext()) {
+			chunk.add(images.next());
+		}
+		return chunk;
+	}
+
+	private static List<DetectResult> awaitChunk(Future<List<DetectResult>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Face batch detect interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Face batch detect failed", e.getCause());
+		}
+	}
+
+	// ~ 批量入库
+	// ========================================================================================================
+
+	/*
+	 * 批量入库：从目录或 zip / tar 归档流式读取图片，提取每张图片中最大人脸的特征，去重后写入特征存储；
+	 * 入库的存储即人脸库（或分片人脸库）的存储时，完成后增量重放新记录
+	 *
+	 * @param source 图片数据源，见 {@link FaceEnrollmentSources#open(Path, FaceEnrollmentProperties)}
+	 * @param store 特征存储
+	 * @param checkpoint 断点文件，为 null 时不记录断点
+	 * @param listener 进度监听器，为 null 时输出日志
+	 * @return 最终进度
+	 */
+	public FaceEnrollmentProgress enrollAll(FaceEnrollmentSource source, FaceFeatureStore store, Path checkpoint,
+			FaceEnrollmentListener listener) throws IOException {
+		FaceEnrollmentJob job = new FaceEnrollmentJob(this, source, store, properties.getEnrollment());
+		job.setCheckpointFile(checkpoint);
+		job.setListener(listener);
+		FaceEnrollmentProgress progress = job.run();
+		if (faceGallery != null && faceGallery.getStore() == store) {
+			faceGallery.refresh();
+		}
+		if (shardedGallery != null && shardedGallery.getStore() == store) {
+			shardedGallery.refresh();
+		}
+		return progress;
+	}
+
+	// ~ 视频流
+	// ========================================================================================================
+
+	public FaceStreamSession openStream() {
+		return this.openStream(FaceLiveness.NONE);
+	}
+
+	public FaceStreamSession openStream(FaceLiveness liveness) {
+		return this.openStream(this.options(liveness));
+	}
+
+	/*
+	 * 打开视频流会话：会话独占一个 VIDEO 模式引擎并跨帧跟踪人脸，只对新出现或质量提升的人脸检测属性并提取特征
+	 *
+	 * @param options 活体阈值配置（在会话引擎上只设置一次）及需要检测的人脸属性
+	 * @return 视频流会话，使用完毕后必须关闭
+	 * @throws FaceOverloadedException 会话数已达 stream.max-sessions
+	 */
+	public FaceStreamSession openStream(FaceDetectOptions options) {
+		try {
+			return this.getStreamSessions().open(this.newFrameProcessor(options));
+		} catch (FaceOverloadedException e) {
+			// 会话数已满同样计入准入拒绝次数
+			admission.rejected(e.getReason());
+			throw e;
+		}
+	}
+
+	/*
+	 * 视频流会话的检测阶段：帧与单张图片一样先经过缩放，人脸框换算为原帧坐标
+	 */
+	protected FaceFrameProcessor newFrameProcessor(FaceDetectOptions options) {
+		FaceLivenessProfile liveness = options.getLiveness();
+		Set<FaceAttribute> enabled = this.detectAttributes(options.getAttributes(), false);
+		FunctionConfiguration configuration = this.detectConfiguration(enabled, false);
+		return new FaceFrameProcessor() {
+
+			@Override
+			public void prepare(FaceRecognitionEngine faceEngine) {
+				if (enabled.contains(FaceAttribute.LIVENESS)) {
+					// 设置活体检测参数，失败时会话打开失败
+					int paramCode = setLivenessParam(faceEngine, liveness);
+					if (isError(paramCode)) {
+						throw new IllegalStateException(getMessage(paramCode));
+					}
+				}
+			}
+
+			@Override
+			public ImageInfo prepareFrame(ImageInfo frame) {
+				return prepareImage(frame);
+			}
+
+			@Override
+			public FaceInfo toSource(ImageInfo image, FaceInfo faceInfo) {
+				return ArcFaceRecognitionTemplate.toSource(image, faceInfo);
+			}
+
+			@Override
+			public List<FaceInfo> detect(FaceRecognitionEngine faceEngine, ImageInfo frame, ArcFaceResult result) {
+				return doDetectFaceInfos(faceEngine, frame, result);
+			}
+
+			@Override
+			public List<FaceResult> process(FaceRecognitionEngine faceEngine, ImageInfo frame, List<FaceInfo> faceInfos,
+					ArcFaceResult result) {
+				List<FaceResult> faces = doDetectAttributes(faceEngine, frame, faceInfos, configuration, enabled, false, result);
+				if (faces != null && enabled.contains(FaceAttribute.LIVENESS)) {
+					for (FaceResult face : faces) {
+						metrics.recordLiveness(liveness.getName(), face.getLiveness());
+					}
+				}
+				return faces;
+			}
+
+		};
+	}
+
+	// ~ 图片解码
+	// ========================================================================================================
+
+	/*
+	 * 提交解码任务；未配置解码器时在当前线程使用 SDK 解码
+	 */
+	protected CompletableFuture<DecodedImage> decodeAsync(byte[] imageBytes, boolean gray) {
+		if (imageDecoder == null) {
+			CompletableFuture<DecodedImage> future = new CompletableFuture<DecodedImage>();
+			try {
+				future.complete(this.decode(imageBytes, gray));
+			} catch (IllegalArgumentException e) {
+				future.completeExceptionally(e);
+			}
+			return future;
+		}
+		return gray ? imageDecoder.decodeGray(imageBytes) : imageDecoder.decodeRGB(imageBytes);
+	}
+
+	/*
+	 * 解码图片并等待完成，解码在解码线程池上进行，调用线程此时尚未借出引擎
+	 *
+	 * @throws IllegalArgumentException 图片无法解码
+	 */
+	protected DecodedImage decode(byte[] imageBytes, boolean gray) {
+		if (imageDecoder != null) {
+			return awaitDecoded(this.decodeAsync(imageBytes, gray));
+		}
+		ImageInfo imageInfo;
+		try {
+			imageInfo = gray ? ImageFactory.getGrayData(imageBytes) : ImageFactory.getRGBData(imageBytes);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Unable to decode image", e);
+		}
+		if (imageInfo == null) {
+			throw new IllegalArgumentException("Unable to decode image");
+		}
+		return DecodedImage.of(imageScaler.scale(imageInfo));
+	}
+
+	private static DecodedImage awaitDecoded(CompletableFuture<DecodedImage> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException) e.getCause();
+			}
+			throw new IllegalStateException("Image decode failed", e.getCause());
+		}
+	}
+
+	// ~ 引擎操作
+	// ========================================================================================================
+
+	/*
+	 * 人脸检测并按人脸选择策略筛选，检测失败或未检测到人脸时在结果中记录错误并返回 null
+	 */
+	protected List<FaceInfo> doDetectFaceInfos(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, ArcFaceResult result) {
+		// 人脸检测得到人脸列表
+		List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
+		long start = System.nanoTime();
+		int detectCode = faceEngine.detectFaces(imageInfo.getImageData(), imageInfo.getWidth(),
+				imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList);
+		metrics.record(Stage.DETECT, System.nanoTime() - start);
+		if (isError(detectCode)) {
+			result.setError(detectCode, this.getMessage(detectCode));
+			return null;
+		}
+		// 人脸选择：过滤过小的人脸、排序并限制数量；缩放后的图像按原图尺寸判断最小人脸
+		faceInfoList = imageInfo instanceof ScaledImageInfo
+				? faceSelector.select(faceInfoList, imageInfo.getWidth(), imageInfo.getHeight(),
+						Math.min(((ScaledImageInfo) imageInfo).getScaleX(), ((ScaledImageInfo) imageInfo).getScaleY()))
+				: faceSelector.select(faceInfoList, imageInfo.getWidth(), imageInfo.getHeight());
+		// 没有检测到人脸
+		if (CollectionUtils.isEmpty(faceInfoList)) {
+			result.setError(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue(),
+					this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
+			return null;
+		}
+		return faceInfoList;
+	}
+
+	/*
+	 * 人脸检测并提取第一张人脸的特征，失败时在结果中记录错误并返回 null
+	 */
+	protected CachedFeature doExtract(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, ArcFaceResult result) {
+
+		// 人脸检测
+		imageInfo = this.prepareImage(imageInfo);
+		List<FaceInfo> faceInfoList = this.doDetectFaceInfos(faceEngine, imageInfo, result);
+		if (faceInfoList == null) {
+			return null;
+		}
+
+		// 特征提取
+		FaceFeature faceFeature = new FaceFeature();
+		int extractCode = this.doExtractFeature(faceEngine, imageInfo, faceInfoList.get(0), faceFeature);
+		if (isError(extractCode)) {
+			result.setError(extractCode, this.getMessage(extractCode));
+			return null;
+		}
+		// 缓存的人脸框为原图坐标
+		List<FaceInfo> sourceFaceInfos = new ArrayList<FaceInfo>(faceInfoList.size());
+		for (FaceInfo faceInfo : faceInfoList) {
+			sourceFaceInfos.add(toSource(imageInfo, faceInfo));
+		}
+		return new CachedFeature(sourceFaceInfos, faceFeature.getFeatureData());
+	}
+
+	/*
+	 * 提取单张人脸的特征并记录耗时；开启 roi-extract 时在原图裁剪的人脸区域上提取，裁剪不适用时在送检图像上提取
+	 */
+	protected int doExtractFeature(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, FaceInfo faceInfo, FaceFeature faceFeature) {
+		ScaledImageInfo region = imageInfo instanceof ScaledImageInfo
+				? imageScaler.crop((ScaledImageInfo) imageInfo, faceInfo) : null;
+		if (region != null) {
+			FaceInfo regionFace = new FaceInfo(faceInfo);
+			regionFace.setRect(region.fromSource(((ScaledImageInfo) imageInfo).toSource(faceInfo.getRect())));
+			imageInfo = region;
+			faceInfo = regionFace;
+		}
+		long start = System.nanoTime();
+		int extractCode = faceEngine.extractFaceFeature(imageInfo.getImageData(), imageInfo.getWidth(),
+				imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfo, faceFeature);
+		metrics.record(Stage.EXTRACT, System.nanoTime() - start);
+		return extractCode;
+	}
+
+	/*
+	 * 送入引擎前按 max-long-edge 缩小图像，未启用或无需缩放时原样返回
+	 */
+	protected ImageInfo prepareImage(ImageInfo imageInfo) {
+		return imageScaler.scale(imageInfo);
+	}
+
+	/*
+	 * 比对源图片特征与目标特征
+	 */
+	protected MatchResult doMatch(FaceRecognitionEngine faceEngine, CachedFeature source, byte[] targetFeature, MatchResult result) {
+		FaceSimilar faceSimilar = new FaceSimilar();
+		long start = System.nanoTime();
+		int compareCode = faceEngine.compareFaceFeature(new FaceFeature(targetFeature),
+				new FaceFeature(source.getFeature()), faceSimilar);
+		metrics.record(Stage.COMPARE, System.nanoTime() - start);
+		if (isError(compareCode)) {
+			result.setError(compareCode, this.getMessage(compareCode));
+			return result;
+		}
+		// 特征相似值
+		result.setScore(faceSimilar.getScore());
+		result.setFaces(toFaceResults(source.getFaceInfos()));
+		return result;
+	}
+
+	/*
+	 * 使用给定引擎按检测选项进行活体、年龄、性别、三维角度检测及特征提取
+	 *
+	 * @param faceEngine 引擎对象
+	 * @param imageInfo 输入的图像信息
+	 * @param options 活体阈值配置及需要检测的人脸属性
+	 * @param ir 是否为 IR 图像
+	 * @return
+	 */
+	protected DetectResult doDetect(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, FaceDetectOptions options, boolean ir) {
+		FaceLivenessProfile liveness = options.getLiveness();
+		Set<FaceAttribute> enabled = this.detectAttributes(options.getAttributes(), ir);
+		if (enabled.contains(FaceAttribute.LIVENESS)) {
+			// 设置活体检测参数
+			int paramCode = this.setLivenessParam(faceEngine, liveness);
+			if (isError(paramCode)) {
+				return new DetectResult(paramCode, this.getMessage(paramCode));
+			}
+		}
+		DetectResult result = this.doDetect(faceEngine, imageInfo, this.detectConfiguration(enabled, ir), enabled, ir);
+		if (enabled.contains(FaceAttribute.LIVENESS)) {
+			this.recordLiveness(liveness, result);
+		}
+		return result;
+	}
+
+	/*
+	 * 请求的人脸属性中引擎支持的部分，function-configuration 中明确关闭的功能模块不会被请求；
+	 * 按三维角度选择人脸时总是检测三维角度
+	 */
+	protected Set<FaceAttribute> detectAttributes(Set<FaceAttribute> attributes, boolean ir) {
+		FunctionConfiguration functions = properties.getFunctionConfiguration();
+		Set<FaceAttribute> requested = EnumSet.noneOf(FaceAttribute.class);
+		requested.addAll(attributes);
+		if (faceSelector.isAngleLimited()) {
+			requested.add(FaceAttribute.ANGLE);
+		}
+		Set<FaceAttribute> enabled = EnumSet.noneOf(FaceAttribute.class);
+		for (FaceAttribute attribute : requested) {
+			boolean supported;
+			switch (attribute) {
+			case LIVENESS:
+				supported = !Boolean.FALSE.equals(ir ? functions.isSupportIRLiveness() : functions.isSupportLiveness());
+				break;
+			case AGE:
+				supported = !Boolean.FALSE.equals(functions.isSupportAge());
+				break;
+			case GENDER:
+				supported = !Boolean.FALSE.equals(functions.isSupportGender());
+				break;
+			case ANGLE:
+				supported = !Boolean.FALSE.equals(functions.isSupportFace3dAngle());
+				break;
+			default:
+				supported = !Boolean.FALSE.equals(functions.isSupportFaceRecognition());
+				break;
+			}
+			if (supported) {
+				enabled.add(attribute);
+			}
+		}
+		return enabled;
+	}
+
+	/*
+	 * 只包含指定人脸属性的功能配置，传给 process / processIr
+	 */
+	protected FunctionConfiguration detectConfiguration(Set<FaceAttribute> attributes, boolean ir) {
+		return FunctionConfiguration.builder()
+        		.supportAge(attributes.contains(FaceAttribute.AGE))
+        		.supportFace3dAngle(attributes.contains(FaceAttribute.ANGLE))
+        		.supportGender(attributes.contains(FaceAttribute.GENDER))
+        		.supportLiveness(!ir && attributes.contains(FaceAttribute.LIVENESS))
+        		.supportIRLiveness(ir && attributes.contains(FaceAttribute.LIVENESS)).build();
+	}
+
+	/*
+	 * 使用给定引擎及功能配置进行检测，活体参数需已设置；批量检测时同一引擎上的多张图片共用一次设置。
+	 * 只读取指定人脸属性的结果：未请求任何需要属性处理的属性时跳过 process，未请求特征时跳过特征提取
+	 */
+	protected DetectResult doDetect(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, FunctionConfiguration configuration,
+			Set<FaceAttribute> attributes, boolean ir) {
+
+		DetectResult result = new DetectResult();
+
+		// 人脸检测
+		imageInfo = this.prepareImage(imageInfo);
+		List<FaceInfo> faceInfoList = this.doDetectFaceInfos(faceEngine, imageInfo, result);
+		if (faceInfoList == null) {
+			return result;
+		}
+
+		List<FaceResult> faces = this.doDetectAttributes(faceEngine, imageInfo, faceInfoList, configuration, attributes, ir, result);
+		if (faces != null) {
+			result.setFaces(faces);
+		}
+		return result;
+	}
+
+	/*
+	 * 对已检测到的人脸进行属性检测及特征提取，失败时在结果中记录错误并返回 null；按三维角度选择人脸时返回的人脸可能少于输入
+	 */
+	protected List<FaceResult> doDetectAttributes(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, List<FaceInfo> faceInfoList,
+			FunctionConfiguration configuration, Set<FaceAttribute> attributes, boolean ir, ArcFaceResult result) {
+
+		List<FaceResult> faces = toFaceResults(faceInfoList, imageInfo);
+		long start;
+
+		// 人脸属性检测
+		if (attributes.contains(FaceAttribute.LIVENESS) || attributes.contains(FaceAttribute.AGE)
+				|| attributes.contains(FaceAttribute.GENDER) || attributes.contains(FaceAttribute.ANGLE)) {
+			start = System.nanoTime();
+			int processCode = ir
+					? faceEngine.processIr(imageInfo.getImageData(), imageInfo.getWidth(), imageInfo.getHeight(),
+							imageInfo.getImageFormat(), faceInfoList, configuration)
+					: faceEngine.process(imageInfo.getImageData(), imageInfo.getWidth(), imageInfo.getHeight(),
+							imageInfo.getImageFormat(), faceInfoList, configuration);
+			metrics.record(Stage.PROCESS, System.nanoTime() - start);
+			if (isError(processCode)) {
+				result.setError(processCode, this.getMessage(processCode));
+				return null;
+			}
+		}
+
+		// 活体检测
+		if (attributes.contains(FaceAttribute.LIVENESS) && !this.doLiveness(faceEngine, faces, ir, result)) {
+			return null;
+		}
+		// 年龄检测
+		if (attributes.contains(FaceAttribute.AGE)) {
+			List<AgeInfo> ageInfoList = new ArrayList<AgeInfo>(faceInfoList.size());
+			start = System.nanoTime();
+			int ageCode = faceEngine.getAge(ageInfoList);
+			metrics.record(Stage.AGE, System.nanoTime() - start);
+			if (isError(ageCode)) {
+				result.setError(ageCode, this.getMessage(ageCode));
+				return null;
+			}
+			for (int index = 0; index < faces.size(); index++) {
+				// 年龄，若为0表示检测失败
+				faces.get(index).setAge(ageInfoList.get(index).getAge());
+			}
+		}
+		// 性别检测
+		if (attributes.contains(FaceAttribute.GENDER)) {
+			List<GenderInfo> genderInfoList = new ArrayList<GenderInfo>(faceInfoList.size());
+			start = System.nanoTime();
+			int genderCode = faceEngine.getGender(genderInfoList);
+			metrics.record(Stage.GENDER, System.nanoTime() - start);
+			if (isError(genderCode)) {
+				result.setError(genderCode, this.getMessage(genderCode));
+				return null;
+			}
+			for (int index = 0; index < faces.size(); index++) {
+				// 性别，未知性别=-1 、男性=0 、女性=1
+				faces.get(index).setGender(genderInfoList.get(index).getGender());
+			}
+		}
+		// 三维角度检测
+		if (attributes.contains(FaceAttribute.ANGLE)) {
+			List<Face3DAngle> face3DAngleList = new ArrayList<Face3DAngle>(faceInfoList.size());
+			start = System.nanoTime();
+			int angleCode = faceEngine.getFace3DAngle(face3DAngleList);
+			metrics.record(Stage.ANGLE, System.nanoTime() - start);
+			if (isError(angleCode)) {
+				result.setError(angleCode, this.getMessage(angleCode));
+				return null;
+			}
+			for (int index = 0; index < faces.size(); index++) {
+				// 人脸三维角度信息
+				faces.get(index).setAngle(face3DAngleList.get(index));
+			}
+		}
+
+		// 按三维角度过滤人脸后再限制人脸数，只对选中的人脸提取特征
+		if (faceSelector.isAngleLimited()) {
+			List<FaceInfo> selectedInfos = new ArrayList<FaceInfo>(faces.size());
+			List<FaceResult> selectedFaces = new ArrayList<FaceResult>(faces.size());
+			for (int index = 0; index < faces.size(); index++) {
+				if (faceSelector.accept(faces.get(index))) {
+					selectedInfos.add(faceInfoList.get(index));
+					selectedFaces.add(faces.get(index));
+				}
+			}
+			faceInfoList = faceSelector.limit(selectedInfos);
+			faces = faceSelector.limit(selectedFaces);
+			if (faces.isEmpty()) {
+				result.setError(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue(),
+						this.getMessage(ErrorInfo.MERR_ASF_EX_INVALID_FACE_INFO.getValue()));
+				return null;
+			}
+		}
+
+		// 特征提取
+		if (attributes.contains(FaceAttribute.FEATURE)) {
+			for (int index = 0; index < faces.size(); index++) {
+				FaceFeature faceFeature = new FaceFeature();
+				int extractCode = this.doExtractFeature(faceEngine, imageInfo, faceInfoList.get(index), faceFeature);
+				if (!isError(extractCode)) {
+					// 人脸特征数据
+					faces.get(index).setFeature(faceFeature.getFeatureData());
+				}
+			}
+		}
+		return faces;
+	}
+
+	/*
+	 * 使用给定引擎进行 RGB/IR 活体检测，只读取检测选项中的活体阈值配置
+	 */
+	protected DetectResult doVerify(FaceRecognitionEngine faceEngine, ImageInfo imageInfo, FaceDetectOptions options, boolean ir) {
+		FaceLivenessProfile liveness = options.getLiveness();
+
+		DetectResult result = new DetectResult();
+
+		// 设置活体检测参数
+		int paramCode = this.setLivenessParam(faceEngine, liveness);
+		if (isError(paramCode)) {
+			result.setError(paramCode, this.getMessage(paramCode));
+			return result;
+		}
+
+		// 人脸检测
+		imageInfo = this.prepareImage(imageInfo);
+		List<FaceInfo> faceInfoList = this.doDetectFaceInfos(faceEngine, imageInfo, result);
+		if (faceInfoList == null) {
+			return result;
+		}
+
+		// 活体属性处理
+		int processCode;
+		if (ir) {
+	        FunctionConfiguration configuration = FunctionConfiguration.builder()
+	        		.supportIRLiveness(properties.getFunctionConfiguration().isSupportIRLiveness()).build();
+			long start = System.nanoTime();
+			processCode = faceEngine.processIr(imageInfo.getImageData(), imageInfo.getWidth(),
+					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList, configuration);
+			metrics.record(Stage.PROCESS, System.nanoTime() - start);
+		} else {
+	        FunctionConfiguration configuration = FunctionConfiguration.builder()
+	        		.supportLiveness(properties.getFunctionConfiguration().isSupportLiveness()).build();
+			long start = System.nanoTime();
+			processCode = faceEngine.process(imageInfo.getImageData(), imageInfo.getWidth(),
+					imageInfo.getHeight(), imageInfo.getImageFormat(), faceInfoList, configuration);
+			metrics.record(Stage.PROCESS, System.nanoTime() - start);
+		}
+		if (isError(processCode)) {
+			result.setError(processCode, this.getMessage(processCode));
+			return result;
+		}
+
+		List<FaceResult> faces = toFaceResults(faceInfoList, imageInfo);
+		if (!this.doLiveness(faceEngine, faces, ir, result)) {
+			return result;
+		}
+		result.setFaces(faces);
+		this.recordLiveness(liveness, result);
+		return result;
+	}
+
+	/*
+	 * 按活体配置记录每张人脸的活体判定结果
+	 */
+	protected void recordLiveness(FaceLivenessProfile liveness, DetectResult result) {
+		if (result.isSuccess() && result.getFaces() != null) {
+			for (FaceResult face : result.getFaces()) {
+				metrics.recordLiveness(liveness.getName(), face.getLiveness());
+			}
+		}
+	}
+
+	/*
+	 * 读取 RGB/IR 活体结果写入人脸结果，失败时在结果中记录错误并返回 false
+	 */
+	protected boolean doLiveness(FaceRecognitionEngine faceEngine, List<FaceResult> faces, boolean ir, ArcFaceResult result) {
+		if (ir) {
+			// IR活体检测
+			List<IrLivenessInfo> irLivenessList = new ArrayList<IrLivenessInfo>(faces.size());
+			long start = System.nanoTime();
+			int livenessIrCode = faceEngine.getLivenessIr(irLivenessList);
+			metrics.record(Stage.LIVENESS, System.nanoTime() - start);
+			if (isError(livenessIrCode)) {
+				result.setError(livenessIrCode, this.getMessage(livenessIrCode));
+				return false;
+			}
+			for (int index = 0; index < faces.size(); index++) {
+				faces.get(index).setLiveness(irLivenessList.get(index).getLiveness());
+			}
+		} else {
+			// RGB活体检测
+			List<LivenessInfo> livenessList = new ArrayList<LivenessInfo>(faces.size());
+			long start = System.nanoTime();
+			int livenessCode = faceEngine.getLiveness(livenessList);
+			metrics.record(Stage.LIVENESS, System.nanoTime() - start);
+			if (isError(livenessCode)) {
+				result.setError(livenessCode, this.getMessage(livenessCode));
+				return false;
+			}
+			for (int index = 0; index < faces.size(); index++) {
+				faces.get(index).setLiveness(livenessList.get(index).getLiveness());
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * 使用 SDK 逐一比对探测特征与候选特征，整个批次只占用一个引擎对象
+	 */
+	protected float[] compareFeatures(byte[] probe, List<byte[]> candidates) {
+
+		// 长度不符的特征数据会导致 SDK 越界读取
+		checkFeature(probe);
+		for (byte[] candidate : candidates) {
+			checkFeature(candidate);
+		}
+		float[] scores = new float[candidates.size()];
+		if (scores.length == 0) {
+			return scores;
+		}
+		try {
+			// 获取引擎对象并执行
+			return this.execute(faceEngine -> {
+				FaceFeature sourceFaceFeature = new FaceFeature(probe);
+				FaceFeature targetFaceFeature = new FaceFeature();
+				FaceSimilar faceSimilar = new FaceSimilar();
+				for (int index = 0; index < scores.length; index++) {
+					targetFaceFeature.setFeatureData(candidates.get(index));
+					long start = System.nanoTime();
+					int compareCode = faceEngine.compareFaceFeature(targetFaceFeature, sourceFaceFeature, faceSimilar);
+					metrics.record(Stage.COMPARE, System.nanoTime() - start);
+					if (isError(compareCode)) {
+						throw new IllegalStateException(this.getMessage(compareCode));
+					}
+					scores[index] = faceSimilar.getScore();
+				}
+				return scores;
+			});
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void checkFeature(byte[] featureData) {
+		if (featureData == null || featureData.length != FaceFeature.FEATURE_SIZE) {
+			throw new IllegalArgumentException("Invalid face feature data length, expected " + FaceFeature.FEATURE_SIZE);
+		}
+	}
+
+	protected static List<FaceResult> toFaceResults(List<FaceInfo> faceInfoList) {
+		List<FaceResult> faces = new ArrayList<FaceResult>(faceInfoList.size());
+		for (FaceInfo faceInfo : faceInfoList) {
+			faces.add(new FaceResult(faceInfo));
+		}
+		return faces;
+	}
+
+	/*
+	 * 同上，送检图像经过缩放时人脸框换算为原图坐标
+	 */
+	protected static List<FaceResult> toFaceResults(List<FaceInfo> faceInfoList, ImageInfo imageInfo) {
+		List<FaceResult> faces = new ArrayList<FaceResult>(faceInfoList.size());
+		for (FaceInfo faceInfo : faceInfoList) {
+			faces.add(new FaceResult(toSource(imageInfo, faceInfo)));
+		}
+		return faces;
+	}
+
+	/*
+	 * 送检图像上的人脸信息换算为原图坐标，图像未经缩放时原样返回
+	 */
+	protected static FaceInfo toSource(ImageInfo imageInfo, FaceInfo faceInfo) {
+		return imageInfo instanceof ScaledImageInfo ? ((ScaledImageInfo) imageInfo).toSource(faceInfo) : faceInfo;
+	}
+
+	/*
+	 * 图片特征查找：启用特征缓存时先按图片摘要读取缓存，未命中时提交解码，借出引擎后再检测并提取特征写入缓存
+	 */
+	private final class FeatureLookup implements Closeable {
+
+		private final HashCode key;
+		private CachedFeature feature;
+		private CompletableFuture<DecodedImage> decoding;
+		private DecodedImage decoded;
+
+		FeatureLookup(byte[] imageBytes, boolean gray) {
+			this.key = featureCache != null ? featureCache.key(imageBytes, gray) : null;
+			this.feature = key != null ? featureCache.getIfPresent(key) : null;
+			this.decoding = feature == null ? decodeAsync(imageBytes, gray) : null;
+		}
+
+		FeatureLookup(ImageInfo imageInfo) {
+			this.key = null;
+			this.decoded = DecodedImage.of(imageInfo);
+		}
+
+		/*
+		 * 等待解码完成，应在借出引擎前调用
+		 */
+		void await() {
+			if (decoding != null && decoded == null) {
+				decoded = awaitDecoded(decoding);
+			}
+		}
+
+		CachedFeature getFeature() {
+			return feature;
+		}
+
+		CachedFeature resolve(FaceRecognitionEngine faceEngine, ArcFaceResult result) {
+			if (feature == null) {
+				this.await();
+				feature = doExtract(faceEngine, decoded.getImageInfo(), result);
+				if (feature != null && key != null) {
+					featureCache.put(key, feature);
+				}
+			}
+			return feature;
+		}
+
+		@Override
+		public void close() {
+			if (decoded != null) {
+				decoded.close();
+			} else if (decoding != null) {
+				// 解码失败或尚未完成时，完成后归还像素缓冲区
+				decoding.thenAccept(DecodedImage::close);
+			}
+		}
+
+	}
+
+	// ~ JSON 转换
+	// ========================================================================================================
+
+	protected JSONObject toErrorJSON(ArcFaceResult source) {
+		JSONObject result = new JSONObject();
+		result.put("error_code", source.getErrorCode());
+		result.put("error_msg", source.getErrorMsg());
+		return result;
+	}
+
+	protected JSONObject toDetectJSON(DetectResult source) {
+		if (!source.isSuccess()) {
+			return toErrorJSON(source);
+		}
+		JSONObject result = new JSONObject();
+		// 检测到的图片中的人脸数量
+		result.put("face_num", source.getFaceNum());
+		JSONArray face_list = new JSONArray(source.getFaceNum());
+		for (FaceResult faceResult : source.getFaces()) {
+			JSONObject face = new JSONObject();
+			// 人脸图片的唯一标识，IMAGE模式下不返回faceId
+			face.put("face_token", faceResult.getFaceId());
+			// 人脸角度
+			face.put("orient", faceResult.getOrient());
+			// 人脸在图片中的位置
+			JSONObject location = new JSONObject();
+			location.put("left", faceResult.getLeft());
+			location.put("top", faceResult.getTop());
+			location.put("right", faceResult.getRight());
+			location.put("bottom", faceResult.getBottom());
+			face.put("location", location);
+			// 性别，，未知性别=-1 、男性=0 、女性=1
+			face.put("gender", faceResult.getGender());
+			// 年龄，若为0表示检测失败
+			face.put("age", faceResult.getAge());
+			// 活体信息
+			face.put("liveness", faceResult.getLiveness());
+			// 人脸三维角度信息
+			JSONObject angel = new JSONObject();
+			angel.put("yaw", faceResult.getYaw());
+			angel.put("roll", faceResult.getRoll());
+			angel.put("pitch", faceResult.getPitch());
+			angel.put("status", faceResult.getAngleStatus());
+			face.put("angel", angel);
+			if (faceResult.getFeature() != null) {
+				// 人脸特征数据
+				face.put("feature", Base64.getEncoder().encodeToString(faceResult.getFeature()));
+			}
+			face_list.add(face);
+		}
+		result.put("face_list", face_list);
+		result.put("error_code", 0);
+		return result;
+	}
+
+	protected JSONObject toVerifyJSON(DetectResult source) {
+		if (!source.isSuccess()) {
+			return toErrorJSON(source);
+		}
+		JSONObject result = new JSONObject();
+		// 人脸识别结果数据
+		JSONArray face_list = new JSONArray(source.getFaceNum());
+		for (FaceResult faceResult : source.getFaces()) {
+			JSONObject face = new JSONObject();
+			// 人脸图片的唯一标识，IMAGE模式下不返回faceId
+			face.put("face_token", faceResult.getFaceId());
+			face.put("liveness", faceResult.getLiveness());
+			face_list.add(face);
+		}
+		result.put("face_list", face_list);
+		result.put("error_code", 0);
+		return result;
+	}
+
+	protected JSONObject toMatchJSON(MatchResult source) {
+		if (!source.isSuccess()) {
+			return toErrorJSON(source);
+		}
+		JSONObject result = new JSONObject();
+		// 特征相似值
+		result.put("score", source.getScore());
+		JSONArray face_list = new JSONArray(source.getFaces().size());
+		for (FaceResult faceResult : source.getFaces()) {
+			JSONObject face = new JSONObject();
+			// 人脸图片的唯一标识，IMAGE模式下不返回faceId
+			face.put("face_token", faceResult.getFaceId());
+			face_list.add(face);
+		}
+		result.put("face_list", face_list);
+		result.put("error_code", 0);
+		return result;
+	}
+
+	protected JSONObject toSearchJSON(MatchResult source) {
+		if (!source.isSuccess()) {
+			return toErrorJSON(source);
+		}
+		JSONObject result = new JSONObject();
+		JSONArray face_list = new JSONArray(source.getFaces().size());
+		for (FaceResult faceResult : source.getFaces()) {
+			JSONObject face = new JSONObject();
+			// 人脸图片的唯一标识，IMAGE模式下不返回faceId
+			face.put("face_token", faceResult.getFaceId());
+			// 特征相似值
+			face.put("score", faceResult.getScore());
+			face_list.add(face);
+		}
+		result.put("face_list", face_list);
+		result.put("error_code", 0);
+		return result;
+	}
+
+	protected JSONObject toSearchAllJSON(MatchResult source) {
+		if (!source.isSuccess()) {
+			return toErrorJSON(source);
+		}
+		JSONObject result = new JSONObject();
+		JSONArray source_list = new JSONArray(source.getSourceFaces().size());
+		for (FaceResult faceResult : source.getSourceFaces()) {
+			source_list.add(toLocationJSON(faceResult));
+		}
+		result.put("source_list", source_list);
+		JSONArray face_list = new JSONArray(source.getFaces().size());
+		for (FaceResult faceResult : source.getFaces()) {
+			face_list.add(toLocationJSON(faceResult));
+		}
+		result.put("face_list", face_list);
+		JSONArray pair_list = new JSONArray(source.getPairs().size());
+		for (FacePair facePair : source.getPairs()) {
+			JSONObject pair = new JSONObject();
+			// 源图片与待检索图片中人脸的下标
+			pair.put("source_index", facePair.getSourceIndex());
+			pair.put("face_index", facePair.getSearchIndex());
+			// 特征相似值
+			pair.put("score", facePair.getScore());
+			pair_list.add(pair);
+		}
+		result.put("pair_list", pair_list);
+		result.put("error_code", 0);
+		return result;
+	}
+
+	private JSONObject toLocationJSON(FaceResult faceResult) {
+		JSONObject face = new JSONObject();
+		// 人脸图片的唯一标识，IMAGE模式下不返回faceId
+		face.put("face_token", faceResult.getFaceId());
+		// 人脸在图片中的位置
+		JSONObject location = new JSONObject();
+		location.put("left", faceResult.getLeft());
+		location.put("top", faceResult.getTop());
+		location.put("right", faceResult.getRight());
+		location.put("bottom", faceResult.getBottom());
+		face.put("location", location);
+		return face;
+	}
+
+	protected JSONObject toIdentifyJSON(MatchResult source) {
+		if (!source.isSuccess()) {
+			return toErrorJSON(source);
+		}
+		JSONObject result = new JSONObject();
+		if (!source.getFaces().isEmpty()) {
+			// 人脸图片的唯一标识，IMAGE模式下不返回faceId
+			result.put("face_token", source.getFaces().get(0).getFaceId());
+		}
+		JSONArray user_list = new JSONArray(source.getUsers().size());
+		for (FaceMatch match : source.getUsers()) {
+			JSONObject user = new JSONObject();
+			// 入库时指定的用户标识
+			user.put("user_id", match.getUserId());
+			// 特征相似值
+			user.put("score", match.getScore());
+			user_list.add(user);
+		}
+		result.put("user_list", user_list);
+		result.put("error_code", 0);
+		return result;
+	}
+
+	public ArcFaceRecognitionProperties getProperties() {
+		return properties;
+	}
+
+	public FaceGallery getFaceGallery() {
+		if (faceGallery == null) {
+			throw new IllegalStateException("Face gallery is not enabled, please set arcface.gallery.enabled=true");
+		}
+		return faceGallery;
+	}
+
+	public void setFaceGallery(FaceGallery faceGallery) {
+		this.faceGallery = faceGallery;
+	}
+
+	public ShardedFaceGallery getShardedGallery() {
+		if (shardedGallery == null) {
+			throw new IllegalStateException("Face shard is not enabled, please set arcface.shard.enabled=true");
+		}
+		return shardedGallery;
+	}
+
+	public void setShardedGallery(ShardedFaceGallery shardedGallery) {
+		this.shardedGallery = shardedGallery;
+	}
+
+	/*
+	 * 1:N 检索使用的人脸库配置，启用分片时为分片人脸库的配置
+	 */
+	protected FaceGalleryProperties getGalleryProperties() {
+		return shardedGallery != null ? shardedGallery.getGalleryProperties() : this.getFaceGallery().getProperties();
+	}
+
+	public ExecutorService getBatchExecutor() {
+		return batchExecutor;
+	}
+
+	public void setBatchExecutor(ExecutorService batchExecutor) {
+		this.batchExecutor = batchExecutor;
+	}
+
+	public FaceImageDecoder getImageDecoder() {
+		return imageDecoder;
+	}
+
+	public void setImageDecoder(FaceImageDecoder imageDecoder) {
+		this.imageDecoder = imageDecoder;
+	}
+
+	public FaceImageScaler getImageScaler() {
+		return imageScaler;
+	}
+
+	public void setImageScaler(FaceImageScaler imageScaler) {
+		this.imageScaler = imageScaler;
+	}
+
+	public FaceFeatureCache getFeatureCache() {
+		return featureCache;
+	}
+
+	public void setFeatureCache(FaceFeatureCache featureCache) {
+		this.featureCache = featureCache;
+	}
+
+	public ArcFaceMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(ArcFaceMetrics metrics) {
+		this.metrics = metrics == null ? ArcFaceMetrics.NONE : metrics;
+	}
+
+	public FaceEngineWorkers getEngineWorkers() {
+		return engineWorkers;
+	}
+
+	public void setEngineWorkers(FaceEngineWorkers engineWorkers) {
+		this.engineWorkers = engineWorkers;
+	}
+
+	public FaceStreamSessions getStreamSessions() {
+		if (streamSessions == null) {
+			throw new IllegalStateException("Face stream is not enabled, please set arcface.stream.enabled=true");
+		}
+		return streamSessions;
+	}
+
+	public void setStreamSessions(FaceStreamSessions streamSessions) {
+		this.streamSessions = streamSessions;
+	}
+
+	public FaceSelector getFaceSelector() {
+		return faceSelector;
+	}
+
+	public void setFaceSelector(FaceSelector faceSelector) {
+		this.faceSelector = faceSelector;
+	}
+
+	/*
+	 * 按名称查找活体阈值配置，名称不存在时抛出 IllegalArgumentException
+	 */
+	public FaceLivenessProfile getLivenessProfile(String name) {
+		return livenessProfiles.get(name);
+	}
+
+	public FaceLivenessProfiles getLivenessProfiles() {
+		return livenessProfiles;
+	}
+
+	public void setLivenessProfiles(FaceLivenessProfiles livenessProfiles) {
+		this.livenessProfiles = livenessProfiles;
+	}
+
+	public FaceLivenessPools getLivenessPools() {
+		return livenessPools;
+	}
+
+	public void setLivenessPools(FaceLivenessPools livenessPools) {
+		this.livenessPools = livenessPools;
+	}
+
+	public FaceEngineAdmission getAdmission() {
+		return admission;
+	}
+
+	public void setAdmission(FaceEngineAdmission admission) {
+		this.admission = admission;
+	}
+
+}
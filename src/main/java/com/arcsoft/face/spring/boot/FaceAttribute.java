@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot;
+
+/**
+ * 人脸检测时可选的属性检测阶段，调用方只请求需要的属性时，未请求的属性不参与属性处理、也不读取其结果
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public enum FaceAttribute {
+
+	/**
+	 * 活体检测（RGB 或 IR，取决于图像类型）
+	 */
+	LIVENESS,
+	/**
+	 * 年龄检测
+	 */
+	AGE,
+	/**
+	 * 性别检测
+	 */
+	GENDER,
+	/**
+	 * 三维角度检测
+	 */
+	ANGLE,
+	/**
+	 * 人脸特征提取
+	 */
+	FEATURE;
+
+}
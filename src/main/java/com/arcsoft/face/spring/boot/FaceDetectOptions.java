@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfile;
+
+/**
+ * 检测选项：活体阈值配置与需要检测的人脸属性，检测、比对、活体校验、批量检测及视频流共用；
+ * 不可变对象，按活体级别创建见 {@link ArcFaceRecognitionTemplate#options(FaceLiveness)}
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class FaceDetectOptions {
+
+	/**
+	 * 活体阈值配置，同时决定启用活体子池时借出引擎的子池
+	 */
+	private final FaceLivenessProfile liveness;
+	/**
+	 * 需要检测的人脸属性，未请求的属性不参与属性处理；比对与活体校验不读取该项
+	 */
+	private final Set<FaceAttribute> attributes;
+
+	private FaceDetectOptions(FaceLivenessProfile liveness, Set<FaceAttribute> attributes) {
+		this.liveness = Objects.requireNonNull(liveness, "liveness");
+		Set<FaceAttribute> copy = EnumSet.noneOf(FaceAttribute.class);
+		copy.addAll(attributes);
+		this.attributes = Collections.unmodifiableSet(copy);
+	}
+
+	/*
+	 * 使用指定活体阈值配置并检测全部人脸属性
+	 */
+	public static FaceDetectOptions of(FaceLivenessProfile liveness) {
+		return new FaceDetectOptions(liveness, EnumSet.allOf(FaceAttribute.class));
+	}
+
+	/*
+	 * 使用指定活体阈值配置，只检测指定的人脸属性
+	 */
+	public static FaceDetectOptions of(FaceLivenessProfile liveness, Set<FaceAttribute> attributes) {
+		return new FaceDetectOptions(liveness, attributes);
+	}
+
+	/*
+	 * 同一活体阈值配置，只检测指定的人脸属性，例如仅需人脸框与特征时传入 {@code FaceAttribute.FEATURE}
+	 */
+	public FaceDetectOptions withAttributes(FaceAttribute first, FaceAttribute... rest) {
+		return new FaceDetectOptions(liveness, EnumSet.of(first, rest));
+	}
+
+	public FaceDetectOptions withAttributes(Set<FaceAttribute> attributes) {
+		return new FaceDetectOptions(liveness, attributes);
+	}
+
+	public FaceDetectOptions withLiveness(FaceLivenessProfile liveness) {
+		return new FaceDetectOptions(liveness, attributes);
+	}
+
+	public FaceLivenessProfile getLiveness() {
+		return liveness;
+	}
+
+	public Set<FaceAttribute> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "FaceDetectOptions(liveness=" + liveness.getName() + ", attributes=" + attributes + ")";
+	}
+
+}
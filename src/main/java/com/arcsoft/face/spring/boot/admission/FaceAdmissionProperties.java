@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.admission;
+
+import java.time.Duration;
+
+/**
+ * 准入控制配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceAdmissionProperties {
+
+	/**
+	 * 等待空闲引擎的最长时间，超时后返回繁忙错误码；为空时沿用 pool2.max-wait
+	 */
+	private Duration maxWait;
+	/**
+	 * 同时等待引擎的最大请求数，超出后立即返回繁忙错误码，0 表示不限制
+	 */
+	private int maxQueueDepth = 0;
+
+	public Duration getMaxWait() {
+		return maxWait;
+	}
+
+	public void setMaxWait(Duration maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	public void setMaxQueueDepth(int maxQueueDepth) {
+		this.maxQueueDepth = maxQueueDepth;
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.admission;
+
+import java.time.Duration;
+
+/**
+ * 调用期限
+ * <p>
+ * 调用方在当前线程上声明期限后，模板在等待引擎时不会超过剩余时间，期限已过的请求在执行原生调用前即被拒绝；
+ * 异步接口在提交时捕获期限并在执行线程上恢复。嵌套声明时取较早的期限。
+ * <pre>
+ * try (FaceDeadline.Scope scope = FaceDeadline.within(Duration.ofMillis(300))) {
+ *     template.detectFaces(imageBytes, FaceLiveness.NORMAL);
+ * }
+ * </pre>
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class FaceDeadline {
+
+	/**
+	 * 未设置期限
+	 */
+	public static final long NONE = Long.MAX_VALUE;
+
+	private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[] { NONE });
+
+	private FaceDeadline() {
+	}
+
+	/*
+	 * 声明从现在起的期限
+	 */
+	public static Scope within(Duration timeout) {
+		return at(System.nanoTime() + timeout.toNanos());
+	}
+
+	/*
+	 * 声明以 System.nanoTime() 表示的绝对期限，NONE 表示不修改当前期限
+	 */
+	public static Scope at(long deadlineNanos) {
+		long[] current = CURRENT.get();
+		long previous = current[0];
+		if (deadlineNanos != NONE && (previous == NONE || deadlineNanos - previous < 0)) {
+			current[0] = deadlineNanos;
+		}
+		return new Scope(previous);
+	}
+
+	/*
+	 * 当前线程的期限（System.nanoTime() 表示），未设置时为 NONE
+	 */
+	public static long current() {
+		return CURRENT.get()[0];
+	}
+
+	/*
+	 * 距期限的剩余纳秒数，未设置时为 NONE，已过期时不大于 0
+	 */
+	public static long remainingNanos() {
+		long deadline = current();
+		return deadline == NONE ? NONE : deadline - System.nanoTime();
+	}
+
+	public static boolean isExpired() {
+		long deadline = current();
+		return deadline != NONE && deadline - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * 期限作用域，关闭时恢复外层期限
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		private final long previous;
+
+		private Scope(long previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void close() {
+			CURRENT.get()[0] = previous;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.admission;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException.Reason;
+
+/**
+ * 引擎准入控制
+ * <p>
+ * 借用引擎时限制同时等待的请求数，并以 max-wait 与调用方期限（{@link FaceDeadline}）中较早者作为等待上限；
+ * 超出限制的请求以 {@link FaceOverloadedException} 快速失败，由模板转换为繁忙错误码，并按原因累计拒绝次数。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEngineAdmission {
+
+	private final FaceAdmissionProperties properties;
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final LongAdder[] rejected = new LongAdder[Reason.values().length];
+
+	public FaceEngineAdmission(FaceAdmissionProperties properties) {
+		this.properties = properties;
+		for (int index = 0; index < rejected.length; index++) {
+			rejected[index] = new LongAdder();
+		}
+	}
+
+	/*
+	 * 在准入限制下从对象池借出引擎
+	 */
+	public <T> T borrow(GenericObjectPool<T> pool) throws Exception {
+		long remaining = FaceDeadline.remainingNanos();
+		if (remaining != FaceDeadline.NONE && remaining <= 0) {
+			throw new FaceOverloadedException(Reason.DEADLINE, "Deadline exceeded before borrowing a face engine");
+		}
+		Duration maxWait = properties.getMaxWait() != null ? properties.getMaxWait() : pool.getMaxWaitDuration();
+		long maxWaitNanos = maxWait.isNegative() ? -1L : maxWait.toNanos();
+		boolean deadlineBound = remaining != FaceDeadline.NONE && (maxWaitNanos < 0 || remaining < maxWaitNanos);
+		long waitNanos = deadlineBound ? remaining : maxWaitNanos;
+		int queued = waiting.incrementAndGet();
+		try {
+			int maxQueueDepth = properties.getMaxQueueDepth();
+			if (maxQueueDepth > 0 && queued > maxQueueDepth && pool.getNumIdle() == 0) {
+				throw new FaceOverloadedException(Reason.QUEUE_FULL, "Too many requests waiting for a face engine : " + queued);
+			}
+			return waitNanos < 0 ? pool.borrowObject() : pool.borrowObject(Duration.ofNanos(waitNanos));
+		} catch (NoSuchElementException e) {
+			if (waitNanos < 0) {
+				throw e;
+			}
+			throw new FaceOverloadedException(deadlineBound ? Reason.DEADLINE : Reason.TIMEOUT,
+					"No face engine available within " + Duration.ofNanos(waitNanos).toMillis() + "ms", e);
+		} finally {
+			waiting.decrementAndGet();
+		}
+	}
+
+	/*
+	 * 按排队深度准入，用于不经对象池借还的工作线程：排队任务数达到 max-queue-depth 时拒绝
+	 */
+	public void checkQueueDepth(int queued) {
+		int maxQueueDepth = properties.getMaxQueueDepth();
+		if (maxQueueDepth > 0 && queued >= maxQueueDepth) {
+			throw new FaceOverloadedException(Reason.QUEUE_FULL, "Too many requests queued for face engine workers : " + queued);
+		}
+	}
+
+	/*
+	 * 检查调用方期限，已过期时拒绝
+	 */
+	public void checkDeadline() {
+		if (FaceDeadline.isExpired()) {
+			throw new FaceOverloadedException(Reason.DEADLINE, "Deadline exceeded before calling the face engine");
+		}
+	}
+
+	/*
+	 * 记录一次拒绝
+	 */
+	public void rejected(Reason reason) {
+		rejected[reason.ordinal()].increment();
+	}
+
+	/*
+	 * 正在等待引擎的请求数
+	 */
+	public int getWaiting() {
+		return waiting.get();
+	}
+
+	public long getRejected(Reason reason) {
+		return rejected[reason.ordinal()].sum();
+	}
+
+	/*
+	 * 累计拒绝的请求数
+	 */
+	public long getRejected() {
+		long total = 0;
+		for (LongAdder adder : rejected) {
+			total += adder.sum();
+		}
+		return total;
+	}
+
+	public FaceAdmissionProperties getProperties() {
+		return properties;
+	}
+
+}
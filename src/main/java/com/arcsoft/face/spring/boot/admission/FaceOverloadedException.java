@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.admission;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 引擎繁忙：请求在获得引擎之前被拒绝（排队已满、等待超时或调用方期限已过），未执行任何原生调用
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@SuppressWarnings("serial")
+public class FaceOverloadedException extends RejectedExecutionException {
+
+	/**
+	 * 拒绝原因
+	 */
+	public enum Reason {
+
+		/**
+		 * 等待引擎的请求数已达上限
+		 */
+		QUEUE_FULL("queue_full"),
+		/**
+		 * 等待引擎超过 max-wait
+		 */
+		TIMEOUT("timeout"),
+		/**
+		 * 调用方期限已过
+		 */
+		DEADLINE("deadline");
+
+		private final String tag;
+
+		Reason(String tag) {
+			this.tag = tag;
+		}
+
+		public String getTag() {
+			return tag;
+		}
+
+	}
+
+	private final Reason reason;
+
+	public FaceOverloadedException(Reason reason, String message) {
+		super(message);
+		this.reason = reason;
+	}
+
+	public FaceOverloadedException(Reason reason, String message, Throwable cause) {
+		super(message, cause);
+		this.reason = reason;
+	}
+
+	public Reason getReason() {
+		return reason;
+	}
+
+}
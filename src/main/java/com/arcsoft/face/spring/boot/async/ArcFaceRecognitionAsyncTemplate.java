@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.async;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.admission.FaceDeadline;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException.Reason;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.MatchResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 人脸识别异步接口
+ * <p>
+ * 调用在专用的有界线程池中执行，线程数默认与引擎数一致，因此执行线程不会在借用引擎时无限等待；
+ * 所有线程都忙时请求进入有界队列，队列已满则返回的 CompletableFuture 立即以 {@link FaceOverloadedException}
+ * （{@link RejectedExecutionException} 的子类）失败，
+ * 由调用方决定降级或重试，而不是在调用线程中堆积阻塞。
+ * 排队期间被取消的请求不会再占用引擎。提交时调用方线程上的期限（{@link FaceDeadline}）随请求传递到执行线程，
+ * 排队期间已过期的请求不再执行。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ArcFaceRecognitionAsyncTemplate implements Closeable {
+
+	private final ArcFaceRecognitionTemplate template;
+	private final ThreadPoolExecutor executor;
+	private final LongAdder rejected = new LongAdder();
+
+	public ArcFaceRecognitionAsyncTemplate(ArcFaceRecognitionTemplate template, FaceAsyncProperties properties) {
+		this.template = template;
+		int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : engines(template);
+		int queueCapacity = properties.getQueueCapacity() > 0 ? properties.getQueueCapacity() : parallelism * 2;
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity),
+				new ThreadFactoryBuilder().setNameFormat("arcface-async-%d").setDaemon(true).build(),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/*
+	 * 在异步线程池中执行任意同步接口调用
+	 */
+	public <T> CompletableFuture<T> submit(Function<ArcFaceRecognitionTemplate, T> call) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		long deadline = FaceDeadline.current();
+		try {
+			executor.execute(() -> {
+				// 排队期间已被取消或超时完成
+				if (future.isDone()) {
+					return;
+				}
+				try (FaceDeadline.Scope scope = FaceDeadline.at(deadline)) {
+					if (FaceDeadline.isExpired()) {
+						future.completeExceptionally(new FaceOverloadedException(Reason.DEADLINE, "Deadline exceeded while queued"));
+						return;
+					}
+					future.complete(call.apply(template));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			future.completeExceptionally(new FaceOverloadedException(Reason.QUEUE_FULL, "Face async queue is full", e));
+		}
+		return future;
+	}
+
+	public CompletableFuture<DetectResult> detectFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.submit(template -> template.detectFaces(imageBytes, liveness));
+	}
+
+	public CompletableFuture<DetectResult> detectFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.submit(template -> template.detectFaces(imageInfo, liveness));
+	}
+
+	public CompletableFuture<DetectResult> irDetectFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.submit(template -> template.irDetectFaces(imageBytes, liveness));
+	}
+
+	public CompletableFuture<DetectResult> irDetectFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.submit(template -> template.irDetectFaces(imageInfo, liveness));
+	}
+
+	public CompletableFuture<MatchResult> matchFaces(ImageInfo sourceImage, byte[] feature, FaceLiveness liveness) {
+		return this.submit(template -> template.matchFaces(sourceImage, feature, liveness));
+	}
+
+	public CompletableFuture<MatchResult> matchFaces(byte[] sourceImage, byte[] targetImage, FaceLiveness liveness) {
+		return this.submit(template -> template.matchFaces(sourceImage, targetImage, liveness));
+	}
+
+	public CompletableFuture<MatchResult> matchFaces(ImageInfo sourceImage, ImageInfo targetImage, FaceLiveness liveness) {
+		return this.submit(template -> template.matchFaces(sourceImage, targetImage, liveness));
+	}
+
+	public CompletableFuture<MatchResult> searchFaces(byte[] sourceImage, byte[] searchImage) {
+		return this.submit(template -> template.searchFaces(sourceImage, searchImage));
+	}
+
+	public CompletableFuture<MatchResult> searchFaces(ImageInfo sourceImage, ImageInfo searchImage) {
+		return this.submit(template -> template.searchFaces(sourceImage, searchImage));
+	}
+
+	public CompletableFuture<DetectResult> verifyFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.submit(template -> template.verifyFaces(imageBytes, liveness));
+	}
+
+	public CompletableFuture<DetectResult> verifyFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.submit(template -> template.verifyFaces(imageInfo, liveness));
+	}
+
+	public CompletableFuture<DetectResult> irVerifyFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.submit(template -> template.irVerifyFaces(imageBytes, liveness));
+	}
+
+	public CompletableFuture<DetectResult> irVerifyFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.submit(template -> template.irVerifyFaces(imageInfo, liveness));
+	}
+
+	public CompletableFuture<MatchResult> identifyFaces(byte[] imageBytes, int topK) {
+		return this.submit(template -> template.identifyFaces(imageBytes, topK));
+	}
+
+	public CompletableFuture<MatchResult> identifyFaces(ImageInfo imageInfo, int topK) {
+		return this.submit(template -> template.identifyFaces(imageInfo, topK));
+	}
+
+	public CompletableFuture<MatchResult> identifyFeature(byte[] feature, int topK) {
+		return this.submit(template -> template.identifyFeature(feature, topK));
+	}
+
+	public CompletableFuture<float[]> compareMany(byte[] probe, List<byte[]> candidates) {
+		return this.submit(template -> template.compareMany(probe, candidates));
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	public ArcFaceRecognitionTemplate getTemplate() {
+		return template;
+	}
+
+	public int getParallelism() {
+		return executor.getMaximumPoolSize();
+	}
+
+	/*
+	 * 正在排队等待执行的请求数
+	 */
+	public int getQueued() {
+		return executor.getQueue().size();
+	}
+
+	/*
+	 * 因队列已满被拒绝的请求数
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	private static int engines(ArcFaceRecognitionTemplate template) {
+		if (template.getEngineWorkers() != null) {
+			return Math.max(1, template.getEngineWorkers().getSize());
+		}
+		return Math.max(1, template.getProperties().getPool2().getMaxTotal());
+	}
+
+}
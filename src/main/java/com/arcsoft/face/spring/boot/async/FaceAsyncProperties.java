@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.async;
+
+/**
+ * 异步接口配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceAsyncProperties {
+
+	/**
+	 * 是否启用异步接口
+	 */
+	private boolean enabled = false;
+	/**
+	 * 异步执行线程数，0 表示与引擎数一致（启用引擎工作线程时取其线程数，否则取 pool2.max-total）
+	 */
+	private int parallelism = 0;
+	/**
+	 * 所有执行线程都忙时最多排队的请求数，超出后立即以 RejectedExecutionException 失败，0 表示执行线程数的两倍
+	 */
+	private int queueCapacity = 0;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+}
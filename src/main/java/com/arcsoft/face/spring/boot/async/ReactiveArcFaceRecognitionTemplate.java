@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.MatchResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 人脸识别 Reactor 接口
+ * <p>
+ * 基于 {@link ArcFaceRecognitionAsyncTemplate}：订阅时才提交到异步线程池，取消订阅会取消排队中的请求；
+ * 无需再由调用方切换到 boundedElastic 调度器，队列已满时以 {@link java.util.concurrent.RejectedExecutionException} 结束。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ReactiveArcFaceRecognitionTemplate {
+
+	private final ArcFaceRecognitionAsyncTemplate asyncTemplate;
+
+	public ReactiveArcFaceRecognitionTemplate(ArcFaceRecognitionAsyncTemplate asyncTemplate) {
+		this.asyncTemplate = asyncTemplate;
+	}
+
+	/*
+	 * 在异步线程池中执行任意同步接口调用
+	 */
+	public <T> Mono<T> submit(Function<ArcFaceRecognitionTemplate, T> call) {
+		return this.defer(() -> asyncTemplate.submit(call));
+	}
+
+	public Mono<DetectResult> detectFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.detectFaces(imageBytes, liveness));
+	}
+
+	public Mono<DetectResult> detectFaces(ImageInfo imageInfo, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.detectFaces(imageInfo, liveness));
+	}
+
+	public Mono<DetectResult> irDetectFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.irDetectFaces(imageBytes, liveness));
+	}
+
+	public Mono<MatchResult> matchFaces(ImageInfo sourceImage, byte[] feature, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.matchFaces(sourceImage, feature, liveness));
+	}
+
+	public Mono<MatchResult> matchFaces(byte[] sourceImage, byte[] targetImage, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.matchFaces(sourceImage, targetImage, liveness));
+	}
+
+	public Mono<MatchResult> searchFaces(byte[] sourceImage, byte[] searchImage) {
+		return this.defer(() -> asyncTemplate.searchFaces(sourceImage, searchImage));
+	}
+
+	public Mono<DetectResult> verifyFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.verifyFaces(imageBytes, liveness));
+	}
+
+	public Mono<DetectResult> irVerifyFaces(byte[] imageBytes, FaceLiveness liveness) {
+		return this.defer(() -> asyncTemplate.irVerifyFaces(imageBytes, liveness));
+	}
+
+	public Mono<MatchResult> identifyFaces(byte[] imageBytes, int topK) {
+		return this.defer(() -> asyncTemplate.identifyFaces(imageBytes, topK));
+	}
+
+	public Mono<MatchResult> identifyFeature(byte[] feature, int topK) {
+		return this.defer(() -> asyncTemplate.identifyFeature(feature, topK));
+	}
+
+	public ArcFaceRecognitionAsyncTemplate getAsyncTemplate() {
+		return asyncTemplate;
+	}
+
+	private <T> Mono<T> defer(Supplier<CompletableFuture<T>> supplier) {
+		return Mono.fromFuture(supplier);
+	}
+
+}
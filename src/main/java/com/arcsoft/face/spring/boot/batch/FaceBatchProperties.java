@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.batch;
+
+/**
+ * 批量检测配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceBatchProperties {
+
+	/**
+	 * 是否启用批量工作线程池，未启用时批量检测在调用线程上逐块执行
+	 */
+	private boolean enabled = false;
+	/**
+	 * 批量检测的工作线程数，每个线程处理一个分块时只占用一个引擎对象，不宜超过引擎池的 max-total
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	/**
+	 * 每个分块的图片数，同一分块内共用一次引擎借还与活体参数设置
+	 */
+	private int chunkSize = 32;
+	/**
+	 * 单次批量调用最多同时提交的分块数，用于限制流式批量检测时缓存的图片与结果，默认为工作线程数的两倍
+	 */
+	private int maxInFlight = 0;
+	/**
+	 * 工作线程池的任务队列长度，队列已满时新提交的分块不再排队，其中每张图片返回 OVERLOADED
+	 */
+	private int queueCapacity = 256;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight > 0 ? maxInFlight : Math.max(1, parallelism) * 2;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+}
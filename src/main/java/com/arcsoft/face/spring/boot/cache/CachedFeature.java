@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.cache;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.arcsoft.face.FaceInfo;
+
+/**
+ * 缓存的图片检测结果：图片中的人脸信息及第一张人脸的特征
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class CachedFeature {
+
+	private final List<FaceInfo> faceInfos;
+	private final byte[] feature;
+
+	public CachedFeature(List<FaceInfo> faceInfos, byte[] feature) {
+		this.faceInfos = Collections.unmodifiableList(faceInfos);
+		this.feature = feature;
+	}
+
+	public List<FaceInfo> getFaceInfos() {
+		return faceInfos;
+	}
+
+	/*
+	 * 提取特征的人脸
+	 */
+	public FaceInfo getFaceInfo() {
+		return faceInfos.get(0);
+	}
+
+	public byte[] getFeature() {
+		return feature;
+	}
+
+}
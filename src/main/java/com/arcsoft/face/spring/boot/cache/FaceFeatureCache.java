@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+/**
+ * 人脸特征缓存：以图片内容摘要为键缓存检测与特征提取结果，重复提交的同一张图片无需再次解码、检测与提取特征
+ * <p>
+ * 摘要使用 SHA-256，避免构造的碰撞图片命中他人的特征；RGB 与 IR 数据分别缓存。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceFeatureCache {
+
+	private final Cache<HashCode, CachedFeature> cache;
+
+	public FaceFeatureCache(FaceFeatureCacheProperties properties) {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfterWrite(properties.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+	}
+
+	/*
+	 * 计算图片的缓存键
+	 *
+	 * @param imageBytes 编码后的图片数据
+	 * @param gray 是否按灰度（IR）图片处理
+	 */
+	public HashCode key(byte[] imageBytes, boolean gray) {
+		return Hashing.sha256().newHasher(imageBytes.length + 1).putBoolean(gray).putBytes(imageBytes).hash();
+	}
+
+	public CachedFeature getIfPresent(HashCode key) {
+		return cache.getIfPresent(key);
+	}
+
+	public void put(HashCode key, CachedFeature feature) {
+		cache.put(key, feature);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public long size() {
+		return cache.size();
+	}
+
+	/*
+	 * 命中/未命中统计
+	 */
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.cache;
+
+import java.time.Duration;
+
+/**
+ * 人脸特征缓存配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceFeatureCacheProperties {
+
+	/**
+	 * Enable Face Feature Cache.
+	 */
+	private boolean enabled = false;
+	/**
+	 * 最多缓存的图片数
+	 */
+	private long maximumSize = 10000;
+	/**
+	 * 写入后的过期时间
+	 */
+	private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public Duration getExpireAfterWrite() {
+		return expireAfterWrite;
+	}
+
+	public void setExpireAfterWrite(Duration expireAfterWrite) {
+		this.expireAfterWrite = expireAfterWrite;
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+import java.util.List;
+
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.utils.FaceFeatureUtils;
+
+/**
+ * 纯 Java 余弦相似度比对器，探测特征只解码并归一化一次
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class CosineFeatureComparator implements FaceFeatureComparator {
+
+	public static final CosineFeatureComparator INSTANCE = new CosineFeatureComparator();
+
+	/*
+	 * 两个特征数据的余弦相似度
+	 */
+	public float compare(byte[] feature1, byte[] feature2) {
+		return FaceFeatureUtils.cosine(feature1, feature2);
+	}
+
+	@Override
+	public float[] compare(byte[] probe, List<byte[]> candidates) {
+		float[] vector = FaceFeatureUtils.toVector(probe);
+		int dimension = vector.length;
+		float probeNorm = FaceFeatureUtils.normalize(vector, 0, dimension);
+		float[] scores = new float[candidates.size()];
+		if (probeNorm == 0f) {
+			return scores;
+		}
+		float[] candidate = new float[dimension];
+		for (int index = 0; index < scores.length; index++) {
+			byte[] featureData = candidates.get(index);
+			if (FaceFeatureUtils.dimension(featureData) != dimension) {
+				throw new IllegalArgumentException("Face feature dimension mismatch at index " + index);
+			}
+			FaceFeatureUtils.toVector(featureData, candidate, 0);
+			float norm = FaceFeatureUtils.norm(candidate, 0, dimension);
+			scores[index] = norm == 0f ? 0f : FaceFeatureUtils.dot(vector, 0, candidate, 0, dimension) / norm;
+		}
+		return scores;
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+import java.util.Arrays;
+
+/**
+ * 人脸一一配对：匈牙利算法（Kuhn-Munkres）求相似度矩阵上总分最高的一对一分配，复杂度 O(n²m)，n ≤ m
+ * <p>
+ * 低于阈值的配对不计分，等同于不配对，因此结果中每个配对的相似值都不低于阈值。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class FaceAssignment {
+
+	private FaceAssignment() {
+	}
+
+	/*
+	 * 求总相似值最大的一对一配对
+	 *
+	 * @param scores 相似度矩阵 scores[row][column]
+	 * @param threshold 相似值阈值
+	 * @return 每一行配对的列，未配对为 -1
+	 */
+	public static int[] maximize(float[][] scores, float threshold) {
+		int rows = scores.length;
+		int columns = rows == 0 ? 0 : scores[0].length;
+		int[] assignment = new int[rows];
+		Arrays.fill(assignment, -1);
+		if (rows == 0 || columns == 0) {
+			return assignment;
+		}
+		// 算法要求行数不多于列数，否则按转置矩阵求解
+		boolean transposed = rows > columns;
+		int n = transposed ? columns : rows;
+		int m = transposed ? rows : columns;
+		double[][] cost = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < m; j++) {
+				float score = transposed ? scores[j][i] : scores[i][j];
+				cost[i][j] = score >= threshold ? -score : 0d;
+			}
+		}
+		int[] match = solve(cost, n, m);
+		for (int j = 0; j < m; j++) {
+			if (match[j] < 0) {
+				continue;
+			}
+			int row = transposed ? j : match[j];
+			int column = transposed ? match[j] : j;
+			if (scores[row][column] >= threshold) {
+				assignment[row] = column;
+			}
+		}
+		return assignment;
+	}
+
+	/*
+	 * 最小化总代价，返回每一列分配的行，未分配为 -1
+	 */
+	private static int[] solve(double[][] cost, int n, int m) {
+		double[] u = new double[n + 1];
+		double[] v = new double[m + 1];
+		int[] p = new int[m + 1];
+		int[] way = new int[m + 1];
+		double[] minv = new double[m + 1];
+		boolean[] used = new boolean[m + 1];
+		for (int i = 1; i <= n; i++) {
+			p[0] = i;
+			int j0 = 0;
+			Arrays.fill(minv, Double.POSITIVE_INFINITY);
+			Arrays.fill(used, false);
+			do {
+				used[j0] = true;
+				int i0 = p[j0];
+				double delta = Double.POSITIVE_INFINITY;
+				int j1 = 0;
+				for (int j = 1; j <= m; j++) {
+					if (!used[j]) {
+						double current = cost[i0 - 1][j - 1] - u[i0] - v[j];
+						if (current < minv[j]) {
+							minv[j] = current;
+							way[j] = j0;
+						}
+						if (minv[j] < delta) {
+							delta = minv[j];
+							j1 = j;
+						}
+					}
+				}
+				for (int j = 0; j <= m; j++) {
+					if (used[j]) {
+						u[p[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minv[j] -= delta;
+					}
+				}
+				j0 = j1;
+			} while (p[j0] != 0);
+			do {
+				int j1 = way[j0];
+				p[j0] = p[j1];
+				j0 = j1;
+			} while (j0 != 0);
+		}
+		int[] match = new int[m];
+		for (int j = 1; j <= m; j++) {
+			match[j - 1] = p[j] - 1;
+		}
+		return match;
+	}
+
+}
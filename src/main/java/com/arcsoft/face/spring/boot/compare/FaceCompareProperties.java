@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+/**
+ * 特征比对配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceCompareProperties {
+
+	/**
+	 * 特征比对方式
+	 */
+	public enum Scorer {
+
+		/**
+		 * 使用引擎池中的 SDK 比对，分值与 SDK 一致
+		 */
+		ENGINE,
+		/**
+		 * 纯 Java 余弦相似度，不占用引擎，单次比对为微秒级
+		 */
+		JAVA;
+
+	}
+
+	/**
+	 * compare / compareMany 使用的特征比对方式
+	 */
+	private Scorer scorer = Scorer.ENGINE;
+	/**
+	 * 多人脸检索的配对阈值（SDK 分值尺度，ENGINE 评分时使用），相似值低于该值的人脸不配对
+	 */
+	private float pairThreshold = 0.8f;
+	/**
+	 * 多人脸检索的配对阈值（余弦相似度尺度，JAVA 评分时使用）
+	 */
+	private float javaPairThreshold = 0.8f;
+
+	public Scorer getScorer() {
+		return scorer;
+	}
+
+	public void setScorer(Scorer scorer) {
+		this.scorer = scorer;
+	}
+
+	public float getPairThreshold() {
+		return pairThreshold;
+	}
+
+	public void setPairThreshold(float pairThreshold) {
+		this.pairThreshold = pairThreshold;
+	}
+
+	public float getJavaPairThreshold() {
+		return javaPairThreshold;
+	}
+
+	public void setJavaPairThreshold(float javaPairThreshold) {
+		this.javaPairThreshold = javaPairThreshold;
+	}
+
+}
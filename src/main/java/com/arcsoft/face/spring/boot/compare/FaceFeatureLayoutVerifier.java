@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.utils.FaceFeatureUtils;
+
+/**
+ * 特征数据布局校验：人脸库与纯 Java 比对按 {@link FaceFeatureUtils} 假定的布局（8 字节头部 + 小端 float 向量）解析特征，
+ * 该布局并非 SDK 公开约定。人脸库（含本机分片人脸库的各个分片）首次持有两个及以上特征时抽取特征，分别以 SDK 与余弦相似度打分，
+ * 两者的相对顺序明显不一致时说明布局假定不成立：启动时已有特征则直接启动失败，运行期入库或重放时则该次写入抛出异常，避免检索结果静默出错。
+ * <p>
+ * SDK 分值与余弦相似度的尺度不同，只比较候选之间的相对顺序，不比较分值本身。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceFeatureLayoutVerifier {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FaceFeatureLayoutVerifier.class);
+
+	/**
+	 * 校验抽取的特征数
+	 */
+	public static final int SAMPLE_SIZE = FaceGallery.LAYOUT_SAMPLE_SIZE;
+	/**
+	 * 允许的顺序不一致的候选对比例
+	 */
+	static final float MAX_DISCORDANCE = 0.1f;
+	/**
+	 * 任一分值差小于该值的候选对视为并列，不参与顺序比较
+	 */
+	static final float TIE_TOLERANCE = 0.02f;
+
+	private final List<FaceGallery> galleries;
+	private final FaceFeatureComparator engineComparator;
+
+	public FaceFeatureLayoutVerifier(FaceGallery gallery, FaceFeatureComparator engineComparator) {
+		this(Collections.singletonList(gallery), engineComparator);
+	}
+
+	/*
+	 * 校验多个人脸库，例如单机人脸库与本机分片人脸库的各个分片
+	 */
+	public FaceFeatureLayoutVerifier(List<FaceGallery> galleries, FaceFeatureComparator engineComparator) {
+		this.galleries = galleries;
+		this.engineComparator = engineComparator;
+	}
+
+	/*
+	 * 为开启 verify-layout 的人脸库设置布局校验：已持有两个及以上特征的人脸库立即校验，
+	 * 其余人脸库在首次达到两个特征的入库或重放时校验
+	 *
+	 * @throws IllegalStateException 特征布局与 SDK 分值不一致
+	 */
+	public void verify() {
+		for (FaceGallery gallery : galleries) {
+			if (!gallery.getProperties().isVerifyLayout()) {
+				continue;
+			}
+			gallery.setLayoutVerifier(samples -> {
+				verify(samples, engineComparator);
+				LOG.info("Face feature layout verified against engine scores on {} samples", samples.size());
+			});
+			if (!gallery.isLayoutVerified()) {
+				LOG.info("Face gallery has fewer than 2 features, feature layout will be verified on enrollment");
+			}
+		}
+	}
+
+	/*
+	 * 以第一个特征为探测特征，比较 SDK 分值与余弦相似度对全部样本（含其自身）的排序
+	 *
+	 * @param samples 特征数据样本
+	 * @param engineComparator SDK 比对器
+	 * @throws IllegalStateException 特征布局与 SDK 分值不一致
+	 */
+	public static void verify(List<byte[]> samples, FaceFeatureComparator engineComparator) {
+		for (int index = 0; index < samples.size(); index++) {
+			float[] vector;
+			try {
+				vector = FaceFeatureUtils.toVector(samples.get(index));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalStateException("Face feature layout mismatch : " + e.getMessage(), e);
+			}
+			for (float value : vector) {
+				if (Float.isNaN(value) || Float.isInfinite(value)) {
+					throw new IllegalStateException("Face feature layout mismatch : sample " + index + " decodes to non-finite values");
+				}
+			}
+			if (FaceFeatureUtils.norm(vector, 0, vector.length) == 0f) {
+				throw new IllegalStateException("Face feature layout mismatch : sample " + index + " decodes to a zero vector");
+			}
+		}
+		byte[] probe = samples.get(0);
+		float[] engineScores = engineComparator.compare(probe, samples);
+		float[] javaScores = CosineFeatureComparator.INSTANCE.compare(probe, samples);
+		int compared = 0;
+		int discordant = 0;
+		for (int i = 0; i < samples.size(); i++) {
+			for (int j = i + 1; j < samples.size(); j++) {
+				float engineDelta = engineScores[i] - engineScores[j];
+				float javaDelta = javaScores[i] - javaScores[j];
+				if (Math.abs(engineDelta) < TIE_TOLERANCE || Math.abs(javaDelta) < TIE_TOLERANCE) {
+					continue;
+				}
+				compared++;
+				if ((engineDelta > 0) != (javaDelta > 0)) {
+					discordant++;
+				}
+			}
+		}
+		if (discordant > compared * MAX_DISCORDANCE) {
+			throw new IllegalStateException("Face feature layout mismatch : cosine ranking disagrees with engine scores on "
+					+ discordant + " of " + compared + " sample pairs");
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+import java.util.List;
+
+import com.arcsoft.face.spring.boot.utils.FaceFeatureUtils;
+
+/**
+ * 多对多余弦相似度矩阵：两侧特征各解码并归一化一次，按行列分块计算内积，分块内的向量常驻缓存
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class FaceSimilarityMatrix {
+
+	/**
+	 * 分块的行列数，256 维时一块向量为 32KB
+	 */
+	static final int BLOCK_SIZE = 32;
+
+	private FaceSimilarityMatrix() {
+	}
+
+	/*
+	 * 计算 rows × columns 的余弦相似度矩阵
+	 *
+	 * @param rows 行特征数据
+	 * @param columns 列特征数据
+	 * @return scores[row][column]
+	 * @throws IllegalArgumentException 特征维度不一致
+	 */
+	public static float[][] cosine(List<byte[]> rows, List<byte[]> columns) {
+		int rowCount = rows.size();
+		int columnCount = columns.size();
+		float[][] scores = new float[rowCount][columnCount];
+		if (rowCount == 0 || columnCount == 0) {
+			return scores;
+		}
+		int dimension = FaceFeatureUtils.dimension(rows.get(0));
+		float[] a = normalize(rows, dimension);
+		float[] b = normalize(columns, dimension);
+		for (int rowBlock = 0; rowBlock < rowCount; rowBlock += BLOCK_SIZE) {
+			int rowEnd = Math.min(rowCount, rowBlock + BLOCK_SIZE);
+			for (int columnBlock = 0; columnBlock < columnCount; columnBlock += BLOCK_SIZE) {
+				int columnEnd = Math.min(columnCount, columnBlock + BLOCK_SIZE);
+				for (int row = rowBlock; row < rowEnd; row++) {
+					float[] line = scores[row];
+					for (int column = columnBlock; column < columnEnd; column++) {
+						line[column] = FaceFeatureUtils.dot(a, row * dimension, b, column * dimension, dimension);
+					}
+				}
+			}
+		}
+		return scores;
+	}
+
+	/*
+	 * 将特征数据解码到一块连续的数组并逐个归一化，模长为 0 的向量保持全 0
+	 */
+	private static float[] normalize(List<byte[]> features, int dimension) {
+		float[] vectors = new float[features.size() * dimension];
+		for (int index = 0; index < features.size(); index++) {
+			byte[] featureData = features.get(index);
+			if (FaceFeatureUtils.dimension(featureData) != dimension) {
+				throw new IllegalArgumentException("Face feature dimension mismatch at index " + index);
+			}
+			FaceFeatureUtils.toVector(featureData, vectors, index * dimension);
+			FaceFeatureUtils.normalize(vectors, index * dimension, dimension);
+		}
+		return vectors;
+	}
+
+}
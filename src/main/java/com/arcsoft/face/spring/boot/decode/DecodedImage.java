@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import java.io.Closeable;
+
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 解码后的图片，关闭时将像素缓冲区归还缓冲池；关闭后不得再使用 {@link #getImageInfo()} 中的图像数据
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class DecodedImage implements Closeable {
+
+	private final ImageInfo imageInfo;
+	private final PixelBufferPool pool;
+	private boolean closed;
+
+	DecodedImage(ImageInfo imageInfo, PixelBufferPool pool) {
+		this.imageInfo = imageInfo;
+		this.pool = pool;
+	}
+
+	/*
+	 * 包装已有的图像信息，关闭时不做任何处理
+	 */
+	public static DecodedImage of(ImageInfo imageInfo) {
+		return new DecodedImage(imageInfo, null);
+	}
+
+	public ImageInfo getImageInfo() {
+		return imageInfo;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			if (pool != null) {
+				pool.release(imageInfo.getImageData());
+				// 为裁剪人脸区域保留的原图缓冲区
+				if (imageInfo instanceof ScaledImageInfo && ((ScaledImageInfo) imageInfo).getSource() != null) {
+					pool.release(((ScaledImageInfo) imageInfo).getSource().getImageData());
+				}
+			}
+		}
+	}
+
+}
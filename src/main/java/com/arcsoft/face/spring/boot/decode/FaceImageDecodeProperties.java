@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+/**
+ * 图片解码配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceImageDecodeProperties {
+
+	/**
+	 * 解码线程数，默认为 CPU 核数
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	/**
+	 * 解码任务队列容量，队列满时由提交线程自行解码（背压）
+	 */
+	private int queueCapacity = 256;
+	/**
+	 * 像素缓冲池最多保留的字节数，0 表示不复用缓冲区
+	 */
+	private long maxRetainedBytes = 64L * 1024 * 1024;
+	/**
+	 * 送入引擎的图像长边最大像素数，超过时按比例缩小后再检测，返回的人脸框仍为原图坐标；0 表示不缩放
+	 */
+	private int maxLongEdge = 0;
+	/**
+	 * 缩放后图像宽高的对齐像素数（行跨度对齐），SDK 要求宽度为 4 的倍数
+	 */
+	private int alignment = 4;
+	/**
+	 * 是否在原图中裁剪人脸区域后再提取特征；开启后解码时保留原图像素，小人脸可获得更多细节
+	 */
+	private boolean roiExtract = false;
+	/**
+	 * 裁剪人脸区域时每边外扩的比例（相对人脸框宽高）
+	 */
+	private float roiPadding = 0.5f;
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getMaxRetainedBytes() {
+		return maxRetainedBytes;
+	}
+
+	public void setMaxRetainedBytes(long maxRetainedBytes) {
+		this.maxRetainedBytes = maxRetainedBytes;
+	}
+
+	public int getMaxLongEdge() {
+		return maxLongEdge;
+	}
+
+	public void setMaxLongEdge(int maxLongEdge) {
+		this.maxLongEdge = maxLongEdge;
+	}
+
+	public int getAlignment() {
+		return alignment;
+	}
+
+	public void setAlignment(int alignment) {
+		this.alignment = alignment;
+	}
+
+	public boolean isRoiExtract() {
+		return roiExtract;
+	}
+
+	public void setRoiExtract(boolean roiExtract) {
+		this.roiExtract = roiExtract;
+	}
+
+	public float getRoiPadding() {
+		return roiPadding;
+	}
+
+	public void setRoiPadding(float roiPadding) {
+		this.roiPadding = roiPadding;
+	}
+
+}
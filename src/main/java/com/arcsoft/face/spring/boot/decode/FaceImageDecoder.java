@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.toolkit.ImageInfo;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 图片解码器：在独立的有界线程池上把 JPEG/PNG 等编码图片解码为引擎所需的 BGR24 / GRAY 像素数据，
+ * 使解码与引擎推理并行，引擎对象不会因等待解码而被占用。
+ * <p>
+ * 输出与 {@link com.arcsoft.face.toolkit.ImageFactory} 一致（宽高向下取整为 4 的倍数，灰度公式相同），
+ * 但直接写入从 {@link PixelBufferPool} 取得的缓冲区，省去 SDK 实现中整图 int[] 与中间 BufferedImage 的分配；
+ * 配置了 max-long-edge 时在解码阶段完成缩小，见 {@link FaceImageScaler}。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceImageDecoder implements Closeable {
+
+	private static final int[] BGR_BAND_OFFSETS = { 2, 1, 0 };
+
+	private final ThreadPoolExecutor executor;
+	private final PixelBufferPool bufferPool;
+	private final FaceImageDecodeProperties properties;
+	private final FaceImageScaler scaler;
+	private final ThreadLocal<int[]> rowBuffer = new ThreadLocal<int[]>();
+
+	public FaceImageDecoder(FaceImageDecodeProperties properties) {
+		int parallelism = Math.max(1, properties.getParallelism());
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(Math.max(1, properties.getQueueCapacity())),
+				new ThreadFactoryBuilder().setNameFormat("arcface-decode-%d").setDaemon(true).build(),
+				// 队列已满时由提交线程自行解码，限制排队的编码图片数量
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+		this.bufferPool = new PixelBufferPool(properties.getMaxRetainedBytes());
+		this.properties = properties;
+		this.scaler = new FaceImageScaler(properties);
+	}
+
+	/*
+	 * 异步解码为 BGR24 像素数据
+	 */
+	public CompletableFuture<DecodedImage> decodeRGB(byte[] imageBytes) {
+		return CompletableFuture.supplyAsync(() -> this.decode(imageBytes, false), executor);
+	}
+
+	/*
+	 * 异步解码为灰度像素数据
+	 */
+	public CompletableFuture<DecodedImage> decodeGray(byte[] imageBytes) {
+		return CompletableFuture.supplyAsync(() -> this.decode(imageBytes, true), executor);
+	}
+
+	/*
+	 * 在当前线程解码；配置了 max-long-edge 时按整数倍下采样解码（不保留原图时），再双线性缩小到目标尺寸，
+	 * 返回的图像为 {@link ScaledImageInfo}
+	 *
+	 * @param imageBytes 编码后的图片数据
+	 * @param gray 是否输出灰度数据
+	 * @throws IllegalArgumentException 图片格式不支持或尺寸过小
+	 */
+	public DecodedImage decode(byte[] imageBytes, boolean gray) {
+		BufferedImage image;
+		int sourceWidth;
+		int sourceHeight;
+		int subsampling;
+		try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+			Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+			if (readers == null || !readers.hasNext()) {
+				throw new IllegalArgumentException("Unsupported image format");
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+				sourceWidth = reader.getWidth(0);
+				sourceHeight = reader.getHeight(0);
+				ImageReadParam param = reader.getDefaultReadParam();
+				subsampling = this.subsampling(sourceWidth, sourceHeight);
+				if (subsampling > 1) {
+					// 解码器按行列跳采，大图的解码耗时与像素缓冲区不再随原图分辨率增长
+					param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				}
+				image = reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to decode image", e);
+		}
+		int width = image.getWidth() & ~3;
+		int height = image.getHeight() & ~3;
+		if (width == 0 || height == 0) {
+			throw new IllegalArgumentException("Image too small : " + image.getWidth() + "x" + image.getHeight());
+		}
+		int channels = gray ? 1 : 3;
+		ImageFormat imageFormat = gray ? ImageFormat.CP_PAF_GRAY : ImageFormat.CP_PAF_BGR24;
+		byte[] data = bufferPool.acquire(width * height * channels);
+		if (gray) {
+			toGray(image, width, height, data);
+		} else {
+			toBGR(image, width, height, data);
+		}
+		ImageInfo imageInfo = new ImageInfo();
+		imageInfo.setWidth(width);
+		imageInfo.setHeight(height);
+		imageInfo.setImageFormat(imageFormat);
+		imageInfo.setImageData(data);
+		if (subsampling == 1 && !scaler.exceeds(width, height)) {
+			return new DecodedImage(imageInfo, bufferPool);
+		}
+		int targetWidth = width;
+		int targetHeight = height;
+		byte[] target = data;
+		if (scaler.exceeds(width, height)) {
+			targetWidth = scaler.targetSize(width, width, height);
+			targetHeight = scaler.targetSize(height, width, height);
+			target = bufferPool.acquire(targetWidth * targetHeight * channels);
+			FaceImageScaler.resize(data, width, height, channels, target, targetWidth, targetHeight);
+			if (!scaler.isRoiExtract()) {
+				bufferPool.release(data);
+			}
+		}
+		return new DecodedImage(new ScaledImageInfo(targetWidth, targetHeight, imageFormat, target, sourceWidth, sourceHeight, 0, 0,
+				(float) width * subsampling / targetWidth, (float) height * subsampling / targetHeight,
+				scaler.isRoiExtract() ? imageInfo : null), bufferPool);
+	}
+
+	/*
+	 * 下采样倍数：需要缩小且不保留原图时取长边与 max-long-edge 之比的整数部分，下采样后的长边仍不小于 max-long-edge
+	 */
+	private int subsampling(int width, int height) {
+		if (!scaler.exceeds(width, height) || scaler.isRoiExtract()) {
+			return 1;
+		}
+		return Math.max(1, Math.max(width, height) / properties.getMaxLongEdge());
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	private void toBGR(BufferedImage image, int width, int height, byte[] data) {
+		Raster raster = image.getRaster();
+		if (image.getType() == BufferedImage.TYPE_3BYTE_BGR && isPacked(raster)) {
+			// JPEG 解码的常见情况：按行复制原始 BGR 字节
+			PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+			byte[] source = ((DataBufferByte) raster.getDataBuffer()).getData();
+			int stride = sampleModel.getScanlineStride();
+			int rowBytes = width * 3;
+			for (int y = 0; y < height; y++) {
+				System.arraycopy(source, y * stride, data, y * rowBytes, rowBytes);
+			}
+			return;
+		}
+		int[] row = this.row(width);
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			image.getRGB(0, y, width, 1, row, 0, width);
+			for (int x = 0; x < width; x++) {
+				int argb = row[x];
+				data[offset++] = (byte) argb;
+				data[offset++] = (byte) (argb >> 8);
+				data[offset++] = (byte) (argb >> 16);
+			}
+		}
+	}
+
+	private void toGray(BufferedImage image, int width, int height, byte[] data) {
+		int[] row = this.row(width);
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			image.getRGB(0, y, width, 1, row, 0, width);
+			for (int x = 0; x < width; x++) {
+				int argb = row[x];
+				int r = (argb >> 16) & 0xFF;
+				int g = (argb >> 8) & 0xFF;
+				int b = argb & 0xFF;
+				int gray = ((66 * r + 129 * g + 25 * b + 128) >> 8) + 16;
+				data[offset++] = (byte) (gray > 255 ? 255 : gray);
+			}
+		}
+	}
+
+	private int[] row(int width) {
+		int[] row = rowBuffer.get();
+		if (row == null || row.length < width) {
+			row = new int[width];
+			rowBuffer.set(row);
+		}
+		return row;
+	}
+
+	private static boolean isPacked(Raster raster) {
+		if (!(raster.getSampleModel() instanceof PixelInterleavedSampleModel)
+				|| !(raster.getDataBuffer() instanceof DataBufferByte)
+				|| raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+				|| raster.getDataBuffer().getNumBanks() != 1) {
+			return false;
+		}
+		PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+		return sampleModel.getPixelStride() == 3 && Arrays.equals(sampleModel.getBandOffsets(), BGR_BAND_OFFSETS);
+	}
+
+	public FaceImageScaler getScaler() {
+		return scaler;
+	}
+
+	public ThreadPoolExecutor getExecutor() {
+		return executor;
+	}
+
+	/*
+	 * 解码输出中尚未关闭归还的像素缓冲区字节数，持续增长说明有 {@link DecodedImage} 未关闭
+	 */
+	public long getLentBytes() {
+		return bufferPool.getLentBytes();
+	}
+
+}
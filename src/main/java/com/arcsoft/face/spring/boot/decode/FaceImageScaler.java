@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 引擎前置图像缩放：长边超过 max-long-edge 的图像先按比例缩小（宽高按 alignment 向下对齐）再送入引擎，
+ * 检测耗时与内存占用不再随上传图片的分辨率增长；开启 roi-extract 时保留原图，特征提取改在原图裁剪的人脸区域上进行。
+ * <p>
+ * 只处理 BGR24 与 GRAY 格式，其它格式（NV21 等）原样送入引擎。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceImageScaler {
+
+	private final FaceImageDecodeProperties properties;
+
+	public FaceImageScaler(FaceImageDecodeProperties properties) {
+		this.properties = properties;
+	}
+
+	public boolean isEnabled() {
+		return properties.getMaxLongEdge() > 0;
+	}
+
+	public boolean isRoiExtract() {
+		return this.isEnabled() && properties.isRoiExtract();
+	}
+
+	/*
+	 * 给定尺寸的图像是否需要缩小
+	 */
+	public boolean exceeds(int width, int height) {
+		return this.isEnabled() && Math.max(width, height) > properties.getMaxLongEdge();
+	}
+
+	/*
+	 * 长边超过 max-long-edge 时双线性缩小；未启用、长边未超出、已缩放过或格式不支持时原样返回
+	 */
+	public ImageInfo scale(ImageInfo imageInfo) {
+		if (imageInfo instanceof ScaledImageInfo) {
+			return imageInfo;
+		}
+		int channels = channels(imageInfo.getImageFormat());
+		int width = imageInfo.getWidth();
+		int height = imageInfo.getHeight();
+		if (channels == 0 || !this.exceeds(width, height)) {
+			return imageInfo;
+		}
+		int targetWidth = this.targetSize(width, width, height);
+		int targetHeight = this.targetSize(height, width, height);
+		byte[] data = new byte[targetWidth * targetHeight * channels];
+		resize(imageInfo.getImageData(), width, height, channels, data, targetWidth, targetHeight);
+		return new ScaledImageInfo(targetWidth, targetHeight, imageInfo.getImageFormat(), data, width, height, 0, 0,
+				(float) width / targetWidth, (float) height / targetHeight, this.isRoiExtract() ? imageInfo : null);
+	}
+
+	/*
+	 * 在原图中裁剪人脸区域（每边按 roi-padding 外扩），返回坐标映射到原图的裁剪图像；
+	 * 未保留原图，或裁剪区域长边超过 max-long-edge（人脸在缩放后的图像中已足够大）时返回 null
+	 */
+	public ScaledImageInfo crop(ScaledImageInfo image, FaceInfo faceInfo) {
+		ImageInfo source = image.getSource();
+		if (source == null) {
+			return null;
+		}
+		int channels = channels(source.getImageFormat());
+		Rect rect = image.toSource(faceInfo.getRect());
+		int padX = (int) ((rect.getRight() - rect.getLeft()) * properties.getRoiPadding());
+		int padY = (int) ((rect.getBottom() - rect.getTop()) * properties.getRoiPadding());
+		int left = this.align(Math.max(0, rect.getLeft() - padX));
+		int top = this.align(Math.max(0, rect.getTop() - padY));
+		int width = this.align(Math.min(source.getWidth(), rect.getRight() + padX) - left);
+		int height = this.align(Math.min(source.getHeight(), rect.getBottom() + padY) - top);
+		if (channels == 0 || width <= 0 || height <= 0 || Math.max(width, height) > properties.getMaxLongEdge()) {
+			return null;
+		}
+		byte[] sourceData = source.getImageData();
+		int sourceRowBytes = source.getWidth() * channels;
+		int rowBytes = width * channels;
+		byte[] data = new byte[rowBytes * height];
+		for (int y = 0; y < height; y++) {
+			System.arraycopy(sourceData, (top + y) * sourceRowBytes + left * channels, data, y * rowBytes, rowBytes);
+		}
+		return new ScaledImageInfo(width, height, source.getImageFormat(), data, image.getSourceWidth(), image.getSourceHeight(),
+				left, top, 1f, 1f, null);
+	}
+
+	/*
+	 * 按长边缩放到 max-long-edge 后的边长，向下对齐且不小于对齐像素数
+	 */
+	int targetSize(int size, int width, int height) {
+		long scaled = (long) size * properties.getMaxLongEdge() / Math.max(width, height);
+		return Math.max(this.alignment(), this.align((int) scaled));
+	}
+
+	private int align(int size) {
+		return size - size % this.alignment();
+	}
+
+	private int alignment() {
+		return Math.max(1, properties.getAlignment());
+	}
+
+	/*
+	 * 每像素字节数，不支持的格式返回 0
+	 */
+	static int channels(ImageFormat imageFormat) {
+		if (imageFormat == ImageFormat.CP_PAF_BGR24) {
+			return 3;
+		}
+		return imageFormat == ImageFormat.CP_PAF_GRAY ? 1 : 0;
+	}
+
+	/*
+	 * 交织像素数据的双线性缩放，权重为 8 位定点数
+	 */
+	static void resize(byte[] source, int width, int height, int channels, byte[] target, int targetWidth, int targetHeight) {
+		int[] x0 = new int[targetWidth];
+		int[] x1 = new int[targetWidth];
+		int[] fx = new int[targetWidth];
+		for (int x = 0; x < targetWidth; x++) {
+			float sx = Math.max(0f, (x + 0.5f) * width / targetWidth - 0.5f);
+			int ix = Math.min((int) sx, width - 1);
+			x0[x] = ix * channels;
+			x1[x] = Math.min(ix + 1, width - 1) * channels;
+			fx[x] = (int) ((sx - ix) * 256);
+		}
+		int rowBytes = width * channels;
+		int offset = 0;
+		for (int y = 0; y < targetHeight; y++) {
+			float sy = Math.max(0f, (y + 0.5f) * height / targetHeight - 0.5f);
+			int iy = Math.min((int) sy, height - 1);
+			int fy = (int) ((sy - iy) * 256);
+			int row0 = iy * rowBytes;
+			int row1 = Math.min(iy + 1, height - 1) * rowBytes;
+			for (int x = 0; x < targetWidth; x++) {
+				int p0 = x0[x];
+				int p1 = x1[x];
+				int wx = fx[x];
+				for (int c = 0; c < channels; c++) {
+					int a = source[row0 + p0 + c] & 0xFF;
+					int b = source[row0 + p1 + c] & 0xFF;
+					int d = source[row1 + p0 + c] & 0xFF;
+					int e = source[row1 + p1 + c] & 0xFF;
+					int upper = (a << 8) + (b - a) * wx;
+					int lower = (d << 8) + (e - d) * wx;
+					target[offset++] = (byte) (((upper << 8) + (lower - upper) * fy + 32768) >> 16);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 像素缓冲池：按长度分组复用解码输出的字节数组，同一分辨率的图片反复解码时不再分配新的缓冲区
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+class PixelBufferPool {
+
+	private final ConcurrentMap<Integer, Queue<byte[]>> buffers = new ConcurrentHashMap<Integer, Queue<byte[]>>();
+	private final AtomicLong retainedBytes = new AtomicLong();
+	/**
+	 * 已借出、尚未归还的字节数
+	 */
+	private final AtomicLong lentBytes = new AtomicLong();
+	private final long maxRetainedBytes;
+
+	PixelBufferPool(long maxRetainedBytes) {
+		this.maxRetainedBytes = maxRetainedBytes;
+	}
+
+	byte[] acquire(int length) {
+		lentBytes.addAndGet(length);
+		Queue<byte[]> queue = buffers.get(length);
+		byte[] buffer = queue == null ? null : queue.poll();
+		if (buffer == null) {
+			return new byte[length];
+		}
+		retainedBytes.addAndGet(-length);
+		return buffer;
+	}
+
+	void release(byte[] buffer) {
+		lentBytes.addAndGet(-buffer.length);
+		if (retainedBytes.addAndGet(buffer.length) > maxRetainedBytes) {
+			// 超出保留上限，交给 GC 回收
+			retainedBytes.addAndGet(-buffer.length);
+			return;
+		}
+		Queue<byte[]> queue = buffers.get(buffer.length);
+		if (queue == null) {
+			Queue<byte[]> created = new ConcurrentLinkedQueue<byte[]>();
+			queue = buffers.putIfAbsent(buffer.length, created);
+			if (queue == null) {
+				queue = created;
+			}
+		}
+		queue.offer(buffer);
+	}
+
+	long getRetainedBytes() {
+		return retainedBytes.get();
+	}
+
+	long getLentBytes() {
+		return lentBytes.get();
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 缩放或裁剪后送入引擎的图像：记录与原图之间的坐标映射，引擎在此图像上返回的人脸框可换算回原图坐标。
+ * <p>
+ * 原图坐标 = 偏移 + 图像坐标 × 缩放比例；缩小时偏移为 0，裁剪人脸区域时缩放比例为 1。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ScaledImageInfo extends ImageInfo {
+
+	/**
+	 * 原图像素数据，仅在需要裁剪人脸区域提取特征时保留，否则为 null
+	 */
+	private final ImageInfo source;
+	private final int sourceWidth;
+	private final int sourceHeight;
+	private final int offsetX;
+	private final int offsetY;
+	private final float scaleX;
+	private final float scaleY;
+
+	public ScaledImageInfo(int width, int height, ImageFormat imageFormat, byte[] imageData, int sourceWidth, int sourceHeight,
+			int offsetX, int offsetY, float scaleX, float scaleY, ImageInfo source) {
+		this.setWidth(width);
+		this.setHeight(height);
+		this.setImageFormat(imageFormat);
+		this.setImageData(imageData);
+		this.sourceWidth = sourceWidth;
+		this.sourceHeight = sourceHeight;
+		this.offsetX = offsetX;
+		this.offsetY = offsetY;
+		this.scaleX = scaleX;
+		this.scaleY = scaleY;
+		this.source = source;
+	}
+
+	/*
+	 * 将本图像中的人脸框换算为原图坐标，结果限制在原图范围内
+	 */
+	public Rect toSource(Rect rect) {
+		return new Rect(clamp(offsetX + Math.round(rect.getLeft() * scaleX), sourceWidth),
+				clamp(offsetY + Math.round(rect.getTop() * scaleY), sourceHeight),
+				clamp(offsetX + Math.round(rect.getRight() * scaleX), sourceWidth),
+				clamp(offsetY + Math.round(rect.getBottom() * scaleY), sourceHeight));
+	}
+
+	/*
+	 * 同上，返回人脸框为原图坐标的人脸信息副本
+	 */
+	public FaceInfo toSource(FaceInfo faceInfo) {
+		FaceInfo mapped = new FaceInfo(faceInfo);
+		mapped.setRect(this.toSource(faceInfo.getRect()));
+		return mapped;
+	}
+
+	/*
+	 * 将原图坐标的人脸框换算为本图像坐标，结果限制在本图像范围内
+	 */
+	public Rect fromSource(Rect rect) {
+		return new Rect(clamp(Math.round((rect.getLeft() - offsetX) / scaleX), getWidth()),
+				clamp(Math.round((rect.getTop() - offsetY) / scaleY), getHeight()),
+				clamp(Math.round((rect.getRight() - offsetX) / scaleX), getWidth()),
+				clamp(Math.round((rect.getBottom() - offsetY) / scaleY), getHeight()));
+	}
+
+	private static int clamp(int value, int max) {
+		return value < 0 ? 0 : (value > max ? max : value);
+	}
+
+	public ImageInfo getSource() {
+		return source;
+	}
+
+	public int getSourceWidth() {
+		return sourceWidth;
+	}
+
+	public int getSourceHeight() {
+		return sourceHeight;
+	}
+
+	public int getOffsetX() {
+		return offsetX;
+	}
+
+	public int getOffsetY() {
+		return offsetY;
+	}
+
+	public float getScaleX() {
+		return scaleX;
+	}
+
+	public float getScaleY() {
+		return scaleY;
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.engine;
+
+import java.util.List;
+
+import com.arcsoft.face.AgeInfo;
+import com.arcsoft.face.EngineConfiguration;
+import com.arcsoft.face.Face3DAngle;
+import com.arcsoft.face.FaceEngine;
+import com.arcsoft.face.FaceFeature;
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.FaceSimilar;
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.GenderInfo;
+import com.arcsoft.face.IrLivenessInfo;
+import com.arcsoft.face.LivenessInfo;
+import com.arcsoft.face.enums.ErrorInfo;
+import com.arcsoft.face.enums.ImageFormat;
+
+/**
+ * 基于虹软原生 SDK 的人脸识别引擎
+ * <p>
+ * 记录已下发的活体阈值，阈值未变化时不再调用原生 setLivenessParam；重新初始化引擎后重新下发。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ArcSoftFaceRecognitionEngine implements FaceRecognitionEngine {
+
+	private final FaceEngine faceEngine;
+	private float rgbThreshold = Float.NaN;
+	private float irThreshold = Float.NaN;
+
+	public ArcSoftFaceRecognitionEngine() {
+		this(new FaceEngine());
+	}
+
+	public ArcSoftFaceRecognitionEngine(String libPath) {
+		this(new FaceEngine(libPath));
+	}
+
+	public ArcSoftFaceRecognitionEngine(FaceEngine faceEngine) {
+		this.faceEngine = faceEngine;
+	}
+
+	@Override
+	public int activeOnline(String appId, String sdkKey) {
+		return faceEngine.activeOnline(appId, sdkKey);
+	}
+
+	@Override
+	public int init(EngineConfiguration engineConfiguration) {
+		this.resetLivenessParam();
+		return faceEngine.init(engineConfiguration);
+	}
+
+	@Override
+	public int unInit() {
+		this.resetLivenessParam();
+		return faceEngine.unInit();
+	}
+
+	@Override
+	public int setLivenessParam(float rgbThreshold, float irThreshold) {
+		if (Float.compare(this.rgbThreshold, rgbThreshold) == 0 && Float.compare(this.irThreshold, irThreshold) == 0) {
+			return ErrorInfo.MOK.getValue();
+		}
+		int code = faceEngine.setLivenessParam(rgbThreshold, irThreshold);
+		if (code == ErrorInfo.MOK.getValue()) {
+			this.rgbThreshold = rgbThreshold;
+			this.irThreshold = irThreshold;
+		} else {
+			this.resetLivenessParam();
+		}
+		return code;
+	}
+
+	@Override
+	public int detectFaces(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList) {
+		return faceEngine.detectFaces(data, width, height, imageFormat, faceInfoList);
+	}
+
+	@Override
+	public int process(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList,
+			FunctionConfiguration functionConfiguration) {
+		return faceEngine.process(data, width, height, imageFormat, faceInfoList, functionConfiguration);
+	}
+
+	@Override
+	public int processIr(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList,
+			FunctionConfiguration functionConfiguration) {
+		return faceEngine.processIr(data, width, height, imageFormat, faceInfoList, functionConfiguration);
+	}
+
+	@Override
+	public int extractFaceFeature(byte[] data, int width, int height, ImageFormat imageFormat, FaceInfo faceInfo,
+			FaceFeature feature) {
+		return faceEngine.extractFaceFeature(data, width, height, imageFormat, faceInfo, feature);
+	}
+
+	@Override
+	public int compareFaceFeature(FaceFeature feature1, FaceFeature feature2, FaceSimilar faceSimilar) {
+		return faceEngine.compareFaceFeature(feature1, feature2, faceSimilar);
+	}
+
+	@Override
+	public int getAge(List<AgeInfo> ageInfoList) {
+		return faceEngine.getAge(ageInfoList);
+	}
+
+	@Override
+	public int getGender(List<GenderInfo> genderInfoList) {
+		return faceEngine.getGender(genderInfoList);
+	}
+
+	@Override
+	public int getFace3DAngle(List<Face3DAngle> face3DAngleList) {
+		return faceEngine.getFace3DAngle(face3DAngleList);
+	}
+
+	@Override
+	public int getLiveness(List<LivenessInfo> livenessInfoList) {
+		return faceEngine.getLiveness(livenessInfoList);
+	}
+
+	@Override
+	public int getLivenessIr(List<IrLivenessInfo> irLivenessInfoList) {
+		return faceEngine.getLivenessIr(irLivenessInfoList);
+	}
+
+	/*
+	 * 当前已下发的 RGB 活体阈值，未下发时为 NaN
+	 */
+	public float getRgbThreshold() {
+		return rgbThreshold;
+	}
+
+	/*
+	 * 当前已下发的 IR 活体阈值，未下发时为 NaN
+	 */
+	public float getIrThreshold() {
+		return irThreshold;
+	}
+
+	public FaceEngine getFaceEngine() {
+		return faceEngine;
+	}
+
+	private void resetLivenessParam() {
+		this.rgbThreshold = Float.NaN;
+		this.irThreshold = Float.NaN;
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.engine;
+
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+/**
+ * 人脸识别引擎实现配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEngineProperties {
+
+	/**
+	 * 引擎实现
+	 */
+	public enum Type {
+
+		/**
+		 * 虹软原生 SDK
+		 */
+		ARCSOFT,
+		/**
+		 * 纯 Java 合成引擎，不依赖原生库与授权，用于压测、容量评估与持续集成
+		 */
+		SYNTHETIC;
+
+	}
+
+	/**
+	 * 引擎实现
+	 */
+	private Type type = Type.ARCSOFT;
+	/**
+	 * 合成引擎配置
+	 */
+	@NestedConfigurationProperty
+	private SyntheticEngineProperties synthetic = new SyntheticEngineProperties();
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public SyntheticEngineProperties getSynthetic() {
+		return synthetic;
+	}
+
+	public void setSynthetic(SyntheticEngineProperties synthetic) {
+		this.synthetic = synthetic;
+	}
+
+}
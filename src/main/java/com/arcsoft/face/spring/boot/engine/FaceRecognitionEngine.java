@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.engine;
+
+import java.util.List;
+
+import com.arcsoft.face.AgeInfo;
+import com.arcsoft.face.EngineConfiguration;
+import com.arcsoft.face.Face3DAngle;
+import com.arcsoft.face.FaceFeature;
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.FaceSimilar;
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.GenderInfo;
+import com.arcsoft.face.IrLivenessInfo;
+import com.arcsoft.face.LivenessInfo;
+import com.arcsoft.face.enums.ImageFormat;
+
+/**
+ * 人脸识别引擎抽象，方法签名与返回码约定与虹软 {@link com.arcsoft.face.FaceEngine} 保持一致
+ * <p>
+ * 引擎实例非线程安全，由对象池保证同一时刻只被一个线程使用。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceRecognitionEngine {
+
+	/*
+	 * 在线激活
+	 */
+	int activeOnline(String appId, String sdkKey);
+
+	/*
+	 * 初始化引擎
+	 */
+	int init(EngineConfiguration engineConfiguration);
+
+	/*
+	 * 销毁引擎
+	 */
+	int unInit();
+
+	/*
+	 * 设置 RGB / IR 活体阈值；实现应记录已设置的阈值，阈值未变化时直接返回成功
+	 */
+	int setLivenessParam(float rgbThreshold, float irThreshold);
+
+	/*
+	 * 人脸检测
+	 */
+	int detectFaces(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList);
+
+	/*
+	 * RGB 活体、年龄、性别、三维角度处理
+	 */
+	int process(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList,
+			FunctionConfiguration functionConfiguration);
+
+	/*
+	 * IR 活体处理
+	 */
+	int processIr(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList,
+			FunctionConfiguration functionConfiguration);
+
+	/*
+	 * 特征提取
+	 */
+	int extractFaceFeature(byte[] data, int width, int height, ImageFormat imageFormat, FaceInfo faceInfo,
+			FaceFeature feature);
+
+	/*
+	 * 特征比对
+	 */
+	int compareFaceFeature(FaceFeature feature1, FaceFeature feature2, FaceSimilar faceSimilar);
+
+	/*
+	 * 获取最近一次 process 的年龄结果
+	 */
+	int getAge(List<AgeInfo> ageInfoList);
+
+	/*
+	 * 获取最近一次 process 的性别结果
+	 */
+	int getGender(List<GenderInfo> genderInfoList);
+
+	/*
+	 * 获取最近一次 process 的三维角度结果
+	 */
+	int getFace3DAngle(List<Face3DAngle> face3DAngleList);
+
+	/*
+	 * 获取最近一次 process 的 RGB 活体结果
+	 */
+	int getLiveness(List<LivenessInfo> livenessInfoList);
+
+	/*
+	 * 获取最近一次 processIr 的 IR 活体结果
+	 */
+	int getLivenessIr(List<IrLivenessInfo> irLivenessInfoList);
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.engine;
+
+import java.time.Duration;
+
+/**
+ * 合成引擎配置：按阶段模拟原生调用的耗时与内存分配
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class SyntheticEngineProperties {
+
+	/**
+	 * 每张图片返回的人脸数
+	 */
+	private int faceNum = 1;
+	/**
+	 * 引擎初始化耗时
+	 */
+	private Duration initLatency = Duration.ZERO;
+	/**
+	 * 人脸检测耗时
+	 */
+	private Duration detectLatency = Duration.ofMillis(10);
+	/**
+	 * 人脸检测每百万像素额外耗时，模拟原生检测耗时随图像分辨率增长
+	 */
+	private Duration megapixelLatency = Duration.ZERO;
+	/**
+	 * 属性处理（活体、年龄、性别、角度）耗时
+	 */
+	private Duration processLatency = Duration.ofMillis(20);
+	/**
+	 * 单个人脸特征提取耗时
+	 */
+	private Duration extractLatency = Duration.ofMillis(30);
+	/**
+	 * 单次特征比对耗时
+	 */
+	private Duration compareLatency = Duration.ZERO;
+	/**
+	 * 每次检测、处理、提取额外分配的字节数，模拟原生结果拷贝到 Java 堆的分配
+	 */
+	private int allocationBytes = 0;
+	/**
+	 * 是否以忙等模拟耗时（占用 CPU，接近原生计算）；关闭时以 park 让出 CPU
+	 */
+	private boolean busySpin = true;
+	/**
+	 * 活体通过比例（0 ~ 1），按人脸序号确定性地决定活体结果
+	 */
+	private float liveRatio = 1f;
+
+	public int getFaceNum() {
+		return faceNum;
+	}
+
+	public void setFaceNum(int faceNum) {
+		this.faceNum = faceNum;
+	}
+
+	public Duration getInitLatency() {
+		return initLatency;
+	}
+
+	public void setInitLatency(Duration initLatency) {
+		this.initLatency = initLatency;
+	}
+
+	public Duration getDetectLatency() {
+		return detectLatency;
+	}
+
+	public void setDetectLatency(Duration detectLatency) {
+		this.detectLatency = detectLatency;
+	}
+
+	public Duration getProcessLatency() {
+		return processLatency;
+	}
+
+	public void setProcessLatency(Duration processLatency) {
+		this.processLatency = processLatency;
+	}
+
+	public Duration getExtractLatency() {
+		return extractLatency;
+	}
+
+	public void setExtractLatency(Duration extractLatency) {
+		this.extractLatency = extractLatency;
+	}
+
+	public Duration getMegapixelLatency() {
+		return megapixelLatency;
+	}
+
+	public void setMegapixelLatency(Duration megapixelLatency) {
+		this.megapixelLatency = megapixelLatency;
+	}
+
+	public Duration getCompareLatency() {
+		return compareLatency;
+	}
+
+	public void setCompareLatency(Duration compareLatency) {
+		this.compareLatency = compareLatency;
+	}
+
+	public int getAllocationBytes() {
+		return allocationBytes;
+	}
+
+	public void setAllocationBytes(int allocationBytes) {
+		this.allocationBytes = allocationBytes;
+	}
+
+	public boolean isBusySpin() {
+		return busySpin;
+	}
+
+	public void setBusySpin(boolean busySpin) {
+		this.busySpin = busySpin;
+	}
+
+	public float getLiveRatio() {
+		return liveRatio;
+	}
+
+	public void setLiveRatio(float liveRatio) {
+		this.liveRatio = liveRatio;
+	}
+
+}
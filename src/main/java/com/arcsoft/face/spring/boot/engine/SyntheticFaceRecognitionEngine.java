@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.engine;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import com.arcsoft.face.AgeInfo;
+import com.arcsoft.face.EngineConfiguration;
+import com.arcsoft.face.Face3DAngle;
+import com.arcsoft.face.FaceFeature;
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.FaceSimilar;
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.GenderInfo;
+import com.arcsoft.face.IrLivenessInfo;
+import com.arcsoft.face.LivenessInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.enums.ErrorInfo;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.spring.boot.utils.FaceFeatureUtils;
+
+/**
+ * 纯 Java 合成人脸识别引擎，不加载原生库、不需要授权
+ * <p>
+ * 各阶段按 {@link SyntheticEngineProperties} 配置的耗时忙等（或 park）并分配指定大小的内存，
+ * 以便在普通机器上衡量 Java 侧流水线在真实并发下的吞吐；检测结果、属性与特征只由图像尺寸和人脸序号决定，
+ * 相同输入总是得到相同输出，比对分值为特征向量的余弦相似度。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class SyntheticFaceRecognitionEngine implements FaceRecognitionEngine {
+
+	private static final int MOK = ErrorInfo.MOK.getValue();
+	/**
+	 * SDK 结果对象没有公开的 setter，通过反射写入确定性的属性值
+	 */
+	private static final Field AGE = field(AgeInfo.class, "age");
+	private static final Field GENDER = field(GenderInfo.class, "gender");
+	private static final Field YAW = field(Face3DAngle.class, "yaw");
+	private static final Field PITCH = field(Face3DAngle.class, "pitch");
+	private static final Field ANGLE_STATUS = field(Face3DAngle.class, "status");
+	private static final Field LIVENESS = field(LivenessInfo.class, "liveness");
+	private static final Field IR_LIVENESS = field(IrLivenessInfo.class, "liveness");
+
+	private final SyntheticEngineProperties properties;
+	private final List<Integer> lastFaceIds = new ArrayList<Integer>();
+	private boolean initialized;
+	private float rgbThreshold = Float.NaN;
+	private float irThreshold = Float.NaN;
+	private long livenessParamUpdates;
+	/**
+	 * 持有最近一次分配，避免被 JIT 消除
+	 */
+	private byte[] allocation;
+
+	public SyntheticFaceRecognitionEngine(SyntheticEngineProperties properties) {
+		this.properties = properties;
+	}
+
+	/*
+	 * 生成确定性的特征数据
+	 */
+	public static byte[] feature(long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		float[] vector = new float[FaceFeatureUtils.DEFAULT_DIMENSION];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return FaceFeatureUtils.toFeatureData(seed, vector, 0, vector.length);
+	}
+
+	@Override
+	public int activeOnline(String appId, String sdkKey) {
+		return MOK;
+	}
+
+	@Override
+	public int init(EngineConfiguration engineConfiguration) {
+		if (!initialized) {
+			pause(properties.getInitLatency().toNanos());
+			initialized = true;
+			rgbThreshold = Float.NaN;
+			irThreshold = Float.NaN;
+		}
+		return MOK;
+	}
+
+	@Override
+	public int unInit() {
+		initialized = false;
+		return MOK;
+	}
+
+	@Override
+	public int setLivenessParam(float rgbThreshold, float irThreshold) {
+		// 与原生适配器一致：阈值未变化时不下发
+		if (Float.compare(this.rgbThreshold, rgbThreshold) != 0 || Float.compare(this.irThreshold, irThreshold) != 0) {
+			this.rgbThreshold = rgbThreshold;
+			this.irThreshold = irThreshold;
+			livenessParamUpdates++;
+		}
+		return MOK;
+	}
+
+	/*
+	 * 活体阈值实际变更的次数
+	 */
+	public long getLivenessParamUpdates() {
+		return livenessParamUpdates;
+	}
+
+	@Override
+	public int detectFaces(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList) {
+		if (data == null || width <= 0 || height <= 0) {
+			return ErrorInfo.MERR_INVALID_PARAM.getValue();
+		}
+		work(properties.getDetectLatency().toNanos() + properties.getMegapixelLatency().toNanos() * width * height / 1000000L);
+		int faceNum = properties.getFaceNum();
+		int size = Math.max(1, Math.min(width, height) / (faceNum + 1));
+		for (int index = 0; index < faceNum; index++) {
+			int offset = index * size;
+			FaceInfo faceInfo = new FaceInfo(new Rect(offset, offset, offset + size, offset + size), 1);
+			faceInfo.setFaceId(index);
+			faceInfoList.add(faceInfo);
+		}
+		return MOK;
+	}
+
+	@Override
+	public int process(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList,
+			FunctionConfiguration functionConfiguration) {
+		return doProcess(faceInfoList);
+	}
+
+	@Override
+	public int processIr(byte[] data, int width, int height, ImageFormat imageFormat, List<FaceInfo> faceInfoList,
+			FunctionConfiguration functionConfiguration) {
+		return doProcess(faceInfoList);
+	}
+
+	@Override
+	public int extractFaceFeature(byte[] data, int width, int height, ImageFormat imageFormat, FaceInfo faceInfo,
+			FaceFeature feature) {
+		if (data == null || faceInfo == null) {
+			return ErrorInfo.MERR_INVALID_PARAM.getValue();
+		}
+		work(properties.getExtractLatency().toNanos());
+		feature.setFeatureData(feature(((long) width << 32 | height) * 31 + faceInfo.getFaceId()));
+		return MOK;
+	}
+
+	@Override
+	public int compareFaceFeature(FaceFeature feature1, FaceFeature feature2, FaceSimilar faceSimilar) {
+		pause(properties.getCompareLatency().toNanos());
+		float score = FaceFeatureUtils.cosine(feature1.getFeatureData(), feature2.getFeatureData());
+		faceSimilar.setScore(Math.max(0f, score));
+		return MOK;
+	}
+
+	@Override
+	public int getAge(List<AgeInfo> ageInfoList) {
+		for (Integer faceId : lastFaceIds) {
+			AgeInfo ageInfo = new AgeInfo();
+			set(AGE, ageInfo, 20 + faceId * 7 % 40);
+			ageInfoList.add(ageInfo);
+		}
+		return MOK;
+	}
+
+	@Override
+	public int getGender(List<GenderInfo> genderInfoList) {
+		for (Integer faceId : lastFaceIds) {
+			GenderInfo genderInfo = new GenderInfo();
+			set(GENDER, genderInfo, faceId % 2);
+			genderInfoList.add(genderInfo);
+		}
+		return MOK;
+	}
+
+	@Override
+	public int getFace3DAngle(List<Face3DAngle> face3DAngleList) {
+		for (Integer faceId : lastFaceIds) {
+			Face3DAngle face3DAngle = new Face3DAngle();
+			set(YAW, face3DAngle, (float) (faceId * 5 % 30));
+			set(PITCH, face3DAngle, (float) (faceId * 3 % 20));
+			// 角度检测正常
+			set(ANGLE_STATUS, face3DAngle, 0);
+			face3DAngleList.add(face3DAngle);
+		}
+		return MOK;
+	}
+
+	@Override
+	public int getLiveness(List<LivenessInfo> livenessInfoList) {
+		for (Integer faceId : lastFaceIds) {
+			LivenessInfo livenessInfo = new LivenessInfo();
+			set(LIVENESS, livenessInfo, isLive(faceId) ? 1 : 0);
+			livenessInfoList.add(livenessInfo);
+		}
+		return MOK;
+	}
+
+	@Override
+	public int getLivenessIr(List<IrLivenessInfo> irLivenessInfoList) {
+		for (Integer faceId : lastFaceIds) {
+			IrLivenessInfo irLivenessInfo = new IrLivenessInfo();
+			set(IR_LIVENESS, irLivenessInfo, isLive(faceId) ? 1 : 0);
+			irLivenessInfoList.add(irLivenessInfo);
+		}
+		return MOK;
+	}
+
+	public SyntheticEngineProperties getProperties() {
+		return properties;
+	}
+
+	private int doProcess(List<FaceInfo> faceInfoList) {
+		if (faceInfoList == null) {
+			return ErrorInfo.MERR_INVALID_PARAM.getValue();
+		}
+		work(properties.getProcessLatency().toNanos());
+		lastFaceIds.clear();
+		for (FaceInfo faceInfo : faceInfoList) {
+			lastFaceIds.add(faceInfo.getFaceId());
+		}
+		return MOK;
+	}
+
+	/*
+	 * 按黄金分割序列确定性地分布活体结果，使通过比例接近 liveRatio
+	 */
+	private boolean isLive(int faceId) {
+		double fraction = ((faceId + 1) * 0.6180339887498949) % 1d;
+		return fraction < properties.getLiveRatio();
+	}
+
+	private void work(long nanos) {
+		if (properties.getAllocationBytes() > 0) {
+			allocation = new byte[properties.getAllocationBytes()];
+		}
+		pause(nanos);
+	}
+
+	private void pause(long nanos) {
+		if (nanos <= 0) {
+			return;
+		}
+		if (properties.isBusySpin()) {
+			long deadline = System.nanoTime() + nanos;
+			while (System.nanoTime() < deadline) {
+				// 忙等，模拟原生计算占用 CPU
+			}
+		} else {
+			LockSupport.parkNanos(nanos);
+		}
+	}
+
+	private static Field field(Class<?> type, String name) {
+		try {
+			Field field = type.getDeclaredField(name);
+			field.setAccessible(true);
+			return field;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static void set(Field field, Object target, Object value) {
+		if (field == null) {
+			return;
+		}
+		try {
+			field.set(target, value);
+		} catch (IllegalAccessException e) {
+			// 无法写入时保留默认值
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.io.ByteStreams;
+
+/**
+ * 入库图片数据源基类：按扩展名过滤图片，逐张读入内存，超过大小限制的图片不读取数据
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public abstract class AbstractEnrollmentSource extends AbstractIterator<FaceImageEntry> implements FaceEnrollmentSource {
+
+	protected static final byte[] EMPTY = new byte[0];
+
+	private final String name;
+	protected final FaceEnrollmentProperties properties;
+
+	protected AbstractEnrollmentSource(String name, FaceEnrollmentProperties properties) {
+		this.name = name;
+		this.properties = properties;
+	}
+
+	@Override
+	protected final FaceImageEntry computeNext() {
+		try {
+			FaceImageEntry entry = this.readNext();
+			return entry != null ? entry : endOfData();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read enrollment source : " + name, e);
+		}
+	}
+
+	/*
+	 * 读取下一张图片，没有更多图片时返回 null
+	 */
+	protected abstract FaceImageEntry readNext() throws IOException;
+
+	/*
+	 * 是否为需要入库的图片
+	 */
+	protected boolean accept(String entryName) {
+		int dot = entryName.lastIndexOf('.');
+		if (dot < 0 || entryName.endsWith("/")) {
+			return false;
+		}
+		String extension = entryName.substring(dot + 1).toLowerCase(Locale.ROOT);
+		return properties.getExtensions().contains(extension);
+	}
+
+	/*
+	 * 读取图片数据，已知大小超过限制时跳过数据并返回空数组，由检测阶段按无效图片处理
+	 */
+	protected byte[] read(InputStream input, long size) throws IOException {
+		if (size > properties.getMaxImageBytes()) {
+			ByteStreams.skipFully(input, size);
+			return EMPTY;
+		}
+		byte[] data = new byte[(int) size];
+		ByteStreams.readFully(input, data);
+		return data;
+	}
+
+	/*
+	 * 读取大小未知的图片数据（直到流结束），超过限制时返回空数组
+	 */
+	protected byte[] read(InputStream input) throws IOException {
+		byte[] data = ByteStreams.toByteArray(ByteStreams.limit(input, properties.getMaxImageBytes() + 1L));
+		if (data.length > properties.getMaxImageBytes()) {
+			ByteStreams.exhaust(input);
+			return EMPTY;
+		}
+		return data;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 目录数据源：递归遍历目录树，按相对路径排序，保证每次遍历顺序一致
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class DirectoryEnrollmentSource extends AbstractEnrollmentSource {
+
+	private final Path root;
+	private final Stream<Path> stream;
+	private final Iterator<Path> paths;
+
+	public DirectoryEnrollmentSource(Path root, FaceEnrollmentProperties properties) throws IOException {
+		super(root.toString(), properties);
+		this.root = root;
+		this.stream = Files.walk(root).filter(Files::isRegularFile).sorted();
+		this.paths = stream.iterator();
+	}
+
+	@Override
+	protected FaceImageEntry readNext() throws IOException {
+		while (paths.hasNext()) {
+			Path path = paths.next();
+			String name = root.relativize(path).toString().replace('\\', '/');
+			if (!this.accept(name)) {
+				continue;
+			}
+			try (InputStream input = Files.newInputStream(path)) {
+				return new FaceImageEntry(name, this.read(input, Files.size(path)));
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void close() {
+		stream.close();
+	}
+
+}
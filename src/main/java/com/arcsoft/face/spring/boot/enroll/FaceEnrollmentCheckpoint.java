@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * 批量入库断点：记录已处理到的数据源位置，先写临时文件再原子替换，进程中断后不会留下不完整的断点
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnrollmentCheckpoint {
+
+	private final Path file;
+	private final String source;
+	private long position;
+
+	FaceEnrollmentCheckpoint(Path file, String source, long position) {
+		this.file = file;
+		this.source = source;
+		this.position = position;
+	}
+
+	/*
+	 * 读取断点，文件不存在时从头开始
+	 *
+	 * @throws IllegalStateException 断点文件属于其它数据源
+	 */
+	public static FaceEnrollmentCheckpoint load(Path file, String source) throws IOException {
+		if (!Files.exists(file)) {
+			return new FaceEnrollmentCheckpoint(file, source, 0L);
+		}
+		Properties properties = new Properties();
+		try (InputStream input = Files.newInputStream(file)) {
+			properties.load(input);
+		}
+		if (!source.equals(properties.getProperty("source"))) {
+			throw new IllegalStateException("Enrollment checkpoint " + file + " belongs to another source : "
+					+ properties.getProperty("source"));
+		}
+		return new FaceEnrollmentCheckpoint(file, source, Long.parseLong(properties.getProperty("position", "0")));
+	}
+
+	/*
+	 * 保存断点
+	 */
+	public void save(long position) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty("source", source);
+		properties.setProperty("position", String.valueOf(position));
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream output = Files.newOutputStream(temp)) {
+			properties.store(output, "arcface enrollment checkpoint");
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		this.position = position;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.FaceAttribute;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+import com.arcsoft.face.spring.boot.store.FaceFeatureStore;
+import com.google.common.hash.Hashing;
+
+/**
+ * 批量入库任务：从数据源流式读取图片，经模板的批量检测流水线（多线程解码、按分块占用池中全部引擎）提取特征，
+ * 去重后直接写入特征存储
+ * <p>
+ * 同时在途的图片数受 arcface.batch 的分块大小与在途分块数限制，内存占用与数据源规模无关。
+ * 检测结果按数据源顺序返回，断点记录最后一张已完成图片的位置，中断后从断点继续。
+ * 去重分两级：图片内容哈希相同的直接跳过，不占用引擎；配置 duplicate-threshold 时，特征与已入库特征相似的也跳过，
+ * 已入库特征（含断点之前写入存储的）以 int8 量化保存在内存中用于比对。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnrollmentJob {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FaceEnrollmentJob.class);
+
+	private static final FaceEnrollmentListener LOGGING_LISTENER = new FaceEnrollmentListener() {
+
+		@Override
+		public void onProgress(FaceEnrollmentProgress progress) {
+			LOG.info("{}", progress);
+		}
+
+		@Override
+		public void onSkipped(String name, String reason) {
+			LOG.debug("Skipped {} : {}", name, reason);
+		}
+
+	};
+
+	private final ArcFaceRecognitionTemplate template;
+	private final FaceEnrollmentSource source;
+	private final FaceFeatureStore store;
+	private final FaceEnrollmentProperties properties;
+	private FaceEnrollmentListener listener = LOGGING_LISTENER;
+	private Path checkpointFile;
+
+	/**
+	 * 已送入检测流水线、尚未完成的图片，按数据源顺序排列
+	 */
+	private final Deque<Pending> pending = new ArrayDeque<Pending>();
+	/**
+	 * 已读取图片的内容哈希
+	 */
+	private final Set<Long> contentHashes = new HashSet<Long>();
+	/**
+	 * 按特征去重时的已入库特征，写入时同时写入存储
+	 */
+	private FaceGallery dedupeGallery;
+	private FaceEnrollmentCheckpoint checkpoint;
+	private long readPosition;
+	private long position;
+	private long processed;
+	private long enrolled;
+	private long duplicates;
+	private long failed;
+	private long sinceCheckpoint;
+	private long sinceProgress;
+	private long start;
+
+	public FaceEnrollmentJob(ArcFaceRecognitionTemplate template, FaceEnrollmentSource source, FaceFeatureStore store,
+			FaceEnrollmentProperties properties) {
+		if (store.isReadOnly()) {
+			throw new IllegalArgumentException("Face feature store is read only");
+		}
+		this.template = template;
+		this.source = source;
+		this.store = store;
+		this.properties = properties;
+	}
+
+	/*
+	 * 执行入库，返回最终进度；任务对象只能执行一次
+	 */
+	public FaceEnrollmentProgress run() throws IOException {
+		if (start != 0) {
+			throw new IllegalStateException("Enrollment job can only run once");
+		}
+		start = System.nanoTime();
+		if (checkpointFile != null) {
+			checkpoint = FaceEnrollmentCheckpoint.load(checkpointFile, source.getName());
+			// 跳过断点之前的图片，不解码
+			while (readPosition < checkpoint.getPosition() && source.hasNext()) {
+				source.next();
+				readPosition++;
+			}
+			position = readPosition;
+		}
+		if (properties.getDuplicateThreshold() > 0f) {
+			FaceGalleryProperties galleryProperties = new FaceGalleryProperties();
+			galleryProperties.setEncoding(FaceGalleryProperties.Encoding.INT8);
+			galleryProperties.setParallelism(1);
+			dedupeGallery = new FaceGallery(galleryProperties);
+			dedupeGallery.setStore(store);
+			dedupeGallery.load();
+		}
+		try {
+			template.detectAllEncoded(new EntryIterator(),
+					template.options(FaceLiveness.NONE).withAttributes(FaceAttribute.FEATURE), this::complete);
+			// 结尾处内容重复的图片
+			position = readPosition;
+			this.saveCheckpoint();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			if (dedupeGallery != null) {
+				dedupeGallery.close();
+			}
+		}
+		FaceEnrollmentProgress progress = this.progress();
+		listener.onProgress(progress);
+		return progress;
+	}
+
+	/*
+	 * 处理一张图片的检测结果，按数据源顺序回调
+	 */
+	private void complete(DetectResult result) {
+		Pending entry = pending.poll();
+		position = entry.position + 1;
+		processed++;
+		FaceResult face = result.isSuccess() ? largestFace(result.getFaces()) : null;
+		if (face == null || face.getFeature() == null) {
+			failed++;
+			listener.onSkipped(entry.name, result.isSuccess() ? "no face" : result.getErrorMsg());
+		} else {
+			this.enroll(entry, face.getFeature());
+		}
+		if (++sinceCheckpoint >= properties.getCheckpointInterval()) {
+			try {
+				this.saveCheckpoint();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		if (++sinceProgress >= properties.getProgressInterval()) {
+			sinceProgress = 0;
+			listener.onProgress(this.progress());
+		}
+	}
+
+	private void enroll(Pending entry, byte[] feature) {
+		try {
+			if (dedupeGallery != null) {
+				List<FaceMatch> matches = dedupeGallery.search(feature, 1, properties.getDuplicateThreshold());
+				if (!matches.isEmpty() && !matches.get(0).getUserId().equals(entry.userId)) {
+					duplicates++;
+					listener.onSkipped(entry.name, "duplicate of " + matches.get(0).getUserId());
+					return;
+				}
+				dedupeGallery.enroll(entry.userId, feature);
+			} else {
+				store.put(entry.userId, feature);
+			}
+			enrolled++;
+		} catch (IllegalArgumentException e) {
+			// 用户标识过长、特征维度不符等
+			failed++;
+			listener.onSkipped(entry.name, e.getMessage());
+		}
+	}
+
+	/*
+	 * 先将存储刷到磁盘再记录断点，保证断点之前的图片都已持久化
+	 */
+	private void saveCheckpoint() throws IOException {
+		sinceCheckpoint = 0;
+		if (checkpoint != null) {
+			store.force();
+			checkpoint.save(position);
+		}
+	}
+
+	private FaceEnrollmentProgress progress() {
+		return new FaceEnrollmentProgress(position, processed, enrolled, duplicates, failed, System.nanoTime() - start);
+	}
+
+	/*
+	 * 从图片路径得到用户标识
+	 */
+	protected String userId(String name) {
+		int slash = name.lastIndexOf('/');
+		if (properties.getUserIdSource() == FaceEnrollmentProperties.UserIdSource.DIRECTORY && slash > 0) {
+			String directory = name.substring(0, slash);
+			return directory.substring(directory.lastIndexOf('/') + 1);
+		}
+		String fileName = name.substring(slash + 1);
+		int dot = fileName.lastIndexOf('.');
+		return dot > 0 ? fileName.substring(0, dot) : fileName;
+	}
+
+	private static FaceResult largestFace(List<FaceResult> faces) {
+		FaceResult largest = null;
+		for (FaceResult face : faces) {
+			if (largest == null || (long) face.getWidth() * face.getHeight() > (long) largest.getWidth() * largest.getHeight()) {
+				largest = face;
+			}
+		}
+		return largest;
+	}
+
+	public FaceEnrollmentListener getListener() {
+		return listener;
+	}
+
+	public void setListener(FaceEnrollmentListener listener) {
+		this.listener = listener != null ? listener : LOGGING_LISTENER;
+	}
+
+	public Path getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public void setCheckpointFile(Path checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	private static class Pending {
+
+		private final String name;
+		private final String userId;
+		private final long position;
+
+		Pending(String name, String userId, long position) {
+			this.name = name;
+			this.userId = userId;
+			this.position = position;
+		}
+
+	}
+
+	/**
+	 * 将数据源转换为检测流水线的输入，内容重复的图片在此跳过
+	 */
+	private class EntryIterator implements Iterator<byte[]> {
+
+		private FaceImageEntry next;
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && source.hasNext()) {
+				FaceImageEntry entry = source.next();
+				readPosition++;
+				if (entry.getData().length > 0
+						&& !contentHashes.add(Hashing.murmur3_128().hashBytes(entry.getData()).asLong())) {
+					duplicates++;
+					processed++;
+					listener.onSkipped(entry.getName(), "duplicate image content");
+					continue;
+				}
+				next = entry;
+			}
+			return next != null;
+		}
+
+		@Override
+		public byte[] next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			FaceImageEntry entry = next;
+			next = null;
+			pending.add(new Pending(entry.getName(), userId(entry.getName()), readPosition - 1));
+			return entry.getData();
+		}
+
+	}
+
+}
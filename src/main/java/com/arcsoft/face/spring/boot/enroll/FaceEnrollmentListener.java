@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+/**
+ * 批量入库进度监听器，回调在提交入库任务的线程上执行
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceEnrollmentListener {
+
+	/**
+	 * 按 progress-interval 周期及结束时回调
+	 * @param progress 当前进度
+	 */
+	void onProgress(FaceEnrollmentProgress progress);
+
+	/**
+	 * 图片未入库（失败或重复）时回调
+	 * @param name 图片在数据源中的路径
+	 * @param reason 原因
+	 */
+	default void onSkipped(String name, String reason) {
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+/**
+ * 批量入库进度
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnrollmentProgress {
+
+	/**
+	 * 已处理的数据源位置（含断点之前的图片）
+	 */
+	private final long position;
+	/**
+	 * 本次运行处理的图片数
+	 */
+	private final long processed;
+	/**
+	 * 已入库数
+	 */
+	private final long enrolled;
+	/**
+	 * 重复而跳过的图片数
+	 */
+	private final long duplicates;
+	/**
+	 * 解码、检测或写入失败的图片数
+	 */
+	private final long failed;
+	/**
+	 * 本次运行的耗时（纳秒）
+	 */
+	private final long elapsedNanos;
+
+	public FaceEnrollmentProgress(long position, long processed, long enrolled, long duplicates, long failed, long elapsedNanos) {
+		this.position = position;
+		this.processed = processed;
+		this.enrolled = enrolled;
+		this.duplicates = duplicates;
+		this.failed = failed;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+
+	public long getProcessed() {
+		return processed;
+	}
+
+	public long getEnrolled() {
+		return enrolled;
+	}
+
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/*
+	 * 本次运行的吞吐（张/秒）
+	 */
+	public double getImagesPerSecond() {
+		return elapsedNanos == 0 ? 0d : processed * 1e9d / elapsedNanos;
+	}
+
+	/*
+	 * 按 CPU 核数折算的吞吐（张/秒/核）
+	 */
+	public double getImagesPerSecondPerCore() {
+		return getImagesPerSecond() / Runtime.getRuntime().availableProcessors();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("FaceEnrollmentProgress [position=%d, processed=%d, enrolled=%d, duplicates=%d, failed=%d, "
+				+ "imagesPerSecond=%.1f, imagesPerSecondPerCore=%.1f]", position, processed, enrolled, duplicates, failed,
+				getImagesPerSecond(), getImagesPerSecondPerCore());
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 批量入库配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnrollmentProperties {
+
+	/**
+	 * 用户标识的来源
+	 */
+	public enum UserIdSource {
+
+		/**
+		 * 去掉扩展名的文件名，如 people/zhangsan.jpg 为 zhangsan
+		 */
+		FILE_NAME,
+		/**
+		 * 所在目录名，适用于每人一个目录的数据集，如 people/zhangsan/001.jpg 为 zhangsan
+		 */
+		DIRECTORY;
+
+	}
+
+	/**
+	 * 用户标识的来源
+	 */
+	private UserIdSource userIdSource = UserIdSource.FILE_NAME;
+	/**
+	 * 需要入库的图片扩展名（小写）
+	 */
+	private Set<String> extensions = new LinkedHashSet<String>(Arrays.asList("jpg", "jpeg", "png", "bmp"));
+	/**
+	 * 单张图片的最大字节数，超过的图片不读取并记为失败，用于限制内存占用
+	 */
+	private int maxImageBytes = 10 * 1024 * 1024;
+	/**
+	 * 与已入库特征的相似值达到该值时视为重复人脸而跳过，0 表示只按图片内容去重
+	 */
+	private float duplicateThreshold = 0f;
+	/**
+	 * 每处理多少张图片写一次断点
+	 */
+	private int checkpointInterval = 1000;
+	/**
+	 * 每处理多少张图片报告一次进度
+	 */
+	private int progressInterval = 1000;
+
+	public UserIdSource getUserIdSource() {
+		return userIdSource;
+	}
+
+	public void setUserIdSource(UserIdSource userIdSource) {
+		this.userIdSource = userIdSource;
+	}
+
+	public Set<String> getExtensions() {
+		return extensions;
+	}
+
+	public void setExtensions(Set<String> extensions) {
+		this.extensions = extensions;
+	}
+
+	public int getMaxImageBytes() {
+		return maxImageBytes;
+	}
+
+	public void setMaxImageBytes(int maxImageBytes) {
+		this.maxImageBytes = maxImageBytes;
+	}
+
+	public float getDuplicateThreshold() {
+		return duplicateThreshold;
+	}
+
+	public void setDuplicateThreshold(float duplicateThreshold) {
+		this.duplicateThreshold = duplicateThreshold;
+	}
+
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	public int getProgressInterval() {
+		return progressInterval;
+	}
+
+	public void setProgressInterval(int progressInterval) {
+		this.progressInterval = progressInterval;
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * 入库图片数据源：按确定的顺序逐张读取图片，断点续传依赖该顺序
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceEnrollmentSource extends Iterator<FaceImageEntry>, Closeable {
+
+	/**
+	 * @return 数据源标识（如路径），用于校验断点文件是否属于该数据源
+	 */
+	String getName();
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 按路径创建入库图片数据源
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class FaceEnrollmentSources {
+
+	private FaceEnrollmentSources() {
+	}
+
+	/*
+	 * 目录使用目录数据源，.zip 使用 zip 数据源，.tar / .tar.gz / .tgz 使用 tar 数据源
+	 *
+	 * @throws IllegalArgumentException 不支持的文件类型
+	 */
+	public static FaceEnrollmentSource open(Path path, FaceEnrollmentProperties properties) throws IOException {
+		if (Files.isDirectory(path)) {
+			return new DirectoryEnrollmentSource(path, properties);
+		}
+		String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (fileName.endsWith(".zip")) {
+			return new ZipEnrollmentSource(path, properties);
+		}
+		if (fileName.endsWith(".tar") || fileName.endsWith(".tar.gz") || fileName.endsWith(".tgz")) {
+			return new TarEnrollmentSource(path, properties);
+		}
+		throw new IllegalArgumentException("Unsupported enrollment source : " + path);
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+/**
+ * 待入库的图片
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceImageEntry {
+
+	/**
+	 * 图片在数据源中的相对路径，以 / 分隔
+	 */
+	private final String name;
+	/**
+	 * 图片编码数据，超过大小限制时为空数组
+	 */
+	private final byte[] data;
+
+	public FaceImageEntry(String name, byte[] data) {
+		this.name = name;
+		this.data = data;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+}
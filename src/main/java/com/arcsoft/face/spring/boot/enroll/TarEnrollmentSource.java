@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * tar（含 .tar.gz / .tgz）数据源：按归档内的存储顺序流式读取，支持 ustar 路径前缀、GNU 长文件名与 PAX 扩展头中的 path / size
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class TarEnrollmentSource extends AbstractEnrollmentSource {
+
+	private static final int BLOCK_SIZE = 512;
+	/**
+	 * GNU 长文件名的最大长度
+	 */
+	static final int MAX_LONG_NAME_BYTES = 4096;
+	/**
+	 * PAX 扩展头的最大长度
+	 */
+	static final int MAX_PAX_HEADER_BYTES = 64 * 1024;
+
+	private final InputStream input;
+	private final byte[] header = new byte[BLOCK_SIZE];
+
+	public TarEnrollmentSource(Path file, FaceEnrollmentProperties properties) throws IOException {
+		super(file.toString(), properties);
+		String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		InputStream stream = new BufferedInputStream(Files.newInputStream(file));
+		this.input = fileName.endsWith(".gz") || fileName.endsWith(".tgz") ? new GZIPInputStream(stream, 64 * 1024) : stream;
+	}
+
+	@Override
+	protected FaceImageEntry readNext() throws IOException {
+		String longName = null;
+		Map<String, String> pax = null;
+		while (this.readHeader()) {
+			long size = parseSize();
+			byte type = header[156];
+			String name;
+			if (type == 'L') {
+				// GNU 长文件名：数据块为下一个条目的名称
+				byte[] data = this.readMetadata(size, MAX_LONG_NAME_BYTES, "GNU long name");
+				longName = cString(data, 0, data.length);
+				continue;
+			}
+			if (type == 'x') {
+				// PAX 扩展头：记录下一个条目的属性，path 优先于头部中的名称
+				pax = parsePax(this.readMetadata(size, MAX_PAX_HEADER_BYTES, "PAX header"));
+				continue;
+			}
+			if (pax != null && pax.containsKey("size")) {
+				size = parsePaxSize(pax.get("size"));
+			}
+			name = pax != null && pax.containsKey("path") ? pax.get("path") : longName != null ? longName : entryName();
+			longName = null;
+			pax = null;
+			if ((type != '0' && type != 0) || !this.accept(name)) {
+				ByteStreams.skipFully(input, size);
+				skipPadding(size);
+				continue;
+			}
+			byte[] data = this.read(input, size);
+			skipPadding(size);
+			return new FaceImageEntry(name, data);
+		}
+		return null;
+	}
+
+	/*
+	 * 读取长文件名、PAX 扩展头等元数据条目，长度超过限制（及 max-image-bytes）时视为损坏的归档
+	 */
+	private byte[] readMetadata(long size, int maxBytes, String kind) throws IOException {
+		long limit = Math.min(maxBytes, properties.getMaxImageBytes());
+		if (size < 0 || size > limit) {
+			throw new IOException(kind + " exceeds " + limit + " bytes : " + size);
+		}
+		byte[] data = new byte[(int) size];
+		ByteStreams.readFully(input, data);
+		skipPadding(size);
+		return data;
+	}
+
+	/*
+	 * 解析 PAX 扩展头，每条记录的格式为 "长度 键=值\n"，长度为包含自身在内的记录字节数
+	 */
+	static Map<String, String> parsePax(byte[] data) throws IOException {
+		Map<String, String> records = new HashMap<String, String>();
+		int offset = 0;
+		while (offset < data.length && data[offset] != 0) {
+			int space = offset;
+			int length = 0;
+			while (space < data.length && data[space] >= '0' && data[space] <= '9' && length <= data.length) {
+				length = length * 10 + (data[space++] - '0');
+			}
+			int end = offset + length;
+			if (space == offset || space >= data.length || data[space] != ' ' || end > data.length || end <= space + 1
+					|| data[end - 1] != '\n') {
+				throw new IOException("Invalid PAX header record at offset " + offset);
+			}
+			String record = new String(data, space + 1, end - space - 2, StandardCharsets.UTF_8);
+			int equals = record.indexOf('=');
+			if (equals <= 0) {
+				throw new IOException("Invalid PAX header record at offset " + offset);
+			}
+			records.put(record.substring(0, equals), record.substring(equals + 1));
+			offset = end;
+		}
+		return records;
+	}
+
+	private static long parsePaxSize(String value) throws IOException {
+		try {
+			long size = Long.parseLong(value);
+			if (size >= 0) {
+				return size;
+			}
+		} catch (NumberFormatException e) {
+			// 按无效记录处理
+		}
+		throw new IOException("Invalid PAX size : " + value);
+	}
+
+	/*
+	 * 读取条目头部，遇到归档结束标记（全 0 块）或流结束时返回 false
+	 */
+	private boolean readHeader() throws IOException {
+		int read = ByteStreams.read(input, header, 0, BLOCK_SIZE);
+		if (read < BLOCK_SIZE) {
+			return false;
+		}
+		for (byte b : header) {
+			if (b != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String entryName() {
+		String name = cString(header, 0, 100);
+		if (header[257] == 'u' && header[258] == 's' && header[259] == 't' && header[260] == 'a' && header[261] == 'r') {
+			String prefix = cString(header, 345, 155);
+			if (!prefix.isEmpty()) {
+				return prefix + "/" + name;
+			}
+		}
+		return name;
+	}
+
+	private long parseSize() {
+		if ((header[124] & 0x80) != 0) {
+			// base-256 编码的大文件
+			long size = 0;
+			for (int i = 125; i < 136; i++) {
+				size = (size << 8) | (header[i] & 0xFF);
+			}
+			return size;
+		}
+		// 八进制，可能有前导空格，以空格或 0 结尾
+		int i = 124;
+		while (i < 136 && (header[i] == ' ' || header[i] == 0)) {
+			i++;
+		}
+		long size = 0;
+		for (; i < 136 && header[i] >= '0' && header[i] <= '7'; i++) {
+			size = (size << 3) + (header[i] - '0');
+		}
+		return size;
+	}
+
+	private void skipPadding(long size) throws IOException {
+		long remainder = size % BLOCK_SIZE;
+		if (remainder != 0) {
+			ByteStreams.skipFully(input, BLOCK_SIZE - remainder);
+		}
+	}
+
+	private static String cString(byte[] bytes, int offset, int length) {
+		int end = offset;
+		while (end < offset + length && bytes[end] != 0) {
+			end++;
+		}
+		return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+}
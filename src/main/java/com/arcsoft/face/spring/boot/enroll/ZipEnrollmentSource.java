@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * zip 数据源：按压缩包内的存储顺序流式读取，不解压到磁盘
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ZipEnrollmentSource extends AbstractEnrollmentSource {
+
+	private final ZipInputStream input;
+
+	public ZipEnrollmentSource(Path file, FaceEnrollmentProperties properties) throws IOException {
+		super(file.toString(), properties);
+		this.input = new ZipInputStream(new BufferedInputStream(Files.newInputStream(file)));
+	}
+
+	@Override
+	protected FaceImageEntry readNext() throws IOException {
+		ZipEntry entry;
+		while ((entry = input.getNextEntry()) != null) {
+			if (entry.isDirectory() || !this.accept(entry.getName())) {
+				continue;
+			}
+			// 流式读取时大小可能未知
+			byte[] data = entry.getSize() >= 0 ? this.read(input, entry.getSize()) : this.read(input);
+			return new FaceImageEntry(entry.getName(), data);
+		}
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+import java.util.List;
+
+/**
+ * 特征比对器，用于对候选特征进行精确打分（如 SDK 比对）
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceFeatureComparator {
+
+	/**
+	 * 计算探测特征与每个候选特征的相似值
+	 * @param probe 探测特征数据
+	 * @param candidates 候选特征数据
+	 * @return 与候选特征一一对应的相似值
+	 */
+	float[] compare(byte[] probe, List<byte[]> candidates);
+
+}
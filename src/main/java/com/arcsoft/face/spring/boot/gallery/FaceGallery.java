@@ -0,0 +1,680 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import com.arcsoft.face.spring.boot.store.FaceFeatureStore;
+import com.arcsoft.face.spring.boot.utils.FaceFeatureQuantizer;
+import com.arcsoft.face.spring.boot.utils.FaceFeatureUtils;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * 内存人脸库：所有特征向量保存在一块连续的 float 数组中，检索时按分片并行暴力扫描并合并 Top-K
+ * <p>
+ * 向量以原始值保存，同时记录模长倒数，既能直接计算余弦相似度，也能无损还原特征数据交由 SDK 精确打分。
+ * 内存敏感时可启用 int8 量化编码（arcface.gallery.encoding=int8），向量归一化后每维只占 1 字节，检索时查询向量量化为 int16 后直接与量化向量计算整数内积。
+ * 人脸库规模较大时可启用 HNSW 索引（arcface.gallery.index.type=hnsw），以少量召回率换取亚线性的检索延迟。
+ * 设置 {@link FaceFeatureStore} 后，入库与删除操作先写入存储日志，重启时通过 {@link #load()} 重放恢复。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceGallery implements Closeable {
+
+	/**
+	 * 特征布局校验抽取的特征数
+	 */
+	public static final int LAYOUT_SAMPLE_SIZE = 16;
+
+	private final FaceGalleryProperties properties;
+	private final int dimension;
+	/**
+	 * 是否以 int8 量化编码保存向量
+	 */
+	private final boolean quantized;
+	/**
+	 * 并行扫描的线程池，为 null 时在调用线程上扫描
+	 */
+	private final ForkJoinPool executor;
+	/**
+	 * 线程池是否由人脸库自行创建，共享的线程池不随人脸库关闭
+	 */
+	private final boolean ownsExecutor;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Integer> slotIndex = Maps.newHashMap();
+	/**
+	 * 近似最近邻索引，为 null 时暴力扫描
+	 */
+	private final HnswIndex index;
+	/**
+	 * 持久化存储，为 null 时仅保存在内存中
+	 */
+	private FaceFeatureStore store;
+	/**
+	 * 已重放的存储记录位置
+	 */
+	private long storePosition;
+	/**
+	 * 特征布局校验，人脸库首次持有两个及以上特征时以抽样特征调用，校验不通过时抛出 IllegalStateException
+	 */
+	private volatile Consumer<List<byte[]>> layoutVerifier;
+	/**
+	 * 特征布局是否已校验通过
+	 */
+	private volatile boolean layoutVerified;
+
+	/**
+	 * 特征向量区：capacity * dimension，量化编码时为 null
+	 */
+	private float[] vectors;
+	/**
+	 * 量化向量区：capacity * dimension，仅量化编码时使用
+	 */
+	private byte[] codes;
+	/**
+	 * 归一化向量的量化步长，仅量化编码时使用
+	 */
+	private float[] scales;
+	/**
+	 * 向量模长的倒数
+	 */
+	private float[] invNorms;
+	/**
+	 * 特征数据头部
+	 */
+	private long[] headers;
+	/**
+	 * 槽位对应的用户标识，null 表示空闲槽位
+	 */
+	private String[] userIds;
+	/**
+	 * 已删除的空闲槽位
+	 */
+	private int[] freeSlots = new int[16];
+	private int freeCount;
+	/**
+	 * 已使用过的最大槽位
+	 */
+	private int highWater;
+	private int size;
+
+	public FaceGallery(FaceGalleryProperties properties) {
+		this(properties, properties.getParallelism() > 1 ? new ForkJoinPool(properties.getParallelism()) : null, true);
+	}
+
+	/*
+	 * 使用共享的扫描线程池，例如同一进程内的多个分片共用一个线程池；关闭人脸库时不关闭该线程池
+	 *
+	 * @param executor 共享的扫描线程池，为 null 时不并行扫描
+	 */
+	public FaceGallery(FaceGalleryProperties properties, ForkJoinPool executor) {
+		this(properties, executor, false);
+	}
+
+	private FaceGallery(FaceGalleryProperties properties, ForkJoinPool executor, boolean ownsExecutor) {
+		this.properties = properties;
+		this.dimension = properties.getDimension();
+		int capacity = Math.max(16, properties.getInitialCapacity());
+		this.quantized = properties.getEncoding() == FaceGalleryProperties.Encoding.INT8;
+		if (quantized) {
+			this.codes = new byte[capacity * dimension];
+			this.scales = new float[capacity];
+		} else {
+			this.vectors = new float[capacity * dimension];
+		}
+		this.invNorms = new float[capacity];
+		this.headers = new long[capacity];
+		this.userIds = new String[capacity];
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.index = properties.getIndex().getType() == FaceIndexProperties.Type.HNSW
+				? new HnswIndex(new GalleryVectorStore(), properties.getIndex(), capacity) : null;
+	}
+
+	/*
+	 * 入库，用户标识已存在时覆盖原特征
+	 *
+	 * @param userId 用户标识
+	 * @param featureData 特征数据
+	 * @return 特征所在槽位
+	 */
+	public int enroll(String userId, byte[] featureData) {
+		if (userId == null) {
+			throw new IllegalArgumentException("userId must not be null");
+		}
+		checkDimension(featureData);
+		int slot;
+		lock.writeLock().lock();
+		try {
+			if (store != null) {
+				store.put(userId, featureData);
+				storePosition = store.count();
+			}
+			slot = put(userId, featureData);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		verifyLayout();
+		return slot;
+	}
+
+	/*
+	 * 从人脸库删除
+	 *
+	 * @param userId 用户标识
+	 * @return 是否存在并已删除
+	 */
+	public boolean remove(String userId) {
+		lock.writeLock().lock();
+		try {
+			if (store != null && slotIndex.containsKey(userId)) {
+				store.delete(userId);
+				storePosition = store.count();
+			}
+			return delete(userId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * 从持久化存储重放全部记录，通常在启动时调用
+	 *
+	 * @return 重放的记录数
+	 */
+	public long load() {
+		long replayed;
+		lock.writeLock().lock();
+		try {
+			storePosition = 0;
+			replayed = replay();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		verifyLayout();
+		return replayed;
+	}
+
+	/*
+	 * 增量重放持久化存储中的新记录，用于只读共享存储的其它 JVM 跟随写入方
+	 *
+	 * @return 新重放的记录数
+	 */
+	public long refresh() {
+		long replayed;
+		lock.writeLock().lock();
+		try {
+			replayed = replay();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		verifyLayout();
+		return replayed;
+	}
+
+	/*
+	 * 人脸库首次持有两个及以上特征时抽样校验特征布局，通过后不再校验；未通过时每次写入都会重新校验并抛出异常。
+	 * 校验在释放写锁后进行，SDK 打分期间不阻塞检索
+	 *
+	 * @throws IllegalStateException 特征布局与 SDK 分值不一致
+	 */
+	private void verifyLayout() {
+		Consumer<List<byte[]>> verifier = this.layoutVerifier;
+		if (verifier == null || layoutVerified || this.size() < 2) {
+			return;
+		}
+		List<byte[]> samples = this.sample(LAYOUT_SAMPLE_SIZE);
+		if (samples.size() < 2) {
+			return;
+		}
+		verifier.accept(samples);
+		layoutVerified = true;
+	}
+
+	/*
+	 * 写入内存，调用方需持有写锁
+	 */
+	private int put(String userId, byte[] featureData) {
+		Integer existing = slotIndex.get(userId);
+		int slot = existing != null ? existing : allocateSlot();
+		int offset = slot * dimension;
+		float norm;
+		if (quantized) {
+			float[] vector = FaceFeatureUtils.toVector(featureData);
+			norm = FaceFeatureUtils.normalize(vector, 0, dimension);
+			scales[slot] = FaceFeatureQuantizer.quantize(vector, 0, codes, offset, dimension);
+		} else {
+			FaceFeatureUtils.toVector(featureData, vectors, offset);
+			norm = FaceFeatureUtils.norm(vectors, offset, dimension);
+		}
+		invNorms[slot] = norm > 0f ? 1f / norm : 0f;
+		headers[slot] = FaceFeatureUtils.header(featureData);
+		if (existing == null) {
+			userIds[slot] = userId;
+			slotIndex.put(userId, slot);
+			size++;
+		}
+		if (index != null) {
+			index.insert(slot);
+		}
+		return slot;
+	}
+
+	/*
+	 * 从内存删除，调用方需持有写锁
+	 */
+	private boolean delete(String userId) {
+		Integer slot = slotIndex.remove(userId);
+		if (slot == null) {
+			return false;
+		}
+		userIds[slot] = null;
+		if (index != null) {
+			index.markDeleted(slot);
+		}
+		if (freeCount == freeSlots.length) {
+			freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+		}
+		freeSlots[freeCount++] = slot;
+		size--;
+		return true;
+	}
+
+	private long replay() {
+		if (store == null) {
+			return 0;
+		}
+		long from = storePosition;
+		storePosition = store.replay(from, new FaceFeatureStore.RecordVisitor() {
+
+			@Override
+			public void put(String userId, byte[] featureData) {
+				checkDimension(featureData);
+				FaceGallery.this.put(userId, featureData);
+			}
+
+			@Override
+			public void delete(String userId) {
+				FaceGallery.this.delete(userId);
+			}
+
+		});
+		return storePosition - from;
+	}
+
+	public boolean contains(String userId) {
+		lock.readLock().lock();
+		try {
+			return slotIndex.containsKey(userId);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * 获取已入库的特征数据
+	 */
+	public byte[] getFeature(String userId) {
+		lock.readLock().lock();
+		try {
+			Integer slot = slotIndex.get(userId);
+			return slot == null ? null : featureAt(slot);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * 按槽位顺序取出至多 limit 个特征数据，用于抽样校验
+	 */
+	public List<byte[]> sample(int limit) {
+		lock.readLock().lock();
+		try {
+			List<byte[]> samples = new ArrayList<byte[]>(Math.min(limit, size));
+			for (int slot = 0; slot < highWater && samples.size() < limit; slot++) {
+				if (userIds[slot] != null) {
+					samples.add(featureAt(slot));
+				}
+			}
+			return samples;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * 使用默认 topK 与阈值检索
+	 */
+	public List<FaceMatch> search(byte[] probe) {
+		return search(probe, properties.getTopK(), properties.getThreshold());
+	}
+
+	/*
+	 * 1:N 检索，返回按相似值降序排列的最相似人脸
+	 *
+	 * @param probe 探测特征数据
+	 * @param topK 返回的最大人脸数
+	 * @param threshold 相似值阈值
+	 * @throws IllegalArgumentException 特征数据无效或 topK 不大于 0
+	 */
+	public List<FaceMatch> search(byte[] probe, int topK, float threshold) {
+		checkTopK(topK);
+		float[] query = toQuery(probe);
+		int[] slots;
+		float[] scores;
+		int count;
+		String[] matched;
+		lock.readLock().lock();
+		try {
+			TopKCollector collector = scan(query, topK);
+			slots = new int[collector.size()];
+			scores = new float[collector.size()];
+			count = collector.drain(slots, scores);
+			matched = new String[count];
+			for (int i = 0; i < count; i++) {
+				matched[i] = userIds[slots[i]];
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<FaceMatch> matches = new ArrayList<FaceMatch>(count);
+		for (int i = 0; i < count && scores[i] >= threshold; i++) {
+			matches.add(new FaceMatch(matched[i], scores[i]));
+		}
+		return matches;
+	}
+
+	/*
+	 * 1:N 检索，先以向量余弦相似度筛选 topK * rescoreFactor 个候选，再由比对器（如 SDK）精确打分
+	 *
+	 * @param probe 探测特征数据
+	 * @param topK 返回的最大人脸数
+	 * @param threshold 相似值阈值（以比对器分值为准）
+	 * @param comparator 精确比对器
+	 * @throws IllegalArgumentException 特征数据无效或 topK 不大于 0
+	 */
+	public List<FaceMatch> search(byte[] probe, int topK, float threshold, FaceFeatureComparator comparator) {
+		checkTopK(topK);
+		float[] query = toQuery(probe);
+		int candidateCount = Math.max(topK, topK * Math.max(1, properties.getRescoreFactor()));
+		List<String> candidates;
+		List<byte[]> features;
+		lock.readLock().lock();
+		try {
+			TopKCollector collector = scan(query, candidateCount);
+			int[] slots = new int[collector.size()];
+			int count = collector.drain(slots, new float[slots.length]);
+			candidates = new ArrayList<String>(count);
+			features = new ArrayList<byte[]>(count);
+			for (int i = 0; i < count; i++) {
+				candidates.add(userIds[slots[i]]);
+				features.add(featureAt(slots[i]));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (candidates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		float[] scores = comparator.compare(probe, features);
+		List<FaceMatch> matches = Lists.newArrayListWithCapacity(candidates.size());
+		for (int i = 0; i < candidates.size(); i++) {
+			if (scores[i] >= threshold) {
+				matches.add(new FaceMatch(candidates.get(i), scores[i]));
+			}
+		}
+		matches.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+		return matches.size() > topK ? new ArrayList<FaceMatch>(matches.subList(0, topK)) : matches;
+	}
+
+	private static void checkTopK(int topK) {
+		if (topK <= 0) {
+			throw new IllegalArgumentException("topK must be positive : " + topK);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null && ownsExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	public FaceGalleryProperties getProperties() {
+		return properties;
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	public FaceFeatureStore getStore() {
+		return store;
+	}
+
+	public void setStore(FaceFeatureStore store) {
+		this.store = store;
+	}
+
+	public boolean isLayoutVerified() {
+		return layoutVerified;
+	}
+
+	/*
+	 * 设置特征布局校验，人脸库已持有两个及以上特征时立即校验，否则在首次达到两个特征的写入时校验
+	 *
+	 * @param layoutVerifier 接收抽样特征的校验器，为 null 时不校验
+	 * @throws IllegalStateException 特征布局与 SDK 分值不一致
+	 */
+	public void setLayoutVerifier(Consumer<List<byte[]>> layoutVerifier) {
+		this.layoutVerifier = layoutVerifier;
+		this.layoutVerified = false;
+		this.verifyLayout();
+	}
+
+	/*
+	 * 检索最相似的槽位：启用索引时走近似检索，否则扫描全部槽位，人脸库足够大时按分片并行扫描；调用方需持有读锁
+	 */
+	private TopKCollector scan(float[] query, int topK) {
+		if (index != null) {
+			int[] slots = new int[topK];
+			float[] scores = new float[topK];
+			int found = index.search(query, topK, properties.getIndex().getEfSearch(), slots, scores);
+			TopKCollector collector = new TopKCollector(topK);
+			for (int i = 0; i < found; i++) {
+				collector.offer(slots[i], scores[i]);
+			}
+			return collector;
+		}
+		final int limit = highWater;
+		final short[] quantizedQuery = quantized ? new short[dimension] : null;
+		final float queryScale = quantized ? FaceFeatureQuantizer.quantizeQuery(query, 0, quantizedQuery, 0, dimension) : 0f;
+		int partitions = executor == null ? 1
+				: Math.min(properties.getParallelism(), limit / Math.max(1, properties.getMinPartitionSize()));
+		if (partitions <= 1) {
+			TopKCollector collector = new TopKCollector(topK);
+			if (quantized) {
+				scanRange(quantizedQuery, queryScale, 0, limit, collector);
+			} else {
+				scanRange(query, 0, limit, collector);
+			}
+			return collector;
+		}
+		List<Callable<TopKCollector>> tasks = new ArrayList<Callable<TopKCollector>>(partitions);
+		int step = (limit + partitions - 1) / partitions;
+		for (int from = 0; from < limit; from += step) {
+			final int start = from;
+			final int end = Math.min(limit, from + step);
+			tasks.add(() -> {
+				TopKCollector local = new TopKCollector(topK);
+				if (quantized) {
+					scanRange(quantizedQuery, queryScale, start, end, local);
+				} else {
+					scanRange(query, start, end, local);
+				}
+				return local;
+			});
+		}
+		TopKCollector collector = new TopKCollector(topK);
+		try {
+			for (Future<TopKCollector> future : executor.invokeAll(tasks)) {
+				collector.merge(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Face gallery search interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Face gallery search failed", e.getCause());
+		}
+		return collector;
+	}
+
+	private void scanRange(float[] query, int from, int to, TopKCollector collector) {
+		final float[] vectors = this.vectors;
+		final float[] invNorms = this.invNorms;
+		final String[] userIds = this.userIds;
+		final int dimension = this.dimension;
+		for (int slot = from, offset = from * dimension; slot < to; slot++, offset += dimension) {
+			if (userIds[slot] == null) {
+				continue;
+			}
+			float score = FaceFeatureUtils.dot(query, 0, vectors, offset, dimension) * invNorms[slot];
+			if (score > collector.threshold()) {
+				collector.offer(slot, score);
+			}
+		}
+	}
+
+	private void scanRange(short[] query, float queryScale, int from, int to, TopKCollector collector) {
+		final byte[] codes = this.codes;
+		final float[] scales = this.scales;
+		final String[] userIds = this.userIds;
+		final int dimension = this.dimension;
+		for (int slot = from, offset = from * dimension; slot < to; slot++, offset += dimension) {
+			if (userIds[slot] == null) {
+				continue;
+			}
+			float score = FaceFeatureQuantizer.dot(query, 0, codes, offset, dimension) * queryScale * scales[slot];
+			if (score > collector.threshold()) {
+				collector.offer(slot, score);
+			}
+		}
+	}
+
+	private float[] toQuery(byte[] probe) {
+		checkDimension(probe);
+		float[] query = FaceFeatureUtils.toVector(probe);
+		FaceFeatureUtils.normalize(query, 0, dimension);
+		return query;
+	}
+
+	private byte[] featureAt(int slot) {
+		if (quantized) {
+			// 还原为原始模长下的近似特征
+			float[] vector = new float[dimension];
+			float norm = invNorms[slot] > 0f ? 1f / invNorms[slot] : 0f;
+			FaceFeatureQuantizer.dequantize(codes, slot * dimension, scales[slot] * norm, vector, 0, dimension);
+			return FaceFeatureUtils.toFeatureData(headers[slot], vector, 0, dimension);
+		}
+		return FaceFeatureUtils.toFeatureData(headers[slot], vectors, slot * dimension, dimension);
+	}
+
+	private int allocateSlot() {
+		if (freeCount > 0) {
+			return freeSlots[--freeCount];
+		}
+		if (highWater == userIds.length) {
+			int capacity = userIds.length + (userIds.length >> 1);
+			if (quantized) {
+				codes = Arrays.copyOf(codes, capacity * dimension);
+				scales = Arrays.copyOf(scales, capacity);
+			} else {
+				vectors = Arrays.copyOf(vectors, capacity * dimension);
+			}
+			invNorms = Arrays.copyOf(invNorms, capacity);
+			headers = Arrays.copyOf(headers, capacity);
+			userIds = Arrays.copyOf(userIds, capacity);
+			if (index != null) {
+				index.ensureCapacity(capacity);
+			}
+		}
+		return highWater++;
+	}
+
+	/**
+	 * 供索引访问人脸库向量区，调用方需持有锁
+	 */
+	private class GalleryVectorStore implements HnswIndex.VectorStore {
+
+		@Override
+		public float score(float[] query, int slot) {
+			if (quantized) {
+				return FaceFeatureQuantizer.dot(query, 0, codes, slot * dimension, dimension) * scales[slot];
+			}
+			return FaceFeatureUtils.dot(query, 0, vectors, slot * dimension, dimension) * invNorms[slot];
+		}
+
+		@Override
+		public float score(int a, int b) {
+			if (quantized) {
+				return FaceFeatureQuantizer.dot(codes, a * dimension, codes, b * dimension, dimension) * scales[a] * scales[b];
+			}
+			return FaceFeatureUtils.dot(vectors, a * dimension, vectors, b * dimension, dimension) * invNorms[a] * invNorms[b];
+		}
+
+		@Override
+		public float[] query(int slot) {
+			if (quantized) {
+				float[] query = new float[dimension];
+				FaceFeatureQuantizer.dequantize(codes, slot * dimension, scales[slot], query, 0, dimension);
+				FaceFeatureUtils.normalize(query, 0, dimension);
+				return query;
+			}
+			float[] query = Arrays.copyOfRange(vectors, slot * dimension, (slot + 1) * dimension);
+			FaceFeatureUtils.normalize(query, 0, dimension);
+			return query;
+		}
+
+	}
+
+	private void checkDimension(byte[] featureData) {
+		int actual = FaceFeatureUtils.dimension(featureData);
+		if (actual != dimension) {
+			throw new IllegalArgumentException("Face feature dimension mismatch : expected " + dimension + " but was " + actual);
+		}
+	}
+
+}
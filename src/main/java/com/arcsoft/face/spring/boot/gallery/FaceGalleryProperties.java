@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import com.arcsoft.face.spring.boot.utils.FaceFeatureUtils;
+
+/**
+ * 人脸库（1:N 检索）配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceGalleryProperties {
+
+	/**
+	 * 特征向量在内存中的编码
+	 */
+	public enum Encoding {
+
+		/**
+		 * float 原始值，每维 4 字节，检索无损
+		 */
+		FLOAT,
+		/**
+		 * int8 标量量化，每维 1 字节，内存为 FLOAT 的约 1/4，相似值有轻微误差
+		 */
+		INT8;
+
+	}
+
+	/**
+	 * Enable Face Gallery.
+	 */
+	private boolean enabled = false;
+	/**
+	 * 特征向量维度
+	 */
+	private int dimension = FaceFeatureUtils.DEFAULT_DIMENSION;
+	/**
+	 * 初始容量（人脸数）
+	 */
+	private int initialCapacity = 1024;
+	/**
+	 * 特征向量编码，INT8 时内存与扫描带宽约为 FLOAT 的 1/4，取回的特征数据为还原后的近似值
+	 */
+	private Encoding encoding = Encoding.FLOAT;
+	/**
+	 * 检索并行度，默认为 CPU 核数
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	/**
+	 * 单个并行分片的最小人脸数，人脸库较小时不拆分
+	 */
+	private int minPartitionSize = 8192;
+	/**
+	 * 是否使用 SDK 比对结果作为最终分值
+	 */
+	private boolean exactScore = false;
+	/**
+	 * 使用 SDK 精确打分时，候选集为 topK 的倍数
+	 */
+	private int rescoreFactor = 4;
+	/**
+	 * 默认返回的最相似人脸数
+	 */
+	private int topK = 5;
+	/**
+	 * 默认相似值阈值（余弦相似度尺度），低于该值的结果不返回
+	 */
+	private float threshold = 0f;
+	/**
+	 * 开启 exact-score 时的相似值阈值（SDK 分值尺度），与余弦阈值分开配置
+	 */
+	private float engineThreshold = 0f;
+	/**
+	 * 启动时是否以 SDK 分值校验特征数据布局，校验不通过时启动失败
+	 */
+	private boolean verifyLayout = true;
+	/**
+	 * 检索索引配置
+	 */
+	@NestedConfigurationProperty
+	private FaceIndexProperties index = new FaceIndexProperties();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	public void setDimension(int dimension) {
+		this.dimension = dimension;
+	}
+
+	public int getInitialCapacity() {
+		return initialCapacity;
+	}
+
+	public void setInitialCapacity(int initialCapacity) {
+		this.initialCapacity = initialCapacity;
+	}
+
+	public Encoding getEncoding() {
+		return encoding;
+	}
+
+	public void setEncoding(Encoding encoding) {
+		this.encoding = encoding;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getMinPartitionSize() {
+		return minPartitionSize;
+	}
+
+	public void setMinPartitionSize(int minPartitionSize) {
+		this.minPartitionSize = minPartitionSize;
+	}
+
+	public boolean isExactScore() {
+		return exactScore;
+	}
+
+	public void setExactScore(boolean exactScore) {
+		this.exactScore = exactScore;
+	}
+
+	public int getRescoreFactor() {
+		return rescoreFactor;
+	}
+
+	public void setRescoreFactor(int rescoreFactor) {
+		this.rescoreFactor = rescoreFactor;
+	}
+
+	public int getTopK() {
+		return topK;
+	}
+
+	public void setTopK(int topK) {
+		this.topK = topK;
+	}
+
+	public float getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(float threshold) {
+		this.threshold = threshold;
+	}
+
+	public float getEngineThreshold() {
+		return engineThreshold;
+	}
+
+	public void setEngineThreshold(float engineThreshold) {
+		this.engineThreshold = engineThreshold;
+	}
+
+	public boolean isVerifyLayout() {
+		return verifyLayout;
+	}
+
+	public void setVerifyLayout(boolean verifyLayout) {
+		this.verifyLayout = verifyLayout;
+	}
+
+	public FaceIndexProperties getIndex() {
+		return index;
+	}
+
+	public void setIndex(FaceIndexProperties index) {
+		this.index = index;
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+/**
+ * 人脸库检索索引配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceIndexProperties {
+
+	/**
+	 * 索引类型
+	 */
+	public enum Type {
+
+		/**
+		 * 暴力扫描，结果精确
+		 */
+		FLAT,
+		/**
+		 * HNSW 近似最近邻图索引
+		 */
+		HNSW;
+
+	}
+
+	/**
+	 * 索引类型
+	 */
+	private Type type = Type.FLAT;
+	/**
+	 * HNSW 每个节点在上层图中的最大邻居数（第 0 层为其两倍），越大召回率越高、内存越大
+	 */
+	private int m = 16;
+	/**
+	 * HNSW 构建时的候选集大小，越大图质量越高、入库越慢
+	 */
+	private int efConstruction = 200;
+	/**
+	 * HNSW 检索时的候选集大小，越大召回率越高、延迟越大，可在运行时调整
+	 */
+	private int efSearch = 64;
+	/**
+	 * HNSW 随机层级的种子
+	 */
+	private long seed = 42L;
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public int getM() {
+		return m;
+	}
+
+	public void setM(int m) {
+		this.m = m;
+	}
+
+	public int getEfConstruction() {
+		return efConstruction;
+	}
+
+	public void setEfConstruction(int efConstruction) {
+		this.efConstruction = efConstruction;
+	}
+
+	public int getEfSearch() {
+		return efSearch;
+	}
+
+	public void setEfSearch(int efSearch) {
+		this.efSearch = efSearch;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+/**
+ * 人脸库检索结果
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceMatch {
+
+	/**
+	 * 入库时指定的用户标识
+	 */
+	private final String userId;
+	/**
+	 * 特征相似值
+	 */
+	private final float score;
+
+	public FaceMatch(String userId, float score) {
+		this.userId = userId;
+		this.score = score;
+	}
+
+	public String getUserId() {
+		return userId;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	@Override
+	public String toString() {
+		return "FaceMatch [userId=" + userId + ", score=" + score + "]";
+	}
+
+}
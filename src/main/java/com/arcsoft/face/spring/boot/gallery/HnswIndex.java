@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ * <p>
+ * 节点即人脸库槽位，向量由 {@link VectorStore} 提供，索引只保存图结构。
+ * 删除采用标记方式（节点仍参与导航但不再出现在结果中），槽位被复用时原地重建该节点及其邻居的连接，无需整体重建。
+ * 写操作需由调用方串行化，检索可并发执行。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+final class HnswIndex {
+
+	/**
+	 * 索引所需的向量访问接口
+	 */
+	interface VectorStore {
+
+		/**
+		 * 归一化查询向量与槽位向量的余弦相似度
+		 */
+		float score(float[] query, int slot);
+
+		/**
+		 * 两个槽位向量的余弦相似度
+		 */
+		float score(int a, int b);
+
+		/**
+		 * 槽位向量的归一化副本
+		 */
+		float[] query(int slot);
+
+	}
+
+	private final VectorStore store;
+	private final int m;
+	private final int maxM0;
+	private final int efConstruction;
+	private final double levelMultiplier;
+	private final Random random;
+	private final ThreadLocal<VisitedSet> visitedSets = new ThreadLocal<VisitedSet>();
+
+	/**
+	 * 节点最高层级，-1 表示未入索引
+	 */
+	private int[] levels;
+	/**
+	 * 第 0 层邻接表：每个节点 maxM0 + 1 个 int，首个元素为邻居数
+	 */
+	private int[] links0;
+	/**
+	 * 上层邻接表：每层 m + 1 个 int，首个元素为邻居数
+	 */
+	private int[][] upperLinks;
+	private boolean[] deleted;
+	private volatile int entryPoint = -1;
+	private volatile int maxLevel = -1;
+	private int capacity;
+
+	HnswIndex(VectorStore store, FaceIndexProperties properties, int capacity) {
+		this.store = store;
+		this.m = Math.max(2, properties.getM());
+		this.maxM0 = this.m << 1;
+		this.efConstruction = Math.max(this.m, properties.getEfConstruction());
+		this.levelMultiplier = 1d / Math.log(this.m);
+		this.random = new Random(properties.getSeed());
+		this.levels = new int[0];
+		this.links0 = new int[0];
+		this.upperLinks = new int[0][];
+		this.deleted = new boolean[0];
+		ensureCapacity(capacity);
+	}
+
+	void ensureCapacity(int newCapacity) {
+		if (newCapacity <= capacity) {
+			return;
+		}
+		levels = Arrays.copyOf(levels, newCapacity);
+		Arrays.fill(levels, capacity, newCapacity, -1);
+		links0 = Arrays.copyOf(links0, newCapacity * (maxM0 + 1));
+		upperLinks = Arrays.copyOf(upperLinks, newCapacity);
+		deleted = Arrays.copyOf(deleted, newCapacity);
+		capacity = newCapacity;
+	}
+
+	/*
+	 * 插入节点；节点已存在（槽位复用或特征覆盖）时按新向量重建连接
+	 */
+	void insert(int node) {
+		float[] query = store.query(node);
+		boolean existing = levels[node] >= 0;
+		int level;
+		int[][] oldNeighbors = null;
+		if (existing) {
+			level = levels[node];
+			oldNeighbors = new int[level + 1][];
+			for (int lc = 0; lc <= level; lc++) {
+				oldNeighbors[lc] = neighbors(node, lc);
+				setLinks(node, lc, new int[0], 0);
+			}
+		} else {
+			level = (int) (-Math.log(1d - random.nextDouble()) * levelMultiplier);
+			levels[node] = level;
+			upperLinks[node] = level > 0 ? new int[level * (m + 1)] : null;
+			links0[node * (maxM0 + 1)] = 0;
+		}
+		deleted[node] = false;
+
+		if (entryPoint < 0) {
+			entryPoint = node;
+			maxLevel = level;
+			return;
+		}
+
+		// 确定检索起点，被更新的节点恰为入口时借用其原邻居
+		int ep = entryPoint;
+		int startLevel = maxLevel;
+		if (ep == node) {
+			ep = -1;
+			for (int lc = level; lc >= 0 && ep < 0; lc--) {
+				if (oldNeighbors != null && oldNeighbors[lc].length > 0) {
+					ep = oldNeighbors[lc][0];
+					startLevel = lc;
+				}
+			}
+			if (ep < 0) {
+				return;
+			}
+		}
+
+		for (int lc = startLevel; lc > level; lc--) {
+			ep = greedyClosest(query, ep, lc);
+		}
+		for (int lc = Math.min(level, startLevel); lc >= 0; lc--) {
+			NodeHeap candidates = searchLayer(query, ep, efConstruction, lc, node);
+			int count = candidates.size();
+			int[] ids = new int[count];
+			float[] scores = new float[count];
+			candidates.drainDescending(ids, scores);
+			int[] selected = selectNeighbors(ids, scores, count, m);
+			setLinks(node, lc, selected, selected.length);
+			for (int neighbor : selected) {
+				addLink(neighbor, node, lc);
+			}
+			if (count > 0) {
+				ep = ids[0];
+			}
+		}
+
+		if (existing) {
+			// 修复原邻居的连接，避免其继续依赖旧向量
+			for (int lc = 0; lc <= level; lc++) {
+				for (int neighbor : oldNeighbors[lc]) {
+					if (neighbor != node && levels[neighbor] >= lc) {
+						relink(neighbor, lc, oldNeighbors[lc]);
+					}
+				}
+			}
+		} else if (level > maxLevel) {
+			maxLevel = level;
+			entryPoint = node;
+		}
+	}
+
+	/*
+	 * 标记删除：节点继续参与导航，不再出现在检索结果中
+	 */
+	void markDeleted(int node) {
+		if (node < capacity && levels[node] >= 0) {
+			deleted[node] = true;
+		}
+	}
+
+	/*
+	 * 近似检索，结果按相似值降序写入输出数组
+	 *
+	 * @return 实际结果数
+	 */
+	int search(float[] query, int k, int ef, int[] slotsOut, float[] scoresOut) {
+		int ep = entryPoint;
+		if (ep < 0) {
+			return 0;
+		}
+		for (int lc = maxLevel; lc > 0; lc--) {
+			ep = greedyClosest(query, ep, lc);
+		}
+		NodeHeap results = searchLayer(query, ep, Math.max(ef, k), 0, -1);
+		int count = results.size();
+		int[] ids = new int[count];
+		float[] scores = new float[count];
+		results.drainDescending(ids, scores);
+		int found = 0;
+		for (int i = 0; i < count && found < k; i++) {
+			if (!deleted[ids[i]]) {
+				slotsOut[found] = ids[i];
+				scoresOut[found] = scores[i];
+				found++;
+			}
+		}
+		return found;
+	}
+
+	private int greedyClosest(float[] query, int ep, int level) {
+		int current = ep;
+		float currentScore = store.score(query, current);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			int[] links = linkArray(current, level);
+			int base = linkBase(current, level);
+			for (int i = 1, count = links[base]; i <= count; i++) {
+				int candidate = links[base + i];
+				float score = store.score(query, candidate);
+				if (score > currentScore) {
+					currentScore = score;
+					current = candidate;
+					changed = true;
+				}
+			}
+		}
+		return current;
+	}
+
+	private NodeHeap searchLayer(float[] query, int ep, int ef, int level, int exclude) {
+		VisitedSet visited = visitedSet();
+		visited.reset();
+		if (exclude >= 0) {
+			visited.visit(exclude);
+		}
+		NodeHeap candidates = new NodeHeap(ef, true);
+		NodeHeap results = new NodeHeap(ef + 1, false);
+		if (ep != exclude) {
+			visited.visit(ep);
+			float score = store.score(query, ep);
+			candidates.push(ep, score);
+			results.push(ep, score);
+		}
+		while (candidates.size() > 0) {
+			float bestScore = candidates.peekScore();
+			int best = candidates.pop();
+			if (results.size() >= ef && bestScore < results.peekScore()) {
+				break;
+			}
+			int[] links = linkArray(best, level);
+			int base = linkBase(best, level);
+			for (int i = 1, count = links[base]; i <= count; i++) {
+				int candidate = links[base + i];
+				if (!visited.visit(candidate)) {
+					continue;
+				}
+				float score = store.score(query, candidate);
+				if (results.size() < ef || score > results.peekScore()) {
+					candidates.push(candidate, score);
+					results.push(candidate, score);
+					if (results.size() > ef) {
+						results.pop();
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/*
+	 * 启发式邻居选择：候选按相似值降序，若候选与已选邻居比与基准点更相似则丢弃，以保持图的多样性
+	 */
+	private int[] selectNeighbors(int[] ids, float[] scores, int count, int max) {
+		int[] selected = new int[Math.min(count, max)];
+		int size = 0;
+		for (int i = 0; i < count && size < selected.length; i++) {
+			boolean good = true;
+			for (int j = 0; j < size; j++) {
+				if (store.score(ids[i], selected[j]) > scores[i]) {
+					good = false;
+					break;
+				}
+			}
+			if (good) {
+				selected[size++] = ids[i];
+			}
+		}
+		return size == selected.length ? selected : Arrays.copyOf(selected, size);
+	}
+
+	private void addLink(int node, int neighbor, int level) {
+		int[] links = linkArray(node, level);
+		int base = linkBase(node, level);
+		int count = links[base];
+		for (int i = 1; i <= count; i++) {
+			if (links[base + i] == neighbor) {
+				return;
+			}
+		}
+		if (count < maxLinks(level)) {
+			links[base + count + 1] = neighbor;
+			links[base] = count + 1;
+			return;
+		}
+		int[] merged = new int[count + 1];
+		System.arraycopy(links, base + 1, merged, 0, count);
+		merged[count] = neighbor;
+		shrink(node, level, merged);
+	}
+
+	private void relink(int node, int level, int[] extra) {
+		int[] current = neighbors(node, level);
+		int[] merged = new int[current.length + extra.length];
+		int size = 0;
+		for (int candidate : current) {
+			merged[size++] = candidate;
+		}
+		for (int candidate : extra) {
+			if (candidate != node && levels[candidate] >= level && !contains(merged, size, candidate)) {
+				merged[size++] = candidate;
+			}
+		}
+		shrink(node, level, Arrays.copyOf(merged, size));
+	}
+
+	private void shrink(int node, int level, int[] candidates) {
+		NodeHeap heap = new NodeHeap(candidates.length, true);
+		for (int candidate : candidates) {
+			heap.push(candidate, store.score(node, candidate));
+		}
+		int count = heap.size();
+		int[] ids = new int[count];
+		float[] scores = new float[count];
+		for (int i = 0; i < count; i++) {
+			scores[i] = heap.peekScore();
+			ids[i] = heap.pop();
+		}
+		int[] selected = selectNeighbors(ids, scores, count, maxLinks(level));
+		setLinks(node, level, selected, selected.length);
+	}
+
+	private int[] neighbors(int node, int level) {
+		int[] links = linkArray(node, level);
+		int base = linkBase(node, level);
+		return Arrays.copyOfRange(links, base + 1, base + 1 + links[base]);
+	}
+
+	private void setLinks(int node, int level, int[] neighbors, int count) {
+		int[] links = linkArray(node, level);
+		int base = linkBase(node, level);
+		System.arraycopy(neighbors, 0, links, base + 1, count);
+		links[base] = count;
+	}
+
+	private int[] linkArray(int node, int level) {
+		return level == 0 ? links0 : upperLinks[node];
+	}
+
+	private int linkBase(int node, int level) {
+		return level == 0 ? node * (maxM0 + 1) : (level - 1) * (m + 1);
+	}
+
+	private int maxLinks(int level) {
+		return level == 0 ? maxM0 : m;
+	}
+
+	private VisitedSet visitedSet() {
+		VisitedSet visited = visitedSets.get();
+		if (visited == null || visited.capacity() < capacity) {
+			visited = new VisitedSet(capacity);
+			visitedSets.set(visited);
+		}
+		return visited;
+	}
+
+	private static boolean contains(int[] array, int size, int value) {
+		for (int i = 0; i < size; i++) {
+			if (array[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 以代数标记的访问集合，避免每次检索清空数组
+	 */
+	private static final class VisitedSet {
+
+		private final int[] marks;
+		private int generation;
+
+		VisitedSet(int capacity) {
+			this.marks = new int[capacity];
+		}
+
+		int capacity() {
+			return marks.length;
+		}
+
+		void reset() {
+			if (++generation == Integer.MAX_VALUE) {
+				Arrays.fill(marks, 0);
+				generation = 1;
+			}
+		}
+
+		/*
+		 * 标记为已访问，首次访问时返回 true
+		 */
+		boolean visit(int node) {
+			if (marks[node] == generation) {
+				return false;
+			}
+			marks[node] = generation;
+			return true;
+		}
+
+	}
+
+	/**
+	 * 以相似值为键的原始类型二叉堆
+	 */
+	private static final class NodeHeap {
+
+		private final boolean max;
+		private int[] ids;
+		private float[] scores;
+		private int size;
+
+		NodeHeap(int capacity, boolean max) {
+			this.max = max;
+			this.ids = new int[Math.max(4, capacity)];
+			this.scores = new float[ids.length];
+		}
+
+		int size() {
+			return size;
+		}
+
+		float peekScore() {
+			return scores[0];
+		}
+
+		void push(int id, float score) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size << 1);
+				scores = Arrays.copyOf(scores, size << 1);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (!before(score, scores[parent])) {
+					break;
+				}
+				ids[i] = ids[parent];
+				scores[i] = scores[parent];
+				i = parent;
+			}
+			ids[i] = id;
+			scores[i] = score;
+		}
+
+		int pop() {
+			int top = ids[0];
+			int lastId = ids[--size];
+			float lastScore = scores[size];
+			int i = 0;
+			int half = size >>> 1;
+			while (i < half) {
+				int child = (i << 1) + 1;
+				int right = child + 1;
+				if (right < size && before(scores[right], scores[child])) {
+					child = right;
+				}
+				if (!before(scores[child], lastScore)) {
+					break;
+				}
+				ids[i] = ids[child];
+				scores[i] = scores[child];
+				i = child;
+			}
+			if (size > 0) {
+				ids[i] = lastId;
+				scores[i] = lastScore;
+			}
+			return top;
+		}
+
+		/*
+		 * 按相似值降序导出全部元素
+		 */
+		void drainDescending(int[] idsOut, float[] scoresOut) {
+			int count = size;
+			for (int i = 0; i < count; i++) {
+				int index = max ? i : count - 1 - i;
+				scoresOut[index] = scores[0];
+				idsOut[index] = pop();
+			}
+		}
+
+		private boolean before(float a, float b) {
+			return max ? a > b : a < b;
+		}
+
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+/**
+ * 基于原始类型数组的 Top-K 小顶堆
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+final class TopKCollector {
+
+	private final int k;
+	private final int[] slots;
+	private final float[] scores;
+	private int size;
+
+	TopKCollector(int k) {
+		if (k <= 0) {
+			throw new IllegalArgumentException("k must be positive : " + k);
+		}
+		this.k = k;
+		this.slots = new int[k];
+		this.scores = new float[k];
+	}
+
+	/*
+	 * 当前入堆的最低分值，堆未满时为负无穷
+	 */
+	float threshold() {
+		return size < k ? Float.NEGATIVE_INFINITY : scores[0];
+	}
+
+	void offer(int slot, float score) {
+		if (size < k) {
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (scores[parent] <= score) {
+					break;
+				}
+				slots[i] = slots[parent];
+				scores[i] = scores[parent];
+				i = parent;
+			}
+			slots[i] = slot;
+			scores[i] = score;
+		} else if (score > scores[0]) {
+			siftDown(slot, score);
+		}
+	}
+
+	void merge(TopKCollector other) {
+		for (int i = 0; i < other.size; i++) {
+			offer(other.slots[i], other.scores[i]);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	/*
+	 * 按分值降序导出，导出后堆被清空
+	 */
+	int drain(int[] slotsOut, float[] scoresOut) {
+		int count = size;
+		for (int i = count - 1; i >= 0; i--) {
+			slotsOut[i] = slots[0];
+			scoresOut[i] = scores[0];
+			int lastSlot = slots[--size];
+			float lastScore = scores[size];
+			if (size > 0) {
+				siftDown(lastSlot, lastScore);
+			}
+		}
+		return count;
+	}
+
+	private void siftDown(int slot, float score) {
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = (i << 1) + 1;
+			int right = child + 1;
+			if (right < size && scores[right] < scores[child]) {
+				child = right;
+			}
+			if (score <= scores[child]) {
+				break;
+			}
+			slots[i] = slots[child];
+			scores[i] = scores[child];
+			i = child;
+		}
+		slots[i] = slot;
+		scores[i] = score;
+	}
+
+}
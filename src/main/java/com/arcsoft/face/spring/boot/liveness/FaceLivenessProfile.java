@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.liveness;
+
+/**
+ * 活体阈值配置：RGB 与 IR 活体分数低于对应阈值时判定为非活体
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceLivenessProfile {
+
+	/**
+	 * 不设置活体阈值，沿用引擎当前的阈值
+	 */
+	public static final String NONE = "none";
+
+	/**
+	 * 配置名称，用于按名称选择及指标标签
+	 */
+	private String name;
+	/**
+	 * RGB 活体阈值，未配置时取同名内置配置或 normal 的阈值
+	 */
+	private Float rgbThreshold;
+	/**
+	 * IR 活体阈值，未配置时取同名内置配置或 normal 的阈值
+	 */
+	private Float irThreshold;
+
+	public FaceLivenessProfile() {
+	}
+
+	public FaceLivenessProfile(String name, Float rgbThreshold, Float irThreshold) {
+		this.name = name;
+		this.rgbThreshold = rgbThreshold;
+		this.irThreshold = irThreshold;
+	}
+
+	/*
+	 * 是否不设置活体阈值
+	 */
+	public boolean isNone() {
+		return NONE.equals(name);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Float getRgbThreshold() {
+		return rgbThreshold;
+	}
+
+	public void setRgbThreshold(Float rgbThreshold) {
+		this.rgbThreshold = rgbThreshold;
+	}
+
+	public Float getIrThreshold() {
+		return irThreshold;
+	}
+
+	public void setIrThreshold(Float irThreshold) {
+		this.irThreshold = irThreshold;
+	}
+
+	@Override
+	public String toString() {
+		return name + "(rgb=" + rgbThreshold + ", ir=" + irThreshold + ")";
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.liveness;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.arcsoft.face.spring.boot.FaceLiveness;
+
+/**
+ * 活体阈值配置集合
+ * <p>
+ * 内置 none、low（0.05）、normal（0.3）、high（0.9）四个配置，分别对应 {@link FaceLiveness} 的各个级别；
+ * 配置文件中同名的配置覆盖内置阈值，其余名称作为自定义配置按名称选择；未配置的阈值取同名内置配置或 normal 的阈值。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceLivenessProfiles {
+
+	private final Map<String, FaceLivenessProfile> profiles = new LinkedHashMap<String, FaceLivenessProfile>();
+	private final Map<FaceLiveness, FaceLivenessProfile> levels = new EnumMap<FaceLiveness, FaceLivenessProfile>(FaceLiveness.class);
+
+	public FaceLivenessProfiles(Map<String, FaceLivenessProfile> configured) {
+		this.register(new FaceLivenessProfile(FaceLivenessProfile.NONE, Float.NaN, Float.NaN));
+		this.register(new FaceLivenessProfile(name(FaceLiveness.LOW), 0.05f, 0.05f));
+		this.register(new FaceLivenessProfile(name(FaceLiveness.NORMAL), 0.3f, 0.3f));
+		this.register(new FaceLivenessProfile(name(FaceLiveness.HIGH), 0.9f, 0.9f));
+		if (configured != null) {
+			for (Map.Entry<String, FaceLivenessProfile> entry : configured.entrySet()) {
+				if (FaceLivenessProfile.NONE.equals(entry.getKey())) {
+					throw new IllegalArgumentException("Liveness profile name is reserved : " + entry.getKey());
+				}
+				FaceLivenessProfile value = entry.getValue();
+				FaceLivenessProfile base = profiles.containsKey(entry.getKey()) ? profiles.get(entry.getKey())
+						: profiles.get(name(FaceLiveness.NORMAL));
+				this.register(new FaceLivenessProfile(entry.getKey(),
+						value.getRgbThreshold() != null ? value.getRgbThreshold() : base.getRgbThreshold(),
+						value.getIrThreshold() != null ? value.getIrThreshold() : base.getIrThreshold()));
+			}
+		}
+		for (FaceLiveness liveness : FaceLiveness.values()) {
+			levels.put(liveness, profiles.get(name(liveness)));
+		}
+	}
+
+	/*
+	 * 活体级别对应的配置
+	 */
+	public FaceLivenessProfile get(FaceLiveness liveness) {
+		return levels.get(liveness);
+	}
+
+	/*
+	 * 按名称查找配置，名称不存在时抛出 IllegalArgumentException
+	 */
+	public FaceLivenessProfile get(String name) {
+		FaceLivenessProfile profile = profiles.get(name);
+		if (profile == null) {
+			throw new IllegalArgumentException("Unknown liveness profile : " + name);
+		}
+		return profile;
+	}
+
+	public boolean contains(String name) {
+		return profiles.containsKey(name);
+	}
+
+	public Collection<FaceLivenessProfile> getProfiles() {
+		return Collections.unmodifiableCollection(profiles.values());
+	}
+
+	private void register(FaceLivenessProfile profile) {
+		profiles.put(profile.getName(), profile);
+	}
+
+	private static String name(FaceLiveness liveness) {
+		return liveness.name().toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.metrics;
+
+/**
+ * 人脸识别各阶段耗时及活体判定结果记录
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface ArcFaceMetrics {
+
+	/**
+	 * 不记录任何指标
+	 */
+	ArcFaceMetrics NONE = new ArcFaceMetrics() {
+
+		@Override
+		public void record(Stage stage, long nanos) {
+		}
+
+	};
+
+	/**
+	 * 识别阶段
+	 */
+	enum Stage {
+
+		/**
+		 * 从对象池借出引擎的等待
+		 */
+		BORROW("borrow"),
+		/**
+		 * 人脸检测 detectFaces
+		 */
+		DETECT("detect"),
+		/**
+		 * 人脸属性处理 process / processIr
+		 */
+		PROCESS("process"),
+		/**
+		 * 活体结果 getLiveness / getLivenessIr
+		 */
+		LIVENESS("liveness"),
+		/**
+		 * 年龄结果 getAge
+		 */
+		AGE("age"),
+		/**
+		 * 性别结果 getGender
+		 */
+		GENDER("gender"),
+		/**
+		 * 三维角度结果 getFace3DAngle
+		 */
+		ANGLE("angle"),
+		/**
+		 * 特征提取 extractFaceFeature
+		 */
+		EXTRACT("extract"),
+		/**
+		 * 特征比对 compareFaceFeature
+		 */
+		COMPARE("compare");
+
+		private final String tag;
+
+		Stage(String tag) {
+			this.tag = tag;
+		}
+
+		public String getTag() {
+			return tag;
+		}
+
+	}
+
+	/*
+	 * 记录一次阶段耗时（纳秒）
+	 */
+	void record(Stage stage, long nanos);
+
+	/*
+	 * 记录一张人脸在指定活体配置下的活体判定结果：1 活体、0 非活体，其它值表示不确定
+	 */
+	default void recordLiveness(String profile, int liveness) {
+	}
+
+}
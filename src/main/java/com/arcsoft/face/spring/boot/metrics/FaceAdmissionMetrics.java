@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.metrics;
+
+import com.arcsoft.face.spring.boot.admission.FaceEngineAdmission;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException.Reason;
+import com.arcsoft.face.spring.boot.async.ArcFaceRecognitionAsyncTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 准入控制指标：等待引擎的请求数，以及按原因（queue_full、timeout、deadline）累计的拒绝数，可作为扩容依据；
+ * 启用异步接口时另有异步排队数与被拒绝的异步请求数
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceAdmissionMetrics implements MeterBinder {
+
+	private final FaceEngineAdmission admission;
+	private final ArcFaceRecognitionAsyncTemplate asyncTemplate;
+
+	public FaceAdmissionMetrics(FaceEngineAdmission admission, ArcFaceRecognitionAsyncTemplate asyncTemplate) {
+		this.admission = admission;
+		this.asyncTemplate = asyncTemplate;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("arcface.admission.waiting", admission, FaceEngineAdmission::getWaiting)
+				.description("Requests waiting for a face engine").register(registry);
+		for (Reason reason : Reason.values()) {
+			FunctionCounter.builder("arcface.admission.rejected", admission, target -> target.getRejected(reason))
+					.tag("reason", reason.getTag())
+					.description("Requests rejected before reaching a face engine").register(registry);
+		}
+		if (asyncTemplate != null) {
+			Gauge.builder("arcface.async.queued", asyncTemplate, ArcFaceRecognitionAsyncTemplate::getQueued)
+					.description("Async requests queued for execution").register(registry);
+			FunctionCounter.builder("arcface.async.rejected", asyncTemplate, ArcFaceRecognitionAsyncTemplate::getRejected)
+					.description("Async requests rejected because the queue was full").register(registry);
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.metrics;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import com.arcsoft.face.spring.boot.pool2.FaceLivenessPools;
+import com.arcsoft.face.spring.boot.worker.FaceEngineWorkers;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 人脸引擎对象池指标：活跃数、空闲数、等待借出的线程数，以及累计创建、销毁数；
+ * 启用引擎工作线程时不创建对象池，改为工作线程数、排队任务数与被拒绝的任务数。
+ * <p>
+ * 对象池指标带 liveness 标签：主对象池为 {@value #DEFAULT_POOL}，活体子池为活体配置名称，子池在首次使用时注册。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnginePoolMetrics implements MeterBinder {
+
+	/**
+	 * 主对象池的 liveness 标签值
+	 */
+	public static final String DEFAULT_POOL = "default";
+
+	private final GenericObjectPool<?> pool;
+	private final FaceEngineWorkers workers;
+	private final FaceLivenessPools livenessPools;
+
+	public FaceEnginePoolMetrics(GenericObjectPool<?> pool) {
+		this(pool, null);
+	}
+
+	public FaceEnginePoolMetrics(GenericObjectPool<?> pool, FaceEngineWorkers workers) {
+		this(pool, workers, null);
+	}
+
+	public FaceEnginePoolMetrics(GenericObjectPool<?> pool, FaceEngineWorkers workers, FaceLivenessPools livenessPools) {
+		this.pool = pool;
+		this.workers = workers;
+		this.livenessPools = livenessPools;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		if (pool != null) {
+			bindPool(registry, pool, DEFAULT_POOL);
+		}
+		if (livenessPools != null) {
+			livenessPools.addPoolListener((liveness, livenessPool) -> bindPool(registry, livenessPool, liveness));
+		}
+		if (workers != null) {
+			Gauge.builder("arcface.workers.size", workers, FaceEngineWorkers::getSize)
+					.description("Face engine worker threads").register(registry);
+			Gauge.builder("arcface.workers.pending", workers, FaceEngineWorkers::getPending)
+					.description("Tasks queued on face engine workers").register(registry);
+			FunctionCounter.builder("arcface.workers.rejected", workers, FaceEngineWorkers::getRejected)
+					.description("Tasks rejected because a worker queue was full").register(registry);
+		}
+	}
+
+	private static void bindPool(MeterRegistry registry, GenericObjectPool<?> pool, String liveness) {
+		Tags tags = Tags.of("liveness", liveness);
+		Gauge.builder("arcface.pool.active", pool, GenericObjectPool::getNumActive).tags(tags)
+				.description("Face engines currently borrowed").register(registry);
+		Gauge.builder("arcface.pool.idle", pool, GenericObjectPool::getNumIdle).tags(tags)
+				.description("Face engines idle in the pool").register(registry);
+		Gauge.builder("arcface.pool.waiters", pool, GenericObjectPool::getNumWaiters).tags(tags)
+				.description("Threads blocked waiting to borrow a face engine").register(registry);
+		Gauge.builder("arcface.pool.max", pool, GenericObjectPool::getMaxTotal).tags(tags)
+				.description("Maximum number of face engines").register(registry);
+		FunctionCounter.builder("arcface.pool.created", pool, GenericObjectPool::getCreatedCount).tags(tags)
+				.description("Face engines created").register(registry);
+		FunctionCounter.builder("arcface.pool.destroyed", pool, GenericObjectPool::getDestroyedCount).tags(tags)
+				.description("Face engines destroyed").register(registry);
+	}
+
+}
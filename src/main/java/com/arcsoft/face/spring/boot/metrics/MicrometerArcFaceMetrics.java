@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 基于 Micrometer 的阶段耗时记录，每个阶段对应一个带 stage 标签的 arcface.stage 计时器；
+ * 活体判定结果计入带 profile、result（live、not_live、unknown）标签的 arcface.liveness 计数器，
+ * 按活体配置统计通过率，用于调整阈值以减少重复提交
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class MicrometerArcFaceMetrics implements ArcFaceMetrics {
+
+	public static final String STAGE_TIMER = "arcface.stage";
+	public static final String LIVENESS_COUNTER = "arcface.liveness";
+
+	private static final String[] LIVENESS_RESULTS = { "not_live", "live", "unknown" };
+
+	private final MeterRegistry registry;
+	private final Timer[] timers;
+	private final ConcurrentMap<String, Counter[]> livenessCounters = new ConcurrentHashMap<String, Counter[]>();
+
+	public MicrometerArcFaceMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		Stage[] stages = Stage.values();
+		this.timers = new Timer[stages.length];
+		// 计时器预先注册，记录时按序号直接取用，避免每次按标签查找
+		for (Stage stage : stages) {
+			timers[stage.ordinal()] = Timer.builder(STAGE_TIMER)
+					.description("ArcFace engine stage latency")
+					.tag("stage", stage.getTag())
+					.register(registry);
+		}
+	}
+
+	@Override
+	public void record(Stage stage, long nanos) {
+		timers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordLiveness(String profile, int liveness) {
+		Counter[] counters = livenessCounters.computeIfAbsent(profile, this::livenessCounters);
+		counters[liveness == 0 || liveness == 1 ? liveness : 2].increment();
+	}
+
+	private Counter[] livenessCounters(String profile) {
+		Counter[] counters = new Counter[LIVENESS_RESULTS.length];
+		for (int index = 0; index < counters.length; index++) {
+			counters[index] = Counter.builder(LIVENESS_COUNTER)
+					.description("Faces judged by liveness profile")
+					.tag("profile", profile)
+					.tag("result", LIVENESS_RESULTS[index])
+					.register(registry);
+		}
+		return counters;
+	}
+
+	public Timer getTimer(Stage stage) {
+		return timers[stage.ordinal()];
+	}
+
+}
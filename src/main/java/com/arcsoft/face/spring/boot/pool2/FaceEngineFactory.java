@@ -22,16 +22,20 @@ import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.springframework.util.StringUtils;
 
-import com.arcsoft.face.FaceEngine;
+import com.arcsoft.face.EngineConfiguration;
 import com.arcsoft.face.enums.ErrorInfo;
 import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.engine.ArcSoftFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
 import com.google.common.collect.Maps;
 
 /**
  * TODO
  * @author 		： <a href="https://github.com/hiwepy">wandl</a>
  */
-public class FaceEngineFactory extends BasePooledObjectFactory<FaceEngine> {
+public class FaceEngineFactory extends BasePooledObjectFactory<FaceRecognitionEngine> {
 
 	private final ArcFaceRecognitionProperties properties;
 	private ConcurrentMap<Integer, Integer> activeStatusMap = Maps.newConcurrentMap();
@@ -41,9 +45,9 @@ public class FaceEngineFactory extends BasePooledObjectFactory<FaceEngine> {
     }
     
 	@Override
-	public FaceEngine create() throws Exception {
+	public FaceRecognitionEngine create() throws Exception {
 		
-        FaceEngine faceEngine = StringUtils.hasText(properties.getLibPath()) ? new FaceEngine(properties.getLibPath()) : new FaceEngine() ;
+        FaceRecognitionEngine faceEngine = this.newFaceEngine();
         // 激活引擎
         int activeCode = faceEngine.activeOnline(properties.getAppId(), properties.getSdkKey());
         if (activeCode != ErrorInfo.MOK.getValue() && activeCode != ErrorInfo.MERR_ASF_ALREADY_ACTIVATED.getValue()) {
@@ -62,14 +66,43 @@ public class FaceEngineFactory extends BasePooledObjectFactory<FaceEngine> {
         return faceEngine;
 	}
 	
+	/*
+	 * 按给定的引擎配置创建并初始化一个不受对象池管理的引擎，例如视频流会话使用的 VIDEO 模式引擎
+	 */
+	public FaceRecognitionEngine create(EngineConfiguration configuration) {
+		FaceRecognitionEngine faceEngine = this.newFaceEngine();
+		// 激活引擎
+		int activeCode = faceEngine.activeOnline(properties.getAppId(), properties.getSdkKey());
+		if (activeCode != ErrorInfo.MOK.getValue() && activeCode != ErrorInfo.MERR_ASF_ALREADY_ACTIVATED.getValue()) {
+			throw new IllegalStateException("Face engine active failed : " + activeCode);
+		}
+		// 初始化引擎
+		int initCode = faceEngine.init(configuration);
+		if (initCode != ErrorInfo.MOK.getValue()) {
+			throw new IllegalStateException("Face engine init failed : " + initCode);
+		}
+		return faceEngine;
+	}
+
+	/*
+	 * 按配置的引擎实现创建引擎实例，子类可替换为其它实现
+	 */
+	protected FaceRecognitionEngine newFaceEngine() {
+		if (properties.getEngine().getType() == FaceEngineProperties.Type.SYNTHETIC) {
+			return new SyntheticFaceRecognitionEngine(properties.getEngine().getSynthetic());
+		}
+		return StringUtils.hasText(properties.getLibPath()) ? new ArcSoftFaceRecognitionEngine(properties.getLibPath())
+				: new ArcSoftFaceRecognitionEngine();
+	}
+
 	@Override
-    public PooledObject<FaceEngine> wrap(FaceEngine faceEngine) {
+    public PooledObject<FaceRecognitionEngine> wrap(FaceRecognitionEngine faceEngine) {
         return new DefaultPooledObject<>(faceEngine);
     }
 	
 	@Override
-	public void activateObject(PooledObject<FaceEngine> p) throws Exception {
-		FaceEngine faceEngine = p.getObject();
+	public void activateObject(PooledObject<FaceRecognitionEngine> p) throws Exception {
+		FaceRecognitionEngine faceEngine = p.getObject();
 		int hashCode = faceEngine.hashCode();
 		// 获取引擎激活状态
         int activeCode = activeStatusMap.get(hashCode);
@@ -93,8 +126,8 @@ public class FaceEngineFactory extends BasePooledObjectFactory<FaceEngine> {
 	}
 	
     @Override
-    public void destroyObject(PooledObject<FaceEngine> p) throws Exception {
-        FaceEngine faceEngine = p.getObject();
+    public void destroyObject(PooledObject<FaceRecognitionEngine> p) throws Exception {
+        FaceRecognitionEngine faceEngine = p.getObject();
         int unInitCode = faceEngine.unInit();
         System.out.println("faceEngineUnInitCode:" + unInitCode + "==========================");
         super.destroyObject(p);
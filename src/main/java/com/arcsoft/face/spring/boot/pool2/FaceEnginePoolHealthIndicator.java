@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+
+/**
+ * 引擎对象池健康检查：预热进行中为 OUT_OF_SERVICE，预热失败或对象池已关闭为 DOWN
+ * <p>
+ * 加入就绪分组后，预热完成前就绪探针不会通过：
+ * <pre>
+ * management.endpoint.health.group.readiness.include=readinessState,arcFaceEngine
+ * </pre>
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnginePoolHealthIndicator extends AbstractHealthIndicator {
+
+	private final GenericObjectPool<FaceRecognitionEngine> pool;
+	private final FaceEnginePoolWarmup warmup;
+
+	public FaceEnginePoolHealthIndicator(GenericObjectPool<FaceRecognitionEngine> pool, FaceEnginePoolWarmup warmup) {
+		super("Face engine pool health check failed");
+		this.pool = pool;
+		this.warmup = warmup;
+	}
+
+	@Override
+	protected void doHealthCheck(Health.Builder builder) throws Exception {
+		builder.withDetail("active", pool.getNumActive())
+				.withDetail("idle", pool.getNumIdle())
+				.withDetail("waiters", pool.getNumWaiters())
+				.withDetail("maxTotal", pool.getMaxTotal());
+		if (pool.isClosed()) {
+			builder.down();
+			return;
+		}
+		if (warmup == null) {
+			builder.up();
+			return;
+		}
+		builder.withDetail("warmup", warmup.getState())
+				.withDetail("warmupTarget", warmup.getTargetEngines())
+				.withDetail("warmupCreated", warmup.getCreated())
+				.withDetail("warmupWarmed", warmup.getWarmed())
+				.withDetail("warmupFailed", warmup.getFailed())
+				.withDetail("warmupMillis", warmup.getElapsed().toMillis());
+		switch (warmup.getState()) {
+			case COMPLETED:
+				builder.up();
+				break;
+			case FAILED:
+				builder.down();
+				break;
+			default:
+				builder.outOfService();
+				break;
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arcsoft.face.FaceFeature;
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 引擎对象池预热
+ * <p>
+ * 启动时并行创建（激活、初始化）指定数量的引擎，再同时借出这些引擎，各自对一张空白图片执行一次检测，
+ * 使原生模型在首个请求到达前完成加载。同步模式下预热在应用启动过程中完成，应用就绪前所有引擎均已可用；
+ * 后台模式下可通过 {@link FaceEnginePoolHealthIndicator} 将就绪探针挂在预热结果上。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnginePoolWarmup {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FaceEnginePoolWarmup.class);
+
+	/**
+	 * 预热状态
+	 */
+	public enum State {
+
+		PENDING, RUNNING, COMPLETED, FAILED;
+
+	}
+
+	private final GenericObjectPool<FaceRecognitionEngine> pool;
+	private final FaceEnginePoolWarmupProperties properties;
+	private final AtomicInteger created = new AtomicInteger();
+	private final AtomicInteger warmed = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final CompletableFuture<State> completion = new CompletableFuture<State>();
+	private volatile State state = State.PENDING;
+	private volatile Duration elapsed = Duration.ZERO;
+
+	public FaceEnginePoolWarmup(GenericObjectPool<FaceRecognitionEngine> pool, FaceEnginePoolWarmupProperties properties) {
+		this.pool = pool;
+		this.properties = properties;
+	}
+
+	/*
+	 * 开始预热：同步模式下阻塞至预热结束
+	 */
+	public void start() {
+		if (properties.isAsync()) {
+			Thread thread = new Thread(this::run, "arcface-warmup");
+			thread.setDaemon(true);
+			thread.start();
+		} else {
+			this.run();
+		}
+	}
+
+	/*
+	 * 需要预热的引擎数
+	 */
+	public int getTargetEngines() {
+		int target = properties.getEngines() > 0 ? properties.getEngines() : pool.getMinIdle();
+		return pool.getMaxTotal() > 0 ? Math.min(target, pool.getMaxTotal()) : target;
+	}
+
+	protected void run() {
+		if (state != State.PENDING) {
+			return;
+		}
+		state = State.RUNNING;
+		long start = System.nanoTime();
+		long deadline = start + properties.getTimeout().toNanos();
+		int target = getTargetEngines();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(properties.getParallelism(), target)),
+				new ThreadFactoryBuilder().setNameFormat("arcface-warmup-%d").setDaemon(true).build());
+		try {
+			// 并行创建引擎（激活、初始化）
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int index = pool.getNumIdle() + pool.getNumActive(); index < target; index++) {
+				futures.add(executor.submit(this::create));
+			}
+			await(futures, deadline);
+			// 同时借出全部引擎，保证每个引擎都执行一次检测
+			List<FaceRecognitionEngine> engines = new ArrayList<FaceRecognitionEngine>(target);
+			try {
+				while (engines.size() < target && pool.getNumIdle() > 0) {
+					engines.add(pool.borrowObject(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+				}
+				futures.clear();
+				for (FaceRecognitionEngine faceEngine : engines) {
+					futures.add(executor.submit(() -> this.warm(faceEngine)));
+				}
+				await(futures, deadline);
+			} finally {
+				for (FaceRecognitionEngine faceEngine : engines) {
+					pool.returnObject(faceEngine);
+				}
+			}
+			state = target > 0 && warmed.get() == 0 ? State.FAILED : State.COMPLETED;
+		} catch (Exception e) {
+			LOG.error("Face engine pool warmup failed", e);
+			state = State.FAILED;
+		} finally {
+			executor.shutdownNow();
+			elapsed = Duration.ofNanos(System.nanoTime() - start);
+			LOG.info("Face engine pool warmup {} in {} ms : target {}, created {}, warmed {}, failed {}", state,
+					elapsed.toMillis(), target, created.get(), warmed.get(), failed.get());
+			completion.complete(state);
+		}
+	}
+
+	private void create() {
+		try {
+			pool.addObject();
+			created.incrementAndGet();
+		} catch (Exception e) {
+			failed.incrementAndGet();
+			LOG.warn("Face engine creation failed during warmup", e);
+		}
+	}
+
+	/*
+	 * 对空白图片执行一次检测；检测到人脸时（如合成引擎）继续执行属性处理与特征提取
+	 */
+	protected void warm(FaceRecognitionEngine faceEngine) {
+		int size = Math.max(4, properties.getImageSize() & ~3);
+		byte[] imageData = new byte[size * size * 3];
+		List<FaceInfo> faceInfoList = new ArrayList<FaceInfo>();
+		faceEngine.detectFaces(imageData, size, size, ImageFormat.CP_PAF_BGR24, faceInfoList);
+		if (!faceInfoList.isEmpty()) {
+			faceEngine.process(imageData, size, size, ImageFormat.CP_PAF_BGR24, faceInfoList,
+					FunctionConfiguration.builder().supportAge(true).supportGender(true).supportFace3dAngle(true)
+							.supportLiveness(true).build());
+			faceEngine.extractFaceFeature(imageData, size, size, ImageFormat.CP_PAF_BGR24, faceInfoList.get(0),
+					new FaceFeature());
+		}
+		warmed.incrementAndGet();
+	}
+
+	private static void await(List<Future<?>> futures, long deadline) throws Exception {
+		for (Future<?> future : futures) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				throw new TimeoutException("Face engine pool warmup timed out");
+			}
+			future.get(remaining, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public boolean isCompleted() {
+		return state == State.COMPLETED;
+	}
+
+	public int getCreated() {
+		return created.get();
+	}
+
+	public int getWarmed() {
+		return warmed.get();
+	}
+
+	public int getFailed() {
+		return failed.get();
+	}
+
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/*
+	 * 预热结束时完成，结果为最终状态
+	 */
+	public CompletableFuture<State> getCompletion() {
+		return completion;
+	}
+
+}
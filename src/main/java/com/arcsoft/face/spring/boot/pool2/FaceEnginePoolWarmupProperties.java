@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+import java.time.Duration;
+
+/**
+ * 引擎对象池预热配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnginePoolWarmupProperties {
+
+	/**
+	 * Enable Face Engine Pool Warmup.
+	 */
+	private boolean enabled = false;
+	/**
+	 * 预先创建的引擎数，0 表示取对象池的 min-idle，不超过 max-total
+	 */
+	private int engines = 0;
+	/**
+	 * 并行创建引擎的线程数
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	/**
+	 * 是否在后台预热；关闭时在应用启动过程中同步预热，预热完成前应用不会就绪
+	 */
+	private boolean async = false;
+	/**
+	 * 预热超时时间
+	 */
+	private Duration timeout = Duration.ofMinutes(2);
+	/**
+	 * 预热检测所用空白图片的边长（像素，4 的倍数）
+	 */
+	private int imageSize = 128;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getEngines() {
+		return engines;
+	}
+
+	public void setEngines(int engines) {
+		this.engines = engines;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public boolean isAsync() {
+		return async;
+	}
+
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getImageSize() {
+		return imageSize;
+	}
+
+	public void setImageSize(int imageSize) {
+		this.imageSize = imageSize;
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+/**
+ * 按活体阈值配置划分的引擎子池配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceLivenessPoolProperties {
+
+	/**
+	 * 是否为每个活体阈值配置（low、normal、high 及自定义配置）各建一个引擎子池；子池中的引擎只使用一种活体阈值，
+	 * 不会在不同阈值之间来回切换。不设置活体阈值的请求仍使用主对象池
+	 */
+	private boolean enabled = false;
+	/**
+	 * 每个子池的最大引擎数，0 表示与 pool2.max-total 一致；其余配置沿用 pool2
+	 */
+	private int maxTotal = 0;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	public void setMaxTotal(int maxTotal) {
+		this.maxTotal = maxTotal;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfile;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+
+/**
+ * 按活体阈值配置划分的引擎子池，子池在配置首次使用时创建
+ * <p>
+ * 引擎只在阈值变化时才重新下发活体参数，同一子池中的请求活体配置相同，因此每个引擎只在首次使用时设置一次阈值。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceLivenessPools implements Closeable {
+
+	private final Map<String, GenericObjectPool<FaceRecognitionEngine>> pools = new ConcurrentHashMap<String, GenericObjectPool<FaceRecognitionEngine>>();
+	private final PooledObjectFactory<FaceRecognitionEngine> engineFactory;
+	private final GenericObjectPoolConfig<FaceRecognitionEngine> config;
+	/**
+	 * 子池创建监听器，例如为新子池注册监控指标
+	 */
+	private final List<BiConsumer<String, GenericObjectPool<FaceRecognitionEngine>>> listeners = new CopyOnWriteArrayList<BiConsumer<String, GenericObjectPool<FaceRecognitionEngine>>>();
+	private volatile boolean closed;
+
+	public FaceLivenessPools(PooledObjectFactory<FaceRecognitionEngine> engineFactory,
+			GenericObjectPoolConfig<FaceRecognitionEngine> poolConfig, FaceLivenessPoolProperties properties) {
+		this.engineFactory = engineFactory;
+		this.config = poolConfig.clone();
+		if (properties.getMaxTotal() > 0) {
+			config.setMaxTotal(properties.getMaxTotal());
+			config.setMaxIdle(Math.min(config.getMaxIdle(), properties.getMaxTotal()));
+			config.setMinIdle(Math.min(config.getMinIdle(), properties.getMaxTotal()));
+		}
+	}
+
+	/*
+	 * 活体配置对应的子池，不设置活体阈值（none）时返回 null
+	 */
+	public GenericObjectPool<FaceRecognitionEngine> getPool(FaceLivenessProfile profile) {
+		if (profile == null || profile.isNone() || closed) {
+			return null;
+		}
+		GenericObjectPool<FaceRecognitionEngine> pool = pools.get(profile.getName());
+		if (pool != null) {
+			return pool;
+		}
+		GenericObjectPool<FaceRecognitionEngine> created = new GenericObjectPool<FaceRecognitionEngine>(engineFactory, config);
+		pool = pools.putIfAbsent(profile.getName(), created);
+		if (pool != null) {
+			// 并发创建时只保留先放入的子池
+			created.close();
+			return pool;
+		}
+		for (BiConsumer<String, GenericObjectPool<FaceRecognitionEngine>> listener : listeners) {
+			listener.accept(profile.getName(), created);
+		}
+		return created;
+	}
+
+	/*
+	 * 注册子池创建监听器，并对已创建的子池立即调用一次；同一子池可能被通知两次，监听器需可重复调用
+	 *
+	 * @param listener 接收活体配置名称与子池
+	 */
+	public void addPoolListener(BiConsumer<String, GenericObjectPool<FaceRecognitionEngine>> listener) {
+		listeners.add(listener);
+		pools.forEach(listener);
+	}
+
+	public Map<String, GenericObjectPool<FaceRecognitionEngine>> getPools() {
+		return pools;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		for (GenericObjectPool<FaceRecognitionEngine> pool : pools.values()) {
+			pool.close();
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import com.arcsoft.face.FaceEngine;
+import com.arcsoft.face.spring.boot.engine.ArcSoftFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+
+/**
+ * 人脸识别引擎对象池
+ * <p>
+ * 通过 {@link #adapt(GenericObjectPool)} 可将旧版本的 {@code GenericObjectPool<FaceEngine>} 适配为引擎对象池，
+ * 借出的引擎从原有对象池中借用并在销毁时归还。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceRecognitionEnginePool extends GenericObjectPool<FaceRecognitionEngine> {
+
+	public FaceRecognitionEnginePool(PooledObjectFactory<FaceRecognitionEngine> factory) {
+		super(factory);
+	}
+
+	public FaceRecognitionEnginePool(PooledObjectFactory<FaceRecognitionEngine> factory,
+			GenericObjectPoolConfig<FaceRecognitionEngine> config) {
+		super(factory, config);
+	}
+
+	/*
+	 * 将 FaceEngine 对象池适配为引擎对象池，容量与等待策略沿用原有对象池
+	 */
+	public static FaceRecognitionEnginePool adapt(GenericObjectPool<FaceEngine> faceEnginePool) {
+		GenericObjectPoolConfig<FaceRecognitionEngine> config = new GenericObjectPoolConfig<FaceRecognitionEngine>();
+		config.setMaxTotal(faceEnginePool.getMaxTotal());
+		config.setMaxIdle(faceEnginePool.getMaxIdle());
+		config.setMinIdle(0);
+		config.setMaxWait(faceEnginePool.getMaxWaitDuration());
+		config.setBlockWhenExhausted(faceEnginePool.getBlockWhenExhausted());
+		config.setJmxEnabled(false);
+		return new FaceRecognitionEnginePool(new FaceEngineAdapterFactory(faceEnginePool), config);
+	}
+
+	/*
+	 * 从 FaceEngine 对象池借用引擎并包装，销毁包装对象时将引擎归还原有对象池
+	 */
+	static class FaceEngineAdapterFactory extends BasePooledObjectFactory<FaceRecognitionEngine> {
+
+		private final GenericObjectPool<FaceEngine> faceEnginePool;
+
+		FaceEngineAdapterFactory(GenericObjectPool<FaceEngine> faceEnginePool) {
+			this.faceEnginePool = faceEnginePool;
+		}
+
+		@Override
+		public FaceRecognitionEngine create() throws Exception {
+			return new ArcSoftFaceRecognitionEngine(faceEnginePool.borrowObject());
+		}
+
+		@Override
+		public PooledObject<FaceRecognitionEngine> wrap(FaceRecognitionEngine faceEngine) {
+			return new DefaultPooledObject<>(faceEngine);
+		}
+
+		@Override
+		public void destroyObject(PooledObject<FaceRecognitionEngine> p) throws Exception {
+			faceEnginePool.returnObject(((ArcSoftFaceRecognitionEngine) p.getObject()).getFaceEngine());
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.result;
+
+/**
+ * 人脸识别结果基类
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public abstract class ArcFaceResult {
+
+	/**
+	 * 成功
+	 */
+	public static final int SUCCESS = 0;
+	/**
+	 * 服务端异常
+	 */
+	public static final int SERVER_ERROR = 500;
+	/**
+	 * 引擎繁忙：排队已满、等待引擎超时或调用方期限已过，请求未被处理，可稍后重试
+	 */
+	public static final int OVERLOADED = 503;
+
+	/**
+	 * 错误码，0 表示成功
+	 */
+	private int errorCode = SUCCESS;
+	/**
+	 * 错误信息
+	 */
+	private String errorMsg;
+
+	public boolean isSuccess() {
+		return errorCode == SUCCESS;
+	}
+
+	public void setError(int errorCode, String errorMsg) {
+		this.errorCode = errorCode;
+		this.errorMsg = errorMsg;
+	}
+
+	public int getErrorCode() {
+		return errorCode;
+	}
+
+	public void setErrorCode(int errorCode) {
+		this.errorCode = errorCode;
+	}
+
+	public String getErrorMsg() {
+		return errorMsg;
+	}
+
+	public void setErrorMsg(String errorMsg) {
+		this.errorMsg = errorMsg;
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.result;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 人脸检测结果
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class DetectResult extends ArcFaceResult {
+
+	/**
+	 * 检测到的人脸
+	 */
+	private List<FaceResult> faces = Collections.emptyList();
+
+	public DetectResult() {
+	}
+
+	public DetectResult(int errorCode, String errorMsg) {
+		setError(errorCode, errorMsg);
+	}
+
+	/*
+	 * 检测到的图片中的人脸数量
+	 */
+	public int getFaceNum() {
+		return faces.size();
+	}
+
+	public List<FaceResult> getFaces() {
+		return faces;
+	}
+
+	public void setFaces(List<FaceResult> faces) {
+		this.faces = faces;
+	}
+
+}
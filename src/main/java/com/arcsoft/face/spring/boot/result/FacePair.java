@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.result;
+
+/**
+ * 多人脸检索中源图片人脸与待检索图片人脸的一对配对
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FacePair {
+
+	/**
+	 * 源图片人脸下标
+	 */
+	private int sourceIndex;
+	/**
+	 * 待检索图片人脸下标
+	 */
+	private int searchIndex;
+	/**
+	 * 特征相似值
+	 */
+	private float score;
+
+	public FacePair() {
+	}
+
+	public FacePair(int sourceIndex, int searchIndex, float score) {
+		this.sourceIndex = sourceIndex;
+		this.searchIndex = searchIndex;
+		this.score = score;
+	}
+
+	public int getSourceIndex() {
+		return sourceIndex;
+	}
+
+	public void setSourceIndex(int sourceIndex) {
+		this.sourceIndex = sourceIndex;
+	}
+
+	public int getSearchIndex() {
+		return searchIndex;
+	}
+
+	public void setSearchIndex(int searchIndex) {
+		this.searchIndex = searchIndex;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void setScore(float score) {
+		this.score = score;
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.result;
+
+import com.arcsoft.face.Face3DAngle;
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+
+/**
+ * 单张人脸的识别结果，全部使用原始类型字段，特征数据为原始字节
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceResult {
+
+	/**
+	 * 人脸图片的唯一标识，IMAGE模式下不返回faceId
+	 */
+	private int faceId;
+	/**
+	 * 人脸角度
+	 */
+	private int orient;
+	/**
+	 * 人脸在图片中的位置
+	 */
+	private int left;
+	private int top;
+	private int right;
+	private int bottom;
+	/**
+	 * 性别，未知性别=-1 、男性=0 、女性=1
+	 */
+	private int gender = -1;
+	/**
+	 * 年龄，若为0表示检测失败
+	 */
+	private int age;
+	/**
+	 * 活体信息，未知=-1 、非活体=0 、活体=1
+	 */
+	private int liveness = -1;
+	/**
+	 * 人脸三维角度信息
+	 */
+	private float yaw;
+	private float roll;
+	private float pitch;
+	/**
+	 * 三维角度状态，0 表示正常，-1 表示未检测
+	 */
+	private int angleStatus = -1;
+	/**
+	 * 人脸特征数据，未提取时为 null
+	 */
+	private byte[] feature;
+	/**
+	 * 特征相似值
+	 */
+	private float score;
+
+	public FaceResult() {
+	}
+
+	public FaceResult(FaceInfo faceInfo) {
+		this.faceId = faceInfo.getFaceId();
+		this.orient = faceInfo.getOrient();
+		Rect rect = faceInfo.getRect();
+		if (rect != null) {
+			this.left = rect.getLeft();
+			this.top = rect.getTop();
+			this.right = rect.getRight();
+			this.bottom = rect.getBottom();
+		}
+	}
+
+	public void setAngle(Face3DAngle angle) {
+		this.yaw = angle.getYaw();
+		this.roll = angle.getRoll();
+		this.pitch = angle.getPitch();
+		this.angleStatus = angle.getStatus();
+	}
+
+	public int getWidth() {
+		return right - left;
+	}
+
+	public int getHeight() {
+		return bottom - top;
+	}
+
+	public int getFaceId() {
+		return faceId;
+	}
+
+	public void setFaceId(int faceId) {
+		this.faceId = faceId;
+	}
+
+	public int getOrient() {
+		return orient;
+	}
+
+	public void setOrient(int orient) {
+		this.orient = orient;
+	}
+
+	public int getLeft() {
+		return left;
+	}
+
+	public void setLeft(int left) {
+		this.left = left;
+	}
+
+	public int getTop() {
+		return top;
+	}
+
+	public void setTop(int top) {
+		this.top = top;
+	}
+
+	public int getRight() {
+		return right;
+	}
+
+	public void setRight(int right) {
+		this.right = right;
+	}
+
+	public int getBottom() {
+		return bottom;
+	}
+
+	public void setBottom(int bottom) {
+		this.bottom = bottom;
+	}
+
+	public int getGender() {
+		return gender;
+	}
+
+	public void setGender(int gender) {
+		this.gender = gender;
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public void setAge(int age) {
+		this.age = age;
+	}
+
+	public int getLiveness() {
+		return liveness;
+	}
+
+	public void setLiveness(int liveness) {
+		this.liveness = liveness;
+	}
+
+	public float getYaw() {
+		return yaw;
+	}
+
+	public void setYaw(float yaw) {
+		this.yaw = yaw;
+	}
+
+	public float getRoll() {
+		return roll;
+	}
+
+	public void setRoll(float roll) {
+		this.roll = roll;
+	}
+
+	public float getPitch() {
+		return pitch;
+	}
+
+	public void setPitch(float pitch) {
+		this.pitch = pitch;
+	}
+
+	public int getAngleStatus() {
+		return angleStatus;
+	}
+
+	public void setAngleStatus(int angleStatus) {
+		this.angleStatus = angleStatus;
+	}
+
+	public byte[] getFeature() {
+		return feature;
+	}
+
+	public void setFeature(byte[] feature) {
+		this.feature = feature;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void setScore(float score) {
+		this.score = score;
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.result;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+
+/**
+ * 人脸比对（1:1、图片内检索、人脸库 1:N 检索）结果
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class MatchResult extends ArcFaceResult {
+
+	/**
+	 * 1:1 比对的特征相似值
+	 */
+	private float score;
+	/**
+	 * 参与比对的人脸，图片内检索时每张人脸带有各自的相似值
+	 */
+	private List<FaceResult> faces = Collections.emptyList();
+	/**
+	 * 人脸库检索命中的用户
+	 */
+	private List<FaceMatch> users = Collections.emptyList();
+	/**
+	 * 多人脸检索时源图片中的人脸
+	 */
+	private List<FaceResult> sourceFaces = Collections.emptyList();
+	/**
+	 * 多人脸检索时源人脸与待检索人脸的一一配对
+	 */
+	private List<FacePair> pairs = Collections.emptyList();
+
+	public MatchResult() {
+	}
+
+	public MatchResult(int errorCode, String errorMsg) {
+		setError(errorCode, errorMsg);
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void setScore(float score) {
+		this.score = score;
+	}
+
+	public List<FaceResult> getFaces() {
+		return faces;
+	}
+
+	public void setFaces(List<FaceResult> faces) {
+		this.faces = faces;
+	}
+
+	public List<FaceMatch> getUsers() {
+		return users;
+	}
+
+	public void setUsers(List<FaceMatch> users) {
+		this.users = users;
+	}
+
+	public List<FaceResult> getSourceFaces() {
+		return sourceFaces;
+	}
+
+	public void setSourceFaces(List<FaceResult> sourceFaces) {
+		this.sourceFaces = sourceFaces;
+	}
+
+	public List<FacePair> getPairs() {
+		return pairs;
+	}
+
+	public void setPairs(List<FacePair> pairs) {
+		this.pairs = pairs;
+	}
+
+}
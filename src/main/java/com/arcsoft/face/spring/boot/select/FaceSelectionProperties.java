@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.select;
+
+/**
+ * 人脸选择配置：在属性处理与特征提取之前对检测到的人脸排序、过滤并限制数量，默认不做任何限制
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceSelectionProperties {
+
+	/**
+	 * 人脸排序方式
+	 */
+	public enum Order {
+
+		/**
+		 * 保持检测顺序
+		 */
+		DETECTED,
+		/**
+		 * 人脸框面积从大到小
+		 */
+		LARGEST,
+		/**
+		 * 人脸框中心与图像中心的距离从近到远
+		 */
+		CENTER
+
+	}
+
+	/**
+	 * 人脸排序方式，与 max-faces 配合使用，例如 LARGEST + 1 只处理最大的一张人脸
+	 */
+	private Order order = Order.DETECTED;
+	/**
+	 * 每张图片最多处理的人脸数，0 表示不限制
+	 */
+	private int maxFaces = 0;
+	/**
+	 * 人脸框短边的最小像素数，小于该值的人脸不参与后续处理，0 表示不限制
+	 */
+	private int minSize = 0;
+	/**
+	 * 允许的最大偏航角（绝对值，度），超出的人脸不提取特征，0 表示不限制；需要三维角度检测
+	 */
+	private float maxYaw = 0f;
+	/**
+	 * 允许的最大俯仰角（绝对值，度），超出的人脸不提取特征，0 表示不限制；需要三维角度检测
+	 */
+	private float maxPitch = 0f;
+
+	public Order getOrder() {
+		return order;
+	}
+
+	public void setOrder(Order order) {
+		this.order = order;
+	}
+
+	public int getMaxFaces() {
+		return maxFaces;
+	}
+
+	public void setMaxFaces(int maxFaces) {
+		this.maxFaces = maxFaces;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public float getMaxYaw() {
+		return maxYaw;
+	}
+
+	public void setMaxYaw(float maxYaw) {
+		this.maxYaw = maxYaw;
+	}
+
+	public float getMaxPitch() {
+		return maxPitch;
+	}
+
+	public void setMaxPitch(float maxPitch) {
+		this.maxPitch = maxPitch;
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.select;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+
+/**
+ * 人脸选择策略：检测之后按配置对人脸排序、过滤并限制数量，只有选中的人脸进入属性处理与特征提取
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceSelector {
+
+	private final FaceSelectionProperties properties;
+
+	public FaceSelector(FaceSelectionProperties properties) {
+		this.properties = properties;
+	}
+
+	/*
+	 * 是否按三维角度过滤人脸，此时人脸数在角度过滤之后才限制
+	 */
+	public boolean isAngleLimited() {
+		return properties.getMaxYaw() > 0 || properties.getMaxPitch() > 0;
+	}
+
+	/*
+	 * 属性处理之前选择人脸：过滤过小的人脸并排序，不按角度过滤时同时限制人脸数
+	 *
+	 * @param faceInfos 检测到的人脸
+	 * @param width 图像宽度
+	 * @param height 图像高度
+	 * @return 选中的人脸，未配置任何限制时返回原列表
+	 */
+	public List<FaceInfo> select(List<FaceInfo> faceInfos, int width, int height) {
+		return this.select(faceInfos, width, height, 1f);
+	}
+
+	/*
+	 * 同上，用于缩放后的图像：人脸框短边乘以缩放比例后再与最小像素数比较
+	 *
+	 * @param scale 原图像素与当前图像像素之比
+	 */
+	public List<FaceInfo> select(List<FaceInfo> faceInfos, int width, int height, float scale) {
+		if (properties.getOrder() == FaceSelectionProperties.Order.DETECTED && properties.getMinSize() <= 0
+				&& (properties.getMaxFaces() <= 0 || isAngleLimited())) {
+			return faceInfos;
+		}
+		List<FaceInfo> selected = new ArrayList<FaceInfo>(faceInfos.size());
+		for (FaceInfo faceInfo : faceInfos) {
+			Rect rect = faceInfo.getRect();
+			if (Math.min(rect.getRight() - rect.getLeft(), rect.getBottom() - rect.getTop()) * scale >= properties.getMinSize()) {
+				selected.add(faceInfo);
+			}
+		}
+		switch (properties.getOrder()) {
+		case LARGEST:
+			selected.sort(Comparator.comparingLong(FaceSelector::area).reversed());
+			break;
+		case CENTER:
+			selected.sort(Comparator.comparingLong(faceInfo -> distance(faceInfo, width, height)));
+			break;
+		default:
+			break;
+		}
+		return isAngleLimited() ? selected : limit(selected);
+	}
+
+	/*
+	 * 三维角度是否在允许范围内，未检测角度的人脸不过滤
+	 */
+	public boolean accept(FaceResult face) {
+		if (face.getAngleStatus() != 0) {
+			return true;
+		}
+		return (properties.getMaxYaw() <= 0 || Math.abs(face.getYaw()) <= properties.getMaxYaw())
+				&& (properties.getMaxPitch() <= 0 || Math.abs(face.getPitch()) <= properties.getMaxPitch());
+	}
+
+	/*
+	 * 按 max-faces 截取已排序的人脸
+	 */
+	public <T> List<T> limit(List<T> faces) {
+		int maxFaces = properties.getMaxFaces();
+		if (maxFaces <= 0 || faces.size() <= maxFaces) {
+			return faces;
+		}
+		return new ArrayList<T>(faces.subList(0, maxFaces));
+	}
+
+	public FaceSelectionProperties getProperties() {
+		return properties;
+	}
+
+	private static long area(FaceInfo faceInfo) {
+		Rect rect = faceInfo.getRect();
+		return (long) (rect.getRight() - rect.getLeft()) * (rect.getBottom() - rect.getTop());
+	}
+
+	/*
+	 * 人脸框中心与图像中心距离的平方（坐标放大两倍以避免取整）
+	 */
+	private static long distance(FaceInfo faceInfo, int width, int height) {
+		Rect rect = faceInfo.getRect();
+		long dx = rect.getLeft() + rect.getRight() - width;
+		long dy = rect.getTop() + rect.getBottom() - height;
+		return dx * dx + dy * dy;
+	}
+
+}
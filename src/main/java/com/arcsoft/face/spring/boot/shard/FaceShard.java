@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.shard;
+
+import java.util.List;
+
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+
+/**
+ * 人脸库分片：分片人脸库通过该接口访问各节点上的人脸库，实现类即传输层（本机内存直连或远程调用）
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceShard {
+
+	/**
+	 * 入库，用户标识已存在时覆盖原特征
+	 * @param userId 用户标识
+	 * @param featureData 特征数据
+	 */
+	void enroll(String userId, byte[] featureData);
+
+	/**
+	 * 从分片删除
+	 * @param userId 用户标识
+	 * @return 是否存在并已删除
+	 */
+	boolean remove(String userId);
+
+	/**
+	 * 在分片内检索，返回按相似值降序排列的局部 Top-K
+	 * @param probe 探测特征数据
+	 * @param topK 返回的最大人脸数
+	 * @param threshold 相似值阈值
+	 * @return 分片内最相似的人脸
+	 */
+	List<FaceMatch> search(byte[] probe, int topK, float threshold);
+
+	/**
+	 * @return 分片内的人脸数
+	 */
+	int size();
+
+}
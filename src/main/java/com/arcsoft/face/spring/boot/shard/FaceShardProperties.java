@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.shard;
+
+import java.time.Duration;
+
+/**
+ * 人脸库分片配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceShardProperties {
+
+	/**
+	 * 是否启用分片人脸库；未自定义分片人脸库 Bean 时，按 shards 创建本机进程内分片
+	 */
+	private boolean enabled = false;
+	/**
+	 * 本机进程内分片数
+	 */
+	private int shards = 4;
+	/**
+	 * 并行检索各分片的线程数，0 表示与分片数相同
+	 */
+	private int parallelism = 0;
+	/**
+	 * 单次检索等待全部分片返回的超时时间
+	 */
+	private Duration timeout = Duration.ofSeconds(2);
+	/**
+	 * 部分分片超时或失败时是否返回其余分片的合并结果，否则整个检索失败
+	 */
+	private boolean allowPartial = false;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getShards() {
+		return shards;
+	}
+
+	public void setShards(int shards) {
+		this.shards = shards;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public boolean isAllowPartial() {
+		return allowPartial;
+	}
+
+	public void setAllowPartial(boolean allowPartial) {
+		this.allowPartial = allowPartial;
+	}
+
+}
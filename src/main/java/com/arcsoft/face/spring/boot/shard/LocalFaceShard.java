@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.shard;
+
+import java.io.Closeable;
+import java.util.List;
+
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+
+/**
+ * 本机进程内的人脸库分片，直接访问内存人脸库，用于单机分片与测试；人脸库启用精确打分时由比对器对候选重新打分
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class LocalFaceShard implements FaceShard, Closeable {
+
+	private final FaceGallery gallery;
+	/**
+	 * 精确比对器，为 null 时只使用向量相似值
+	 */
+	private final FaceFeatureComparator comparator;
+
+	public LocalFaceShard(FaceGallery gallery) {
+		this(gallery, null);
+	}
+
+	public LocalFaceShard(FaceGallery gallery, FaceFeatureComparator comparator) {
+		this.gallery = gallery;
+		this.comparator = comparator;
+	}
+
+	@Override
+	public void enroll(String userId, byte[] featureData) {
+		gallery.enroll(userId, featureData);
+	}
+
+	@Override
+	public boolean remove(String userId) {
+		return gallery.remove(userId);
+	}
+
+	@Override
+	public List<FaceMatch> search(byte[] probe, int topK, float threshold) {
+		if (comparator != null && gallery.getProperties().isExactScore()) {
+			return gallery.search(probe, topK, threshold, comparator);
+		}
+		return gallery.search(probe, topK, threshold);
+	}
+
+	@Override
+	public int size() {
+		return gallery.size();
+	}
+
+	@Override
+	public void close() {
+		gallery.close();
+	}
+
+	public FaceGallery getGallery() {
+		return gallery;
+	}
+
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.shard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+import com.arcsoft.face.spring.boot.store.FaceFeatureStore;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * 分片人脸库：用户按标识的一致性哈希分布到各分片，检索时将探测特征并行发往全部分片（scatter），
+ * 再合并各分片的局部 Top-K 得到全局 Top-K（gather）
+ * <p>
+ * 各分片的局部 Top-K 包含了该分片内全局 Top-K 的全部成员，因此合并结果与单个人脸库检索一致。
+ * 分片只通过 {@link FaceShard} 访问，本机分片使用 {@link LocalFaceShard}，跨节点时实现远程调用的 {@link FaceShard} 即可。
+ * 设置特征存储后，入库与删除先写入存储再路由到分片，启动时经 {@link #load()} 按 {@link #shardOf(String)} 将存储中的记录重放到各分片。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ShardedFaceGallery implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ShardedFaceGallery.class);
+
+	private final List<FaceShard> shards;
+	private final FaceGalleryProperties galleryProperties;
+	private final FaceShardProperties properties;
+	private final ExecutorService executor;
+	/**
+	 * 本机分片共用的扫描线程池，随分片人脸库关闭
+	 */
+	private ForkJoinPool searchPool;
+	private FaceFeatureStore store;
+	/**
+	 * 已重放到分片的存储记录数
+	 */
+	private long storePosition;
+
+	public ShardedFaceGallery(List<FaceShard> shards, FaceGalleryProperties galleryProperties, FaceShardProperties properties) {
+		if (shards.isEmpty()) {
+			throw new IllegalArgumentException("At least one face shard is required");
+		}
+		this.shards = Collections.unmodifiableList(new ArrayList<FaceShard>(shards));
+		this.galleryProperties = galleryProperties;
+		this.properties = properties;
+		int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : shards.size();
+		this.executor = shards.size() > 1 ? Executors.newFixedThreadPool(parallelism,
+				new ThreadFactoryBuilder().setNameFormat("arcface-shard-%d").setDaemon(true).build()) : null;
+	}
+
+	/*
+	 * 创建本机进程内分片，各分片共用一个扫描线程池（gallery.parallelism 大于 1 时）
+	 *
+	 * @param comparator 精确打分比对器，为 null 时只使用向量相似值
+	 * @throws IllegalArgumentException 分片数小于 1
+	 */
+	public static ShardedFaceGallery local(FaceGalleryProperties galleryProperties, FaceShardProperties properties,
+			FaceFeatureComparator comparator) {
+		if (properties.getShards() < 1) {
+			throw new IllegalArgumentException("shards must be at least 1 : " + properties.getShards());
+		}
+		ForkJoinPool searchPool = galleryProperties.getParallelism() > 1 ? new ForkJoinPool(galleryProperties.getParallelism()) : null;
+		List<FaceShard> shards = new ArrayList<FaceShard>(properties.getShards());
+		for (int index = 0; index < properties.getShards(); index++) {
+			shards.add(new LocalFaceShard(new FaceGallery(galleryProperties, searchPool), comparator));
+		}
+		ShardedFaceGallery shardedGallery = new ShardedFaceGallery(shards, galleryProperties, properties);
+		shardedGallery.searchPool = searchPool;
+		return shardedGallery;
+	}
+
+	/*
+	 * 用户标识所在的分片下标；一致性哈希使分片数变化时只需迁移约 1/n 的用户
+	 */
+	public int shardOf(String userId) {
+		return Hashing.consistentHash(Hashing.murmur3_128().hashString(userId, StandardCharsets.UTF_8), shards.size());
+	}
+
+	/*
+	 * 入库到用户所在的分片
+	 */
+	public void enroll(String userId, byte[] featureData) {
+		if (userId == null) {
+			throw new IllegalArgumentException("userId must not be null");
+		}
+		FaceShard shard = shards.get(shardOf(userId));
+		if (store == null) {
+			shard.enroll(userId, featureData);
+			return;
+		}
+		synchronized (this) {
+			store.put(userId, featureData);
+			storePosition = store.count();
+			shard.enroll(userId, featureData);
+		}
+	}
+
+	/*
+	 * 从用户所在的分片删除
+	 */
+	public boolean remove(String userId) {
+		FaceShard shard = shards.get(shardOf(userId));
+		if (store == null) {
+			return shard.remove(userId);
+		}
+		synchronized (this) {
+			boolean removed = shard.remove(userId);
+			if (removed) {
+				store.delete(userId);
+				storePosition = store.count();
+			}
+			return removed;
+		}
+	}
+
+	/*
+	 * 从特征存储重放全部记录到各分片，通常在启动时调用
+	 *
+	 * @return 重放的记录数
+	 */
+	public synchronized long load() {
+		storePosition = 0;
+		return this.replay();
+	}
+
+	/*
+	 * 增量重放特征存储中的新记录，例如批量入库写入存储之后
+	 *
+	 * @return 新重放的记录数
+	 */
+	public synchronized long refresh() {
+		return this.replay();
+	}
+
+	private long replay() {
+		if (store == null) {
+			return 0;
+		}
+		long from = storePosition;
+		storePosition = store.replay(from, new FaceFeatureStore.RecordVisitor() {
+
+			@Override
+			public void put(String userId, byte[] featureData) {
+				shards.get(shardOf(userId)).enroll(userId, featureData);
+			}
+
+			@Override
+			public void delete(String userId) {
+				shards.get(shardOf(userId)).remove(userId);
+			}
+
+		});
+		return storePosition - from;
+	}
+
+	/*
+	 * 使用默认 topK 与阈值检索
+	 */
+	public List<FaceMatch> search(byte[] probe) {
+		return search(probe, galleryProperties.getTopK(), galleryProperties.isExactScore()
+				? galleryProperties.getEngineThreshold() : galleryProperties.getThreshold());
+	}
+
+	/*
+	 * 1:N 检索：并行检索全部分片并合并为全局 Top-K
+	 *
+	 * @param probe 探测特征数据
+	 * @param topK 返回的最大人脸数
+	 * @param threshold 相似值阈值
+	 * @throws IllegalArgumentException topK 不是正数
+	 * @throws IllegalStateException 分片超时或失败且不允许返回部分结果
+	 */
+	public List<FaceMatch> search(byte[] probe, int topK, float threshold) {
+		if (topK <= 0) {
+			throw new IllegalArgumentException("topK must be positive : " + topK);
+		}
+		if (executor == null) {
+			return shards.get(0).search(probe, topK, threshold);
+		}
+		List<Callable<List<FaceMatch>>> tasks = new ArrayList<Callable<List<FaceMatch>>>(shards.size());
+		for (FaceShard shard : shards) {
+			tasks.add(() -> shard.search(probe, topK, threshold));
+		}
+		List<Future<List<FaceMatch>>> futures;
+		try {
+			futures = executor.invokeAll(tasks, properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Sharded face search interrupted", e);
+		}
+		List<FaceMatch> merged = new ArrayList<FaceMatch>(topK * shards.size());
+		for (int index = 0; index < futures.size(); index++) {
+			try {
+				merged.addAll(futures.get(index).get());
+			} catch (CancellationException e) {
+				this.onShardFailure(index, new IllegalStateException("Face shard " + index + " search timed out"));
+			} catch (ExecutionException e) {
+				this.onShardFailure(index, e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Sharded face search interrupted", e);
+			}
+		}
+		merged.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+		return merged.size() > topK ? new ArrayList<FaceMatch>(merged.subList(0, topK)) : merged;
+	}
+
+	private void onShardFailure(int index, Throwable cause) {
+		if (!properties.isAllowPartial()) {
+			if (cause instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException) cause;
+			}
+			throw new IllegalStateException("Face shard " + index + " search failed", cause);
+		}
+		LOG.warn("Face shard {} search failed, returning partial result", index, cause);
+	}
+
+	/*
+	 * 全部分片的人脸数之和
+	 */
+	public int size() {
+		int size = 0;
+		for (FaceShard shard : shards) {
+			size += shard.size();
+		}
+		return size;
+	}
+
+	public List<FaceShard> getShards() {
+		return shards;
+	}
+
+	public FaceGalleryProperties getGalleryProperties() {
+		return galleryProperties;
+	}
+
+	public FaceShardProperties getProperties() {
+		return properties;
+	}
+
+	public FaceFeatureStore getStore() {
+		return store;
+	}
+
+	public void setStore(FaceFeatureStore store) {
+		this.store = store;
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		for (FaceShard shard : shards) {
+			if (shard instanceof Closeable) {
+				try {
+					((Closeable) shard).close();
+				} catch (IOException e) {
+					LOG.warn("Failed to close face shard", e);
+				}
+			}
+		}
+		if (searchPool != null) {
+			searchPool.shutdown();
+		}
+	}
+
+}
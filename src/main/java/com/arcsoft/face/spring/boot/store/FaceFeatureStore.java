@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.store;
+
+import java.io.Closeable;
+
+/**
+ * 人脸特征持久化存储：以追加日志的方式记录入库与删除操作
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceFeatureStore extends Closeable {
+
+	/**
+	 * 日志记录访问器
+	 */
+	interface RecordVisitor {
+
+		/**
+		 * 入库（或覆盖）记录
+		 */
+		void put(String userId, byte[] featureData);
+
+		/**
+		 * 删除记录
+		 */
+		void delete(String userId);
+
+	}
+
+	/**
+	 * 追加入库记录
+	 */
+	void put(String userId, byte[] featureData);
+
+	/**
+	 * 追加删除记录
+	 */
+	void delete(String userId);
+
+	/**
+	 * 从指定记录位置开始重放日志
+	 * @param fromRecord 起始记录位置
+	 * @param visitor 记录访问器
+	 * @return 下一次重放的起始位置
+	 */
+	long replay(long fromRecord, RecordVisitor visitor);
+
+	/**
+	 * 已提交的记录数
+	 */
+	long count();
+
+	/**
+	 * 是否为只读存储
+	 */
+	boolean isReadOnly();
+
+	/**
+	 * 将已写入的记录刷到磁盘，默认不做处理
+	 */
+	default void force() {
+	}
+
+}
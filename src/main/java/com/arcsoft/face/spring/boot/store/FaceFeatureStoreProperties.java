@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.store;
+
+import com.arcsoft.face.FaceFeature;
+
+/**
+ * 人脸特征持久化存储配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceFeatureStoreProperties {
+
+	/**
+	 * Enable Face Feature Store.
+	 */
+	private boolean enabled = false;
+	/**
+	 * 存储文件路径
+	 */
+	private String path = "arcface-features.dat";
+	/**
+	 * 是否以只读方式映射（同一主机上的其它 JVM 共享写入方生成的文件）
+	 */
+	private boolean readOnly = false;
+	/**
+	 * 特征数据长度（字节）
+	 */
+	private int featureSize = FaceFeature.FEATURE_SIZE;
+	/**
+	 * 用户标识最大长度（UTF-8 字节），不超过 65535
+	 */
+	private int userIdMaxBytes = 64;
+	/**
+	 * 每个内存映射段容纳的记录数，单段大小（记录数 × 记录长度）不超过 2GB
+	 */
+	private int recordsPerSegment = 65536;
+	/**
+	 * 每次写入后是否强制刷盘
+	 */
+	private boolean syncOnWrite = false;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	public int getFeatureSize() {
+		return featureSize;
+	}
+
+	public void setFeatureSize(int featureSize) {
+		this.featureSize = featureSize;
+	}
+
+	public int getUserIdMaxBytes() {
+		return userIdMaxBytes;
+	}
+
+	public void setUserIdMaxBytes(int userIdMaxBytes) {
+		this.userIdMaxBytes = userIdMaxBytes;
+	}
+
+	public int getRecordsPerSegment() {
+		return recordsPerSegment;
+	}
+
+	public void setRecordsPerSegment(int recordsPerSegment) {
+		this.recordsPerSegment = recordsPerSegment;
+	}
+
+	public boolean isSyncOnWrite() {
+		return syncOnWrite;
+	}
+
+	public void setSyncOnWrite(boolean syncOnWrite) {
+		this.syncOnWrite = syncOnWrite;
+	}
+
+}
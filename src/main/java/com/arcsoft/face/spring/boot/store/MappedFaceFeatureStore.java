@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于内存映射文件的人脸特征存储
+ * <p>
+ * 文件由 64 字节头部与定长记录组成，记录只追加不修改：
+ * <pre>
+ * 头部：magic(4) version(4) featureSize(4) userIdSize(4) recordSize(4) recordsPerSegment(4) count(8) 保留(32)
+ * 记录：type(1) userIdLength(2) userId(userIdSize) feature(featureSize)
+ * </pre>
+ * 记录写入完成后才更新头部的记录数，因此只读方（可以是同一主机上的其它 JVM）总能看到完整的记录。
+ * 写入方持有文件排它锁，保证同一文件只有一个写入方。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class MappedFaceFeatureStore implements FaceFeatureStore {
+
+	static final int MAGIC = 0x41465331;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+	static final int COUNT_OFFSET = 24;
+	static final byte TYPE_PUT = 1;
+	static final byte TYPE_DELETE = 2;
+	static final int MAX_USER_ID_SIZE = 0xFFFF;
+
+	private final File file;
+	private final boolean readOnly;
+	private final boolean syncOnWrite;
+	private final RandomAccessFile randomAccessFile;
+	private final FileChannel channel;
+	private final FileLock fileLock;
+	private final MappedByteBuffer header;
+	private final List<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+	private final int featureSize;
+	private final int userIdSize;
+	private final int recordSize;
+	private final int recordsPerSegment;
+	private long count;
+
+	public MappedFaceFeatureStore(FaceFeatureStoreProperties properties) throws IOException {
+		this(new File(properties.getPath()), properties);
+	}
+
+	public MappedFaceFeatureStore(File file, FaceFeatureStoreProperties properties) throws IOException {
+		checkLayout(properties.getFeatureSize(), properties.getUserIdMaxBytes(), properties.getRecordsPerSegment());
+		this.file = file;
+		this.readOnly = properties.isReadOnly();
+		this.syncOnWrite = properties.isSyncOnWrite();
+		if (!readOnly && file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		this.randomAccessFile = new RandomAccessFile(file, readOnly ? "r" : "rw");
+		this.channel = randomAccessFile.getChannel();
+		try {
+			if (readOnly) {
+				this.fileLock = null;
+				if (channel.size() < HEADER_SIZE) {
+					throw new IOException("Face feature store is not initialized : " + file);
+				}
+				this.header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+			} else {
+				this.fileLock = tryLock(channel);
+				if (fileLock == null) {
+					throw new IOException("Face feature store is locked by another writer : " + file);
+				}
+				boolean created = channel.size() < HEADER_SIZE;
+				this.header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+				if (created) {
+					int recordSize = 3 + properties.getUserIdMaxBytes() + properties.getFeatureSize();
+					header.putInt(0, MAGIC);
+					header.putInt(4, VERSION);
+					header.putInt(8, properties.getFeatureSize());
+					header.putInt(12, properties.getUserIdMaxBytes());
+					header.putInt(16, recordSize);
+					header.putInt(20, properties.getRecordsPerSegment());
+					header.putLong(COUNT_OFFSET, 0L);
+					header.force();
+				}
+			}
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException("Not a face feature store (or unsupported version) : " + file);
+			}
+			// 以文件中的布局为准，避免配置变更破坏已有数据
+			this.featureSize = header.getInt(8);
+			this.userIdSize = header.getInt(12);
+			this.recordSize = header.getInt(16);
+			this.recordsPerSegment = header.getInt(20);
+			try {
+				checkLayout(featureSize, userIdSize, recordsPerSegment);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Corrupted face feature store header : " + file, e);
+			}
+			if (recordSize != 3 + userIdSize + featureSize) {
+				throw new IOException("Corrupted face feature store header : " + file);
+			}
+			if (featureSize != properties.getFeatureSize()) {
+				throw new IOException("Face feature size mismatch : store " + featureSize + ", configured "
+						+ properties.getFeatureSize());
+			}
+			this.count = header.getLong(COUNT_OFFSET);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public synchronized void put(String userId, byte[] featureData) {
+		if (featureData == null || featureData.length != featureSize) {
+			throw new IllegalArgumentException("Invalid face feature data length, expected " + featureSize);
+		}
+		append(TYPE_PUT, userId, featureData);
+	}
+
+	@Override
+	public synchronized void delete(String userId) {
+		append(TYPE_DELETE, userId, null);
+	}
+
+	@Override
+	public long replay(long fromRecord, RecordVisitor visitor) {
+		long end = count();
+		byte[] userIdBytes = new byte[userIdSize];
+		ByteBuffer buffer = null;
+		int segmentIndex = -1;
+		for (long record = Math.max(0, fromRecord); record < end; record++) {
+			int index = (int) (record / recordsPerSegment);
+			if (index != segmentIndex) {
+				buffer = segment(index).duplicate();
+				segmentIndex = index;
+			}
+			int offset = (int) (record % recordsPerSegment) * recordSize;
+			buffer.position(offset);
+			byte type = buffer.get();
+			int length = buffer.getShort() & 0xFFFF;
+			buffer.get(userIdBytes, 0, userIdSize);
+			String userId = new String(userIdBytes, 0, length, StandardCharsets.UTF_8);
+			if (type == TYPE_PUT) {
+				byte[] featureData = new byte[featureSize];
+				buffer.get(featureData);
+				visitor.put(userId, featureData);
+			} else if (type == TYPE_DELETE) {
+				visitor.delete(userId);
+			}
+		}
+		return end;
+	}
+
+	@Override
+	public synchronized long count() {
+		return readOnly ? header.getLong(COUNT_OFFSET) : count;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/*
+	 * 压缩日志：仅保留每个用户最后一次入库的记录，写入新的存储文件
+	 */
+	public synchronized void compactTo(File target, FaceFeatureStoreProperties properties) throws IOException {
+		final Map<String, Long> latest = new LinkedHashMap<String, Long>();
+		final long[] position = new long[1];
+		replay(0, new RecordVisitor() {
+
+			@Override
+			public void put(String userId, byte[] featureData) {
+				latest.remove(userId);
+				latest.put(userId, position[0]++);
+			}
+
+			@Override
+			public void delete(String userId) {
+				latest.remove(userId);
+				position[0]++;
+			}
+
+		});
+		FaceFeatureStoreProperties targetProperties = new FaceFeatureStoreProperties();
+		targetProperties.setFeatureSize(featureSize);
+		targetProperties.setUserIdMaxBytes(userIdSize);
+		targetProperties.setRecordsPerSegment(properties.getRecordsPerSegment());
+		try (MappedFaceFeatureStore compacted = new MappedFaceFeatureStore(target, targetProperties)) {
+			byte[] featureData = new byte[featureSize];
+			for (Map.Entry<String, Long> entry : latest.entrySet()) {
+				long record = entry.getValue();
+				ByteBuffer buffer = segment((int) (record / recordsPerSegment)).duplicate();
+				buffer.position((int) (record % recordsPerSegment) * recordSize + 3 + userIdSize);
+				buffer.get(featureData);
+				compacted.put(entry.getKey(), featureData);
+			}
+			compacted.force();
+		}
+	}
+
+	@Override
+	public synchronized void force() {
+		if (!readOnly) {
+			for (MappedByteBuffer segment : segments) {
+				if (segment != null) {
+					segment.force();
+				}
+			}
+			header.force();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		force();
+		if (fileLock != null && fileLock.isValid()) {
+			fileLock.release();
+		}
+		channel.close();
+		randomAccessFile.close();
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	private void append(byte type, String userId, byte[] featureData) {
+		if (readOnly) {
+			throw new IllegalStateException("Face feature store is read only : " + file);
+		}
+		byte[] userIdBytes = userId.getBytes(StandardCharsets.UTF_8);
+		if (userIdBytes.length > userIdSize) {
+			throw new IllegalArgumentException("userId exceeds " + userIdSize + " bytes : " + userId);
+		}
+		MappedByteBuffer segment = segment((int) (count / recordsPerSegment));
+		ByteBuffer buffer = segment.duplicate();
+		int offset = (int) (count % recordsPerSegment) * recordSize;
+		buffer.position(offset);
+		buffer.put(type);
+		buffer.putShort((short) userIdBytes.length);
+		buffer.put(userIdBytes);
+		if (featureData != null) {
+			buffer.position(offset + 3 + userIdSize);
+			buffer.put(featureData);
+		}
+		// 记录写完后再提交记录数
+		header.putLong(COUNT_OFFSET, ++count);
+		if (syncOnWrite) {
+			segment.force();
+			header.force();
+		}
+	}
+
+	/*
+	 * 校验记录布局：userId 长度以无符号 short 写入，单个映射段不能超过 2GB
+	 */
+	private static void checkLayout(int featureSize, int userIdSize, int recordsPerSegment) {
+		if (featureSize <= 0) {
+			throw new IllegalArgumentException("featureSize must be positive : " + featureSize);
+		}
+		if (userIdSize <= 0 || userIdSize > MAX_USER_ID_SIZE) {
+			throw new IllegalArgumentException(
+					"userIdMaxBytes must be between 1 and " + MAX_USER_ID_SIZE + " : " + userIdSize);
+		}
+		if (recordsPerSegment <= 0) {
+			throw new IllegalArgumentException("recordsPerSegment must be positive : " + recordsPerSegment);
+		}
+		long segmentSize = (long) recordsPerSegment * (3 + userIdSize + featureSize);
+		if (segmentSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Segment size " + segmentSize + " exceeds " + Integer.MAX_VALUE
+					+ " bytes, reduce recordsPerSegment : " + recordsPerSegment);
+		}
+	}
+
+	private static FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			// 同一 JVM 内已有写入方
+			return null;
+		}
+	}
+
+	private synchronized MappedByteBuffer segment(int index) {
+		while (segments.size() <= index) {
+			segments.add(null);
+		}
+		MappedByteBuffer segment = segments.get(index);
+		try {
+			long start = HEADER_SIZE + (long) index * recordsPerSegment * recordSize;
+			long fullSize = (long) recordsPerSegment * recordSize;
+			if (readOnly) {
+				// 只读方按当前文件大小映射，写入方扩展文件后重新映射
+				long size = Math.min(fullSize, channel.size() - start);
+				if (segment == null || segment.capacity() < size) {
+					segment = channel.map(MapMode.READ_ONLY, start, size);
+					segments.set(index, segment);
+				}
+			} else if (segment == null) {
+				segment = channel.map(MapMode.READ_WRITE, start, fullSize);
+				segments.set(index, segment);
+			}
+			return segment;
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to map face feature store segment " + index + " : " + file, e);
+		}
+	}
+
+}
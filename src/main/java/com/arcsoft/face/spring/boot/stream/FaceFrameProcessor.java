@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.stream;
+
+import java.util.List;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.result.ArcFaceResult;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 视频流会话使用的检测阶段，由模板提供实现；会话只负责跟踪人脸并决定哪些人脸需要重新处理
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public interface FaceFrameProcessor {
+
+	/*
+	 * 会话引擎创建后调用一次，例如设置活体阈值
+	 */
+	void prepare(FaceRecognitionEngine faceEngine);
+
+	/*
+	 * 送入引擎前的图像预处理（例如按 max-long-edge 缩小），检测与属性处理均使用返回的图像
+	 */
+	default ImageInfo prepareFrame(ImageInfo frame) {
+		return frame;
+	}
+
+	/*
+	 * 预处理后图像上的人脸信息换算为原帧坐标
+	 */
+	default FaceInfo toSource(ImageInfo image, FaceInfo faceInfo) {
+		return faceInfo;
+	}
+
+	/*
+	 * 检测一帧中的人脸，失败或未检测到人脸时在结果中记录错误并返回 null
+	 */
+	List<FaceInfo> detect(FaceRecognitionEngine faceEngine, ImageInfo frame, ArcFaceResult result);
+
+	/*
+	 * 对给定人脸进行属性检测及特征提取，失败时在结果中记录错误并返回 null；返回的人脸可能少于输入（例如按角度过滤）
+	 */
+	List<FaceResult> process(FaceRecognitionEngine faceEngine, ImageInfo frame, List<FaceInfo> faceInfos, ArcFaceResult result);
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.stream;
+
+/**
+ * 视频流会话配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceStreamProperties {
+
+	/**
+	 * 是否启用视频流会话；每个会话独占一个以 VIDEO 模式初始化的引擎，不占用对象池中的引擎
+	 */
+	private boolean enabled = false;
+	/**
+	 * 同时打开的最大会话数（即视频模式引擎数），0 表示不限制
+	 */
+	private int maxSessions = 4;
+	/**
+	 * 已跟踪的人脸框面积达到此前最佳面积的多少倍时重新检测属性并提取特征
+	 */
+	private float qualityGain = 1.2f;
+	/**
+	 * 跟踪的人脸连续多少帧未出现后丢弃其缓存的特征
+	 */
+	private int maxMissedFrames = 5;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxSessions() {
+		return maxSessions;
+	}
+
+	public void setMaxSessions(int maxSessions) {
+		this.maxSessions = maxSessions;
+	}
+
+	public float getQualityGain() {
+		return qualityGain;
+	}
+
+	public void setQualityGain(float qualityGain) {
+		this.qualityGain = qualityGain;
+	}
+
+	public int getMaxMissedFrames() {
+		return maxMissedFrames;
+	}
+
+	public void setMaxMissedFrames(int maxMissedFrames) {
+		this.maxMissedFrames = maxMissedFrames;
+	}
+
+}
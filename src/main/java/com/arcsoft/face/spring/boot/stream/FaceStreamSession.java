@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.stream;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 视频流会话：绑定一个以 VIDEO 模式初始化的引擎，按帧顺序检测人脸，并利用引擎返回的 faceId 跨帧跟踪人脸。
+ * 只有新出现的人脸或人脸框明显变大（质量提升）时才重新进行属性检测与特征提取，其余帧复用缓存的结果，
+ * 只更新人脸位置。
+ * <p>
+ * 一个会话对应一路视频流，帧应按时间顺序提交；使用完毕后必须关闭以释放引擎。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceStreamSession implements Closeable {
+
+	private final FaceRecognitionEngine faceEngine;
+	private final FaceFrameProcessor processor;
+	private final FaceStreamProperties properties;
+	private final Consumer<FaceStreamSession> onClose;
+	private final Map<Integer, Track> tracks = new HashMap<Integer, Track>();
+	private long frames;
+	private long refreshes;
+	private long reuses;
+	private boolean closed;
+
+	FaceStreamSession(FaceRecognitionEngine faceEngine, FaceFrameProcessor processor, FaceStreamProperties properties,
+			Consumer<FaceStreamSession> onClose) {
+		this.faceEngine = faceEngine;
+		this.processor = processor;
+		this.properties = properties;
+		this.onClose = onClose;
+	}
+
+	/*
+	 * 处理一帧图像
+	 *
+	 * @param frame 视频帧
+	 * @return 当前帧中被跟踪的人脸，位置取自当前帧，属性与特征取自该人脸质量最好的一次处理
+	 */
+	public synchronized DetectResult process(ImageInfo frame) {
+		if (closed) {
+			throw new IllegalStateException("Face stream session is closed");
+		}
+		frames++;
+		try {
+			return this.doProcess(processor.prepareFrame(frame));
+		} finally {
+			// 出错的帧同样计入丢失帧数
+			this.expireTracks();
+		}
+	}
+
+	private DetectResult doProcess(ImageInfo image) {
+		DetectResult result = new DetectResult();
+		List<FaceInfo> faceInfos = processor.detect(faceEngine, image, result);
+		if (faceInfos == null) {
+			return result;
+		}
+
+		// 新出现或质量提升的人脸需要重新处理
+		List<FaceInfo> refresh = new ArrayList<FaceInfo>(faceInfos.size());
+		for (FaceInfo faceInfo : faceInfos) {
+			Track track = tracks.get(faceInfo.getFaceId());
+			if (track == null || quality(faceInfo) >= track.quality * properties.getQualityGain()) {
+				refresh.add(faceInfo);
+			}
+		}
+		if (!refresh.isEmpty()) {
+			List<FaceResult> processed = processor.process(faceEngine, image, refresh, result);
+			if (processed == null) {
+				return result;
+			}
+			Map<Integer, FaceInfo> refreshed = new HashMap<Integer, FaceInfo>(refresh.size() * 2);
+			for (FaceInfo faceInfo : refresh) {
+				refreshed.put(faceInfo.getFaceId(), faceInfo);
+			}
+			for (FaceResult face : processed) {
+				tracks.put(face.getFaceId(), new Track(face, quality(refreshed.get(face.getFaceId()))));
+			}
+			refreshes += processed.size();
+		}
+
+		// 当前帧的人脸结果：位置取自当前帧
+		List<FaceResult> faces = new ArrayList<FaceResult>(faceInfos.size());
+		for (FaceInfo faceInfo : faceInfos) {
+			Track track = tracks.get(faceInfo.getFaceId());
+			if (track == null) {
+				// 未通过人脸选择，下一帧重新尝试
+				continue;
+			}
+			if (track.lastFrame == frames) {
+				faces.add(track.face);
+			} else {
+				faces.add(track.moveTo(processor.toSource(image, faceInfo)));
+				reuses++;
+			}
+			track.lastFrame = frames;
+		}
+		result.setFaces(faces);
+		return result;
+	}
+
+	/*
+	 * 清除全部跟踪的人脸，例如切换场景之后
+	 */
+	public synchronized void reset() {
+		tracks.clear();
+	}
+
+	public synchronized int getTrackCount() {
+		return tracks.size();
+	}
+
+	/*
+	 * 已处理的帧数
+	 */
+	public synchronized long getFrames() {
+		return frames;
+	}
+
+	/*
+	 * 进行了属性检测与特征提取的人脸数
+	 */
+	public synchronized long getRefreshes() {
+		return refreshes;
+	}
+
+	/*
+	 * 复用缓存结果的人脸数
+	 */
+	public synchronized long getReuses() {
+		return reuses;
+	}
+
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			tracks.clear();
+		}
+		onClose.accept(this);
+	}
+
+	FaceRecognitionEngine getFaceEngine() {
+		return faceEngine;
+	}
+
+	private void expireTracks() {
+		Iterator<Track> iterator = tracks.values().iterator();
+		while (iterator.hasNext()) {
+			Track track = iterator.next();
+			if (frames - track.lastFrame > properties.getMaxMissedFrames()) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/*
+	 * 人脸质量：以人脸框面积衡量
+	 */
+	private static long quality(FaceInfo faceInfo) {
+		Rect rect = faceInfo.getRect();
+		return (long) (rect.getRight() - rect.getLeft()) * (rect.getBottom() - rect.getTop());
+	}
+
+	private final class Track {
+
+		private final FaceResult face;
+		private final long quality;
+		private long lastFrame;
+
+		Track(FaceResult face, long quality) {
+			this.face = face;
+			this.quality = quality;
+			this.lastFrame = frames;
+		}
+
+		/*
+		 * 复制缓存的属性与特征，位置更新为当前帧
+		 */
+		FaceResult moveTo(FaceInfo faceInfo) {
+			FaceResult moved = new FaceResult(faceInfo);
+			moved.setGender(face.getGender());
+			moved.setAge(face.getAge());
+			moved.setLiveness(face.getLiveness());
+			moved.setYaw(face.getYaw());
+			moved.setRoll(face.getRoll());
+			moved.setPitch(face.getPitch());
+			moved.setAngleStatus(face.getAngleStatus());
+			moved.setFeature(face.getFeature());
+			return moved;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.stream;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arcsoft.face.EngineConfiguration;
+import com.arcsoft.face.enums.DetectMode;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+
+/**
+ * 视频流会话管理：为每个会话创建一个以 VIDEO 模式初始化的引擎，会话关闭时释放引擎，并限制同时打开的会话数
+ * <p>
+ * 会话引擎由会话独占，不经过引擎对象池、工作线程与借用引擎时的准入等待，容量只受 max-sessions 限制，
+ * 部署时需按 max-sessions 额外预留引擎数；帧的检测耗时仍计入模板的阶段指标。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceStreamSessions implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FaceStreamSessions.class);
+
+	private final FaceEngineFactory faceEngineFactory;
+	private final ArcFaceRecognitionProperties properties;
+	private final Semaphore permits;
+	private final Set<FaceStreamSession> sessions = ConcurrentHashMap.newKeySet();
+	private volatile boolean closed;
+
+	public FaceStreamSessions(FaceEngineFactory faceEngineFactory, ArcFaceRecognitionProperties properties) {
+		this.faceEngineFactory = faceEngineFactory;
+		this.properties = properties;
+		int maxSessions = properties.getStream().getMaxSessions();
+		this.permits = new Semaphore(maxSessions > 0 ? maxSessions : Integer.MAX_VALUE);
+	}
+
+	/*
+	 * 打开一个会话
+	 *
+	 * @param processor 会话使用的检测阶段
+	 * @return 新的会话，使用完毕后必须关闭
+	 * @throws FaceOverloadedException 会话数已达 max-sessions
+	 */
+	public FaceStreamSession open(FaceFrameProcessor processor) {
+		if (closed) {
+			throw new IllegalStateException("Face stream sessions are closed");
+		}
+		if (!permits.tryAcquire()) {
+			throw new FaceOverloadedException(FaceOverloadedException.Reason.QUEUE_FULL,
+					"Face stream sessions exhausted : " + properties.getStream().getMaxSessions());
+		}
+		FaceRecognitionEngine faceEngine = null;
+		try {
+			faceEngine = faceEngineFactory.create(this.videoConfiguration());
+			processor.prepare(faceEngine);
+			FaceStreamSession session = new FaceStreamSession(faceEngine, processor, properties.getStream(), this::release);
+			sessions.add(session);
+			return session;
+		} catch (RuntimeException e) {
+			if (faceEngine != null) {
+				faceEngine.unInit();
+			}
+			permits.release();
+			throw new IllegalStateException("Failed to open face stream session", e);
+		}
+	}
+
+	/*
+	 * 当前打开的会话数
+	 */
+	public int getActive() {
+		return sessions.size();
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		for (FaceStreamSession session : new ArrayList<FaceStreamSession>(sessions)) {
+			session.close();
+		}
+	}
+
+	/*
+	 * 视频模式的引擎配置，其余参数与主配置一致
+	 */
+	protected EngineConfiguration videoConfiguration() {
+		EngineConfiguration configuration = new EngineConfiguration();
+		configuration.setDetectMode(DetectMode.ASF_DETECT_MODE_VIDEO);
+		configuration.setDetectFaceOrientPriority(properties.getDetectFaceOrientPriority());
+		configuration.setDetectFaceScaleVal(properties.getDetectFaceScaleVal());
+		configuration.setDetectFaceMaxNum(properties.getDetectFaceMaxNum());
+		configuration.setFunctionConfiguration(properties.getFunctionConfiguration());
+		return configuration;
+	}
+
+	private void release(FaceStreamSession session) {
+		if (sessions.remove(session)) {
+			try {
+				session.getFaceEngine().unInit();
+			} catch (RuntimeException e) {
+				LOG.warn("Face stream engine unInit failed", e);
+			} finally {
+				permits.release();
+			}
+		}
+	}
+
+}
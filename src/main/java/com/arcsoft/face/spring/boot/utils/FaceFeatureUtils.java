@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.arcsoft.face.FaceFeature;
+
+/**
+ * 人脸特征数据工具类
+ * <p>
+ * 虹软 3.x 特征数据（{@link FaceFeature#FEATURE_SIZE} = 1032 字节）由 8 字节头部与 256 维小端 float 向量组成，
+ * 纯 Java 比对基于该向量的余弦相似度，需要与 SDK 分值完全一致时请使用 SDK 比对。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public final class FaceFeatureUtils {
+
+	/**
+	 * 特征数据头部长度
+	 */
+	public static final int HEADER_SIZE = 8;
+	/**
+	 * 特征向量默认维度
+	 */
+	public static final int DEFAULT_DIMENSION = (FaceFeature.FEATURE_SIZE - HEADER_SIZE) / 4;
+
+	private FaceFeatureUtils() {
+	}
+
+	/*
+	 * 特征数据对应的向量维度
+	 */
+	public static int dimension(byte[] featureData) {
+		if (featureData == null || featureData.length <= HEADER_SIZE || (featureData.length - HEADER_SIZE) % 4 != 0) {
+			throw new IllegalArgumentException("Invalid face feature data length : "
+					+ (featureData == null ? "null" : String.valueOf(featureData.length)));
+		}
+		return (featureData.length - HEADER_SIZE) / 4;
+	}
+
+	/*
+	 * 特征数据头部
+	 */
+	public static long header(byte[] featureData) {
+		return ByteBuffer.wrap(featureData, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).getLong();
+	}
+
+	/*
+	 * 将特征数据解码为 float 向量
+	 */
+	public static float[] toVector(byte[] featureData) {
+		float[] vector = new float[dimension(featureData)];
+		toVector(featureData, vector, 0);
+		return vector;
+	}
+
+	/*
+	 * 将特征数据解码到指定数组的指定位置
+	 */
+	public static void toVector(byte[] featureData, float[] dest, int offset) {
+		int dimension = dimension(featureData);
+		ByteBuffer buffer = ByteBuffer.wrap(featureData).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < dimension; i++) {
+			dest[offset + i] = buffer.getFloat(HEADER_SIZE + (i << 2));
+		}
+	}
+
+	/*
+	 * 由头部与 float 向量还原特征数据
+	 */
+	public static byte[] toFeatureData(long header, float[] src, int offset, int dimension) {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (dimension << 2)).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putLong(header);
+		for (int i = 0; i < dimension; i++) {
+			buffer.putFloat(src[offset + i]);
+		}
+		return buffer.array();
+	}
+
+	/*
+	 * 向量内积，四路展开以便 JIT 生成向量化指令
+	 */
+	public static float dot(float[] a, int aOffset, float[] b, int bOffset, int dimension) {
+		float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+		int i = 0;
+		for (int bound = dimension & ~3; i < bound; i += 4) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+			s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+			s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+			s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+		}
+		for (; i < dimension; i++) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/*
+	 * 向量模长
+	 */
+	public static float norm(float[] vector, int offset, int dimension) {
+		return (float) Math.sqrt(dot(vector, offset, vector, offset, dimension));
+	}
+
+	/*
+	 * 原地归一化向量，返回原始模长
+	 */
+	public static float normalize(float[] vector, int offset, int dimension) {
+		float norm = norm(vector, offset, dimension);
+		if (norm > 0f) {
+			float inv = 1f / norm;
+			for (int i = 0; i < dimension; i++) {
+				vector[offset + i] *= inv;
+			}
+		}
+		return norm;
+	}
+
+	/*
+	 * 两个特征数据的余弦相似度
+	 */
+	public static float cosine(byte[] a, byte[] b) {
+		float[] va = toVector(a);
+		float[] vb = toVector(b);
+		if (va.length != vb.length) {
+			throw new IllegalArgumentException("Face feature dimension mismatch : " + va.length + " != " + vb.length);
+		}
+		float na = norm(va, 0, va.length);
+		float nb = norm(vb, 0, vb.length);
+		if (na == 0f || nb == 0f) {
+			return 0f;
+		}
+		return dot(va, 0, vb, 0, va.length) / (na * nb);
+	}
+
+}
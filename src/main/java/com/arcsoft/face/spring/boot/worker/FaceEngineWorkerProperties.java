@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.worker;
+
+/**
+ * 引擎工作线程配置
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEngineWorkerProperties {
+
+	/**
+	 * Enable Face Engine Workers，开启后引擎调用由固定的工作线程执行，不再经过对象池借还
+	 */
+	private boolean enabled = false;
+	/**
+	 * 工作线程数（每个线程独占一个引擎），0 表示 CPU 核数
+	 */
+	private int size = 0;
+	/**
+	 * 每个工作线程最多排队的任务数，超出时拒绝
+	 */
+	private int queueCapacity = 1024;
+	/**
+	 * 队列为空时工作线程挂起前的自旋次数，越大唤醒延迟越低、空闲 CPU 占用越高
+	 */
+	private int spinTries = 200;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getSpinTries() {
+		return spinTries;
+	}
+
+	public void setSpinTries(int spinTries) {
+		this.spinTries = spinTries;
+	}
+
+}
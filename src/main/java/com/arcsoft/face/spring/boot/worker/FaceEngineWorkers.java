@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.worker;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arcsoft.face.spring.boot.admission.FaceDeadline;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException.Reason;
+import com.arcsoft.face.spring.boot.engine.FaceEngineCallback;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.metrics.ArcFaceMetrics;
+import com.arcsoft.face.spring.boot.metrics.ArcFaceMetrics.Stage;
+
+/**
+ * 固定工作线程执行引擎调用，替代对象池借还
+ * <p>
+ * 每个工作线程在启动时由自己创建（激活、初始化）一个引擎并独占使用，引擎始终只在该线程上调用；
+ * 请求经无锁队列（{@link ConcurrentLinkedQueue}）投递到排队较短的工作线程（随机两选一），
+ * 调用方等待结果，热点路径上没有对象池的锁、空闲队列与 activateObject 开销。
+ * 工作线程队列为空时先自旋再挂起，投递方只在工作线程挂起时唤醒。
+ * 队列已满或调用方期限（{@link FaceDeadline}）已过时以 {@link FaceOverloadedException} 拒绝，期限已过的排队任务不再执行。
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEngineWorkers implements Closeable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FaceEngineWorkers.class);
+
+	private final PooledObjectFactory<FaceRecognitionEngine> engineFactory;
+	private final FaceEngineWorkerProperties properties;
+	private final Worker[] workers;
+	private final AtomicLong rejected = new AtomicLong();
+	private volatile boolean running;
+	private volatile ArcFaceMetrics metrics = ArcFaceMetrics.NONE;
+
+	public FaceEngineWorkers(PooledObjectFactory<FaceRecognitionEngine> engineFactory, FaceEngineWorkerProperties properties) {
+		this.engineFactory = engineFactory;
+		this.properties = properties;
+		int size = properties.getSize() > 0 ? properties.getSize() : Runtime.getRuntime().availableProcessors();
+		this.workers = new Worker[size];
+	}
+
+	/*
+	 * 启动工作线程，阻塞至所有引擎创建完成
+	 */
+	public synchronized void start() throws InterruptedException {
+		if (running) {
+			return;
+		}
+		running = true;
+		CountDownLatch started = new CountDownLatch(workers.length);
+		for (int index = 0; index < workers.length; index++) {
+			workers[index] = new Worker(index, started);
+			workers[index].start();
+		}
+		started.await();
+		for (Worker worker : workers) {
+			if (worker.engine == null) {
+				this.close();
+				throw new IllegalStateException("Failed to create face engine for worker " + worker.getName());
+			}
+		}
+	}
+
+	/*
+	 * 在某个工作线程上使用其引擎执行操作，并等待结果；工作线程内的嵌套调用直接使用当前引擎
+	 */
+	public <T> T execute(FaceEngineCallback<T> callback) throws Exception {
+		if (this.isCurrentWorker()) {
+			return callback.doWithEngine(((Worker) Thread.currentThread()).engine.getObject());
+		}
+		if (!running) {
+			throw new RejectedExecutionException("Face engine workers are not running");
+		}
+		Task<T> task = new Task<T>(callback, FaceDeadline.current());
+		if (task.isExpired()) {
+			throw new FaceOverloadedException(Reason.DEADLINE, "Deadline exceeded before dispatching to a face engine worker");
+		}
+		Worker worker = this.select();
+		if (!worker.offer(task)) {
+			rejected.incrementAndGet();
+			throw new FaceOverloadedException(Reason.QUEUE_FULL, "Face engine worker queue is full");
+		}
+		if (!running) {
+			// 投递期间已关闭，工作线程可能已不再处理队列
+			worker.revoke(task);
+		}
+		try {
+			if (task.deadline == FaceDeadline.NONE) {
+				return task.get();
+			}
+			try {
+				return task.get(task.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				// 仍在排队的任务由调用方认领后撤销并移出队列，不再占用队列容量；
+				// 工作线程已认领（正在执行）的任务等待其完成，避免原生调用仍在读取调用方数据时返回
+				if (task.claim()) {
+					worker.revoke(task);
+					throw new FaceOverloadedException(Reason.DEADLINE, "Deadline exceeded while waiting for a face engine worker");
+				}
+				return task.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	/*
+	 * 当前线程是否为本组的工作线程
+	 */
+	public boolean isCurrentWorker() {
+		Thread current = Thread.currentThread();
+		return current instanceof Worker && ((Worker) current).owner() == this;
+	}
+
+	/*
+	 * 随机选取两个工作线程，投递到排队较短的一个
+	 */
+	private Worker select() {
+		int size = workers.length;
+		if (size == 1) {
+			return workers[0];
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(size);
+		int second = random.nextInt(size - 1);
+		if (second >= first) {
+			second++;
+		}
+		return workers[first].pending.get() <= workers[second].pending.get() ? workers[first] : workers[second];
+	}
+
+	@Override
+	public synchronized void close() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		for (Worker worker : workers) {
+			if (worker != null) {
+				LockSupport.unpark(worker);
+			}
+		}
+		for (Worker worker : workers) {
+			if (worker != null) {
+				try {
+					worker.join(TimeUnit.SECONDS.toMillis(30));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	public int getSize() {
+		return workers.length;
+	}
+
+	/*
+	 * 所有工作线程排队中的任务数
+	 */
+	public int getPending() {
+		int pending = 0;
+		for (Worker worker : workers) {
+			if (worker != null) {
+				pending += worker.pending.get();
+			}
+		}
+		return pending;
+	}
+
+	/*
+	 * 因队列已满被拒绝的任务数
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public void setMetrics(ArcFaceMetrics metrics) {
+		this.metrics = metrics == null ? ArcFaceMetrics.NONE : metrics;
+	}
+
+	/**
+	 * 投递给工作线程的任务
+	 */
+	private static final class Task<T> extends CompletableFuture<T> {
+
+		private final FaceEngineCallback<T> callback;
+		private final long deadline;
+		private final long submitted = System.nanoTime();
+		/**
+		 * 工作线程开始执行或调用方撤销时认领，二者只有一方成功
+		 */
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		Task(FaceEngineCallback<T> callback, long deadline) {
+			this.callback = callback;
+			this.deadline = deadline;
+		}
+
+		boolean isExpired() {
+			return deadline != FaceDeadline.NONE && deadline - System.nanoTime() <= 0;
+		}
+
+		/*
+		 * 认领任务，返回 false 表示已被另一方认领
+		 */
+		boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		void run(FaceRecognitionEngine faceEngine) {
+			if (!this.claim()) {
+				// 排队期间已被撤销
+				return;
+			}
+			if (this.isExpired()) {
+				this.completeExceptionally(new FaceOverloadedException(Reason.DEADLINE, "Deadline exceeded while queued on a face engine worker"));
+				return;
+			}
+			try {
+				this.complete(callback.doWithEngine(faceEngine));
+			} catch (Throwable e) {
+				this.completeExceptionally(e);
+			}
+		}
+
+	}
+
+	/**
+	 * 独占一个引擎的工作线程
+	 */
+	private final class Worker extends Thread {
+
+		private final ConcurrentLinkedQueue<Task<?>> queue = new ConcurrentLinkedQueue<Task<?>>();
+		private final AtomicInteger pending = new AtomicInteger();
+		private final CountDownLatch started;
+		private volatile boolean parked;
+		private PooledObject<FaceRecognitionEngine> engine;
+
+		Worker(int index, CountDownLatch started) {
+			super("arcface-worker-" + index);
+			this.started = started;
+			this.setDaemon(true);
+		}
+
+		FaceEngineWorkers owner() {
+			return FaceEngineWorkers.this;
+		}
+
+		boolean offer(Task<?> task) {
+			if (pending.incrementAndGet() > properties.getQueueCapacity()) {
+				pending.decrementAndGet();
+				return false;
+			}
+			queue.offer(task);
+			if (parked) {
+				LockSupport.unpark(this);
+			}
+			return true;
+		}
+
+		@Override
+		public void run() {
+			try {
+				// 引擎在工作线程上创建，之后只在该线程上调用
+				PooledObject<FaceRecognitionEngine> created = engineFactory.makeObject();
+				engineFactory.activateObject(created);
+				this.engine = created;
+			} catch (Exception e) {
+				LOG.error("Failed to create face engine for worker {}", getName(), e);
+			} finally {
+				started.countDown();
+			}
+			if (engine == null) {
+				return;
+			}
+			try {
+				this.loop();
+			} finally {
+				this.drain();
+				try {
+					engineFactory.destroyObject(engine);
+				} catch (Exception e) {
+					LOG.warn("Failed to destroy face engine of worker {}", getName(), e);
+				}
+			}
+		}
+
+		private void loop() {
+			FaceRecognitionEngine faceEngine = engine.getObject();
+			int spins = 0;
+			while (running) {
+				Task<?> task = queue.poll();
+				if (task == null) {
+					if (spins++ < properties.getSpinTries()) {
+						Thread.yield();
+						continue;
+					}
+					// 先声明挂起再检查队列，投递方看到挂起标记时负责唤醒
+					parked = true;
+					if (queue.isEmpty() && running) {
+						LockSupport.park(this);
+					}
+					parked = false;
+					spins = 0;
+					continue;
+				}
+				spins = 0;
+				pending.decrementAndGet();
+				metrics.record(Stage.BORROW, System.nanoTime() - task.submitted);
+				task.run(faceEngine);
+			}
+		}
+
+		void revoke(Task<?> task) {
+			if (queue.remove(task)) {
+				pending.decrementAndGet();
+				task.completeExceptionally(new RejectedExecutionException("Face engine workers are shut down"));
+			}
+		}
+
+		private void drain() {
+			Task<?> task;
+			while ((task = queue.poll()) != null) {
+				pending.decrementAndGet();
+				task.completeExceptionally(new RejectedExecutionException("Face engine workers are shut down"));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.enums.ErrorInfo;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.spring.boot.cache.FaceFeatureCache;
+import com.arcsoft.face.spring.boot.cache.FaceFeatureCacheProperties;
+import com.arcsoft.face.spring.boot.compare.CosineFeatureComparator;
+import com.arcsoft.face.spring.boot.compare.FaceCompareProperties;
+import com.arcsoft.face.spring.boot.compare.FaceFeatureLayoutVerifier;
+import com.arcsoft.face.spring.boot.decode.FaceImageDecoder;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.engine.SyntheticEngineProperties;
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfile;
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfiles;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+import com.arcsoft.face.spring.boot.pool2.FaceLivenessPools;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.result.ArcFaceResult;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+import com.arcsoft.face.spring.boot.result.MatchResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 基于合成引擎的模板行为测试，不依赖 ArcSoft 本地库
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ArcFaceRecognitionTemplateTest {
+
+	private static final int FACE_NUM = 2;
+	private static final int GALLERY_SIZE = 200;
+
+	private ArcFaceRecognitionProperties properties;
+	private FaceRecognitionEnginePool pool;
+	private ArcFaceRecognitionTemplate template;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		properties = new ArcFaceRecognitionProperties();
+		properties.getEngine().setType(FaceEngineProperties.Type.SYNTHETIC);
+		SyntheticEngineProperties synthetic = properties.getEngine().getSynthetic();
+		synthetic.setFaceNum(FACE_NUM);
+		synthetic.setDetectLatency(Duration.ZERO);
+		synthetic.setProcessLatency(Duration.ZERO);
+		synthetic.setExtractLatency(Duration.ZERO);
+		synthetic.setCompareLatency(Duration.ZERO);
+		FunctionConfiguration functions = properties.getFunctionConfiguration();
+		functions.setSupportFaceDetect(true);
+		functions.setSupportFaceRecognition(true);
+		functions.setSupportLiveness(true);
+		properties.getPool2().setMaxTotal(1);
+		properties.getGallery().setEnabled(true);
+		pool = new FaceRecognitionEnginePool(new FaceEngineFactory(properties), properties.getPool2());
+		template = new ArcFaceRecognitionTemplate(properties, pool);
+		FaceGallery faceGallery = new FaceGallery(properties.getGallery());
+		for (int index = 0; index < GALLERY_SIZE; index++) {
+			faceGallery.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+		}
+		template.setFaceGallery(faceGallery);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		template.getFaceGallery().close();
+		pool.close();
+	}
+
+	@Test
+	public void detectFacesReturnsEveryFace() {
+		DetectResult result = template.detectFaces(image());
+		assertTrue(result.isSuccess());
+		assertEquals(FACE_NUM, result.getFaces().size());
+	}
+
+	@Test
+	public void detectOptionsLimitAttributes() {
+		DetectResult all = template.detectFaces(image(), template.options(FaceLiveness.LOW));
+		assertTrue(all.isSuccess());
+		assertNotEquals(-1, all.getFaces().get(0).getLiveness());
+
+		DetectResult featureOnly = template.detectFaces(image(),
+				template.options(FaceLiveness.LOW).withAttributes(FaceAttribute.FEATURE));
+		assertTrue(featureOnly.isSuccess());
+		assertEquals(FACE_NUM, featureOnly.getFaces().size());
+		assertEquals(-1, featureOnly.getFaces().get(0).getLiveness());
+		assertNotNull(featureOnly.getFaces().get(0).getFeature());
+	}
+
+	@Test
+	public void detectJsonProjectsTypedResult() {
+		DetectResult typed = template.detectFaces(image(), FaceLiveness.LOW);
+		JSONObject json = template.detect(image(), FaceLiveness.LOW);
+		assertEquals(0, json.getIntValue("error_code"));
+		assertEquals(typed.getFaceNum(), json.getIntValue("face_num"));
+		JSONArray faces = json.getJSONArray("face_list");
+		assertEquals(typed.getFaces().size(), faces.size());
+		for (int index = 0; index < faces.size(); index++) {
+			FaceResult expected = typed.getFaces().get(index);
+			JSONObject face = faces.getJSONObject(index);
+			JSONObject location = face.getJSONObject("location");
+			assertEquals(expected.getLeft(), location.getIntValue("left"));
+			assertEquals(expected.getTop(), location.getIntValue("top"));
+			assertEquals(expected.getRight(), location.getIntValue("right"));
+			assertEquals(expected.getBottom(), location.getIntValue("bottom"));
+			assertEquals(expected.getAge(), face.getIntValue("age"));
+			assertEquals(expected.getGender(), face.getIntValue("gender"));
+			assertEquals(expected.getLiveness(), face.getIntValue("liveness"));
+			assertEquals(expected.getYaw(), face.getJSONObject("angel").getFloatValue("yaw"));
+			assertEquals(Base64.getEncoder().encodeToString(expected.getFeature()), face.getString("feature"));
+		}
+
+		DetectResult typedError = template.detectFaces(invalidImage(), FaceLiveness.LOW);
+		JSONObject jsonError = template.detect(invalidImage(), FaceLiveness.LOW);
+		assertFalse(typedError.isSuccess());
+		assertEquals(typedError.getErrorCode(), jsonError.getIntValue("error_code"));
+		assertEquals(typedError.getErrorMsg(), jsonError.getString("error_msg"));
+	}
+
+	@Test
+	public void matchJsonProjectsTypedResult() {
+		MatchResult typed = template.matchFaces(image(), image(), FaceLiveness.NONE);
+		JSONObject json = template.match(image(), image(), FaceLiveness.NONE);
+		assertEquals(0, json.getIntValue("error_code"));
+		assertEquals(typed.getScore(), json.getFloatValue("score"));
+		assertEquals(typed.getFaces().size(), json.getJSONArray("face_list").size());
+	}
+
+	@Test
+	public void matchFacesOfSameImageScoresOne() {
+		MatchResult result = template.matchFaces(image(), image(), FaceLiveness.NONE);
+		assertTrue(result.isSuccess());
+		assertEquals(1f, result.getScore(), 1e-3f);
+	}
+
+	@Test
+	public void engineScorerAgreesWithCosine() {
+		byte[] feature1 = SyntheticFaceRecognitionEngine.feature(1);
+		byte[] feature2 = SyntheticFaceRecognitionEngine.feature(2);
+		assertEquals(CosineFeatureComparator.INSTANCE.compare(feature1, feature2),
+				template.compare(feature1, feature2), 1e-3f);
+		assertDoesNotThrow(() -> new FaceFeatureLayoutVerifier(template.getFaceGallery(), template::compareFeatures).verify());
+	}
+
+	@Test
+	public void javaScorerAgreesWithEngineScores() {
+		byte[] probe = SyntheticFaceRecognitionEngine.feature(17);
+		List<byte[]> candidates = new ArrayList<byte[]>();
+		for (int index = 0; index < 50; index++) {
+			candidates.add(SyntheticFaceRecognitionEngine.feature(index));
+		}
+		float[] engine = template.compareFeatures(probe, candidates);
+		float[][] engineMatrix = template.scoreMatrix(Collections.singletonList(probe), candidates);
+
+		properties.getCompare().setScorer(FaceCompareProperties.Scorer.JAVA);
+		float[] java = template.compareMany(probe, candidates);
+		float[][] javaMatrix = template.scoreMatrix(Collections.singletonList(probe), candidates);
+		assertEquals(candidates.size(), java.length);
+		for (int index = 0; index < java.length; index++) {
+			// 引擎分值不小于 0，余弦可能为负
+			assertEquals(engine[index], Math.max(0f, java[index]), 1e-3f);
+			assertEquals(engineMatrix[0][index], Math.max(0f, javaMatrix[0][index]), 1e-3f);
+		}
+		assertEquals(1f, java[17], 1e-3f);
+		assertEquals(template.compare(probe, candidates.get(3)), java[3], 1e-6f);
+	}
+
+	@Test
+	public void identifyFeatureFindsEnrolledUser() {
+		MatchResult result = template.identifyFeature(SyntheticFaceRecognitionEngine.feature(17), 3);
+		assertTrue(result.isSuccess());
+		assertFalse(result.getUsers().isEmpty());
+		assertEquals("user-17", result.getUsers().get(0).getUserId());
+	}
+
+	@Test
+	public void identifyFeatureRejectsInvalidTopK() {
+		MatchResult result = template.identifyFeature(SyntheticFaceRecognitionEngine.feature(17), 0);
+		assertEquals(ErrorInfo.MERR_INVALID_PARAM.getValue(), result.getErrorCode());
+	}
+
+	@Test
+	public void featureCacheHitSkipsEngine() throws IOException {
+		FaceFeatureCache cache = new FaceFeatureCache(new FaceFeatureCacheProperties());
+		template.setFeatureCache(cache);
+		byte[] encoded = png();
+
+		assertTrue(template.identifyFaces(encoded, 1).isSuccess());
+		long borrowed = pool.getBorrowedCount();
+		assertEquals(1L, cache.size());
+		assertEquals(0L, cache.getStats().hitCount());
+
+		// 命中缓存时不再借出引擎，结果中的人脸框取自缓存
+		MatchResult hit = template.identifyFaces(encoded, 1);
+		assertTrue(hit.isSuccess());
+		assertEquals(1, hit.getFaces().size());
+		assertEquals(borrowed, pool.getBorrowedCount());
+		assertEquals(1L, cache.getStats().hitCount());
+
+		// 同一张图片按 IR 处理时使用独立的缓存键
+		assertNotEquals(cache.key(encoded, false), cache.key(encoded, true));
+
+		// 失效后重新检测并提取特征
+		cache.invalidateAll();
+		assertEquals(0L, cache.size());
+		assertTrue(template.identifyFaces(encoded, 1).isSuccess());
+		assertEquals(borrowed + 1, pool.getBorrowedCount());
+		assertEquals(1L, cache.size());
+	}
+
+	@Test
+	public void livenessParamIsSetOncePerThreshold() throws Exception {
+		for (int index = 0; index < 3; index++) {
+			assertTrue(template.detectFaces(image(), FaceLiveness.LOW).isSuccess());
+		}
+		assertEquals(1L, livenessParamUpdates(pool));
+		assertTrue(template.verifyFaces(image(), FaceLiveness.HIGH).isSuccess());
+		assertTrue(template.detectAll(Arrays.asList(image(), image()), FaceLiveness.HIGH).get(1).isSuccess());
+		assertEquals(2L, livenessParamUpdates(pool));
+		// none 不修改引擎当前的阈值
+		assertTrue(template.detectFaces(image(), FaceLiveness.NONE).isSuccess());
+		assertEquals(2L, livenessParamUpdates(pool));
+	}
+
+	@Test
+	public void livenessProfilesRouteToSubPools() throws Exception {
+		FaceEngineFactory factory = new FaceEngineFactory(properties);
+		template.setLivenessProfiles(new FaceLivenessProfiles(
+				Collections.singletonMap("strict", new FaceLivenessProfile(null, 0.95f, null))));
+		try (FaceLivenessPools livenessPools = new FaceLivenessPools(factory, properties.getPool2(), properties.getLivenessPools())) {
+			template.setLivenessPools(livenessPools);
+			assertEquals(0.95f, template.getLivenessProfile("strict").getRgbThreshold());
+			assertEquals(0.3f, template.getLivenessProfile("strict").getIrThreshold());
+
+			long borrowed = pool.getBorrowedCount();
+			for (int index = 0; index < 3; index++) {
+				assertTrue(template.detectFaces(image(), template.options("strict")).isSuccess());
+				assertTrue(template.detectFaces(image(), FaceLiveness.NORMAL).isSuccess());
+			}
+			// 每个活体配置使用独立的子池，子池中的引擎只设置一次阈值；主对象池未被使用
+			assertEquals(borrowed, pool.getBorrowedCount());
+			assertEquals(2, livenessPools.getPools().size());
+			assertEquals(3L, livenessPools.getPools().get("strict").getBorrowedCount());
+			assertEquals(3L, livenessPools.getPools().get("normal").getBorrowedCount());
+			assertEquals(1L, livenessParamUpdates(livenessPools.getPools().get("strict")));
+			assertEquals(1L, livenessParamUpdates(livenessPools.getPools().get("normal")));
+
+			// none 不使用子池
+			assertTrue(template.detectFaces(image(), FaceLiveness.NONE).isSuccess());
+			assertEquals(borrowed + 1, pool.getBorrowedCount());
+			assertEquals(2, livenessPools.getPools().size());
+		} finally {
+			template.setLivenessPools(null);
+		}
+		assertThrows(IllegalArgumentException.class, () -> template.options("unknown"));
+	}
+
+	@Test
+	public void livenessParamFailureFailsResult() {
+		int failure = ErrorInfo.MERR_INVALID_PARAM.getValue();
+		ArcFaceRecognitionTemplate failing = new ArcFaceRecognitionTemplate(properties, pool) {
+
+			@Override
+			protected int setLivenessParam(FaceRecognitionEngine faceEngine, FaceLivenessProfile profile) {
+				return profile.isNone() ? 0 : failure;
+			}
+
+		};
+		assertEquals(failure, failing.detectFaces(image(), FaceLiveness.HIGH).getErrorCode());
+		assertEquals(failure, failing.verifyFaces(image(), FaceLiveness.HIGH).getErrorCode());
+		assertEquals(failure, failing.matchFaces(image(), image(), FaceLiveness.HIGH).getErrorCode());
+		for (DetectResult result : failing.detectAll(Arrays.asList(image(), image()), FaceLiveness.HIGH)) {
+			assertEquals(failure, result.getErrorCode());
+		}
+		assertTrue(failing.detectFaces(image(), FaceLiveness.NONE).isSuccess());
+	}
+
+	@Test
+	public void batchResultsKeepInputOrder() {
+		properties.getBatch().setChunkSize(3);
+		properties.getBatch().setMaxInFlight(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		template.setBatchExecutor(executor);
+		try {
+			List<ImageInfo> images = new ArrayList<ImageInfo>();
+			for (int index = 0; index < 10; index++) {
+				images.add(index % 4 == 1 ? invalidImage() : image());
+			}
+			List<DetectResult> results = template.detectAll(images);
+			assertEquals(images.size(), results.size());
+			for (int index = 0; index < results.size(); index++) {
+				if (index % 4 == 1) {
+					assertEquals(ErrorInfo.MERR_INVALID_PARAM.getValue(), results.get(index).getErrorCode(), "image " + index);
+				} else {
+					assertTrue(results.get(index).isSuccess(), "image " + index);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void rejectedBatchChunksAreOverloaded() throws Exception {
+		properties.getBatch().setChunkSize(2);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1),
+				new ThreadPoolExecutor.AbortPolicy());
+		CountDownLatch release = new CountDownLatch(1);
+		Runnable blocker = () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		// 占满工作线程与队列
+		executor.execute(blocker);
+		executor.execute(blocker);
+		FaceImageDecoder decoder = new FaceImageDecoder(properties.getDecode());
+		template.setBatchExecutor(executor);
+		template.setImageDecoder(decoder);
+		try {
+			List<DetectResult> results = template.detectAll(Arrays.asList(image(), image(), image()));
+			assertEquals(3, results.size());
+			for (DetectResult result : results) {
+				assertEquals(ArcFaceResult.OVERLOADED, result.getErrorCode());
+			}
+			byte[] encoded = png();
+			results = template.detectAllEncoded(Arrays.asList(encoded, encoded, encoded), FaceLiveness.NONE);
+			assertEquals(3, results.size());
+			for (DetectResult result : results) {
+				assertEquals(ArcFaceResult.OVERLOADED, result.getErrorCode());
+			}
+		} finally {
+			release.countDown();
+			executor.shutdown();
+			decoder.close();
+		}
+	}
+
+	@Test
+	public void abandonedEncodedChunksReleaseBuffers() throws Exception {
+		properties.getBatch().setChunkSize(1);
+		properties.getBatch().setMaxInFlight(4);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		FaceImageDecoder decoder = new FaceImageDecoder(properties.getDecode());
+		template.setBatchExecutor(executor);
+		template.setImageDecoder(decoder);
+		byte[] encoded = png();
+		try {
+			// 接收者在第一个结果上失败，其余已提交的分块被取消
+			assertThrows(IllegalStateException.class, () -> template.detectAllEncoded(Collections.nCopies(20, encoded).iterator(),
+					FaceLiveness.NONE, result -> {
+						throw new IllegalStateException("consumer failed");
+					}));
+		} finally {
+			decoder.close();
+			assertTrue(decoder.getExecutor().awaitTermination(10, TimeUnit.SECONDS));
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		}
+		assertEquals(0L, decoder.getLentBytes());
+	}
+
+	private static long livenessParamUpdates(GenericObjectPool<FaceRecognitionEngine> pool) throws Exception {
+		FaceRecognitionEngine engine = pool.borrowObject();
+		try {
+			return ((SyntheticFaceRecognitionEngine) engine).getLivenessParamUpdates();
+		} finally {
+			pool.returnObject(engine);
+		}
+	}
+
+	private static byte[] png() throws IOException {
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_3BYTE_BGR);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", output);
+		return output.toByteArray();
+	}
+
+	private static ImageInfo invalidImage() {
+		ImageInfo imageInfo = image();
+		imageInfo.setWidth(0);
+		return imageInfo;
+	}
+
+	private static ImageInfo image() {
+		ImageInfo imageInfo = new ImageInfo();
+		imageInfo.setImageData(new byte[640 * 480 * 3]);
+		imageInfo.setWidth(640);
+		imageInfo.setHeight(480);
+		imageInfo.setImageFormat(ImageFormat.CP_PAF_BGR24);
+		return imageInfo;
+	}
+
+}
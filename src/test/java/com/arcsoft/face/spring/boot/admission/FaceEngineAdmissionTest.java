@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.admission;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException.Reason;
+
+/**
+ * 准入控制测试：借用超时、调用期限与排队深度限制
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEngineAdmissionTest {
+
+	private FaceAdmissionProperties properties;
+	private FaceEngineAdmission admission;
+	private GenericObjectPool<Object> pool;
+
+	@BeforeEach
+	public void setUp() {
+		properties = new FaceAdmissionProperties();
+		admission = new FaceEngineAdmission(properties);
+		pool = new GenericObjectPool<Object>(new BasePooledObjectFactory<Object>() {
+
+			@Override
+			public Object create() {
+				return new Object();
+			}
+
+			@Override
+			public PooledObject<Object> wrap(Object obj) {
+				return new DefaultPooledObject<Object>(obj);
+			}
+
+		});
+		pool.setMaxTotal(1);
+		pool.setMaxWait(Duration.ofSeconds(5));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Test
+	public void borrowIdleEngine() throws Exception {
+		Object engine = admission.borrow(pool);
+		assertNotNull(engine);
+		assertEquals(0, admission.getWaiting());
+		pool.returnObject(engine);
+	}
+
+	@Test
+	public void exhaustedPoolTimesOut() throws Exception {
+		properties.setMaxWait(Duration.ofMillis(50));
+		Object engine = admission.borrow(pool);
+		FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> admission.borrow(pool));
+		assertEquals(Reason.TIMEOUT, e.getReason());
+		assertEquals(0, admission.getWaiting());
+		pool.returnObject(engine);
+	}
+
+	@Test
+	public void deadlineBoundsWait() throws Exception {
+		Object engine = admission.borrow(pool);
+		long started = System.nanoTime();
+		try (FaceDeadline.Scope scope = FaceDeadline.within(Duration.ofMillis(50))) {
+			// 期限早于对象池的 max-wait，按期限等待
+			FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> admission.borrow(pool));
+			assertEquals(Reason.DEADLINE, e.getReason());
+		}
+		assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(4));
+		pool.returnObject(engine);
+	}
+
+	@Test
+	public void expiredDeadlineIsRejected() {
+		try (FaceDeadline.Scope scope = FaceDeadline.within(Duration.ZERO)) {
+			FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> admission.borrow(pool));
+			assertEquals(Reason.DEADLINE, e.getReason());
+			assertThrows(FaceOverloadedException.class, admission::checkDeadline);
+		}
+		assertEquals(0, pool.getBorrowedCount());
+		assertDoesNotThrow(admission::checkDeadline);
+	}
+
+	@Test
+	public void waitingQueueDepthIsLimited() throws Exception {
+		properties.setMaxQueueDepth(1);
+		Object engine = admission.borrow(pool);
+		CompletableFuture<Object> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return admission.borrow(pool);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (admission.getWaiting() == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, admission.getWaiting());
+		FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> admission.borrow(pool));
+		assertEquals(Reason.QUEUE_FULL, e.getReason());
+		// 归还后排队的请求拿到引擎
+		pool.returnObject(engine);
+		pool.returnObject(waiting.get(5, TimeUnit.SECONDS));
+		assertEquals(0, admission.getWaiting());
+	}
+
+	@Test
+	public void workerQueueDepthIsLimited() {
+		admission.checkQueueDepth(Integer.MAX_VALUE);
+		properties.setMaxQueueDepth(2);
+		admission.checkQueueDepth(1);
+		FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> admission.checkQueueDepth(2));
+		assertEquals(Reason.QUEUE_FULL, e.getReason());
+	}
+
+	@Test
+	public void rejectionsAreCountedByReason() {
+		admission.rejected(Reason.QUEUE_FULL);
+		admission.rejected(Reason.QUEUE_FULL);
+		admission.rejected(Reason.DEADLINE);
+		assertEquals(2, admission.getRejected(Reason.QUEUE_FULL));
+		assertEquals(1, admission.getRejected(Reason.DEADLINE));
+		assertEquals(0, admission.getRejected(Reason.TIMEOUT));
+		assertEquals(3, admission.getRejected());
+	}
+
+	@Test
+	public void nestedDeadlineKeepsEarlier() {
+		assertEquals(FaceDeadline.NONE, FaceDeadline.current());
+		try (FaceDeadline.Scope outer = FaceDeadline.within(Duration.ofMillis(100))) {
+			long deadline = FaceDeadline.current();
+			try (FaceDeadline.Scope inner = FaceDeadline.within(Duration.ofSeconds(10))) {
+				assertEquals(deadline, FaceDeadline.current());
+			}
+			try (FaceDeadline.Scope inner = FaceDeadline.within(Duration.ofMillis(1))) {
+				assertTrue(FaceDeadline.current() - deadline < 0);
+			}
+			assertEquals(deadline, FaceDeadline.current());
+			assertFalse(FaceDeadline.remainingNanos() == FaceDeadline.NONE);
+		}
+		assertEquals(FaceDeadline.NONE, FaceDeadline.current());
+		assertFalse(FaceDeadline.isExpired());
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+
+/**
+ * 异步接口测试：线程与队列都已占满时立即以 {@link FaceOverloadedException} 失败，排队期间被取消的请求不再执行
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ArcFaceRecognitionAsyncTemplateTest {
+
+	private FaceRecognitionEnginePool pool;
+	private ArcFaceRecognitionAsyncTemplate asyncTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		ArcFaceRecognitionProperties properties = new ArcFaceRecognitionProperties();
+		properties.getEngine().setType(FaceEngineProperties.Type.SYNTHETIC);
+		properties.getEngine().getSynthetic().setCompareLatency(Duration.ZERO);
+		properties.getPool2().setMaxTotal(1);
+		pool = new FaceRecognitionEnginePool(new FaceEngineFactory(properties), properties.getPool2());
+		FaceAsyncProperties asyncProperties = new FaceAsyncProperties();
+		asyncProperties.setParallelism(1);
+		asyncProperties.setQueueCapacity(1);
+		asyncTemplate = new ArcFaceRecognitionAsyncTemplate(new ArcFaceRecognitionTemplate(properties, pool), asyncProperties);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		asyncTemplate.close();
+		pool.close();
+	}
+
+	@Test
+	public void fullQueueRejectsImmediately() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Integer> busy = asyncTemplate.submit(template -> {
+			running.countDown();
+			await(release);
+			return 1;
+		});
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+		CompletableFuture<Integer> queued = asyncTemplate.submit(template -> 2);
+		assertEquals(1, asyncTemplate.getQueued());
+
+		CompletableFuture<Integer> rejected = asyncTemplate.submit(template -> 3);
+		assertTrue(rejected.isCompletedExceptionally());
+		ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+		assertTrue(e.getCause() instanceof FaceOverloadedException);
+		assertEquals(FaceOverloadedException.Reason.QUEUE_FULL, ((FaceOverloadedException) e.getCause()).getReason());
+		assertEquals(1L, asyncTemplate.getRejected());
+
+		release.countDown();
+		assertEquals(1, busy.get(10, TimeUnit.SECONDS));
+		assertEquals(2, queued.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void cancelledQueuedCallIsSkipped() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Integer> busy = asyncTemplate.submit(template -> {
+			running.countDown();
+			await(release);
+			return 1;
+		});
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+		AtomicBoolean executed = new AtomicBoolean();
+		CompletableFuture<Integer> queued = asyncTemplate.submit(template -> {
+			executed.set(true);
+			return 2;
+		});
+		assertTrue(queued.cancel(false));
+
+		release.countDown();
+		assertEquals(1, busy.get(10, TimeUnit.SECONDS));
+		// 取消的请求出队后直接返回，随后提交的请求仍可执行
+		assertEquals(3, asyncTemplate.submit(template -> 3).get(10, TimeUnit.SECONDS));
+		assertFalse(executed.get());
+		assertEquals(0L, asyncTemplate.getRejected());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.benchmark;
+
+import java.time.Duration;
+
+import com.arcsoft.face.FunctionConfiguration;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.engine.SyntheticEngineProperties;
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 基准测试公共装配：基于零耗时合成引擎的对象池、模板与人脸库，只衡量 Java 侧开销
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+final class BenchmarkSupport {
+
+	static final int IMAGE_WIDTH = 640;
+	static final int IMAGE_HEIGHT = 480;
+
+	private BenchmarkSupport() {
+	}
+
+	static ArcFaceRecognitionProperties properties(int poolSize, int faceNum) {
+		ArcFaceRecognitionProperties properties = new ArcFaceRecognitionProperties();
+		properties.getEngine().setType(FaceEngineProperties.Type.SYNTHETIC);
+		SyntheticEngineProperties synthetic = properties.getEngine().getSynthetic();
+		synthetic.setFaceNum(faceNum);
+		synthetic.setDetectLatency(Duration.ZERO);
+		synthetic.setProcessLatency(Duration.ZERO);
+		synthetic.setExtractLatency(Duration.ZERO);
+		synthetic.setCompareLatency(Duration.ZERO);
+		// 与 README 中的配置一致，启用全部功能模块
+		FunctionConfiguration functions = properties.getFunctionConfiguration();
+		functions.setSupportFaceDetect(true);
+		functions.setSupportFaceRecognition(true);
+		functions.setSupportAge(true);
+		functions.setSupportGender(true);
+		functions.setSupportFace3dAngle(true);
+		functions.setSupportLiveness(true);
+		functions.setSupportIRLiveness(true);
+		properties.getPool2().setMaxTotal(poolSize);
+		properties.getPool2().setMaxIdle(poolSize);
+		properties.getPool2().setMinIdle(poolSize);
+		properties.getGallery().setEnabled(true);
+		return properties;
+	}
+
+	static FaceRecognitionEnginePool pool(ArcFaceRecognitionProperties properties) throws Exception {
+		FaceRecognitionEnginePool pool = new FaceRecognitionEnginePool(
+				new FaceEngineFactory(properties), properties.getPool2());
+		pool.preparePool();
+		return pool;
+	}
+
+	static ArcFaceRecognitionTemplate template(ArcFaceRecognitionProperties properties, FaceRecognitionEnginePool pool) {
+		return new ArcFaceRecognitionTemplate(properties, pool);
+	}
+
+	static FaceGallery gallery(ArcFaceRecognitionProperties properties, int size) {
+		FaceGallery faceGallery = new FaceGallery(properties.getGallery());
+		for (int index = 0; index < size; index++) {
+			faceGallery.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+		}
+		return faceGallery;
+	}
+
+	static ImageInfo image() {
+		ImageInfo imageInfo = new ImageInfo();
+		imageInfo.setImageData(new byte[IMAGE_WIDTH * IMAGE_HEIGHT * 3]);
+		imageInfo.setWidth(IMAGE_WIDTH);
+		imageInfo.setHeight(IMAGE_HEIGHT);
+		imageInfo.setImageFormat(ImageFormat.CP_PAF_BGR24);
+		return imageInfo;
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+
+/**
+ * 引擎对象池借出、归还开销，包括无竞争与引擎数少于线程数的竞争场景
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaceEnginePoolBenchmark {
+
+	/**
+	 * 池中引擎数
+	 */
+	@Param({ "1", "4" })
+	public int poolSize;
+
+	private FaceRecognitionEnginePool pool;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		ArcFaceRecognitionProperties properties = BenchmarkSupport.properties(poolSize, 1);
+		pool = BenchmarkSupport.pool(properties);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public FaceRecognitionEngine borrowReturn() throws Exception {
+		return borrowAndReturn();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public FaceRecognitionEngine borrowReturnContended() throws Exception {
+		return borrowAndReturn();
+	}
+
+	private FaceRecognitionEngine borrowAndReturn() throws Exception {
+		FaceRecognitionEngine faceEngine = pool.borrowObject();
+		pool.returnObject(faceEngine);
+		return faceEngine;
+	}
+
+}
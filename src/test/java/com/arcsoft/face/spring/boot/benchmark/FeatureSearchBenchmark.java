@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.compare.FaceCompareProperties;
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.result.MatchResult;
+import com.arcsoft.face.spring.boot.shard.FaceShard;
+import com.arcsoft.face.spring.boot.shard.LocalFaceShard;
+import com.arcsoft.face.spring.boot.shard.ShardedFaceGallery;
+
+/**
+ * 特征比对与人脸库检索：一对多比对（引擎 / Java 评分）与 Top-K 检索，encoding=INT8 时人脸库以量化向量检索；
+ * shardedSearch 将同样的人脸分布到 4 个本机分片，对比分片检索与合并的开销
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureSearchBenchmark {
+
+	private static final int SHARDS = 4;
+
+	/**
+	 * 候选特征数 / 人脸库规模
+	 */
+	@Param({ "1000", "10000" })
+	public int size;
+
+	/**
+	 * 比对评分方式
+	 */
+	@Param({ "ENGINE", "JAVA" })
+	public FaceCompareProperties.Scorer scorer;
+
+	/**
+	 * 人脸库向量编码
+	 */
+	@Param({ "FLOAT", "INT8" })
+	public FaceGalleryProperties.Encoding encoding;
+
+	private FaceRecognitionEnginePool pool;
+	private ArcFaceRecognitionTemplate template;
+	private ShardedFaceGallery shardedGallery;
+	private List<byte[]> candidates;
+	private byte[] probe;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		ArcFaceRecognitionProperties properties = BenchmarkSupport.properties(1, 1);
+		properties.getCompare().setScorer(scorer);
+		properties.getGallery().setEncoding(encoding);
+		pool = BenchmarkSupport.pool(properties);
+		template = BenchmarkSupport.template(properties, pool);
+		template.setFaceGallery(BenchmarkSupport.gallery(properties, size));
+		candidates = new ArrayList<byte[]>(size);
+		for (int index = 0; index < size; index++) {
+			candidates.add(SyntheticFaceRecognitionEngine.feature(index));
+		}
+		List<FaceShard> shards = new ArrayList<FaceShard>(SHARDS);
+		for (int index = 0; index < SHARDS; index++) {
+			shards.add(new LocalFaceShard(new FaceGallery(properties.getGallery())));
+		}
+		shardedGallery = new ShardedFaceGallery(shards, properties.getGallery(), properties.getShard());
+		for (int index = 0; index < size; index++) {
+			shardedGallery.enroll("user-" + index, candidates.get(index));
+		}
+		probe = SyntheticFaceRecognitionEngine.feature(size / 2);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getFaceGallery().close();
+		shardedGallery.close();
+		pool.close();
+	}
+
+	@Benchmark
+	public float compare() {
+		return template.compare(probe, candidates.get(0));
+	}
+
+	@Benchmark
+	public float[] compareMany() {
+		return template.compareMany(probe, candidates);
+	}
+
+	@Benchmark
+	public MatchResult identifyFeature() {
+		return template.identifyFeature(probe, 5);
+	}
+
+	@Benchmark
+	public List<FaceMatch> gallerySearch() {
+		return template.getFaceGallery().search(probe, 5, 0f);
+	}
+
+	@Benchmark
+	public List<FaceMatch> shardedSearch() {
+		return shardedGallery.search(probe, 5, 0f);
+	}
+
+}
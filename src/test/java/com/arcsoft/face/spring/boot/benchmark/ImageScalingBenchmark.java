@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.benchmark;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.decode.FaceImageDecoder;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+
+/**
+ * 上传图片分辨率对单次检测耗时的影响：合成引擎按像素数模拟原生检测耗时，
+ * maxLongEdge=0 时整图送入引擎，否则解码阶段先缩小到指定长边
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ImageScalingBenchmark {
+
+	/**
+	 * 上传图片尺寸（宽x高）
+	 */
+	@Param({ "640x480", "4000x3000" })
+	public String imageSize;
+
+	/**
+	 * 送入引擎的图像长边上限，0 表示不缩放
+	 */
+	@Param({ "0", "1280" })
+	public int maxLongEdge;
+
+	/**
+	 * 检测每百万像素的模拟耗时（毫秒）
+	 */
+	@Param({ "10" })
+	public int megapixelMillis;
+
+	private FaceRecognitionEnginePool pool;
+	private FaceImageDecoder decoder;
+	private ArcFaceRecognitionTemplate template;
+	private byte[] imageBytes;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		ArcFaceRecognitionProperties properties = BenchmarkSupport.properties(1, 1);
+		properties.getEngine().getSynthetic().setMegapixelLatency(Duration.ofMillis(megapixelMillis));
+		properties.getDecode().setMaxLongEdge(maxLongEdge);
+		pool = BenchmarkSupport.pool(properties);
+		decoder = new FaceImageDecoder(properties.getDecode());
+		template = BenchmarkSupport.template(properties, pool);
+		template.setImageDecoder(decoder);
+		String[] size = imageSize.split("x");
+		imageBytes = jpeg(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		decoder.close();
+		pool.close();
+	}
+
+	@Benchmark
+	public DetectResult detectFaces() {
+		return template.detectFaces(imageBytes, FaceLiveness.NORMAL);
+	}
+
+	private static byte[] jpeg(int width, int height) throws Exception {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setPaint(new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE));
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", output);
+		return output.toByteArray();
+	}
+
+}
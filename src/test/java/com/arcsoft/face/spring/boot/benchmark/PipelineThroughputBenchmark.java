@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.FaceAttribute;
+import com.arcsoft.face.spring.boot.FaceDetectOptions;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+import com.arcsoft.face.spring.boot.engine.SyntheticEngineProperties;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.worker.FaceEngineWorkers;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 合成引擎模拟原生耗时下的流水线吞吐：请求线程多于引擎数时，对象池排队与 Java 侧开销对吞吐的影响；
+ * workers=true 时改由独占引擎的工作线程执行，对比两种引擎调度方式；attributes=FEATURE 时只检测人脸框与特征，跳过属性处理
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+public class PipelineThroughputBenchmark {
+
+	/**
+	 * 池中引擎数
+	 */
+	@Param({ "2", "4" })
+	public int poolSize;
+
+	/**
+	 * 检测、处理、单个人脸提取各阶段的模拟耗时（微秒）
+	 */
+	@Param({ "200", "1000" })
+	public int stageMicros;
+
+	/**
+	 * 是否使用引擎工作线程代替对象池
+	 */
+	@Param({ "false", "true" })
+	public boolean workers;
+
+	/**
+	 * 需要检测的人脸属性：ALL 全部属性，FEATURE 仅特征
+	 */
+	@Param({ "ALL", "FEATURE" })
+	public String attributes;
+
+	private FaceRecognitionEnginePool pool;
+	private FaceEngineWorkers engineWorkers;
+	private ArcFaceRecognitionTemplate template;
+	private ImageInfo image;
+	private FaceDetectOptions options;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		ArcFaceRecognitionProperties properties = BenchmarkSupport.properties(poolSize, 1);
+		SyntheticEngineProperties synthetic = properties.getEngine().getSynthetic();
+		synthetic.setDetectLatency(Duration.ofNanos(stageMicros * 1000L));
+		synthetic.setProcessLatency(Duration.ofNanos(stageMicros * 1000L));
+		synthetic.setExtractLatency(Duration.ofNanos(stageMicros * 1000L));
+		synthetic.setAllocationBytes(64 * 1024);
+		pool = BenchmarkSupport.pool(properties);
+		template = BenchmarkSupport.template(properties, pool);
+		if (workers) {
+			properties.getWorkers().setSize(poolSize);
+			engineWorkers = new FaceEngineWorkers(new FaceEngineFactory(properties), properties.getWorkers());
+			engineWorkers.start();
+			template.setEngineWorkers(engineWorkers);
+		}
+		image = BenchmarkSupport.image();
+		options = template.options(FaceLiveness.NORMAL);
+		if (!"ALL".equals(attributes)) {
+			options = options.withAttributes(FaceAttribute.FEATURE);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (engineWorkers != null) {
+			engineWorkers.close();
+		}
+		pool.close();
+	}
+
+	@Benchmark
+	public DetectResult detectFaces() {
+		return template.detectFaces(image, options);
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.benchmark;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alibaba.fastjson.JSONObject;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionTemplate;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.MatchResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 模板热点路径的 Java 侧开销：结果构建、JSON 与 Base64 转换、引擎借还、人脸列表处理
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+	/**
+	 * 每张图片检测到的人脸数
+	 */
+	@Param({ "1", "8" })
+	public int faceNum;
+
+	private FaceRecognitionEnginePool pool;
+	private ArcFaceRecognitionTemplate template;
+	private ImageInfo image;
+	private byte[] feature;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		ArcFaceRecognitionProperties properties = BenchmarkSupport.properties(Runtime.getRuntime().availableProcessors(), faceNum);
+		pool = BenchmarkSupport.pool(properties);
+		template = BenchmarkSupport.template(properties, pool);
+		image = BenchmarkSupport.image();
+		feature = SyntheticFaceRecognitionEngine.feature(1L);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	public DetectResult detectFaces() {
+		return template.detectFaces(image);
+	}
+
+	@Benchmark
+	public JSONObject detectJson() {
+		return template.detect(image);
+	}
+
+	@Benchmark
+	public DetectResult verifyFaces() {
+		return template.verifyFaces(image, FaceLiveness.NORMAL);
+	}
+
+	@Benchmark
+	public MatchResult matchFeature() {
+		return template.matchFaces(image, feature, FaceLiveness.NONE);
+	}
+
+	@Benchmark
+	public MatchResult searchFaces() {
+		return template.searchFaces(image, image);
+	}
+
+	@Benchmark
+	public MatchResult searchAllFaces() {
+		return template.searchAllFaces(image, image);
+	}
+
+	@Benchmark
+	public String base64Feature() {
+		return Base64.getEncoder().encodeToString(feature);
+	}
+
+}
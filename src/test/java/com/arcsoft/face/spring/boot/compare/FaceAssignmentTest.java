@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 人脸一一配对测试：与穷举结果对比，覆盖行数多于列数的转置情形与阈值
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceAssignmentTest {
+
+	@Test
+	public void beatsGreedyPairing() {
+		// 贪心会先取 0.9 的 (0,0)，最优解为 (0,1) + (1,0) = 1.6
+		float[][] scores = {
+				{ 0.9f, 0.8f },
+				{ 0.8f, 0.1f } };
+		assertArrayEquals(new int[] { 1, 0 }, FaceAssignment.maximize(scores, 0f));
+	}
+
+	@Test
+	public void moreRowsThanColumns() {
+		float[][] scores = {
+				{ 0.2f, 0.9f },
+				{ 0.7f, 0.6f },
+				{ 0.8f, 0.1f } };
+		assertArrayEquals(new int[] { 1, -1, 0 }, FaceAssignment.maximize(scores, 0f));
+	}
+
+	@Test
+	public void belowThresholdIsUnpaired() {
+		float[][] scores = {
+				{ 0.9f, 0.3f, 0.2f },
+				{ 0.4f, 0.5f, 0.1f } };
+		assertArrayEquals(new int[] { 0, -1 }, FaceAssignment.maximize(scores, 0.6f));
+		assertArrayEquals(new int[] { -1, -1 }, FaceAssignment.maximize(scores, 0.95f));
+	}
+
+	@Test
+	public void emptyMatrix() {
+		assertEquals(0, FaceAssignment.maximize(new float[0][], 0f).length);
+		assertArrayEquals(new int[] { -1, -1 }, FaceAssignment.maximize(new float[2][0], 0f));
+	}
+
+	@Test
+	public void matchesBruteForce() {
+		Random random = new Random(3);
+		for (int iteration = 0; iteration < 2000; iteration++) {
+			int rows = 1 + random.nextInt(6);
+			int columns = 1 + random.nextInt(6);
+			float[][] scores = new float[rows][columns];
+			for (float[] row : scores) {
+				for (int j = 0; j < columns; j++) {
+					row[j] = random.nextFloat();
+				}
+			}
+			float threshold = random.nextFloat() * 0.8f;
+			int[] assignment = FaceAssignment.maximize(scores, threshold);
+			assertEquals(rows, assignment.length);
+			boolean[] used = new boolean[columns];
+			double total = 0d;
+			for (int i = 0; i < rows; i++) {
+				int column = assignment[i];
+				if (column < 0) {
+					continue;
+				}
+				assertTrue(!used[column], "column assigned twice");
+				assertTrue(scores[i][column] >= threshold, "pair below threshold");
+				used[column] = true;
+				total += scores[i][column];
+			}
+			assertEquals(bruteForce(scores, 0, new boolean[columns], threshold), total, 1e-4,
+					"iteration " + iteration + " " + rows + "x" + columns);
+		}
+	}
+
+	/*
+	 * 穷举每一行配对或不配对的全部情形，返回最大总相似值
+	 */
+	private static double bruteForce(float[][] scores, int row, boolean[] used, float threshold) {
+		if (row == scores.length) {
+			return 0d;
+		}
+		double best = bruteForce(scores, row + 1, used, threshold);
+		for (int column = 0; column < used.length; column++) {
+			if (!used[column] && scores[row][column] >= threshold) {
+				used[column] = true;
+				best = Math.max(best, scores[row][column] + bruteForce(scores, row + 1, used, threshold));
+				used[column] = false;
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.compare;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceFeatureComparator;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.shard.FaceShard;
+import com.arcsoft.face.spring.boot.shard.FaceShardProperties;
+import com.arcsoft.face.spring.boot.shard.LocalFaceShard;
+import com.arcsoft.face.spring.boot.shard.ShardedFaceGallery;
+
+/**
+ * 特征布局校验测试：人脸库首次达到两个特征时校验，覆盖单机人脸库与本机分片
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceFeatureLayoutVerifierTest {
+
+	/**
+	 * 与余弦相似度排序相反的比对器，模拟特征布局假定不成立
+	 */
+	private static final FaceFeatureComparator REVERSED = (probe, candidates) -> {
+		float[] scores = CosineFeatureComparator.INSTANCE.compare(probe, candidates);
+		for (int index = 0; index < scores.length; index++) {
+			scores[index] = -scores[index];
+		}
+		return scores;
+	};
+
+	@Test
+	public void verifiesOnSecondEnrollment() {
+		try (FaceGallery gallery = new FaceGallery(galleryProperties())) {
+			// 空人脸库启动时无法校验
+			new FaceFeatureLayoutVerifier(gallery, CosineFeatureComparator.INSTANCE::compare).verify();
+			gallery.enroll("user-0", SyntheticFaceRecognitionEngine.feature(0));
+			assertFalse(gallery.isLayoutVerified());
+			gallery.enroll("user-1", SyntheticFaceRecognitionEngine.feature(1));
+			assertTrue(gallery.isLayoutVerified());
+		}
+	}
+
+	@Test
+	public void mismatchFailsEnrollment() {
+		try (FaceGallery gallery = new FaceGallery(galleryProperties())) {
+			new FaceFeatureLayoutVerifier(gallery, REVERSED).verify();
+			assertDoesNotThrow(() -> gallery.enroll("user-0", SyntheticFaceRecognitionEngine.feature(0)));
+			assertThrows(IllegalStateException.class, () -> gallery.enroll("user-1", SyntheticFaceRecognitionEngine.feature(1)));
+			// 未通过时每次写入都重新校验
+			assertThrows(IllegalStateException.class, () -> gallery.enroll("user-2", SyntheticFaceRecognitionEngine.feature(2)));
+			assertFalse(gallery.isLayoutVerified());
+		}
+	}
+
+	@Test
+	public void mismatchFailsStartupWithExistingFeatures() {
+		try (FaceGallery gallery = new FaceGallery(galleryProperties())) {
+			gallery.enroll("user-0", SyntheticFaceRecognitionEngine.feature(0));
+			gallery.enroll("user-1", SyntheticFaceRecognitionEngine.feature(1));
+			assertThrows(IllegalStateException.class, () -> new FaceFeatureLayoutVerifier(gallery, REVERSED).verify());
+		}
+	}
+
+	@Test
+	public void verifiesEveryLocalShard() {
+		FaceGalleryProperties galleryProperties = galleryProperties();
+		try (ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties, new FaceShardProperties(), null)) {
+			new FaceFeatureLayoutVerifier(galleries(sharded), CosineFeatureComparator.INSTANCE::compare).verify();
+			for (int index = 0; index < 200; index++) {
+				sharded.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+			}
+			for (FaceGallery gallery : galleries(sharded)) {
+				assertTrue(gallery.isLayoutVerified());
+			}
+		}
+		try (ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties, new FaceShardProperties(), null)) {
+			new FaceFeatureLayoutVerifier(galleries(sharded), REVERSED).verify();
+			assertThrows(IllegalStateException.class, () -> {
+				for (int index = 0; index < 200; index++) {
+					sharded.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+				}
+			});
+		}
+	}
+
+	@Test
+	public void skippedWhenDisabled() {
+		FaceGalleryProperties properties = galleryProperties();
+		properties.setVerifyLayout(false);
+		try (FaceGallery gallery = new FaceGallery(properties)) {
+			new FaceFeatureLayoutVerifier(gallery, REVERSED).verify();
+			gallery.enroll("user-0", SyntheticFaceRecognitionEngine.feature(0));
+			assertDoesNotThrow(() -> gallery.enroll("user-1", SyntheticFaceRecognitionEngine.feature(1)));
+		}
+	}
+
+	private static List<FaceGallery> galleries(ShardedFaceGallery sharded) {
+		List<FaceGallery> galleries = new ArrayList<FaceGallery>();
+		for (FaceShard shard : sharded.getShards()) {
+			galleries.add(((LocalFaceShard) shard).getGallery());
+		}
+		return galleries;
+	}
+
+	private static FaceGalleryProperties galleryProperties() {
+		FaceGalleryProperties properties = new FaceGalleryProperties();
+		properties.setEnabled(true);
+		properties.setParallelism(1);
+		return properties;
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.toolkit.ImageFactory;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 图片解码测试：未缩放时解码结果与 SDK 的 {@link ImageFactory} 逐字节一致，并归还像素缓冲区
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceImageDecoderTest {
+
+	private FaceImageDecoder decoder;
+
+	@BeforeEach
+	public void setUp() {
+		decoder = new FaceImageDecoder(new FaceImageDecodeProperties());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		decoder.close();
+	}
+
+	@Test
+	public void pngMatchesImageFactory() throws IOException {
+		// PNG 解码为 TYPE_3BYTE_BGR 以外的类型，走逐像素转换
+		assertMatchesImageFactory(encode(image(BufferedImage.TYPE_INT_RGB), "png"));
+	}
+
+	@Test
+	public void jpegMatchesImageFactory() throws IOException {
+		// JPEG 解码为 TYPE_3BYTE_BGR，走按行复制
+		assertMatchesImageFactory(encode(image(BufferedImage.TYPE_3BYTE_BGR), "jpg"));
+	}
+
+	@Test
+	public void asyncDecodeReleasesBuffer() throws IOException {
+		byte[] encoded = encode(image(BufferedImage.TYPE_3BYTE_BGR), "png");
+		try (DecodedImage decoded = decoder.decodeRGB(encoded).join()) {
+			assertEquals(64 * 48 * 3, decoder.getLentBytes());
+			assertEquals(64, decoded.getImageInfo().getWidth());
+		}
+		assertEquals(0L, decoder.getLentBytes());
+	}
+
+	@Test
+	public void unsupportedBytesAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(new byte[] { 1, 2, 3 }, false));
+	}
+
+	private void assertMatchesImageFactory(byte[] encoded) {
+		ImageInfo expected = ImageFactory.getRGBData(encoded);
+		try (DecodedImage decoded = decoder.decode(encoded, false)) {
+			ImageInfo actual = decoded.getImageInfo();
+			assertEquals(expected.getWidth(), actual.getWidth());
+			assertEquals(expected.getHeight(), actual.getHeight());
+			assertEquals(expected.getImageFormat(), actual.getImageFormat());
+			assertArrayEquals(expected.getImageData(), actual.getImageData());
+		}
+	}
+
+	private static BufferedImage image(int type) {
+		BufferedImage image = new BufferedImage(64, 48, type);
+		SplittableRandom random = new SplittableRandom(7);
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				image.setRGB(x, y, random.nextInt(0x1000000));
+			}
+		}
+		return image;
+	}
+
+	private static byte[] encode(BufferedImage image, String format) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(image, format, output);
+		return output.toByteArray();
+	}
+
+}
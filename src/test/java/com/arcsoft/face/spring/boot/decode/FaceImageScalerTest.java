@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.decode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.enums.ImageFormat;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 图像缩放测试：缩放尺寸、人脸框在缩放图像与原图之间的换算，以及人脸区域裁剪
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceImageScalerTest {
+
+	@Test
+	public void disabledOrSmallImageIsUnchanged() {
+		ImageInfo image = image(1920, 1080, ImageFormat.CP_PAF_BGR24);
+		assertSame(image, new FaceImageScaler(new FaceImageDecodeProperties()).scale(image));
+		ImageInfo small = image(640, 480, ImageFormat.CP_PAF_BGR24);
+		assertSame(small, scaler(640, false).scale(small));
+		ImageInfo unsupported = image(1920, 1080, ImageFormat.CP_PAF_NV21);
+		assertSame(unsupported, scaler(640, false).scale(unsupported));
+	}
+
+	@Test
+	public void scaleToMaxLongEdge() {
+		FaceImageScaler scaler = scaler(640, false);
+		ScaledImageInfo scaled = (ScaledImageInfo) scaler.scale(image(1920, 1080, ImageFormat.CP_PAF_BGR24));
+		assertEquals(640, scaled.getWidth());
+		assertEquals(360, scaled.getHeight());
+		assertEquals(640 * 360 * 3, scaled.getImageData().length);
+		assertEquals(3f, scaled.getScaleX());
+		assertEquals(3f, scaled.getScaleY());
+		assertNull(scaled.getSource());
+		// 已缩放的图像不再缩放
+		assertSame(scaled, scaler.scale(scaled));
+		// 边长向下对齐到 4 像素
+		ScaledImageInfo aligned = (ScaledImageInfo) scaler.scale(image(1000, 701, ImageFormat.CP_PAF_GRAY));
+		assertEquals(640, aligned.getWidth());
+		assertEquals(448, aligned.getHeight());
+		assertEquals(1000f / 640, aligned.getScaleX());
+		assertEquals(701f / 448, aligned.getScaleY());
+	}
+
+	@Test
+	public void uniformImageKeepsPixelValues() {
+		ImageInfo image = image(1280, 960, ImageFormat.CP_PAF_BGR24);
+		Arrays.fill(image.getImageData(), (byte) 77);
+		ImageInfo scaled = scaler(320, false).scale(image);
+		for (byte value : scaled.getImageData()) {
+			assertEquals(77, value);
+		}
+	}
+
+	@Test
+	public void rectMapsBetweenScaledAndSource() {
+		ScaledImageInfo scaled = (ScaledImageInfo) scaler(640, false).scale(image(1920, 1080, ImageFormat.CP_PAF_BGR24));
+		assertRect(new Rect(300, 150, 600, 450), scaled.toSource(new Rect(100, 50, 200, 150)));
+		assertRect(new Rect(100, 50, 200, 150), scaled.fromSource(new Rect(300, 150, 600, 450)));
+		// 超出范围的人脸框限制在图像内
+		assertRect(new Rect(0, 0, 1920, 1080), scaled.toSource(new Rect(-5, -5, 700, 400)));
+		assertRect(new Rect(0, 0, 640, 360), scaled.fromSource(new Rect(-30, -30, 2400, 1200)));
+		FaceInfo faceInfo = new FaceInfo(new Rect(10, 20, 30, 40), 1);
+		faceInfo.setFaceId(7);
+		FaceInfo mapped = scaled.toSource(faceInfo);
+		assertRect(new Rect(30, 60, 90, 120), mapped.getRect());
+		assertEquals(1, mapped.getOrient());
+		assertEquals(7, mapped.getFaceId());
+		// 原人脸信息不被修改
+		assertRect(new Rect(10, 20, 30, 40), faceInfo.getRect());
+	}
+
+	@Test
+	public void cropFaceRegionFromSource() {
+		FaceImageScaler scaler = scaler(640, true);
+		ImageInfo source = image(1920, 1080, ImageFormat.CP_PAF_GRAY);
+		byte[] pixels = source.getImageData();
+		for (int y = 0; y < 1080; y++) {
+			for (int x = 0; x < 1920; x++) {
+				pixels[y * 1920 + x] = (byte) (x * 3 + y * 5);
+			}
+		}
+		ScaledImageInfo scaled = (ScaledImageInfo) scaler.scale(source);
+		assertSame(source, scaled.getSource());
+		// 缩放图像上的人脸框 (100,50)-(200,150) 对应原图 (300,150)-(600,450)，外扩 50% 后对齐
+		ScaledImageInfo crop = scaler.crop(scaled, new FaceInfo(new Rect(100, 50, 200, 150), 1));
+		assertNotNull(crop);
+		assertEquals(148, crop.getOffsetX());
+		assertEquals(0, crop.getOffsetY());
+		assertEquals(600, crop.getWidth());
+		assertEquals(600, crop.getHeight());
+		assertEquals(1f, crop.getScaleX());
+		for (int y = 0; y < crop.getHeight(); y += 37) {
+			for (int x = 0; x < crop.getWidth(); x += 41) {
+				assertEquals(pixels[(y + crop.getOffsetY()) * 1920 + x + crop.getOffsetX()], crop.getImageData()[y * crop.getWidth() + x]);
+			}
+		}
+		// 裁剪图像上的人脸框按偏移换算回原图
+		assertRect(new Rect(300, 150, 600, 450), crop.toSource(new Rect(152, 150, 452, 450)));
+		assertRect(new Rect(152, 150, 452, 450), crop.fromSource(new Rect(300, 150, 600, 450)));
+	}
+
+	@Test
+	public void cropIsSkippedWhenNotApplicable() {
+		// 未保留原图
+		ScaledImageInfo scaled = (ScaledImageInfo) scaler(640, false).scale(image(1920, 1080, ImageFormat.CP_PAF_BGR24));
+		assertNull(scaler(640, false).crop(scaled, new FaceInfo(new Rect(100, 50, 200, 150), 1)));
+		// 人脸在缩放图像中已足够大
+		FaceImageScaler scaler = scaler(640, true);
+		ScaledImageInfo retained = (ScaledImageInfo) scaler.scale(image(1920, 1080, ImageFormat.CP_PAF_BGR24));
+		assertNull(scaler.crop(retained, new FaceInfo(new Rect(100, 20, 400, 340), 1)));
+	}
+
+	private static FaceImageScaler scaler(int maxLongEdge, boolean roiExtract) {
+		FaceImageDecodeProperties properties = new FaceImageDecodeProperties();
+		properties.setMaxLongEdge(maxLongEdge);
+		properties.setRoiExtract(roiExtract);
+		return new FaceImageScaler(properties);
+	}
+
+	private static ImageInfo image(int width, int height, ImageFormat imageFormat) {
+		ImageInfo imageInfo = new ImageInfo();
+		imageInfo.setWidth(width);
+		imageInfo.setHeight(height);
+		imageInfo.setImageFormat(imageFormat);
+		imageInfo.setImageData(new byte[width * height * (imageFormat == ImageFormat.CP_PAF_GRAY ? 1 : 3)]);
+		return imageInfo;
+	}
+
+	private static void assertRect(Rect expected, Rect actual) {
+		assertTrue(expected.getLeft() == actual.getLeft() && expected.getTop() == actual.getTop()
+				&& expected.getRight() == actual.getRight() && expected.getBottom() == actual.getBottom(),
+				"expected " + expected + " but was " + actual);
+	}
+
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.enroll;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * tar 数据源测试：ustar 路径前缀、GNU 长文件名、base-256 大小、PAX 扩展头与损坏归档
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class TarEnrollmentSourceTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void ustarPrefixAndPlainNames() throws IOException {
+		TarBuilder tar = new TarBuilder();
+		tar.entry("a.jpg", image(1, 10));
+		tar.ustar("photos/2023", "b.png", image(2, 600));
+		tar.entry("notes.txt", image(3, 5));
+		tar.directory("photos/");
+		List<FaceImageEntry> entries = read(tar.write(directory.resolve("faces.tar")));
+		assertEquals(Arrays.asList("a.jpg", "photos/2023/b.png"), names(entries));
+		assertArrayEquals(image(1, 10), entries.get(0).getData());
+		assertArrayEquals(image(2, 600), entries.get(1).getData());
+	}
+
+	@Test
+	public void gnuLongName() throws IOException {
+		String longName = repeat("long-directory/", 20) + "face.jpg";
+		TarBuilder tar = new TarBuilder();
+		tar.longName(longName);
+		tar.entry(longName.substring(0, 99), image(1, 700));
+		tar.entry("next.jpg", image(2, 3));
+		List<FaceImageEntry> entries = read(tar.write(directory.resolve("faces.tar")));
+		assertEquals(Arrays.asList(longName, "next.jpg"), names(entries));
+		assertArrayEquals(image(1, 700), entries.get(0).getData());
+	}
+
+	@Test
+	public void base256Size() throws IOException {
+		TarBuilder tar = new TarBuilder();
+		tar.base256("big.jpg", image(1, 1500));
+		tar.entry("after.jpg", image(2, 20));
+		List<FaceImageEntry> entries = read(tar.write(directory.resolve("faces.tar.gz")));
+		assertEquals(Arrays.asList("big.jpg", "after.jpg"), names(entries));
+		assertArrayEquals(image(1, 1500), entries.get(0).getData());
+		assertArrayEquals(image(2, 20), entries.get(1).getData());
+	}
+
+	@Test
+	public void paxPathAndSize() throws IOException {
+		String path = repeat("pax/", 40) + "人脸.jpg";
+		TarBuilder tar = new TarBuilder();
+		tar.pax(pax("path", path) + pax("size", "800"));
+		// 头部中的大小被 PAX size 覆盖
+		tar.header("truncated.jpg", 0, '0', false);
+		tar.data(image(1, 800));
+		tar.entry("next.jpg", image(2, 4));
+		List<FaceImageEntry> entries = read(tar.write(directory.resolve("faces.tar")));
+		assertEquals(Arrays.asList(path, "next.jpg"), names(entries));
+		assertArrayEquals(image(1, 800), entries.get(0).getData());
+	}
+
+	@Test
+	public void oversizedImageIsSkipped() throws IOException {
+		FaceEnrollmentProperties properties = new FaceEnrollmentProperties();
+		properties.setMaxImageBytes(1000);
+		TarBuilder tar = new TarBuilder();
+		tar.base256("big.jpg", image(1, 1500));
+		tar.entry("small.jpg", image(2, 20));
+		List<FaceImageEntry> entries = read(tar.write(directory.resolve("faces.tar")), properties);
+		assertEquals(Arrays.asList("big.jpg", "small.jpg"), names(entries));
+		assertEquals(0, entries.get(0).getData().length);
+		assertArrayEquals(image(2, 20), entries.get(1).getData());
+	}
+
+	@Test
+	public void oversizedLongNameIsRejected() throws IOException {
+		TarBuilder tar = new TarBuilder();
+		tar.longName(repeat("x", TarEnrollmentSource.MAX_LONG_NAME_BYTES + 1));
+		tar.entry("a.jpg", image(1, 10));
+		Path file = tar.write(directory.resolve("faces.tar"));
+		UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> read(file));
+		assertTrue(e.getCause().getMessage().startsWith("GNU long name exceeds"));
+	}
+
+	@Test
+	public void invalidPaxRecordsAreRejected() throws IOException {
+		Map<String, String> records = TarEnrollmentSource.parsePax((pax("path", "a.jpg") + pax("size", "12")).getBytes(StandardCharsets.UTF_8));
+		assertEquals("a.jpg", records.get("path"));
+		assertEquals("12", records.get("size"));
+		assertThrows(IOException.class, () -> TarEnrollmentSource.parsePax("99 path=a.jpg\n".getBytes(StandardCharsets.UTF_8)));
+		assertThrows(IOException.class, () -> TarEnrollmentSource.parsePax("12 path=a.jp\n".getBytes(StandardCharsets.UTF_8)));
+		assertThrows(IOException.class, () -> TarEnrollmentSource.parsePax("9 =a.jpg\n".getBytes(StandardCharsets.UTF_8)));
+		TarBuilder tar = new TarBuilder();
+		tar.pax(pax("size", "-1"));
+		tar.entry("a.jpg", image(1, 10));
+		Path file = tar.write(directory.resolve("faces.tar"));
+		assertThrows(UncheckedIOException.class, () -> read(file));
+	}
+
+	private static List<FaceImageEntry> read(Path file) throws IOException {
+		return read(file, new FaceEnrollmentProperties());
+	}
+
+	private static List<FaceImageEntry> read(Path file, FaceEnrollmentProperties properties) throws IOException {
+		List<FaceImageEntry> entries = new ArrayList<FaceImageEntry>();
+		try (TarEnrollmentSource source = new TarEnrollmentSource(file, properties)) {
+			while (source.hasNext()) {
+				entries.add(source.next());
+			}
+		}
+		return entries;
+	}
+
+	private static List<String> names(List<FaceImageEntry> entries) {
+		List<String> names = new ArrayList<String>(entries.size());
+		for (FaceImageEntry entry : entries) {
+			names.add(entry.getName());
+		}
+		return names;
+	}
+
+	private static byte[] image(int seed, int size) {
+		byte[] data = new byte[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = (byte) (seed * 131 + i * 7);
+		}
+		return data;
+	}
+
+	/*
+	 * PAX 记录 "长度 键=值\n"，长度包含自身
+	 */
+	private static String pax(String key, String value) {
+		int body = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+		int length = body + String.valueOf(body).length();
+		if (String.valueOf(length).length() != String.valueOf(body).length()) {
+			length++;
+		}
+		return length + " " + key + "=" + value + "\n";
+	}
+
+	private static String repeat(String value, int count) {
+		StringBuilder builder = new StringBuilder(value.length() * count);
+		for (int i = 0; i < count; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 按 POSIX ustar / GNU 格式拼装 tar 归档
+	 */
+	private static final class TarBuilder {
+
+		private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		void entry(String name, byte[] data) {
+			this.header(name, data.length, '0', false);
+			this.data(data);
+		}
+
+		void ustar(String prefix, String name, byte[] data) {
+			byte[] header = this.block(name, data.length, '0', false);
+			put(header, 345, prefix.getBytes(StandardCharsets.UTF_8));
+			this.checksum(header);
+			output.write(header, 0, header.length);
+			this.data(data);
+		}
+
+		void directory(String name) {
+			this.header(name, 0, '5', false);
+		}
+
+		void base256(String name, byte[] data) {
+			this.header(name, data.length, '0', true);
+			this.data(data);
+		}
+
+		void longName(String name) {
+			byte[] data = (name + "\0").getBytes(StandardCharsets.UTF_8);
+			this.header("././@LongLink", data.length, 'L', false);
+			this.data(data);
+		}
+
+		void pax(String records) {
+			byte[] data = records.getBytes(StandardCharsets.UTF_8);
+			this.header("PaxHeader/entry", data.length, 'x', false);
+			this.data(data);
+		}
+
+		void header(String name, long size, char type, boolean base256) {
+			byte[] header = this.block(name, size, type, base256);
+			this.checksum(header);
+			output.write(header, 0, header.length);
+		}
+
+		void data(byte[] data) {
+			output.write(data, 0, data.length);
+			int remainder = data.length % 512;
+			if (remainder != 0) {
+				output.write(new byte[512 - remainder], 0, 512 - remainder);
+			}
+		}
+
+		Path write(Path file) throws IOException {
+			// 归档结束标记：两个全 0 块
+			output.write(new byte[1024], 0, 1024);
+			try (OutputStream stream = file.toString().endsWith(".gz")
+					? new GZIPOutputStream(Files.newOutputStream(file)) : Files.newOutputStream(file)) {
+				output.writeTo(stream);
+			}
+			return file;
+		}
+
+		private byte[] block(String name, long size, char type, boolean base256) {
+			byte[] header = new byte[512];
+			byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+			assertFalse(nameBytes.length > 100, "name longer than 100 bytes");
+			put(header, 0, nameBytes);
+			put(header, 100, octal(0644, 8));
+			put(header, 108, octal(0, 8));
+			put(header, 116, octal(0, 8));
+			if (base256) {
+				header[124] = (byte) 0x80;
+				for (int i = 135; i > 124; i--, size >>>= 8) {
+					header[i] = (byte) size;
+				}
+			} else {
+				put(header, 124, octal(size, 12));
+			}
+			put(header, 136, octal(0, 12));
+			header[156] = (byte) type;
+			put(header, 257, "ustar\0".getBytes(StandardCharsets.US_ASCII));
+			put(header, 263, "00".getBytes(StandardCharsets.US_ASCII));
+			return header;
+		}
+
+		private void checksum(byte[] header) {
+			Arrays.fill(header, 148, 156, (byte) ' ');
+			long sum = 0;
+			for (byte b : header) {
+				sum += b & 0xFF;
+			}
+			put(header, 148, octal(sum, 7));
+		}
+
+		private static byte[] octal(long value, int length) {
+			String digits = Long.toOctalString(value);
+			StringBuilder builder = new StringBuilder(length);
+			for (int i = digits.length(); i < length - 1; i++) {
+				builder.append('0');
+			}
+			return builder.append(digits).append('\0').toString().getBytes(StandardCharsets.US_ASCII);
+		}
+
+		private static void put(byte[] header, int offset, byte[] value) {
+			System.arraycopy(value, 0, header, offset, value.length);
+		}
+
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.gallery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+
+/**
+ * 人脸库检索测试：HNSW 索引相对暴力扫描的召回率与删除语义
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceGalleryTest {
+
+	private static final int GALLERY_SIZE = 2000;
+	private static final int PROBES = 100;
+	private static final int TOP_K = 10;
+
+	@Test
+	public void hnswRecallAgainstFlat() {
+		// 独立同分布的高维随机向量近邻区分度最低，是 HNSW 召回率的最差情形
+		try (FaceGallery flat = gallery(FaceIndexProperties.Type.FLAT, GALLERY_SIZE);
+				FaceGallery hnsw = gallery(FaceIndexProperties.Type.HNSW, GALLERY_SIZE)) {
+			float recall = recall(flat, hnsw);
+			assertTrue(recall >= 0.8f, "HNSW recall@10 " + recall);
+			// 调大 ef-search 以时延换召回率
+			hnsw.getProperties().getIndex().setEfSearch(256);
+			float widened = recall(flat, hnsw);
+			assertTrue(widened >= 0.95f && widened >= recall, "HNSW recall@10 with ef-search 256 " + widened);
+		}
+	}
+
+	@Test
+	public void hnswFindsEnrolledFeature() {
+		try (FaceGallery hnsw = gallery(FaceIndexProperties.Type.HNSW, GALLERY_SIZE)) {
+			for (int index = 0; index < GALLERY_SIZE; index += 97) {
+				List<FaceMatch> matches = hnsw.search(SyntheticFaceRecognitionEngine.feature(index), 1, 0f);
+				assertEquals("user-" + index, matches.get(0).getUserId());
+				assertEquals(1f, matches.get(0).getScore(), 1e-3f);
+			}
+		}
+	}
+
+	@Test
+	public void removedUserIsNotReturned() {
+		try (FaceGallery hnsw = gallery(FaceIndexProperties.Type.HNSW, GALLERY_SIZE)) {
+			byte[] feature = SyntheticFaceRecognitionEngine.feature(42);
+			assertTrue(hnsw.remove("user-42"));
+			assertFalse(hnsw.remove("user-42"));
+			assertFalse(hnsw.contains("user-42"));
+			assertEquals(GALLERY_SIZE - 1, hnsw.size());
+			assertFalse(userIds(hnsw.search(feature, TOP_K, -1f)).contains("user-42"));
+			// 删除后重新注册可再次检索到
+			hnsw.enroll("user-42", feature);
+			assertEquals("user-42", hnsw.search(feature, 1, 0f).get(0).getUserId());
+			assertEquals(GALLERY_SIZE, hnsw.size());
+		}
+	}
+
+	@Test
+	public void reEnrollReplacesFeature() {
+		try (FaceGallery hnsw = gallery(FaceIndexProperties.Type.HNSW, 100)) {
+			byte[] replacement = SyntheticFaceRecognitionEngine.feature(5000);
+			hnsw.enroll("user-7", replacement);
+			assertEquals(100, hnsw.size());
+			assertEquals("user-7", hnsw.search(replacement, 1, 0f).get(0).getUserId());
+			// 旧特征不再有高分命中
+			List<FaceMatch> matches = hnsw.search(SyntheticFaceRecognitionEngine.feature(7), 1, 0f);
+			assertTrue(matches.isEmpty() || matches.get(0).getScore() < 0.5f);
+		}
+	}
+
+	@Test
+	public void searchRejectsInvalidTopK() {
+		try (FaceGallery flat = gallery(FaceIndexProperties.Type.FLAT, 10)) {
+			assertThrows(IllegalArgumentException.class,
+					() -> flat.search(SyntheticFaceRecognitionEngine.feature(1), 0, 0f));
+		}
+	}
+
+	private static float recall(FaceGallery flat, FaceGallery hnsw) {
+		int hits = 0;
+		for (int probe = 0; probe < PROBES; probe++) {
+			byte[] feature = SyntheticFaceRecognitionEngine.feature(1_000_000L + probe);
+			Set<String> expected = userIds(flat.search(feature, TOP_K, -1f));
+			for (FaceMatch match : hnsw.search(feature, TOP_K, -1f)) {
+				if (expected.contains(match.getUserId())) {
+					hits++;
+				}
+			}
+		}
+		return hits / (float) (PROBES * TOP_K);
+	}
+
+	private static FaceGallery gallery(FaceIndexProperties.Type type, int size) {
+		FaceGalleryProperties properties = new FaceGalleryProperties();
+		properties.setEnabled(true);
+		properties.getIndex().setType(type);
+		FaceGallery gallery = new FaceGallery(properties);
+		for (int index = 0; index < size; index++) {
+			gallery.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+		}
+		return gallery;
+	}
+
+	private static Set<String> userIds(List<FaceMatch> matches) {
+		Set<String> userIds = new HashSet<String>();
+		for (FaceMatch match : matches) {
+			userIds.add(match.getUserId());
+		}
+		return userIds;
+	}
+
+}
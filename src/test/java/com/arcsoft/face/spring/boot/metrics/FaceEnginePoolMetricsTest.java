@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.FaceLiveness;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.liveness.FaceLivenessProfiles;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+import com.arcsoft.face.spring.boot.pool2.FaceLivenessPools;
+import com.arcsoft.face.spring.boot.pool2.FaceRecognitionEnginePool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 引擎对象池指标测试：主对象池与活体子池按 liveness 标签分别注册
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnginePoolMetricsTest {
+
+	@Test
+	public void registersGaugesPerLivenessPool() throws Exception {
+		ArcFaceRecognitionProperties properties = new ArcFaceRecognitionProperties();
+		properties.getEngine().setType(FaceEngineProperties.Type.SYNTHETIC);
+		FaceEngineFactory factory = new FaceEngineFactory(properties);
+		FaceLivenessProfiles profiles = new FaceLivenessProfiles(properties.getLivenessProfiles());
+		MeterRegistry registry = new SimpleMeterRegistry();
+		try (FaceRecognitionEnginePool pool = new FaceRecognitionEnginePool(factory, properties.getPool2());
+				FaceLivenessPools livenessPools = new FaceLivenessPools(factory, properties.getPool2(), properties.getLivenessPools())) {
+			// 绑定前已创建的子池
+			GenericObjectPool<FaceRecognitionEngine> low = livenessPools.getPool(profiles.get(FaceLiveness.LOW));
+			new FaceEnginePoolMetrics(pool, null, livenessPools).bindTo(registry);
+			assertNotNull(registry.find("arcface.pool.active").tag("liveness", FaceEnginePoolMetrics.DEFAULT_POOL).gauge());
+			assertNotNull(registry.find("arcface.pool.waiters").tag("liveness", "low").gauge());
+			assertNull(registry.find("arcface.pool.active").tag("liveness", "high").gauge());
+
+			// 绑定后首次使用时创建的子池
+			GenericObjectPool<FaceRecognitionEngine> high = livenessPools.getPool(profiles.get(FaceLiveness.HIGH));
+			FaceRecognitionEngine engine = high.borrowObject();
+			try {
+				assertEquals(1d, registry.get("arcface.pool.active").tag("liveness", "high").gauge().value());
+				assertEquals(0d, registry.get("arcface.pool.active").tag("liveness", "low").gauge().value());
+				assertEquals(1d, registry.get("arcface.pool.created").tag("liveness", "high").functionCounter().count());
+			} finally {
+				high.returnObject(engine);
+			}
+			assertEquals(low.getMaxTotal(), registry.get("arcface.pool.max").tag("liveness", "low").gauge().value(), 0d);
+		}
+	}
+
+}
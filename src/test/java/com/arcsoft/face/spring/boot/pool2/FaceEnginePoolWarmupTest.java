@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.pool2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.engine.SyntheticEngineProperties;
+
+/**
+ * 引擎对象池预热测试：预热进行中健康检查不通过，预热完成后转为 UP，预热失败或对象池关闭时为 DOWN
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEnginePoolWarmupTest {
+
+	private static final int ENGINES = 3;
+
+	private FaceRecognitionEnginePool pool;
+	private FaceEnginePoolWarmupProperties warmupProperties;
+
+	@BeforeEach
+	public void setUp() {
+		ArcFaceRecognitionProperties properties = new ArcFaceRecognitionProperties();
+		properties.getEngine().setType(FaceEngineProperties.Type.SYNTHETIC);
+		SyntheticEngineProperties synthetic = properties.getEngine().getSynthetic();
+		synthetic.setDetectLatency(Duration.ZERO);
+		synthetic.setProcessLatency(Duration.ZERO);
+		synthetic.setExtractLatency(Duration.ZERO);
+		properties.getPool2().setMaxTotal(ENGINES);
+		pool = new FaceRecognitionEnginePool(new FaceEngineFactory(properties), properties.getPool2());
+		warmupProperties = new FaceEnginePoolWarmupProperties();
+		warmupProperties.setEngines(ENGINES);
+		warmupProperties.setParallelism(ENGINES);
+		warmupProperties.setAsync(true);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Test
+	public void healthTurnsUpWhenWarmupCompletes() throws Exception {
+		CountDownLatch warming = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		FaceEnginePoolWarmup warmup = new FaceEnginePoolWarmup(pool, warmupProperties) {
+
+			@Override
+			protected void warm(FaceRecognitionEngine faceEngine) {
+				warming.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.warm(faceEngine);
+			}
+
+		};
+		FaceEnginePoolHealthIndicator health = new FaceEnginePoolHealthIndicator(pool, warmup);
+		assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+		warmup.start();
+		assertTrue(warming.await(10, TimeUnit.SECONDS));
+		assertEquals(FaceEnginePoolWarmup.State.RUNNING, warmup.getState());
+		assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+		release.countDown();
+		assertEquals(FaceEnginePoolWarmup.State.COMPLETED, warmup.getCompletion().get(10, TimeUnit.SECONDS));
+		assertEquals(ENGINES, warmup.getCreated());
+		assertEquals(ENGINES, warmup.getWarmed());
+		assertEquals(ENGINES, pool.getNumIdle());
+		assertEquals(Status.UP, health.health().getStatus());
+
+		pool.close();
+		assertEquals(Status.DOWN, health.health().getStatus());
+	}
+
+	@Test
+	public void failedWarmupIsDown() throws Exception {
+		FaceEnginePoolWarmup warmup = new FaceEnginePoolWarmup(pool, warmupProperties) {
+
+			@Override
+			protected void warm(FaceRecognitionEngine faceEngine) {
+				throw new IllegalStateException("model load failed");
+			}
+
+		};
+		FaceEnginePoolHealthIndicator health = new FaceEnginePoolHealthIndicator(pool, warmup);
+		warmup.start();
+		assertEquals(FaceEnginePoolWarmup.State.FAILED, warmup.getCompletion().get(10, TimeUnit.SECONDS));
+		assertEquals(0, warmup.getWarmed());
+		assertEquals(Status.DOWN, health.health().getStatus());
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.select;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+
+/**
+ * 人脸选择策略测试：排序、最小尺寸、数量限制与角度过滤
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceSelectorTest {
+
+	private static final int WIDTH = 640;
+	private static final int HEIGHT = 480;
+
+	/**
+	 * 检测顺序：左上角小脸、中心中等脸、右下角大脸
+	 */
+	private final List<FaceInfo> faces = Arrays.asList(
+			face(0, 0, 0, 40, 40),
+			face(1, 280, 200, 360, 280),
+			face(2, 440, 280, 640, 480));
+
+	@Test
+	public void defaultsKeepDetectedFaces() {
+		FaceSelector selector = new FaceSelector(new FaceSelectionProperties());
+		assertSame(faces, selector.select(faces, WIDTH, HEIGHT));
+		assertFalse(selector.isAngleLimited());
+	}
+
+	@Test
+	public void largestFirstLimitedToMaxFaces() {
+		FaceSelectionProperties properties = new FaceSelectionProperties();
+		properties.setOrder(FaceSelectionProperties.Order.LARGEST);
+		properties.setMaxFaces(2);
+		assertEquals(Arrays.asList(2, 1), faceIds(new FaceSelector(properties).select(faces, WIDTH, HEIGHT)));
+	}
+
+	@Test
+	public void centerMostFirst() {
+		FaceSelectionProperties properties = new FaceSelectionProperties();
+		properties.setOrder(FaceSelectionProperties.Order.CENTER);
+		properties.setMaxFaces(1);
+		assertEquals(Arrays.asList(1), faceIds(new FaceSelector(properties).select(faces, WIDTH, HEIGHT)));
+	}
+
+	@Test
+	public void maxFacesKeepsDetectedOrder() {
+		FaceSelectionProperties properties = new FaceSelectionProperties();
+		properties.setMaxFaces(2);
+		assertEquals(Arrays.asList(0, 1), faceIds(new FaceSelector(properties).select(faces, WIDTH, HEIGHT)));
+	}
+
+	@Test
+	public void smallFacesAreFiltered() {
+		FaceSelectionProperties properties = new FaceSelectionProperties();
+		properties.setMinSize(60);
+		FaceSelector selector = new FaceSelector(properties);
+		assertEquals(Arrays.asList(1, 2), faceIds(selector.select(faces, WIDTH, HEIGHT)));
+		// 缩小一半的图像上，人脸框按原图尺寸比较
+		List<FaceInfo> scaled = Arrays.asList(face(0, 0, 0, 20, 20), face(1, 140, 100, 180, 140));
+		assertEquals(Arrays.asList(1), faceIds(selector.select(scaled, WIDTH / 2, HEIGHT / 2, 2f)));
+	}
+
+	@Test
+	public void angleLimitDefersMaxFaces() {
+		FaceSelectionProperties properties = new FaceSelectionProperties();
+		properties.setOrder(FaceSelectionProperties.Order.LARGEST);
+		properties.setMaxFaces(1);
+		properties.setMaxYaw(20f);
+		FaceSelector selector = new FaceSelector(properties);
+		assertTrue(selector.isAngleLimited());
+		// 角度过滤之前不截取人脸数
+		assertEquals(Arrays.asList(2, 1, 0), faceIds(selector.select(faces, WIDTH, HEIGHT)));
+		assertEquals(1, selector.limit(Arrays.asList(2, 1, 0)).size());
+	}
+
+	@Test
+	public void acceptByAngle() {
+		FaceSelectionProperties properties = new FaceSelectionProperties();
+		properties.setMaxYaw(20f);
+		properties.setMaxPitch(10f);
+		FaceSelector selector = new FaceSelector(properties);
+		assertTrue(selector.accept(angle(0, -15f, 5f)));
+		assertFalse(selector.accept(angle(0, 25f, 0f)));
+		assertFalse(selector.accept(angle(0, 0f, -12f)));
+		// 角度检测失败的人脸不过滤
+		assertTrue(selector.accept(angle(-1, 90f, 90f)));
+	}
+
+	private static FaceInfo face(int faceId, int left, int top, int right, int bottom) {
+		FaceInfo faceInfo = new FaceInfo(new Rect(left, top, right, bottom), 0);
+		faceInfo.setFaceId(faceId);
+		return faceInfo;
+	}
+
+	private static FaceResult angle(int status, float yaw, float pitch) {
+		FaceResult face = new FaceResult();
+		face.setAngleStatus(status);
+		face.setYaw(yaw);
+		face.setPitch(pitch);
+		return face;
+	}
+
+	private static List<Integer> faceIds(List<FaceInfo> faceInfos) {
+		List<Integer> faceIds = new ArrayList<Integer>(faceInfos.size());
+		for (FaceInfo faceInfo : faceInfos) {
+			faceIds.add(faceInfo.getFaceId());
+		}
+		return faceIds;
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+import com.arcsoft.face.spring.boot.store.FaceFeatureStoreProperties;
+import com.arcsoft.face.spring.boot.store.MappedFaceFeatureStore;
+
+/**
+ * 分片人脸库测试：与单一人脸库的 Top-K 一致性、按用户路由、特征存储重放与分片失败处理
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class ShardedFaceGalleryTest {
+
+	private static final int GALLERY_SIZE = 5000;
+	private static final int TOP_K = 10;
+
+	@TempDir
+	File directory;
+
+	@Test
+	public void topKMatchesSingleGallery() {
+		FaceGalleryProperties galleryProperties = galleryProperties();
+		try (FaceGallery single = new FaceGallery(galleryProperties);
+				ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties, new FaceShardProperties(), null)) {
+			for (int index = 0; index < GALLERY_SIZE; index++) {
+				byte[] feature = SyntheticFaceRecognitionEngine.feature(index);
+				single.enroll("user-" + index, feature);
+				sharded.enroll("user-" + index, feature);
+			}
+			assertEquals(GALLERY_SIZE, sharded.size());
+			for (FaceShard shard : sharded.getShards()) {
+				assertTrue(shard.size() > 0);
+			}
+			int identical = 0;
+			for (int probe = 0; probe < 100; probe++) {
+				// 已入库与未入库的探测特征各半
+				byte[] feature = SyntheticFaceRecognitionEngine.feature(probe % 2 == 0 ? probe * 37 : 1_000_000L + probe);
+				List<FaceMatch> expected = single.search(feature, TOP_K, -1f);
+				List<FaceMatch> actual = sharded.search(feature, TOP_K, -1f);
+				if (userIds(expected).equals(userIds(actual))) {
+					identical++;
+				}
+			}
+			assertEquals(100, identical);
+		}
+	}
+
+	@Test
+	public void enrollAndRemoveAreRouted() {
+		try (ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties(), new FaceShardProperties(), null)) {
+			for (int index = 0; index < 100; index++) {
+				sharded.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+			}
+			int shard = sharded.shardOf("user-7");
+			LocalFaceShard local = (LocalFaceShard) sharded.getShards().get(shard);
+			assertTrue(local.getGallery().contains("user-7"));
+			assertTrue(sharded.remove("user-7"));
+			assertFalse(local.getGallery().contains("user-7"));
+			assertFalse(sharded.remove("user-7"));
+			assertEquals(99, sharded.size());
+			List<FaceMatch> matches = sharded.search(SyntheticFaceRecognitionEngine.feature(7), 1, 0.5f);
+			assertTrue(matches.isEmpty());
+		}
+	}
+
+	@Test
+	public void storeIsReplayedToShards() throws IOException {
+		File file = new File(directory, "features.dat");
+		FaceFeatureStoreProperties storeProperties = new FaceFeatureStoreProperties();
+		storeProperties.setFeatureSize(SyntheticFaceRecognitionEngine.feature(0).length);
+		storeProperties.setRecordsPerSegment(64);
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(file, storeProperties)) {
+			try (ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties(), new FaceShardProperties(), null)) {
+				sharded.setStore(store);
+				for (int index = 0; index < 200; index++) {
+					sharded.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+				}
+				sharded.remove("user-3");
+				assertEquals(201, store.count());
+				// 绕过分片写入存储的记录由 refresh 增量重放
+				store.put("user-200", SyntheticFaceRecognitionEngine.feature(200));
+				store.delete("user-4");
+				assertEquals(2, sharded.refresh());
+				assertEquals(199, sharded.size());
+			}
+			// 模拟重启后从存储恢复
+			try (ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties(), new FaceShardProperties(), null)) {
+				sharded.setStore(store);
+				assertEquals(203, sharded.load());
+				assertEquals(199, sharded.size());
+				assertEquals("user-200", sharded.search(SyntheticFaceRecognitionEngine.feature(200), 1, 0f).get(0).getUserId());
+				assertTrue(sharded.search(SyntheticFaceRecognitionEngine.feature(4), 1, 0.5f).isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void invalidArgumentsAreRejected() {
+		FaceShardProperties properties = new FaceShardProperties();
+		properties.setShards(0);
+		assertThrows(IllegalArgumentException.class, () -> ShardedFaceGallery.local(galleryProperties(), properties, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> new ShardedFaceGallery(Collections.<FaceShard>emptyList(), galleryProperties(), new FaceShardProperties()));
+		try (ShardedFaceGallery sharded = ShardedFaceGallery.local(galleryProperties(), new FaceShardProperties(), null)) {
+			assertThrows(IllegalArgumentException.class, () -> sharded.search(SyntheticFaceRecognitionEngine.feature(1), 0, 0f));
+			assertThrows(IllegalArgumentException.class, () -> sharded.enroll(null, SyntheticFaceRecognitionEngine.feature(1)));
+		}
+	}
+
+	@Test
+	public void slowShardFailsOrReturnsPartialResult() {
+		FaceGalleryProperties galleryProperties = galleryProperties();
+		FaceGallery gallery = new FaceGallery(galleryProperties);
+		gallery.enroll("user-1", SyntheticFaceRecognitionEngine.feature(1));
+		List<FaceShard> shards = new ArrayList<FaceShard>();
+		shards.add(new LocalFaceShard(gallery));
+		shards.add(new SlowFaceShard());
+		FaceShardProperties properties = new FaceShardProperties();
+		properties.setTimeout(Duration.ofMillis(100));
+		try (ShardedFaceGallery sharded = new ShardedFaceGallery(shards, galleryProperties, properties)) {
+			assertThrows(IllegalStateException.class, () -> sharded.search(SyntheticFaceRecognitionEngine.feature(1), 1, 0f));
+			properties.setAllowPartial(true);
+			List<FaceMatch> matches = sharded.search(SyntheticFaceRecognitionEngine.feature(1), 1, 0f);
+			assertEquals("user-1", matches.get(0).getUserId());
+		}
+	}
+
+	private static FaceGalleryProperties galleryProperties() {
+		FaceGalleryProperties properties = new FaceGalleryProperties();
+		properties.setEnabled(true);
+		properties.setParallelism(1);
+		return properties;
+	}
+
+	private static List<String> userIds(List<FaceMatch> matches) {
+		List<String> userIds = new ArrayList<String>(matches.size());
+		for (FaceMatch match : matches) {
+			userIds.add(match.getUserId());
+		}
+		return userIds;
+	}
+
+	/**
+	 * 超时的分片
+	 */
+	private static final class SlowFaceShard implements FaceShard {
+
+		@Override
+		public void enroll(String userId, byte[] featureData) {
+		}
+
+		@Override
+		public boolean remove(String userId) {
+			return false;
+		}
+
+		@Override
+		public List<FaceMatch> search(byte[] probe, int topK, float threshold) {
+			try {
+				Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Collections.emptyList();
+		}
+
+		@Override
+		public int size() {
+			return 0;
+		}
+
+	}
+
+}
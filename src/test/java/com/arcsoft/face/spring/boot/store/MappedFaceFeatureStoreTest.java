@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.arcsoft.face.spring.boot.engine.SyntheticFaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+
+/**
+ * 内存映射特征存储测试：重新打开、只读跟随、布局与文件头校验，以及人脸库从存储恢复
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class MappedFaceFeatureStoreTest {
+
+	private static final int FEATURE_SIZE = 16;
+
+	@TempDir
+	File directory;
+
+	@Test
+	public void reopenReplaysPutAndDelete() throws IOException {
+		File file = new File(directory, "features.dat");
+		FaceFeatureStoreProperties properties = properties(FEATURE_SIZE, 4);
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(file, properties)) {
+			// 跨越多个映射段
+			for (int index = 0; index < 10; index++) {
+				store.put("user-" + index, feature(index));
+			}
+			store.delete("user-3");
+			store.put("user-5", feature(50));
+		}
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(file, properties)) {
+			assertEquals(12, store.count());
+			Map<String, byte[]> replayed = replay(store, 0);
+			assertEquals(9, replayed.size());
+			assertFalse(replayed.containsKey("user-3"));
+			assertArrayEquals(feature(50), replayed.get("user-5"));
+			assertArrayEquals(feature(9), replayed.get("user-9"));
+			// 重新打开后继续追加
+			store.put("user-3", feature(30));
+			assertEquals(13, store.count());
+			assertArrayEquals(feature(30), replay(store, 12).get("user-3"));
+		}
+	}
+
+	@Test
+	public void readOnlyStoreFollowsWriter() throws IOException {
+		File file = new File(directory, "features.dat");
+		FaceFeatureStoreProperties properties = properties(FEATURE_SIZE, 4);
+		FaceFeatureStoreProperties readOnly = properties(FEATURE_SIZE, 4);
+		readOnly.setReadOnly(true);
+		try (MappedFaceFeatureStore writer = new MappedFaceFeatureStore(file, properties)) {
+			writer.put("user-0", feature(0));
+			try (MappedFaceFeatureStore reader = new MappedFaceFeatureStore(file, readOnly)) {
+				assertTrue(reader.isReadOnly());
+				assertEquals(1, reader.count());
+				for (int index = 1; index < 7; index++) {
+					writer.put("user-" + index, feature(index));
+				}
+				// 只读方从上次位置增量重放写入方的新记录
+				assertEquals(7, reader.count());
+				Map<String, byte[]> replayed = replay(reader, 1);
+				assertEquals(6, replayed.size());
+				assertArrayEquals(feature(6), replayed.get("user-6"));
+				assertThrows(IllegalStateException.class, () -> reader.put("user-7", feature(7)));
+			}
+		}
+	}
+
+	@Test
+	public void secondWriterIsRejected() throws IOException {
+		File file = new File(directory, "features.dat");
+		try (MappedFaceFeatureStore writer = new MappedFaceFeatureStore(file, properties(FEATURE_SIZE, 4))) {
+			assertThrows(IOException.class, () -> new MappedFaceFeatureStore(file, properties(FEATURE_SIZE, 4)));
+		}
+	}
+
+	@Test
+	public void readOnlyStoreRequiresInitializedFile() throws IOException {
+		File file = new File(directory, "empty.dat");
+		assertTrue(file.createNewFile());
+		FaceFeatureStoreProperties readOnly = properties(FEATURE_SIZE, 4);
+		readOnly.setReadOnly(true);
+		assertThrows(IOException.class, () -> new MappedFaceFeatureStore(file, readOnly));
+	}
+
+	@Test
+	public void invalidLayoutIsRejected() {
+		File file = new File(directory, "features.dat");
+		FaceFeatureStoreProperties userId = properties(FEATURE_SIZE, 4);
+		userId.setUserIdMaxBytes(MappedFaceFeatureStore.MAX_USER_ID_SIZE + 1);
+		assertThrows(IllegalArgumentException.class, () -> new MappedFaceFeatureStore(file, userId));
+		FaceFeatureStoreProperties segment = properties(FEATURE_SIZE, Integer.MAX_VALUE / 16);
+		assertThrows(IllegalArgumentException.class, () -> new MappedFaceFeatureStore(file, segment));
+		FaceFeatureStoreProperties records = properties(FEATURE_SIZE, 0);
+		assertThrows(IllegalArgumentException.class, () -> new MappedFaceFeatureStore(file, records));
+		// 校验失败时不创建文件
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void userIdLongerThanLayoutIsRejected() throws IOException {
+		FaceFeatureStoreProperties properties = properties(FEATURE_SIZE, 4);
+		properties.setUserIdMaxBytes(4);
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(new File(directory, "features.dat"), properties)) {
+			assertThrows(IllegalArgumentException.class, () -> store.put("user-0", feature(0)));
+			assertThrows(IllegalArgumentException.class, () -> store.put("u", new byte[FEATURE_SIZE + 1]));
+			assertEquals(0, store.count());
+		}
+	}
+
+	@Test
+	public void corruptedHeaderIsRejected() throws IOException {
+		File file = new File(directory, "features.dat");
+		FaceFeatureStoreProperties properties = properties(FEATURE_SIZE, 4);
+		new MappedFaceFeatureStore(file, properties).close();
+		// 文件头中的 userId 长度被破坏
+		try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+			raw.seek(12);
+			raw.writeInt(0);
+		}
+		IOException header = assertThrows(IOException.class, () -> new MappedFaceFeatureStore(file, properties));
+		assertTrue(header.getMessage().startsWith("Corrupted face feature store header"));
+		// 魔数被破坏
+		try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+			raw.seek(0);
+			raw.writeInt(0);
+		}
+		assertThrows(IOException.class, () -> new MappedFaceFeatureStore(file, properties));
+	}
+
+	@Test
+	public void featureSizeMismatchIsRejected() throws IOException {
+		File file = new File(directory, "features.dat");
+		new MappedFaceFeatureStore(file, properties(FEATURE_SIZE, 4)).close();
+		assertThrows(IOException.class, () -> new MappedFaceFeatureStore(file, properties(FEATURE_SIZE * 2, 4)));
+	}
+
+	@Test
+	public void compactKeepsLatestRecords() throws IOException {
+		File file = new File(directory, "features.dat");
+		File compacted = new File(directory, "compacted.dat");
+		FaceFeatureStoreProperties properties = properties(FEATURE_SIZE, 4);
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(file, properties)) {
+			for (int index = 0; index < 6; index++) {
+				store.put("user-" + (index % 3), feature(index));
+			}
+			store.delete("user-1");
+			store.compactTo(compacted, properties);
+		}
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(compacted, properties)) {
+			assertEquals(2, store.count());
+			Map<String, byte[]> replayed = replay(store, 0);
+			assertArrayEquals(feature(3), replayed.get("user-0"));
+			assertArrayEquals(feature(5), replayed.get("user-2"));
+		}
+	}
+
+	@Test
+	public void galleryRecoversFromStore() throws IOException {
+		File file = new File(directory, "gallery.dat");
+		FaceGalleryProperties galleryProperties = new FaceGalleryProperties();
+		galleryProperties.setEnabled(true);
+		int featureSize = SyntheticFaceRecognitionEngine.feature(0).length;
+		FaceFeatureStoreProperties properties = properties(featureSize, 64);
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(file, properties);
+				FaceGallery gallery = new FaceGallery(galleryProperties)) {
+			gallery.setStore(store);
+			for (int index = 0; index < 100; index++) {
+				gallery.enroll("user-" + index, SyntheticFaceRecognitionEngine.feature(index));
+			}
+			gallery.remove("user-10");
+		}
+		// 模拟进程重启
+		try (MappedFaceFeatureStore store = new MappedFaceFeatureStore(file, properties);
+				FaceGallery gallery = new FaceGallery(galleryProperties)) {
+			gallery.setStore(store);
+			assertEquals(101, gallery.load());
+			assertEquals(99, gallery.size());
+			assertFalse(gallery.contains("user-10"));
+			assertEquals("user-42", gallery.search(SyntheticFaceRecognitionEngine.feature(42), 1, 0f).get(0).getUserId());
+		}
+	}
+
+	private static FaceFeatureStoreProperties properties(int featureSize, int recordsPerSegment) {
+		FaceFeatureStoreProperties properties = new FaceFeatureStoreProperties();
+		properties.setEnabled(true);
+		properties.setFeatureSize(featureSize);
+		properties.setRecordsPerSegment(recordsPerSegment);
+		return properties;
+	}
+
+	private static byte[] feature(int seed) {
+		byte[] feature = new byte[FEATURE_SIZE];
+		for (int i = 0; i < feature.length; i++) {
+			feature[i] = (byte) (seed * 31 + i);
+		}
+		return feature;
+	}
+
+	private static Map<String, byte[]> replay(FaceFeatureStore store, long fromRecord) {
+		final Map<String, byte[]> replayed = new LinkedHashMap<String, byte[]>();
+		store.replay(fromRecord, new FaceFeatureStore.RecordVisitor() {
+
+			@Override
+			public void put(String userId, byte[] featureData) {
+				replayed.put(userId, featureData);
+			}
+
+			@Override
+			public void delete(String userId) {
+				replayed.remove(userId);
+			}
+
+		});
+		return replayed;
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.FaceInfo;
+import com.arcsoft.face.Rect;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.result.ArcFaceResult;
+import com.arcsoft.face.spring.boot.result.DetectResult;
+import com.arcsoft.face.spring.boot.result.FaceResult;
+import com.arcsoft.face.toolkit.ImageInfo;
+
+/**
+ * 视频流会话测试：跨帧复用缓存结果、质量提升时刷新以及丢失人脸的过期
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceStreamSessionTest {
+
+	private final StubProcessor processor = new StubProcessor();
+	private final List<FaceStreamSession> closed = new ArrayList<FaceStreamSession>();
+
+	@Test
+	public void trackedFacesReuseCachedResults() {
+		FaceStreamSession session = this.open(new FaceStreamProperties());
+		processor.faces = Arrays.asList(face(1, 0, 0, 100, 100), face(2, 200, 200, 260, 260));
+
+		DetectResult first = session.process(null);
+		assertEquals(2, first.getFaces().size());
+		assertEquals(2, session.getRefreshes());
+		assertEquals(0, session.getReuses());
+
+		// 同一人脸轻微移动：不再处理，沿用缓存的特征，位置取自当前帧
+		processor.faces = Arrays.asList(face(1, 10, 10, 110, 110), face(2, 205, 205, 265, 265));
+		DetectResult second = session.process(null);
+		assertEquals(1, processor.calls);
+		assertEquals(2, session.getRefreshes());
+		assertEquals(2, session.getReuses());
+		assertEquals(2, session.getTrackCount());
+		FaceResult moved = second.getFaces().get(0);
+		assertEquals(10, moved.getLeft());
+		assertSame(first.getFaces().get(0).getFeature(), moved.getFeature());
+	}
+
+	@Test
+	public void qualityGainRefreshesTrack() {
+		FaceStreamProperties properties = new FaceStreamProperties();
+		properties.setQualityGain(1.5f);
+		FaceStreamSession session = this.open(properties);
+
+		processor.faces = Collections.singletonList(face(1, 0, 0, 100, 100));
+		session.process(null);
+		// 面积 1.21 倍，低于阈值
+		processor.faces = Collections.singletonList(face(1, 0, 0, 110, 110));
+		session.process(null);
+		assertEquals(1, session.getRefreshes());
+		// 面积 1.69 倍，重新处理
+		processor.faces = Collections.singletonList(face(1, 0, 0, 130, 130));
+		session.process(null);
+		assertEquals(2, session.getRefreshes());
+		assertEquals(2, processor.calls);
+		assertEquals(1, session.getReuses());
+	}
+
+	@Test
+	public void missingFacesExpireAfterMaxMissedFrames() {
+		FaceStreamProperties properties = new FaceStreamProperties();
+		properties.setMaxMissedFrames(2);
+		FaceStreamSession session = this.open(properties);
+
+		processor.faces = Arrays.asList(face(1, 0, 0, 100, 100), face(2, 200, 200, 260, 260));
+		session.process(null);
+		processor.faces = Collections.singletonList(face(1, 0, 0, 100, 100));
+		session.process(null);
+		session.process(null);
+		assertEquals(2, session.getTrackCount());
+		// 人脸 2 连续丢失 3 帧
+		session.process(null);
+		assertEquals(1, session.getTrackCount());
+
+		// 检测失败的帧同样计入丢失帧数
+		processor.faces = null;
+		for (int i = 0; i < 3; i++) {
+			session.process(null);
+		}
+		assertEquals(0, session.getTrackCount());
+		assertEquals(7, session.getFrames());
+
+		// 过期后再次出现按新人脸处理
+		processor.faces = Collections.singletonList(face(2, 200, 200, 260, 260));
+		session.process(null);
+		assertEquals(3, session.getRefreshes());
+	}
+
+	@Test
+	public void resetAndCloseClearTracks() {
+		FaceStreamSession session = this.open(new FaceStreamProperties());
+		processor.faces = Collections.singletonList(face(1, 0, 0, 100, 100));
+		session.process(null);
+		session.reset();
+		assertEquals(0, session.getTrackCount());
+		session.process(null);
+		assertEquals(2, session.getRefreshes());
+
+		session.close();
+		session.close();
+		assertTrue(session.isClosed());
+		assertEquals(0, session.getTrackCount());
+		assertEquals(Collections.singletonList(session), closed);
+		assertThrows(IllegalStateException.class, () -> session.process(null));
+	}
+
+	private FaceStreamSession open(FaceStreamProperties properties) {
+		return new FaceStreamSession(null, processor, properties, closed::add);
+	}
+
+	private static FaceInfo face(int faceId, int left, int top, int right, int bottom) {
+		FaceInfo faceInfo = new FaceInfo(new Rect(left, top, right, bottom), 0);
+		faceInfo.setFaceId(faceId);
+		return faceInfo;
+	}
+
+	/**
+	 * 返回预设人脸的帧处理器，每次处理为人脸生成新的特征以便区分
+	 */
+	private static final class StubProcessor implements FaceFrameProcessor {
+
+		private List<FaceInfo> faces;
+		private int calls;
+
+		@Override
+		public void prepare(FaceRecognitionEngine faceEngine) {
+		}
+
+		@Override
+		public List<FaceInfo> detect(FaceRecognitionEngine faceEngine, ImageInfo frame, ArcFaceResult result) {
+			return faces;
+		}
+
+		@Override
+		public List<FaceResult> process(FaceRecognitionEngine faceEngine, ImageInfo frame, List<FaceInfo> faceInfos,
+				ArcFaceResult result) {
+			calls++;
+			List<FaceResult> processed = new ArrayList<FaceResult>(faceInfos.size());
+			for (FaceInfo faceInfo : faceInfos) {
+				FaceResult face = new FaceResult(faceInfo);
+				face.setFeature(new byte[] { (byte) calls });
+				processed.add(face);
+			}
+			return processed;
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.gallery.FaceGallery;
+import com.arcsoft.face.spring.boot.gallery.FaceGalleryProperties;
+import com.arcsoft.face.spring.boot.gallery.FaceMatch;
+
+/**
+ * int8 量化测试：紧凑编码往返、量化误差上界与相对 float 检索的召回率
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceFeatureQuantizerTest {
+
+	private static final int DIMENSION = FaceFeatureUtils.DEFAULT_DIMENSION;
+
+	@Test
+	public void compactRoundTrip() {
+		Random random = new Random(7);
+		for (int n = 0; n < 100; n++) {
+			byte[] featureData = FaceFeatureUtils.toFeatureData(n, gaussian(random, 3f), 0, DIMENSION);
+			byte[] compact = FaceFeatureQuantizer.encode(featureData);
+			assertEquals(FaceFeatureQuantizer.COMPACT_HEADER_SIZE + DIMENSION, compact.length);
+			byte[] decoded = FaceFeatureQuantizer.decode(compact);
+			assertEquals(featureData.length, decoded.length);
+			assertEquals(FaceFeatureUtils.header(featureData), FaceFeatureUtils.header(decoded));
+			assertTrue(FaceFeatureUtils.cosine(featureData, decoded) > 0.9999f);
+			// 模长一并保留，误差不超过量化误差向量的模长
+			float norm = FaceFeatureUtils.norm(FaceFeatureUtils.toVector(featureData), 0, DIMENSION);
+			float scale = ByteBuffer.wrap(compact, FaceFeatureUtils.HEADER_SIZE + 4, 4).order(ByteOrder.LITTLE_ENDIAN).getFloat();
+			float bound = norm * scale / 2 * (float) Math.sqrt(DIMENSION);
+			assertEquals(norm, FaceFeatureUtils.norm(FaceFeatureUtils.toVector(decoded), 0, DIMENSION), bound);
+		}
+	}
+
+	@Test
+	public void quantizationErrorIsBounded() {
+		Random random = new Random(11);
+		byte[] codes = new byte[DIMENSION];
+		float[] restored = new float[DIMENSION];
+		for (int n = 0; n < 100; n++) {
+			float[] vector = gaussian(random, 1f);
+			FaceFeatureUtils.normalize(vector, 0, DIMENSION);
+			float scale = FaceFeatureQuantizer.quantize(vector, 0, codes, 0, DIMENSION);
+			int maxCode = 0;
+			for (byte code : codes) {
+				maxCode = Math.max(maxCode, Math.abs(code));
+			}
+			assertEquals(127, maxCode);
+			// 每一维的误差不超过半个量化步长
+			FaceFeatureQuantizer.dequantize(codes, 0, scale, restored, 0, DIMENSION);
+			for (int i = 0; i < DIMENSION; i++) {
+				assertTrue(Math.abs(vector[i] - restored[i]) <= scale / 2 + 1e-6f);
+			}
+			// 非对称内积的误差不超过 sum(|q|) * 步长 / 2
+			float[] query = gaussian(random, 1f);
+			FaceFeatureUtils.normalize(query, 0, DIMENSION);
+			float bound = 0f;
+			for (float q : query) {
+				bound += Math.abs(q);
+			}
+			bound = bound * scale / 2 + 1e-5f;
+			float exact = FaceFeatureUtils.dot(query, 0, vector, 0, DIMENSION);
+			assertTrue(Math.abs(exact - FaceFeatureQuantizer.dot(query, 0, codes, 0, DIMENSION) * scale) <= bound);
+			short[] shortQuery = new short[DIMENSION];
+			float queryScale = FaceFeatureQuantizer.quantizeQuery(query, 0, shortQuery, 0, DIMENSION);
+			float shortDot = FaceFeatureQuantizer.dot(shortQuery, 0, codes, 0, DIMENSION) * queryScale * scale;
+			assertTrue(Math.abs(exact - shortDot) <= bound + 1e-3f);
+		}
+	}
+
+	@Test
+	public void zeroVectorQuantizesToZero() {
+		byte[] codes = new byte[DIMENSION];
+		assertEquals(0f, FaceFeatureQuantizer.quantize(new float[DIMENSION], 0, codes, 0, DIMENSION));
+		for (byte code : codes) {
+			assertEquals(0, code);
+		}
+		assertEquals(0f, FaceFeatureQuantizer.quantizeQuery(new float[DIMENSION], 0, new short[DIMENSION], 0, DIMENSION));
+	}
+
+	@Test
+	public void invalidCompactIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> FaceFeatureQuantizer.decode(null));
+		assertThrows(IllegalArgumentException.class,
+				() -> FaceFeatureQuantizer.decode(new byte[FaceFeatureQuantizer.COMPACT_HEADER_SIZE]));
+	}
+
+	/*
+	 * 20000 个随机特征、200 个加噪探测特征，以 FLOAT 检索结果为基准，实测 recall@10 为 0.987
+	 */
+	@Test
+	public void int8RecallAgainstFloat() {
+		int size = 20000;
+		int probes = 200;
+		int topK = 10;
+		Random random = new Random(1);
+		List<byte[]> features = new ArrayList<byte[]>(size);
+		for (int n = 0; n < size; n++) {
+			features.add(FaceFeatureUtils.toFeatureData(0L, gaussian(random, 1f), 0, DIMENSION));
+		}
+		try (FaceGallery exact = gallery(FaceGalleryProperties.Encoding.FLOAT, features);
+				FaceGallery quantized = gallery(FaceGalleryProperties.Encoding.INT8, features)) {
+			int hits = 0;
+			int top1 = 0;
+			for (int n = 0; n < probes; n++) {
+				float[] vector = FaceFeatureUtils.toVector(features.get(random.nextInt(size)));
+				for (int i = 0; i < DIMENSION; i++) {
+					vector[i] += (float) random.nextGaussian() * 0.8f;
+				}
+				byte[] probe = FaceFeatureUtils.toFeatureData(0L, vector, 0, DIMENSION);
+				List<FaceMatch> expected = exact.search(probe, topK, -1f);
+				List<FaceMatch> actual = quantized.search(probe, topK, -1f);
+				Set<String> userIds = new HashSet<String>();
+				for (FaceMatch match : expected) {
+					userIds.add(match.getUserId());
+				}
+				for (FaceMatch match : actual) {
+					if (userIds.contains(match.getUserId())) {
+						hits++;
+					}
+				}
+				if (expected.get(0).getUserId().equals(actual.get(0).getUserId())) {
+					top1++;
+				}
+				assertEquals(expected.get(0).getScore(), actual.get(0).getScore(), 0.005f);
+			}
+			float recall = hits / (float) (probes * topK);
+			assertTrue(recall >= 0.98f, "INT8 recall@10 " + recall);
+			assertEquals(probes, top1);
+		}
+	}
+
+	private static FaceGallery gallery(FaceGalleryProperties.Encoding encoding, List<byte[]> features) {
+		FaceGalleryProperties properties = new FaceGalleryProperties();
+		properties.setParallelism(1);
+		properties.setEncoding(encoding);
+		FaceGallery gallery = new FaceGallery(properties);
+		for (int n = 0; n < features.size(); n++) {
+			gallery.enroll("user-" + n, features.get(n));
+		}
+		return gallery;
+	}
+
+	private static float[] gaussian(Random random, float sigma) {
+		float[] vector = new float[DIMENSION];
+		for (int i = 0; i < DIMENSION; i++) {
+			vector[i] = (float) random.nextGaussian() * sigma;
+		}
+		return vector;
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018, hiwepy (https://github.com/hiwepy).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.arcsoft.face.spring.boot.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.arcsoft.face.spring.boot.ArcFaceRecognitionProperties;
+import com.arcsoft.face.spring.boot.admission.FaceDeadline;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException;
+import com.arcsoft.face.spring.boot.admission.FaceOverloadedException.Reason;
+import com.arcsoft.face.spring.boot.engine.FaceEngineProperties;
+import com.arcsoft.face.spring.boot.engine.FaceRecognitionEngine;
+import com.arcsoft.face.spring.boot.pool2.FaceEngineFactory;
+
+/**
+ * 工作线程测试：线程绑定、队列已满与调用期限的拒绝路径
+ * @author ： <a href="https://github.com/hiwepy">wandl</a>
+ */
+public class FaceEngineWorkersTest {
+
+	private FaceEngineWorkers workers;
+	private CountDownLatch running;
+	private CountDownLatch release;
+
+	@BeforeEach
+	public void setUp() throws InterruptedException {
+		ArcFaceRecognitionProperties properties = new ArcFaceRecognitionProperties();
+		properties.getEngine().setType(FaceEngineProperties.Type.SYNTHETIC);
+		FaceEngineWorkerProperties workerProperties = properties.getWorkers();
+		workerProperties.setSize(1);
+		workerProperties.setQueueCapacity(1);
+		workers = new FaceEngineWorkers(new FaceEngineFactory(properties), workerProperties);
+		workers.start();
+		running = new CountDownLatch(1);
+		release = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		release.countDown();
+		workers.close();
+	}
+
+	@Test
+	public void executeRunsOnWorkerThread() throws Exception {
+		assertFalse(workers.isCurrentWorker());
+		FaceRecognitionEngine engine = workers.execute(faceEngine -> {
+			assertTrue(workers.isCurrentWorker());
+			// 嵌套调用直接使用当前引擎
+			assertSame(faceEngine, workers.execute(nested -> nested));
+			return faceEngine;
+		});
+		assertSame(engine, workers.execute(faceEngine -> faceEngine));
+	}
+
+	@Test
+	public void callbackExceptionIsPropagated() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> workers.execute(faceEngine -> {
+			throw new IllegalArgumentException("invalid");
+		}));
+		assertEquals("invalid", e.getMessage());
+	}
+
+	@Test
+	public void fullQueueIsRejected() throws Exception {
+		CompletableFuture<Integer> blocking = this.block();
+		CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> this.call(2));
+		awaitPending(1);
+		FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> workers.execute(faceEngine -> 3));
+		assertEquals(Reason.QUEUE_FULL, e.getReason());
+		assertEquals(1, workers.getRejected());
+		release.countDown();
+		assertEquals(1, blocking.get(5, TimeUnit.SECONDS));
+		assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+		assertEquals(0, workers.getPending());
+	}
+
+	@Test
+	public void expiredDeadlineIsRejectedBeforeDispatch() {
+		try (FaceDeadline.Scope scope = FaceDeadline.within(Duration.ZERO)) {
+			FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> workers.execute(faceEngine -> 1));
+			assertEquals(Reason.DEADLINE, e.getReason());
+		}
+		assertEquals(0, workers.getRejected());
+	}
+
+	@Test
+	public void deadlineExpiresWhileQueued() throws Exception {
+		CompletableFuture<Integer> blocking = this.block();
+		long started = System.nanoTime();
+		try (FaceDeadline.Scope scope = FaceDeadline.within(Duration.ofMillis(50))) {
+			FaceOverloadedException e = assertThrows(FaceOverloadedException.class, () -> workers.execute(faceEngine -> 2));
+			assertEquals(Reason.DEADLINE, e.getReason());
+		}
+		assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+		// 撤销的任务不占用队列
+		assertEquals(0, workers.getPending());
+		release.countDown();
+		assertEquals(1, blocking.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void runningTaskIsAwaitedPastDeadline() throws Exception {
+		AtomicBoolean finished = new AtomicBoolean();
+		try (FaceDeadline.Scope scope = FaceDeadline.within(Duration.ofMillis(50))) {
+			// 已开始执行的原生调用不能被撤销，调用方等待其完成后才返回
+			int value = workers.execute(faceEngine -> {
+				Thread.sleep(200);
+				finished.set(true);
+				return 1;
+			});
+			assertEquals(1, value);
+			assertTrue(finished.get());
+		}
+		assertEquals(0, workers.getPending());
+	}
+
+	@Test
+	public void closedWorkersRejectCalls() {
+		workers.close();
+		assertFalse(workers.isRunning());
+		RejectedExecutionException e = assertThrows(RejectedExecutionException.class, () -> workers.execute(faceEngine -> 1));
+		assertFalse(e instanceof FaceOverloadedException);
+	}
+
+	/*
+	 * 占住唯一的工作线程，直到 release 放行
+	 */
+	private CompletableFuture<Integer> block() throws InterruptedException {
+		CompletableFuture<Integer> blocking = CompletableFuture.supplyAsync(() -> this.call(1));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		return blocking;
+	}
+
+	private int call(int value) {
+		try {
+			return workers.execute(faceEngine -> {
+				if (value == 1) {
+					running.countDown();
+					release.await();
+				}
+				return value;
+			});
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void awaitPending(int pending) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (workers.getPending() < pending && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(pending, workers.getPending());
+	}
+
+}